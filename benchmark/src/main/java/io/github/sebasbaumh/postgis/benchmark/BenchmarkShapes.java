@@ -0,0 +1,204 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.benchmark;
+
+import java.util.ArrayList;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.GeometryCollection;
+import io.github.sebasbaumh.postgis.LineString;
+import io.github.sebasbaumh.postgis.LinearRing;
+import io.github.sebasbaumh.postgis.MultiLineString;
+import io.github.sebasbaumh.postgis.MultiPoint;
+import io.github.sebasbaumh.postgis.MultiPolygon;
+import io.github.sebasbaumh.postgis.Point;
+import io.github.sebasbaumh.postgis.Polygon;
+
+/**
+ * Shapes used as input for the benchmarks. They are built deterministically, so results of different runs can be
+ * compared.
+ * @author Sebastian Baumhekel
+ */
+public enum BenchmarkShapes
+{
+	/**
+	 * A single 2d point.
+	 */
+	POINT
+	{
+		@Override
+		public Geometry create()
+		{
+			Point p = new Point(13.4050, 52.5200);
+			p.setSrid(SRID);
+			return p;
+		}
+	},
+	/**
+	 * A 2d line string with 10000 vertices.
+	 */
+	LINESTRING_10K
+	{
+		@Override
+		public Geometry create()
+		{
+			LineString ls = createLine(10000, 0, 0);
+			ls.setSrid(SRID);
+			return ls;
+		}
+	},
+	/**
+	 * A polygon with a large outer ring and 100 holes.
+	 */
+	POLYGON_HOLES
+	{
+		@Override
+		public Geometry create()
+		{
+			Polygon poly = createPolygon(0, 0, 1000, 100);
+			poly.setSrid(SRID);
+			return poly;
+		}
+	},
+	/**
+	 * A 3d geometry collection containing multi geometries and another nested geometry collection.
+	 */
+	NESTED_COLLECTION
+	{
+		@Override
+		public Geometry create()
+		{
+			ArrayList<Polygon> polys = new ArrayList<Polygon>();
+			ArrayList<LineString> lines = new ArrayList<LineString>();
+			ArrayList<Point> points = new ArrayList<Point>();
+			for (int i = 0; i < 10; i++)
+			{
+				polys.add(to3d(createPolygon(i * 1000, 0, 64, 4)));
+				lines.add(to3d(createLine(100, i * 1000, 5000)));
+				points.add(new Point(i, i * 2, i * 3));
+			}
+			GeometryCollection inner = new GeometryCollection();
+			inner.add(new MultiPoint(points));
+			inner.add(new MultiLineString(lines));
+			GeometryCollection outer = new GeometryCollection();
+			outer.add(new MultiPolygon(polys));
+			outer.add(inner);
+			outer.setSrid(SRID);
+			return outer;
+		}
+	};
+
+	/**
+	 * SRID used for all shapes.
+	 */
+	private static final int SRID = 4326;
+
+	/**
+	 * Creates a line string resembling a trace with the given number of vertices.
+	 * @param numPoints number of vertices
+	 * @param x0 start x coordinate
+	 * @param y0 start y coordinate
+	 * @return {@link LineString}
+	 */
+	private static LineString createLine(int numPoints, double x0, double y0)
+	{
+		LineString ls = new LineString();
+		for (int i = 0; i < numPoints; i++)
+		{
+			ls.add(new Point(x0 + i * 0.5, y0 + Math.sin(i * 0.01) * 100));
+		}
+		return ls;
+	}
+
+	/**
+	 * Creates a closed ring approximating a circle.
+	 * @param cx center x coordinate
+	 * @param cy center y coordinate
+	 * @param radius radius
+	 * @param numPoints number of distinct vertices
+	 * @return {@link LinearRing}
+	 */
+	private static LinearRing createRing(double cx, double cy, double radius, int numPoints)
+	{
+		LinearRing ring = new LinearRing();
+		for (int i = 0; i < numPoints; i++)
+		{
+			double angle = 2 * Math.PI * i / numPoints;
+			ring.add(new Point(cx + Math.cos(angle) * radius, cy + Math.sin(angle) * radius));
+		}
+		ring.close();
+		return ring;
+	}
+
+	/**
+	 * Creates a polygon with holes placed on a grid inside of the outer ring.
+	 * @param cx center x coordinate
+	 * @param cy center y coordinate
+	 * @param numPoints number of vertices of the outer ring
+	 * @param numHoles number of holes (should be a square number)
+	 * @return {@link Polygon}
+	 */
+	private static Polygon createPolygon(double cx, double cy, int numPoints, int numHoles)
+	{
+		double radius = 400;
+		Polygon poly = new Polygon(createRing(cx, cy, radius, numPoints));
+		// place holes on a grid inside the bounding square of the inner circle
+		int n = (int) Math.ceil(Math.sqrt(numHoles));
+		double cell = radius / n;
+		double x0 = cx - radius / 2;
+		double y0 = cy - radius / 2;
+		for (int i = 0; i < numHoles; i++)
+		{
+			poly.addRing(createRing(x0 + (i % n + 0.5) * cell, y0 + (i / n + 0.5) * cell, cell / 3, 32));
+		}
+		return poly;
+	}
+
+	/**
+	 * Adds a z coordinate to all coordinates of the given geometry.
+	 * @param geom {@link Geometry}
+	 * @return the given {@link Geometry}
+	 */
+	private static <T extends Geometry> T to3d(T geom)
+	{
+		for (Point p : geom.getCoordinates())
+		{
+			p.setZ(p.getX() * 0.01);
+		}
+		if (geom instanceof Polygon poly)
+		{
+			for (LinearRing ring : poly.getRings())
+			{
+				to3d(ring);
+			}
+		}
+		return geom;
+	}
+
+	/**
+	 * Creates a new instance of this shape.
+	 * @return {@link Geometry}
+	 */
+	public abstract Geometry create();
+
+}
@@ -0,0 +1,101 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+
+/**
+ * Benchmarks for parsing geometries with the {@link BinaryParser}.
+ * @author Sebastian Baumhekel
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BinaryParserBenchmark
+{
+	/**
+	 * Shape to parse.
+	 */
+	@Param
+	public BenchmarkShapes shape;
+
+	/**
+	 * Binary EWKB of the shape.
+	 */
+	private byte[] binary;
+	/**
+	 * Hex encoded EWKB of the shape.
+	 */
+	private String hexed;
+
+	/**
+	 * Prepares the input data.
+	 */
+	@Setup
+	public void setup()
+	{
+		Geometry geom = shape.create();
+		binary = BinaryWriter.writeBinary(geom);
+		hexed = BinaryWriter.writeHexed(geom);
+	}
+
+	/**
+	 * Parses binary EWKB.
+	 * @return {@link Geometry}
+	 */
+	@Benchmark
+	public Geometry parseBinary()
+	{
+		return BinaryParser.parse(binary, 0);
+	}
+
+	/**
+	 * Parses hex encoded EWKB.
+	 * @return {@link Geometry}
+	 */
+	@Benchmark
+	public Geometry parseHexed()
+	{
+		return BinaryParser.parse(hexed);
+	}
+
+}
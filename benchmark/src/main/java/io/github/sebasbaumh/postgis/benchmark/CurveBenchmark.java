@@ -0,0 +1,117 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.sebasbaumh.postgis.CircularString;
+import io.github.sebasbaumh.postgis.LineString;
+import io.github.sebasbaumh.postgis.Point;
+
+/**
+ * Benchmarks for the length and linearization of {@link CircularString}s compared to the chord length.
+ * @author Sebastian Baumhekel
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CurveBenchmark
+{
+	/**
+	 * Number of arcs of the circular string.
+	 */
+	@Param({ "10", "1000" })
+	public int arcs;
+
+	/**
+	 * Circular string made of arcs alternating between both sides of the x axis.
+	 */
+	private CircularString cs;
+
+	/**
+	 * Line string with the same points as the circular string.
+	 */
+	private LineString chords;
+
+	/**
+	 * Prepares the input data.
+	 */
+	@Setup
+	public void setup()
+	{
+		cs = new CircularString();
+		for (int i = 0; i < arcs; i++)
+		{
+			cs.add(new Point(i * 2, 0));
+			cs.add(new Point(i * 2 + 1, (i % 2 == 0) ? 1 : -1));
+		}
+		cs.add(new Point(arcs * 2, 0));
+		chords = new LineString(cs.getCoordinates());
+	}
+
+	/**
+	 * Calculates the length on the arcs.
+	 * @return length
+	 */
+	@Benchmark
+	public double arcLength()
+	{
+		return cs.length();
+	}
+
+	/**
+	 * Calculates the length of the chords through the points as reference.
+	 * @return length
+	 */
+	@Benchmark
+	public double chordLength()
+	{
+		return chords.length();
+	}
+
+	/**
+	 * Linearizes the arcs with a maximum deviation of 1/1000 of the radius.
+	 * @return {@link LineString}
+	 */
+	@Benchmark
+	public LineString linearize()
+	{
+		return cs.linearize(0.001);
+	}
+
+}
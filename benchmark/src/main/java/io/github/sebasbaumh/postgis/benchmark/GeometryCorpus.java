@@ -0,0 +1,599 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import io.github.sebasbaumh.postgis.CircularString;
+import io.github.sebasbaumh.postgis.CompoundCurve;
+import io.github.sebasbaumh.postgis.CurvePolygon;
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.GeometryCollection;
+import io.github.sebasbaumh.postgis.LineString;
+import io.github.sebasbaumh.postgis.LinearRing;
+import io.github.sebasbaumh.postgis.MultiPoint;
+import io.github.sebasbaumh.postgis.Point;
+import io.github.sebasbaumh.postgis.Polygon;
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+
+/**
+ * Generator for a synthetic, but realistic corpus of geometries. The same seed always results in the same sequence of
+ * geometries, so load tests and benchmarks can be reproduced without a database. All geometries use WGS 84
+ * coordinates (SRID 4326) around central Europe.
+ * <p>
+ * The corpus can be written to files containing EWKB records (see {@link #writeBinary(Iterable, Path)}) or hex
+ * encoded EWKB lines (see {@link #writeHexed(Iterable, Path)}), which can be loaded directly into a geometry column
+ * using <code>COPY</code>.
+ * </p>
+ * @author Sebastian Baumhekel
+ */
+public final class GeometryCorpus
+{
+	/**
+	 * Minimum longitude of generated coordinates.
+	 */
+	private static final double MIN_X = 5.0;
+	/**
+	 * Minimum latitude of generated coordinates.
+	 */
+	private static final double MIN_Y = 45.0;
+	/**
+	 * Extent of the area of generated coordinates in degrees.
+	 */
+	private static final double RANGE = 10.0;
+	/**
+	 * SRID of all generated geometries.
+	 */
+	public static final int SRID = 4326;
+
+	/**
+	 * Random number generator.
+	 */
+	private final SplittableRandom random;
+
+	/**
+	 * Constructs an instance.
+	 * @param seed seed for the random number generator
+	 */
+	public GeometryCorpus(long seed)
+	{
+		this.random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Kinds of geometries in the corpus.
+	 */
+	public enum Kind
+	{
+		/**
+		 * Small 2d points like addresses or sensor positions.
+		 */
+		POINT(60),
+		/**
+		 * Long GPS traces with elevation and a time stamp as measure.
+		 */
+		GPS_TRACE(10),
+		/**
+		 * Dense polygons with holes like building footprints or land parcels (some of them with elevation).
+		 */
+		POLYGON(20),
+		/**
+		 * Curved geometries using {@link CircularString}s, {@link CompoundCurve}s and {@link CurvePolygon}s.
+		 */
+		CURVE(5),
+		/**
+		 * Deeply nested {@link GeometryCollection}s with z and measure.
+		 */
+		NESTED_COLLECTION(5);
+
+		/**
+		 * Share of this kind in a mixed corpus in percent.
+		 */
+		private final int share;
+
+		/**
+		 * Constructs an instance.
+		 * @param share share of this kind in a mixed corpus in percent
+		 */
+		private Kind(int share)
+		{
+			this.share = share;
+		}
+	}
+
+	/**
+	 * Generates the given number of geometries of mixed kinds.
+	 * @param count number of geometries
+	 * @return geometries
+	 */
+	public List<Geometry> generate(int count)
+	{
+		ArrayList<Geometry> l = new ArrayList<Geometry>(count);
+		for (int i = 0; i < count; i++)
+		{
+			l.add(next());
+		}
+		return l;
+	}
+
+	/**
+	 * Generates the given number of geometries of the given kind.
+	 * @param kind kind of the geometries
+	 * @param count number of geometries
+	 * @return geometries
+	 */
+	public List<Geometry> generate(Kind kind, int count)
+	{
+		ArrayList<Geometry> l = new ArrayList<Geometry>(count);
+		for (int i = 0; i < count; i++)
+		{
+			l.add(next(kind));
+		}
+		return l;
+	}
+
+	/**
+	 * Lazily generates the given number of geometries of mixed kinds, so a corpus of any size can be written without
+	 * keeping it in memory. The geometries are generated while iterating, so the result can only be iterated once.
+	 * @param count number of geometries
+	 * @return geometries
+	 */
+	public Iterable<Geometry> stream(long count)
+	{
+		return stream(count, this::next);
+	}
+
+	/**
+	 * Lazily generates the given number of geometries of the given kind, so a corpus of any size can be written
+	 * without keeping it in memory. The geometries are generated while iterating, so the result can only be iterated
+	 * once.
+	 * @param kind kind of the geometries
+	 * @param count number of geometries
+	 * @return geometries
+	 */
+	public Iterable<Geometry> stream(Kind kind, long count)
+	{
+		return stream(count, () -> next(kind));
+	}
+
+	/**
+	 * Lazily generates the given number of geometries.
+	 * @param count number of geometries
+	 * @param generator generator for the next geometry
+	 * @return geometries
+	 */
+	private static Iterable<Geometry> stream(long count, Supplier<Geometry> generator)
+	{
+		return () -> new Iterator<Geometry>()
+		{
+			private long remaining = count;
+
+			@Override
+			public boolean hasNext()
+			{
+				return remaining > 0;
+			}
+
+			@Override
+			public Geometry next()
+			{
+				if (remaining <= 0)
+				{
+					throw new NoSuchElementException();
+				}
+				remaining--;
+				return generator.get();
+			}
+		};
+	}
+
+	/**
+	 * Generates the next geometry choosing its kind according to the share of each kind.
+	 * @return {@link Geometry}
+	 */
+	public Geometry next()
+	{
+		int r = random.nextInt(100);
+		for (Kind kind : Kind.values())
+		{
+			if (r < kind.share)
+			{
+				return next(kind);
+			}
+			r -= kind.share;
+		}
+		return next(Kind.POINT);
+	}
+
+	/**
+	 * Generates the next geometry of the given kind.
+	 * @param kind kind of the geometry
+	 * @return {@link Geometry}
+	 */
+	public Geometry next(Kind kind)
+	{
+		Geometry geom;
+		switch (kind)
+		{
+			case POINT:
+				geom = new Point(randomX(), randomY());
+				break;
+			case GPS_TRACE:
+				geom = nextTrace(100 + random.nextInt(5000));
+				break;
+			case POLYGON:
+				geom = nextPolygon(randomX(), randomY(), 0.001 + random.nextDouble(0.01), 50 + random.nextInt(500),
+						random.nextInt(20), random.nextInt(4) == 0);
+				break;
+			case CURVE:
+				geom = nextCurve();
+				break;
+			case NESTED_COLLECTION:
+				geom = nextCollection(1 + random.nextInt(4), randomX(), randomY());
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown kind: " + kind);
+		}
+		geom.setSrid(SRID);
+		return geom;
+	}
+
+	/**
+	 * Creates a chain of arcs on a circle.
+	 * @param cx center x coordinate
+	 * @param cy center y coordinate
+	 * @param radius radius
+	 * @param startAngle angle of the start point
+	 * @param numArcs number of arcs
+	 * @param arcAngle angle covered by every arc
+	 * @return {@link CircularString}
+	 */
+	private static CircularString createArcs(double cx, double cy, double radius, double startAngle, int numArcs,
+			double arcAngle)
+	{
+		CircularString cs = new CircularString();
+		// every arc needs a start, a middle and an end point, the end point is the start of the next arc
+		for (int i = 0; i <= numArcs * 2; i++)
+		{
+			double angle = startAngle + i * arcAngle / 2;
+			cs.add(new Point(cx + Math.cos(angle) * radius, cy + Math.sin(angle) * radius));
+		}
+		return cs;
+	}
+
+	/**
+	 * Creates a closed ring with a randomized radius.
+	 * @param cx center x coordinate
+	 * @param cy center y coordinate
+	 * @param radius maximum radius
+	 * @param numPoints number of distinct vertices
+	 * @param is3d create 3d coordinates?
+	 * @return {@link LinearRing}
+	 */
+	private LinearRing nextRing(double cx, double cy, double radius, int numPoints, boolean is3d)
+	{
+		LinearRing ring = new LinearRing();
+		for (int i = 0; i < numPoints; i++)
+		{
+			double angle = 2 * Math.PI * i / numPoints;
+			double r = radius * (0.8 + random.nextDouble(0.2));
+			double x = cx + Math.cos(angle) * r;
+			double y = cy + Math.sin(angle) * r;
+			ring.add(is3d ? new Point(x, y, randomElevation()) : new Point(x, y));
+		}
+		ring.close();
+		return ring;
+	}
+
+	/**
+	 * Creates a deeply nested {@link GeometryCollection} with z and measure.
+	 * @param depth nesting depth
+	 * @param cx center x coordinate
+	 * @param cy center y coordinate
+	 * @return {@link GeometryCollection}
+	 */
+	private GeometryCollection nextCollection(int depth, double cx, double cy)
+	{
+		GeometryCollection coll = new GeometryCollection();
+		ArrayList<Point> points = new ArrayList<Point>();
+		int numPoints = 1 + random.nextInt(10);
+		for (int i = 0; i < numPoints; i++)
+		{
+			points.add(new Point(cx + random.nextDouble(0.01), cy + random.nextDouble(0.01), randomElevation(), i));
+		}
+		coll.add(new MultiPoint(points));
+		LineString ls = new LineString();
+		int numLinePoints = 2 + random.nextInt(50);
+		for (int i = 0; i < numLinePoints; i++)
+		{
+			ls.add(new Point(cx + i * 0.0001, cy + random.nextDouble(0.001), randomElevation(), i));
+		}
+		coll.add(ls);
+		if (depth > 1)
+		{
+			coll.add(nextCollection(depth - 1, cx + 0.01, cy + 0.01));
+		}
+		return coll;
+	}
+
+	/**
+	 * Creates a curved geometry.
+	 * @return {@link Geometry}
+	 */
+	private Geometry nextCurve()
+	{
+		double cx = randomX();
+		double cy = randomY();
+		double radius = 0.0001 + random.nextDouble(0.001);
+		switch (random.nextInt(3))
+		{
+			case 0:
+				// arcs along a circle
+				return createArcs(cx, cy, radius, random.nextDouble(2 * Math.PI), 1 + random.nextInt(4),
+						Math.PI / 4);
+			case 1:
+			{
+				// a road segment: straight line followed by a curve
+				CircularString cs = createArcs(cx, cy, radius, Math.PI, 1, Math.PI / 2);
+				Point pStart = cs.getStartPoint();
+				LineString ls = new LineString();
+				ls.add(new Point(pStart.getX() - radius * 2, pStart.getY()));
+				ls.add(pStart.copy());
+				CompoundCurve cc = new CompoundCurve();
+				cc.add(ls);
+				cc.add(cs);
+				return cc;
+			}
+			default:
+			{
+				// a roundabout: full circle with a circular hole
+				CurvePolygon cp = new CurvePolygon(createArcs(cx, cy, radius, 0, 2, Math.PI));
+				cp.addRing(createArcs(cx, cy, radius / 2, 0, 2, Math.PI));
+				return cp;
+			}
+		}
+	}
+
+	/**
+	 * Creates a polygon with holes placed on a grid inside of the outer ring.
+	 * @param cx center x coordinate
+	 * @param cy center y coordinate
+	 * @param radius radius
+	 * @param numPoints number of vertices of the outer ring
+	 * @param numHoles number of holes
+	 * @param is3d create 3d coordinates?
+	 * @return {@link Polygon}
+	 */
+	private Polygon nextPolygon(double cx, double cy, double radius, int numPoints, int numHoles, boolean is3d)
+	{
+		Polygon poly = new Polygon(nextRing(cx, cy, radius, numPoints, is3d));
+		if (numHoles > 0)
+		{
+			// place holes on a grid inside the bounding square of the inner circle
+			int n = (int) Math.ceil(Math.sqrt(numHoles));
+			double cell = radius / n;
+			double x0 = cx - radius / 2;
+			double y0 = cy - radius / 2;
+			for (int i = 0; i < numHoles; i++)
+			{
+				poly.addRing(nextRing(x0 + (i % n + 0.5) * cell, y0 + (i / n + 0.5) * cell, cell / 3,
+						8 + random.nextInt(24), is3d));
+			}
+		}
+		return poly;
+	}
+
+	/**
+	 * Creates a GPS trace using a random walk with elevation and a time stamp in seconds as measure.
+	 * @param numPoints number of vertices
+	 * @return {@link LineString}
+	 */
+	private LineString nextTrace(int numPoints)
+	{
+		LineString ls = new LineString();
+		double x = randomX();
+		double y = randomY();
+		double z = randomElevation();
+		double heading = random.nextDouble(2 * Math.PI);
+		double t = 1.7e9 + random.nextInt(10000000);
+		for (int i = 0; i < numPoints; i++)
+		{
+			ls.add(new Point(x, y, z, t));
+			// change heading slightly and move on
+			heading += random.nextDouble(-0.2, 0.2);
+			double step = 0.00005 + random.nextDouble(0.0001);
+			x += Math.cos(heading) * step;
+			y += Math.sin(heading) * step;
+			z += random.nextDouble(-1, 1);
+			t += 1 + random.nextInt(5);
+		}
+		return ls;
+	}
+
+	/**
+	 * Gets a random elevation.
+	 * @return elevation in meters
+	 */
+	private double randomElevation()
+	{
+		return Math.round(random.nextDouble(100, 2000) * 10) / 10.0;
+	}
+
+	/**
+	 * Gets a random x coordinate.
+	 * @return x coordinate
+	 */
+	private double randomX()
+	{
+		return MIN_X + random.nextDouble(RANGE);
+	}
+
+	/**
+	 * Gets a random y coordinate.
+	 * @return y coordinate
+	 */
+	private double randomY()
+	{
+		return MIN_Y + random.nextDouble(RANGE);
+	}
+
+	/**
+	 * Reads EWKB records written by {@link #writeBinary(Iterable, Path)} one by one, so files of any size can be read.
+	 * @param file file
+	 * @param consumer consumer for the EWKB records
+	 * @return number of records
+	 * @throws IOException on read errors
+	 */
+	public static long readBinary(Path file, Consumer<byte[]> consumer) throws IOException
+	{
+		long count = 0;
+		try (InputStream is = Files.newInputStream(file);
+				DataInputStream in = new DataInputStream(new BufferedInputStream(is)))
+		{
+			while (true)
+			{
+				int length;
+				try
+				{
+					length = in.readInt();
+				}
+				catch (EOFException ex)
+				{
+					// end of file
+					break;
+				}
+				byte[] data = new byte[length];
+				in.readFully(data);
+				consumer.accept(data);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Reads and parses geometries written by {@link #writeBinary(Iterable, Path)} one by one, so files of any size can
+	 * be read.
+	 * @param file file
+	 * @param consumer consumer for the geometries
+	 * @return number of geometries
+	 * @throws IOException on read errors
+	 */
+	public static long readGeometries(Path file, Consumer<Geometry> consumer) throws IOException
+	{
+		return readBinary(file, data -> consumer.accept(BinaryParser.parse(data, 0)));
+	}
+
+	/**
+	 * Writes the given geometries as EWKB records, each one preceded by its length as a big endian 32-bit integer.
+	 * @param geoms geometries
+	 * @param file file
+	 * @throws IOException on write errors
+	 */
+	public static void writeBinary(Iterable<? extends Geometry> geoms, Path file) throws IOException
+	{
+		try (OutputStream os = Files.newOutputStream(file);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os)))
+		{
+			for (Geometry geom : geoms)
+			{
+				byte[] data = BinaryWriter.writeBinary(geom);
+				out.writeInt(data.length);
+				out.write(data);
+			}
+		}
+	}
+
+	/**
+	 * Writes the given geometries as hex encoded EWKB, one geometry per line. The file can be loaded into a table with
+	 * a single geometry column using <code>COPY table FROM 'file'</code>.
+	 * @param geoms geometries
+	 * @param file file
+	 * @throws IOException on write errors
+	 */
+	public static void writeHexed(Iterable<? extends Geometry> geoms, Path file) throws IOException
+	{
+		try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.US_ASCII))
+		{
+			for (Geometry geom : geoms)
+			{
+				w.write(BinaryWriter.writeHexed(geom));
+				w.newLine();
+			}
+		}
+	}
+
+	/**
+	 * Writes a corpus to a file. Arguments are: output file, number of geometries, seed (optional, default is 0) and
+	 * kind (optional, default is a mixed corpus). If the output file ends with ".hex" hex encoded EWKB lines are
+	 * written, else binary EWKB records.
+	 * @param args arguments
+	 * @throws IOException on write errors
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 2)
+		{
+			System.err.println("usage: GeometryCorpus <output file> <count> [seed] ["
+					+ Arrays.toString(Kind.values()) + "]");
+			System.exit(1);
+		}
+		Path file = Paths.get(args[0]);
+		long count = Long.parseLong(args[1]);
+		long seed = (args.length > 2) ? Long.parseLong(args[2]) : 0;
+		GeometryCorpus corpus = new GeometryCorpus(seed);
+		// generate the geometries while writing them
+		Iterable<Geometry> geoms = (args.length > 3) ? corpus.stream(Kind.valueOf(args[3]), count)
+				: corpus.stream(count);
+		if (file.toString().endsWith(".hex"))
+		{
+			writeHexed(geoms, file);
+		}
+		else
+		{
+			writeBinary(geoms, file);
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.benchmark;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.PGgeometry;
+import io.github.sebasbaumh.postgis.PGgeometrybase;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+
+/**
+ * Benchmarks for round trips through {@link PGgeometrybase} like the JDBC driver does them.
+ * @author Sebastian Baumhekel
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PGgeometryBenchmark
+{
+	/**
+	 * Shape for the round trip.
+	 */
+	@Param
+	public BenchmarkShapes shape;
+
+	/**
+	 * Binary EWKB of the shape.
+	 */
+	private byte[] binary;
+	/**
+	 * The geometry of the shape.
+	 */
+	private Geometry geom;
+	/**
+	 * Hex encoded EWKB of the shape.
+	 */
+	private String hexed;
+
+	/**
+	 * Prepares the input data.
+	 */
+	@Setup
+	public void setup()
+	{
+		geom = shape.create();
+		binary = BinaryWriter.writeBinary(geom);
+		hexed = BinaryWriter.writeHexed(geom);
+	}
+
+	/**
+	 * Receives a geometry in binary format and sends it back in binary format.
+	 * @return written bytes
+	 * @throws SQLException on parsing errors
+	 */
+	@Benchmark
+	public byte[] roundTripBinary() throws SQLException
+	{
+		PGgeometry pgeom = new PGgeometry();
+		pgeom.setByteValue(binary, 0);
+		// reset the geometry to make sure the binary data is written again
+		pgeom.setGeometry(pgeom.getGeometry());
+		byte[] data = new byte[pgeom.lengthInBytes()];
+		pgeom.toBytes(data, 0);
+		return data;
+	}
+
+	/**
+	 * Receives a geometry in text format and sends it back in text format.
+	 * @return written value
+	 * @throws SQLException on parsing errors
+	 */
+	@Benchmark
+	public String roundTripText() throws SQLException
+	{
+		PGgeometry pgeom = new PGgeometry(hexed);
+		return pgeom.getValue();
+	}
+
+	/**
+	 * Sends a geometry in binary format.
+	 * @return written bytes
+	 */
+	@Benchmark
+	public byte[] toBytes()
+	{
+		PGgeometry pgeom = new PGgeometry(geom);
+		byte[] data = new byte[pgeom.lengthInBytes()];
+		pgeom.toBytes(data, 0);
+		return data;
+	}
+
+}
@@ -0,0 +1,302 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+/**
+ * Parser for the text representation of boxes like <code>SRID=4326;BOX(1 2,3 4)</code> or
+ * <code>BOX3D(1 2 3,4 5 6)</code>. The value is parsed in a single pass and the numbers are parsed in place without
+ * creating any intermediate strings.
+ * @author Sebastian Baumhekel
+ */
+final class BoxParser
+{
+	/**
+	 * Length of the value.
+	 */
+	private final int length;
+	/**
+	 * Parsed coordinates of the upper right top corner.
+	 */
+	private double maxX;
+	private double maxY;
+	private double maxZ;
+	/**
+	 * Parsed coordinates of the lower left bottom corner.
+	 */
+	private double minX;
+	private double minY;
+	private double minZ;
+	/**
+	 * Current position.
+	 */
+	private int pos;
+	/**
+	 * Parsed SRID.
+	 */
+	private int srid = Geometry.UNKNOWN_SRID;
+	/**
+	 * Value to parse.
+	 */
+	private final CharSequence value;
+
+	/**
+	 * Constructs an instance.
+	 * @param value value to parse
+	 */
+	private BoxParser(CharSequence value)
+	{
+		this.value = value;
+		this.length = value.length();
+	}
+
+	/**
+	 * Parses a box into the given corner points, which are changed in place, so no further objects are created.
+	 * @param value box as text, the prefix (<code>BOX</code>, <code>BOX2D</code> or <code>BOX3D</code>) is optional
+	 * @param llb lower left bottom corner (z is NaN if not present)
+	 * @param urt upper right top corner (z is NaN if not present)
+	 * @throws IllegalArgumentException if the value is not a valid box
+	 */
+	static void parse(CharSequence value, Point llb, Point urt)
+	{
+		BoxParser parser = new BoxParser(value);
+		parser.parse();
+		setCorner(llb, parser.minX, parser.minY, parser.minZ, parser.srid);
+		setCorner(urt, parser.maxX, parser.maxY, parser.maxZ, parser.srid);
+	}
+
+	/**
+	 * Parses a box into an {@link Envelope}.
+	 * @param value box as text, the prefix (<code>BOX</code>, <code>BOX2D</code> or <code>BOX3D</code>) is optional
+	 * @return {@link Envelope}
+	 * @throws IllegalArgumentException if the value is not a valid box
+	 */
+	static Envelope parseEnvelope(CharSequence value)
+	{
+		BoxParser parser = new BoxParser(value);
+		parser.parse();
+		return new Envelope(parser.minX, parser.minY, parser.minZ, parser.maxX, parser.maxY, parser.maxZ, parser.srid);
+	}
+
+	/**
+	 * Sets the coordinates of a corner.
+	 * @param p {@link Point}
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @param z z coordinate (NaN if not present)
+	 * @param srid SRID
+	 */
+	private static void setCorner(Point p, double x, double y, double z, int srid)
+	{
+		p.setX(x);
+		p.setY(y);
+		p.setZ(z);
+		p.setM(Double.NaN);
+		p.setSrid(srid);
+	}
+
+	/**
+	 * Checks if the given character ends a number.
+	 * @param c character
+	 * @return true on success, else false
+	 */
+	private static boolean isSeparator(char c)
+	{
+		return (c == ',') || (c == ')') || (c == ';') || Character.isWhitespace(c);
+	}
+
+	/**
+	 * Consumes the given character if it is the next non-whitespace character.
+	 * @param c character
+	 * @return true if the character was consumed, else false
+	 */
+	private boolean consume(char c)
+	{
+		skipWhitespace();
+		if ((pos < length) && (value.charAt(pos) == c))
+		{
+			pos++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if a part of the value is equal to the given keyword ignoring the case.
+	 * @param start start index
+	 * @param end end index
+	 * @param keyword keyword (upper case)
+	 * @return true on success, else false
+	 */
+	private boolean equalsIgnoreCase(int start, int end, String keyword)
+	{
+		if ((end - start) != keyword.length())
+		{
+			return false;
+		}
+		for (int i = start; i < end; i++)
+		{
+			if (Character.toUpperCase(value.charAt(i)) != keyword.charAt(i - start))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Creates an exception for a parse error at the current position.
+	 * @param message message
+	 * @return {@link IllegalArgumentException}
+	 */
+	private IllegalArgumentException error(String message)
+	{
+		return new IllegalArgumentException(message + " at position " + pos + ": " + value);
+	}
+
+	/**
+	 * Expects the given character as the next non-whitespace character and consumes it.
+	 * @param c character
+	 * @throws IllegalArgumentException if the next character is a different one
+	 */
+	private void expect(char c)
+	{
+		if (!consume(c))
+		{
+			throw error("Expected '" + c + "'");
+		}
+	}
+
+	/**
+	 * Parses the box.
+	 */
+	private void parse()
+	{
+		int wordStart = scanWord();
+		if (equalsIgnoreCase(wordStart, pos, "SRID"))
+		{
+			expect('=');
+			// ensure valid SRID
+			srid = (int) parseNumber();
+			if (srid < 0)
+			{
+				srid = Geometry.UNKNOWN_SRID;
+			}
+			expect(';');
+			wordStart = scanWord();
+		}
+		// the prefix is optional
+		if ((wordStart != pos) && !equalsIgnoreCase(wordStart, pos, "BOX") && !equalsIgnoreCase(wordStart, pos, "BOX2D")
+				&& !equalsIgnoreCase(wordStart, pos, "BOX3D"))
+		{
+			pos = wordStart;
+			throw error("Unexpected box type");
+		}
+		// brackets are optional
+		boolean brackets = consume('(');
+		minX = parseNumber();
+		minY = parseNumber();
+		minZ = parseOptionalNumber();
+		expect(',');
+		maxX = parseNumber();
+		maxY = parseNumber();
+		maxZ = parseOptionalNumber();
+		if (brackets)
+		{
+			expect(')');
+		}
+		skipWhitespace();
+		if (pos < length)
+		{
+			throw error("Unexpected character '" + value.charAt(pos) + "'");
+		}
+	}
+
+	/**
+	 * Parses a number.
+	 * @return number
+	 * @throws IllegalArgumentException if there is no valid number
+	 */
+	private double parseNumber()
+	{
+		skipWhitespace();
+		int start = pos;
+		while ((pos < length) && !isSeparator(value.charAt(pos)))
+		{
+			pos++;
+		}
+		try
+		{
+			return PostGisUtil.parseDouble(value, start, pos);
+		}
+		catch (NumberFormatException ex)
+		{
+			pos = start;
+			throw error("Expected a number");
+		}
+	}
+
+	/**
+	 * Parses an optional number like the z coordinate of a corner.
+	 * @return number or NaN if there is none
+	 * @throws IllegalArgumentException if there is an invalid number
+	 */
+	private double parseOptionalNumber()
+	{
+		skipWhitespace();
+		if ((pos < length) && !isSeparator(value.charAt(pos)))
+		{
+			return parseNumber();
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Skips whitespace and a following word starting with a letter and consisting of letters and digits.
+	 * @return start index of the word (the end index is the current position)
+	 */
+	private int scanWord()
+	{
+		skipWhitespace();
+		int start = pos;
+		if ((pos < length) && Character.isLetter(value.charAt(pos)))
+		{
+			while ((pos < length) && Character.isLetterOrDigit(value.charAt(pos)))
+			{
+				pos++;
+			}
+		}
+		return start;
+	}
+
+	/**
+	 * Skips whitespace.
+	 */
+	private void skipWhitespace()
+	{
+		while ((pos < length) && Character.isWhitespace(value.charAt(pos)))
+		{
+			pos++;
+		}
+	}
+
+}
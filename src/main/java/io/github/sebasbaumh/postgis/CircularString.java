@@ -22,6 +22,8 @@
 
 package io.github.sebasbaumh.postgis;
 
+import java.util.Iterator;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 
 /**
@@ -61,6 +63,158 @@ public class CircularString extends LineString
 		addAll(points);
 	}
 
+	/**
+	 * Adds the linearized points of an arc (excluding the start point).
+	 * @param ls {@link LineString} to add the points to
+	 * @param p0 start point
+	 * @param p1 point on the arc
+	 * @param p2 end point
+	 * @param maxDeviation maximum deviation of the segments from the arc
+	 */
+	private static void addArc(LineString ls, Point p0, Point p1, Point p2, double maxDeviation)
+	{
+		double x0 = p0.getX();
+		double y0 = p0.getY();
+		double cx;
+		double cy;
+		double sweep;
+		double sweep1;
+		if ((x0 == p2.getX()) && (y0 == p2.getY()))
+		{
+			// full circle with the second point on the opposite side
+			cx = (x0 + p1.getX()) / 2;
+			cy = (y0 + p1.getY()) / 2;
+			sweep = 2 * Math.PI;
+			sweep1 = Math.PI;
+		}
+		else
+		{
+			double ax = p1.getX() - x0;
+			double ay = p1.getY() - y0;
+			double bx = p2.getX() - x0;
+			double by = p2.getY() - y0;
+			double d = 2 * (ax * by - ay * bx);
+			if (isCollinear(d, ax, ay, bx, by))
+			{
+				ls.add(p1.copy());
+				ls.add(p2.copy());
+				return;
+			}
+			double a2 = ax * ax + ay * ay;
+			double b2 = bx * bx + by * by;
+			cx = x0 + (by * a2 - ay * b2) / d;
+			cy = y0 + (ax * b2 - bx * a2) / d;
+			sweep = getSweep(x0 - cx, y0 - cy, p2.getX() - cx, p2.getY() - cy, d > 0);
+			sweep1 = getSweep(x0 - cx, y0 - cy, p1.getX() - cx, p1.getY() - cy, d > 0);
+		}
+		double r = Math.hypot(x0 - cx, y0 - cy);
+		double start = Math.atan2(y0 - cy, x0 - cx);
+		// maximum angle of a segment so its distance to the arc is at most maxDeviation
+		double maxAngle = 2 * Math.acos(1 - Math.min(maxDeviation / r, 1));
+		// divide both parts of the arc separately to keep the given point on the arc
+		addArcPoints(ls, p0, p1, cx, cy, r, start, sweep1, maxAngle);
+		ls.add(p1.copy());
+		addArcPoints(ls, p1, p2, cx, cy, r, start + sweep1, sweep - sweep1, maxAngle);
+		ls.add(p2.copy());
+	}
+
+	/**
+	 * Adds the inner points of a linearized arc.
+	 * @param ls {@link LineString} to add the points to
+	 * @param p0 start point
+	 * @param p1 end point
+	 * @param cx x coordinate of the center
+	 * @param cy y coordinate of the center
+	 * @param r radius
+	 * @param start angle of the start point
+	 * @param sweep angle from the start to the end point
+	 * @param maxAngle maximum angle of a segment
+	 */
+	private static void addArcPoints(LineString ls, Point p0, Point p1, double cx, double cy, double r, double start,
+			double sweep, double maxAngle)
+	{
+		int n = (int) Math.ceil(Math.abs(sweep) / maxAngle);
+		for (int i = 1; i < n; i++)
+		{
+			double t = (double) i / n;
+			double angle = start + sweep * t;
+			// interpolate z and m values
+			ls.add(new Point(cx + r * Math.cos(angle), cy + r * Math.sin(angle),
+					p0.getZ() + (p1.getZ() - p0.getZ()) * t, p0.getM() + (p1.getM() - p0.getM()) * t));
+		}
+	}
+
+	/**
+	 * Calculates the length of an arc given by three points without allocating any objects.
+	 * @param x0 x coordinate of the start point
+	 * @param y0 y coordinate of the start point
+	 * @param x1 x coordinate of a point on the arc
+	 * @param y1 y coordinate of a point on the arc
+	 * @param x2 x coordinate of the end point
+	 * @param y2 y coordinate of the end point
+	 * @return length
+	 */
+	private static double getArcLength(double x0, double y0, double x1, double y1, double x2, double y2)
+	{
+		double ax = x1 - x0;
+		double ay = y1 - y0;
+		if ((x0 == x2) && (y0 == y2))
+		{
+			// full circle with the second point on the opposite side
+			return Math.PI * Math.hypot(ax, ay);
+		}
+		double bx = x2 - x0;
+		double by = y2 - y0;
+		double d = 2 * (ax * by - ay * bx);
+		if (isCollinear(d, ax, ay, bx, by))
+		{
+			return Math.hypot(ax, ay) + Math.hypot(x2 - x1, y2 - y1);
+		}
+		// center of the circumcircle relative to the start point
+		double a2 = ax * ax + ay * ay;
+		double b2 = bx * bx + by * by;
+		double cx = (by * a2 - ay * b2) / d;
+		double cy = (ax * b2 - bx * a2) / d;
+		return Math.hypot(cx, cy) * Math.abs(getSweep(-cx, -cy, bx - cx, by - cy, d > 0));
+	}
+
+	/**
+	 * Gets the angle swept from the start to the end vector.
+	 * @param sx x value of the vector from the center to the start point
+	 * @param sy y value of the vector from the center to the start point
+	 * @param ex x value of the vector from the center to the end point
+	 * @param ey y value of the vector from the center to the end point
+	 * @param counterClockwise is the arc oriented counter clockwise?
+	 * @return angle in radians (positive for counter clockwise and negative for clockwise arcs)
+	 */
+	private static double getSweep(double sx, double sy, double ex, double ey, boolean counterClockwise)
+	{
+		double sweep = Math.atan2(sx * ey - sy * ex, sx * ex + sy * ey);
+		if (counterClockwise && (sweep <= 0))
+		{
+			return sweep + 2 * Math.PI;
+		}
+		if (!counterClockwise && (sweep >= 0))
+		{
+			return sweep - 2 * Math.PI;
+		}
+		return sweep;
+	}
+
+	/**
+	 * Checks if the three points of an arc are (nearly) collinear, so the arc is a straight line.
+	 * @param d twice the cross product of the vectors to the second and third point
+	 * @param ax x value of the vector to the second point
+	 * @param ay y value of the vector to the second point
+	 * @param bx x value of the vector to the third point
+	 * @param by y value of the vector to the third point
+	 * @return true if they are collinear, else false
+	 */
+	private static boolean isCollinear(double d, double ax, double ay, double bx, double by)
+	{
+		return Math.abs(d) <= 1e-12 * (ax * ax + ay * ay + bx * bx + by * by);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see io.github.sebasbaumh.postgis.LineBasedGeom#length()
@@ -68,8 +222,76 @@ public class CircularString extends LineString
 	@Override
 	public double length()
 	{
-		// FIX: calculate length on arc
-		return super.length();
+		double len = 0;
+		Iterator<Point> it = iterator();
+		if (!it.hasNext())
+		{
+			return 0;
+		}
+		Point p0 = it.next();
+		while (it.hasNext())
+		{
+			Point p1 = it.next();
+			if (!it.hasNext())
+			{
+				// invalid arc, so just use the straight line
+				len += p0.distance(p1);
+				break;
+			}
+			Point p2 = it.next();
+			len += getArcLength(p0.getX(), p0.getY(), p1.getX(), p1.getY(), p2.getX(), p2.getY());
+			p0 = p2;
+		}
+		return len;
 	}
 
+	/**
+	 * Approximates this {@link CircularString} by a {@link LineString}. All given points are kept and the arcs are
+	 * divided into segments, so the distance between each segment and its arc is at most the given deviation. Z and
+	 * measure values are interpolated.
+	 * @param maxDeviation maximum deviation (has to be &gt;0)
+	 * @return {@link LineString}
+	 * @throws IllegalArgumentException if the deviation is not positive
+	 */
+	public LineString linearize(double maxDeviation)
+	{
+		if (!(maxDeviation > 0))
+		{
+			throw new IllegalArgumentException("invalid deviation: " + maxDeviation);
+		}
+		LineString ls = new LineString();
+		ls.setSrid(getSrid());
+		Iterator<Point> it = iterator();
+		if (!it.hasNext())
+		{
+			return ls;
+		}
+		Point p0 = it.next();
+		ls.add(p0.copy());
+		while (it.hasNext())
+		{
+			Point p1 = it.next();
+			if (!it.hasNext())
+			{
+				// invalid arc, so just use the straight line
+				ls.add(p1.copy());
+				break;
+			}
+			Point p2 = it.next();
+			addArc(ls, p0, p1, p2, maxDeviation);
+			p0 = p2;
+		}
+		return ls;
+	}
+
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.LineString#copy()
+	 */
+	@Override
+	public CircularString copy()
+	{
+		return copyTo(new CircularString());
+	}
 }
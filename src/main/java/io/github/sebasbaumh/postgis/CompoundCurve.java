@@ -92,6 +92,19 @@ public class CompoundCurve extends Curve implements Iterable<LineString>
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#apply(io.github.sebasbaumh.postgis.CoordinateFilter)
+	 */
+	@Override
+	public void apply(CoordinateFilter filter)
+	{
+		for (LineString geom : subgeoms)
+		{
+			geom.apply(filter);
+		}
+	}
+
 	@Override
 	public boolean checkConsistency()
 	{
@@ -123,6 +136,22 @@ public class CompoundCurve extends Curve implements Iterable<LineString>
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#copy()
+	 */
+	@Override
+	public CompoundCurve copy()
+	{
+		CompoundCurve cc = new CompoundCurve();
+		for (LineString ls : subgeoms)
+		{
+			cc.add(ls.copy());
+		}
+		cc.setSrid(getSrid());
+		return cc;
+	}
+
 	@Override
 	public boolean equals(@Nullable Object other)
 	{
@@ -283,6 +312,38 @@ public class CompoundCurve extends Curve implements Iterable<LineString>
 		return d;
 	}
 
+	/**
+	 * Approximates this {@link CompoundCurve} by a single {@link LineString}. Circular parts are linearized (see
+	 * {@link CircularString#linearize(double)}), linear parts are kept.
+	 * @param maxDeviation maximum deviation (has to be &gt;0)
+	 * @return {@link LineString}
+	 * @throws IllegalArgumentException if the deviation is not positive
+	 */
+	public LineString linearize(double maxDeviation)
+	{
+		if (!(maxDeviation > 0))
+		{
+			throw new IllegalArgumentException("invalid deviation: " + maxDeviation);
+		}
+		LineString result = new LineString();
+		result.setSrid(getSrid());
+		for (LineString ls : subgeoms)
+		{
+			LineString part = ls instanceof CircularString cs ? cs.linearize(maxDeviation) : ls;
+			boolean first = true;
+			for (Point p : part)
+			{
+				// skip the start point of a part if it matches the end point of the previous part
+				if (!first || result.isEmpty() || !p.coordsAreEqual(result.getEndPoint()))
+				{
+					result.add(p.copy());
+				}
+				first = false;
+			}
+		}
+		return result;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see io.github.sebasbaumh.postgis.Curve#reverse()
@@ -65,4 +65,14 @@ public class CurvePolygon extends PolygonBase<Curve>
 		super(TYPE, LineString.class, rings);
 	}
 
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#copy()
+	 */
+	@Override
+	public CurvePolygon copy()
+	{
+		return copyRingsTo(new CurvePolygon(copyOuterRing()));
+	}
 }
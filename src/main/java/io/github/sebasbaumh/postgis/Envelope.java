@@ -0,0 +1,626 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.io.Serializable;
+
+import javax.annotation.Nullable;
+
+/**
+ * Compact representation of a box (e.g. <code>BOX(1 2,3 4)</code> or <code>BOX3D(1 2 3,4 5 6)</code>) using primitive
+ * fields instead of {@link Point} objects for its corners. Envelopes are immutable, so all operations return new
+ * instances. The spatial operations consider the x and y coordinates only.
+ * <p>
+ * For filtering large numbers of envelopes there are batch variants working on flat arrays containing the envelopes
+ * as <code>minX, minY, maxX, maxY</code>, which is the same layout as used by
+ * {@link io.github.sebasbaumh.postgis.binary.BinaryParser#parseEnvelope(byte[], int, double[])}.
+ * </p>
+ * @author Sebastian Baumhekel
+ */
+public final class Envelope implements Serializable
+{
+	/* JDK 1.5 Serialization */
+	private static final long serialVersionUID = 0x100;
+
+	/**
+	 * An empty envelope.
+	 */
+	public static final Envelope EMPTY = new Envelope(Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+
+	/**
+	 * Maximum x coordinate.
+	 */
+	private final double maxX;
+	/**
+	 * Maximum y coordinate.
+	 */
+	private final double maxY;
+	/**
+	 * Maximum z coordinate ({@link Double#NaN} if not present).
+	 */
+	private final double maxZ;
+	/**
+	 * Minimum x coordinate.
+	 */
+	private final double minX;
+	/**
+	 * Minimum y coordinate.
+	 */
+	private final double minY;
+	/**
+	 * Minimum z coordinate ({@link Double#NaN} if not present).
+	 */
+	private final double minZ;
+	/**
+	 * SRID.
+	 */
+	private final int srid;
+
+	/**
+	 * Constructs a 2d envelope.
+	 * @param minX minimum x coordinate
+	 * @param minY minimum y coordinate
+	 * @param maxX maximum x coordinate
+	 * @param maxY maximum y coordinate
+	 */
+	public Envelope(double minX, double minY, double maxX, double maxY)
+	{
+		this(minX, minY, Double.NaN, maxX, maxY, Double.NaN, Geometry.UNKNOWN_SRID);
+	}
+
+	/**
+	 * Constructs a 2d envelope.
+	 * @param minX minimum x coordinate
+	 * @param minY minimum y coordinate
+	 * @param maxX maximum x coordinate
+	 * @param maxY maximum y coordinate
+	 * @param srid SRID
+	 */
+	public Envelope(double minX, double minY, double maxX, double maxY, int srid)
+	{
+		this(minX, minY, Double.NaN, maxX, maxY, Double.NaN, srid);
+	}
+
+	/**
+	 * Constructs an envelope.
+	 * @param minX minimum x coordinate
+	 * @param minY minimum y coordinate
+	 * @param minZ minimum z coordinate (can be {@link Double#NaN} for no coordinate)
+	 * @param maxX maximum x coordinate
+	 * @param maxY maximum y coordinate
+	 * @param maxZ maximum z coordinate (can be {@link Double#NaN} for no coordinate)
+	 * @param srid SRID
+	 */
+	public Envelope(double minX, double minY, double minZ, double maxX, double maxY, double maxZ, int srid)
+	{
+		this.minX = minX;
+		this.minY = minY;
+		this.minZ = minZ;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.maxZ = maxZ;
+		// ensure valid SRID
+		this.srid = (srid < 0) ? Geometry.UNKNOWN_SRID : srid;
+	}
+
+	/**
+	 * Computes the area of the given envelopes.
+	 * @param envelopes envelopes as <code>minX, minY, maxX, maxY</code>
+	 * @param count number of envelopes
+	 * @param result array receiving the areas
+	 */
+	public static void area(double[] envelopes, int count, double[] result)
+	{
+		for (int i = 0, j = 0; i < count; i++, j += 4)
+		{
+			result[i] = (envelopes[j + 2] - envelopes[j]) * (envelopes[j + 3] - envelopes[j + 1]);
+		}
+	}
+
+	/**
+	 * Filters the given envelopes by checking if they intersect the given envelope.
+	 * @param envelopes envelopes as <code>minX, minY, maxX, maxY</code>
+	 * @param count number of envelopes
+	 * @param env {@link Envelope}
+	 * @param result array receiving the indices of the matching envelopes (needs space for count indices)
+	 * @return number of matching envelopes
+	 */
+	public static int filterIntersects(double[] envelopes, int count, Envelope env, int[] result)
+	{
+		double minX = env.minX;
+		double minY = env.minY;
+		double maxX = env.maxX;
+		double maxY = env.maxY;
+		int n = 0;
+		for (int i = 0, j = 0; i < count; i++, j += 4)
+		{
+			// branch-free, the index is always written but only kept on a match
+			result[n] = i;
+			n += ((envelopes[j] <= maxX) & (envelopes[j + 2] >= minX) & (envelopes[j + 1] <= maxY)
+					& (envelopes[j + 3] >= minY)) ? 1 : 0;
+		}
+		return n;
+	}
+
+	/**
+	 * Filters the given envelopes by checking if they are completely contained in the given envelope.
+	 * @param envelopes envelopes as <code>minX, minY, maxX, maxY</code>
+	 * @param count number of envelopes
+	 * @param env {@link Envelope}
+	 * @param result array receiving the indices of the matching envelopes (needs space for count indices)
+	 * @return number of matching envelopes
+	 */
+	public static int filterWithin(double[] envelopes, int count, Envelope env, int[] result)
+	{
+		double minX = env.minX;
+		double minY = env.minY;
+		double maxX = env.maxX;
+		double maxY = env.maxY;
+		int n = 0;
+		for (int i = 0, j = 0; i < count; i++, j += 4)
+		{
+			// branch-free, the index is always written but only kept on a match
+			result[n] = i;
+			n += ((envelopes[j] >= minX) & (envelopes[j + 2] <= maxX) & (envelopes[j + 1] >= minY)
+					& (envelopes[j + 3] <= maxY)) ? 1 : 0;
+		}
+		return n;
+	}
+
+	/**
+	 * Gets an envelope from a flat array.
+	 * @param envelopes envelopes as <code>minX, minY, maxX, maxY</code>
+	 * @param index index of the envelope
+	 * @return {@link Envelope}
+	 */
+	public static Envelope fromArray(double[] envelopes, int index)
+	{
+		int i = index * 4;
+		return new Envelope(envelopes[i], envelopes[i + 1], envelopes[i + 2], envelopes[i + 3]);
+	}
+
+	/**
+	 * Gets an envelope from a box.
+	 * @param box {@link PGboxbase}
+	 * @return {@link Envelope}
+	 */
+	public static Envelope fromBox(PGboxbase box)
+	{
+		Point llb = box.getLLB();
+		Point urt = box.getURT();
+		if (box.is3d() && llb.is3d() && urt.is3d())
+		{
+			return new Envelope(llb.getX(), llb.getY(), llb.getZ(), urt.getX(), urt.getY(), urt.getZ(),
+					box.getSrid());
+		}
+		return new Envelope(llb.getX(), llb.getY(), urt.getX(), urt.getY(), box.getSrid());
+	}
+
+	/**
+	 * Computes the envelope of a geometry. The z coordinates are only considered if the geometry is 3d.
+	 * @param geom {@link Geometry}
+	 * @return {@link Envelope} (empty if the geometry does not contain any coordinates)
+	 */
+	public static Envelope fromGeometry(Geometry geom)
+	{
+		// minX, minY, minZ, maxX, maxY, maxZ
+		double[] bounds = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+				Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+		geom.apply(p -> {
+			// comparisons also skip NaN values of empty points
+			double x = p.getX();
+			double y = p.getY();
+			double z = p.getZ();
+			if (x < bounds[0])
+			{
+				bounds[0] = x;
+			}
+			if (x > bounds[3])
+			{
+				bounds[3] = x;
+			}
+			if (y < bounds[1])
+			{
+				bounds[1] = y;
+			}
+			if (y > bounds[4])
+			{
+				bounds[4] = y;
+			}
+			if (z < bounds[2])
+			{
+				bounds[2] = z;
+			}
+			if (z > bounds[5])
+			{
+				bounds[5] = z;
+			}
+		});
+		if ((bounds[0] > bounds[3]) || (bounds[1] > bounds[4]))
+		{
+			return EMPTY;
+		}
+		if (geom.is3d() && (bounds[2] <= bounds[5]))
+		{
+			return new Envelope(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5], geom.getSrid());
+		}
+		return new Envelope(bounds[0], bounds[1], bounds[3], bounds[4], geom.getSrid());
+	}
+
+	/**
+	 * Parses an envelope from its text representation like <code>SRID=4326;BOX(1 2,3 4)</code>.
+	 * @param value box as text, the prefix (<code>BOX</code>, <code>BOX2D</code> or <code>BOX3D</code>) is optional
+	 * @return {@link Envelope}
+	 * @throws IllegalArgumentException if the value is not a valid box
+	 */
+	public static Envelope parse(CharSequence value)
+	{
+		return BoxParser.parseEnvelope(value);
+	}
+
+	/**
+	 * Computes the union of the given envelopes.
+	 * @param envelopes envelopes as <code>minX, minY, maxX, maxY</code>
+	 * @param count number of envelopes
+	 * @return {@link Envelope} (empty if there are no envelopes)
+	 */
+	public static Envelope union(double[] envelopes, int count)
+	{
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int j = 0; j < count * 4; j += 4)
+		{
+			minX = Math.min(minX, envelopes[j]);
+			minY = Math.min(minY, envelopes[j + 1]);
+			maxX = Math.max(maxX, envelopes[j + 2]);
+			maxY = Math.max(maxY, envelopes[j + 3]);
+		}
+		if ((minX > maxX) || (minY > maxY))
+		{
+			return EMPTY;
+		}
+		return new Envelope(minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Gets the area of this envelope.
+	 * @return area (0 if empty)
+	 */
+	public double area()
+	{
+		if (isEmpty())
+		{
+			return 0;
+		}
+		return (maxX - minX) * (maxY - minY);
+	}
+
+	/**
+	 * Checks if this envelope contains the given coordinate.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return true on success, else false
+	 */
+	public boolean contains(double x, double y)
+	{
+		// comparisons with NaN are always false, so empty envelopes do not contain anything
+		return (x >= minX) && (x <= maxX) && (y >= minY) && (y <= maxY);
+	}
+
+	/**
+	 * Checks if this envelope completely contains the given envelope.
+	 * @param other {@link Envelope}
+	 * @return true on success, else false
+	 */
+	public boolean contains(Envelope other)
+	{
+		return (other.minX >= minX) && (other.maxX <= maxX) && (other.minY >= minY) && (other.maxY <= maxY);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(@Nullable Object obj)
+	{
+		if (this == obj)
+		{
+			return true;
+		}
+		if (obj instanceof Envelope other)
+		{
+			return (srid == other.srid) && PostGisUtil.equalsDouble(minX, other.minX)
+					&& PostGisUtil.equalsDouble(minY, other.minY) && PostGisUtil.equalsDouble(minZ, other.minZ)
+					&& PostGisUtil.equalsDouble(maxX, other.maxX) && PostGisUtil.equalsDouble(maxY, other.maxY)
+					&& PostGisUtil.equalsDouble(maxZ, other.maxZ);
+		}
+		return false;
+	}
+
+	/**
+	 * Gets an envelope expanded to include the given coordinate.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return {@link Envelope} (this instance if the coordinate is already contained)
+	 */
+	public Envelope expandToInclude(double x, double y)
+	{
+		if (contains(x, y) || Double.isNaN(x) || Double.isNaN(y))
+		{
+			return this;
+		}
+		if (isEmpty())
+		{
+			return new Envelope(x, y, x, y, srid);
+		}
+		return new Envelope(Math.min(minX, x), Math.min(minY, y), minZ, Math.max(maxX, x), Math.max(maxY, y), maxZ,
+				srid);
+	}
+
+	/**
+	 * Gets the height of this envelope.
+	 * @return height ({@link Double#NaN} if empty)
+	 */
+	public double getHeight()
+	{
+		return maxY - minY;
+	}
+
+	/**
+	 * Gets the maximum x coordinate.
+	 * @return maximum x coordinate
+	 */
+	public double getMaxX()
+	{
+		return maxX;
+	}
+
+	/**
+	 * Gets the maximum y coordinate.
+	 * @return maximum y coordinate
+	 */
+	public double getMaxY()
+	{
+		return maxY;
+	}
+
+	/**
+	 * Gets the maximum z coordinate.
+	 * @return maximum z coordinate ({@link Double#NaN} if not present)
+	 */
+	public double getMaxZ()
+	{
+		return maxZ;
+	}
+
+	/**
+	 * Gets the minimum x coordinate.
+	 * @return minimum x coordinate
+	 */
+	public double getMinX()
+	{
+		return minX;
+	}
+
+	/**
+	 * Gets the minimum y coordinate.
+	 * @return minimum y coordinate
+	 */
+	public double getMinY()
+	{
+		return minY;
+	}
+
+	/**
+	 * Gets the minimum z coordinate.
+	 * @return minimum z coordinate ({@link Double#NaN} if not present)
+	 */
+	public double getMinZ()
+	{
+		return minZ;
+	}
+
+	/**
+	 * Gets the SRID.
+	 * @return SRID or {@link Geometry#UNKNOWN_SRID}
+	 */
+	public int getSrid()
+	{
+		return srid;
+	}
+
+	/**
+	 * Gets the width of this envelope.
+	 * @return width ({@link Double#NaN} if empty)
+	 */
+	public double getWidth()
+	{
+		return maxX - minX;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode()
+	{
+		int result = srid;
+		result = 31 * result + Double.hashCode(minX);
+		result = 31 * result + Double.hashCode(minY);
+		result = 31 * result + Double.hashCode(minZ);
+		result = 31 * result + Double.hashCode(maxX);
+		result = 31 * result + Double.hashCode(maxY);
+		result = 31 * result + Double.hashCode(maxZ);
+		return result;
+	}
+
+	/**
+	 * Checks if this envelope intersects the given envelope.
+	 * @param other {@link Envelope}
+	 * @return true on success, else false
+	 */
+	public boolean intersects(Envelope other)
+	{
+		// comparisons with NaN are always false, so empty envelopes do not intersect anything
+		return (other.minX <= maxX) && (other.maxX >= minX) && (other.minY <= maxY) && (other.maxY >= minY);
+	}
+
+	/**
+	 * Checks if this envelope is 3d.
+	 * @return true on success, else false
+	 */
+	public boolean is3d()
+	{
+		return !Double.isNaN(minZ) && !Double.isNaN(maxZ);
+	}
+
+	/**
+	 * Checks if this envelope is empty, so it does not contain any coordinates.
+	 * @return true on success, else false
+	 */
+	public boolean isEmpty()
+	{
+		return Double.isNaN(minX) || Double.isNaN(minY) || Double.isNaN(maxX) || Double.isNaN(maxY);
+	}
+
+	/**
+	 * Writes this envelope to a flat array.
+	 * @param envelopes envelopes as <code>minX, minY, maxX, maxY</code>
+	 * @param index index of the envelope
+	 */
+	public void toArray(double[] envelopes, int index)
+	{
+		int i = index * 4;
+		envelopes[i] = minX;
+		envelopes[i + 1] = minY;
+		envelopes[i + 2] = maxX;
+		envelopes[i + 3] = maxY;
+	}
+
+	/**
+	 * Converts this envelope to a box.
+	 * @return {@link PGbox3d} if this envelope is 3d, else {@link PGbox2d}
+	 */
+	public PGboxbase toBox()
+	{
+		PGboxbase box;
+		if (is3d())
+		{
+			box = new PGbox3d(new Point(minX, minY, minZ), new Point(maxX, maxY, maxZ));
+		}
+		else
+		{
+			box = new PGbox2d(new Point(minX, minY), new Point(maxX, maxY));
+		}
+		box.setSrid(srid);
+		return box;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+		if (srid != Geometry.UNKNOWN_SRID)
+		{
+			sb.append("SRID=");
+			sb.append(srid);
+			sb.append(';');
+		}
+		boolean is3d = is3d();
+		sb.append(is3d ? "BOX3D(" : "BOX(");
+		PostGisUtil.appendDouble(sb, minX);
+		sb.append(' ');
+		PostGisUtil.appendDouble(sb, minY);
+		if (is3d)
+		{
+			sb.append(' ');
+			PostGisUtil.appendDouble(sb, minZ);
+		}
+		sb.append(',');
+		PostGisUtil.appendDouble(sb, maxX);
+		sb.append(' ');
+		PostGisUtil.appendDouble(sb, maxY);
+		if (is3d)
+		{
+			sb.append(' ');
+			PostGisUtil.appendDouble(sb, maxZ);
+		}
+		sb.append(')');
+		return sb.toString();
+	}
+
+	/**
+	 * Computes the union of this envelope and the given envelope. The z coordinates are only kept if both envelopes
+	 * are 3d. A known SRID is kept over {@link Geometry#UNKNOWN_SRID}.
+	 * @param other {@link Envelope}
+	 * @return {@link Envelope}
+	 * @throws IllegalArgumentException if both envelopes have a known, but different SRID
+	 */
+	public Envelope union(Envelope other)
+	{
+		int unionSrid = srid;
+		if (unionSrid == Geometry.UNKNOWN_SRID)
+		{
+			unionSrid = other.srid;
+		}
+		else if ((other.srid != Geometry.UNKNOWN_SRID) && (other.srid != unionSrid))
+		{
+			throw new IllegalArgumentException("SRIDs cannot be mixed: " + srid + ", " + other.srid);
+		}
+		if (other.isEmpty())
+		{
+			return withSrid(unionSrid);
+		}
+		if (isEmpty())
+		{
+			return other.withSrid(unionSrid);
+		}
+		boolean both3d = is3d() && other.is3d();
+		return new Envelope(Math.min(minX, other.minX), Math.min(minY, other.minY),
+				both3d ? Math.min(minZ, other.minZ) : Double.NaN, Math.max(maxX, other.maxX),
+				Math.max(maxY, other.maxY), both3d ? Math.max(maxZ, other.maxZ) : Double.NaN, unionSrid);
+	}
+
+	/**
+	 * Gets this envelope with the given SRID.
+	 * @param newSrid SRID
+	 * @return this instance if the SRID is the same, else a new {@link Envelope}
+	 */
+	private Envelope withSrid(int newSrid)
+	{
+		if (newSrid == srid)
+		{
+			return this;
+		}
+		return new Envelope(minX, minY, minZ, maxX, maxY, maxZ, newSrid);
+	}
+
+}
@@ -22,6 +22,12 @@
 
 package io.github.sebasbaumh.postgis;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 
 import javax.annotation.Nullable;
@@ -29,7 +35,7 @@ import javax.annotation.Nullable;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 
 /**
- * The base class of all geometries
+ * The base class of all geometries. Geometries are serialized in a compact form using their EWKB representation.
  */
 @NonNullByDefault
 public abstract class Geometry implements Serializable
@@ -80,6 +86,20 @@ public abstract class Geometry implements Serializable
 		this.type = type;
 	}
 
+	/**
+	 * Applies the given {@link CoordinateFilter} to all coordinates of this {@link Geometry} (including all contained
+	 * geometries), so they can be modified in place. The default implementation filters the points returned by
+	 * {@link #getCoordinates()}, subclasses should override it if those are not the stored coordinates.
+	 * @param filter {@link CoordinateFilter}
+	 */
+	public void apply(CoordinateFilter filter)
+	{
+		for (Point p : getCoordinates())
+		{
+			filter.filter(p);
+		}
+	}
+
 	/**
 	 * Do some internal consistency checks on the geometry. Currently, all Geometries must have a valid dimension (2 or
 	 * 3) and a valid type. Composed geometries must have all equal SRID, dimensionality and measures, as well as that
@@ -94,6 +114,33 @@ public abstract class Geometry implements Serializable
 		return true;
 	}
 
+	/**
+	 * Creates a deep copy of this {@link Geometry}, which can be modified without changing this one. All built-in
+	 * geometries copy their coordinates directly, the default implementation uses serialization, so subclasses should
+	 * override it.
+	 * @return {@link Geometry}
+	 * @throws IllegalStateException if the geometry cannot be serialized
+	 */
+	public Geometry copy()
+	{
+		try
+		{
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+			{
+				out.writeObject(this);
+			}
+			try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+			{
+				return (Geometry) in.readObject();
+			}
+		}
+		catch (IOException | ClassNotFoundException ex)
+		{
+			throw new IllegalStateException("Geometry cannot be copied: " + ex.getMessage(), ex);
+		}
+	}
+
 	/**
 	 * java.lang.Object equals implementation
 	 * @param obj geometry to compare
@@ -175,6 +222,16 @@ public abstract class Geometry implements Serializable
 	 */
 	public abstract boolean isEmpty();
 
+	/**
+	 * Replaces this {@link Geometry} by its EWKB representation on serialization.
+	 * @return serialization proxy
+	 * @throws ObjectStreamException never
+	 */
+	protected Object writeReplace() throws ObjectStreamException
+	{
+		return new GeometrySerializationProxy(this);
+	}
+
 	/**
 	 * Recursively sets the srid on this geometry and all contained subgeometries
 	 * @param srid the SRID for this geometry
@@ -54,4 +54,14 @@ public class GeometryCollection extends MultiGeometry<Geometry>
 	{
 		super(TYPE, geoms);
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#copy()
+	 */
+	@Override
+	public GeometryCollection copy()
+	{
+		return copyTo(new GeometryCollection());
+	}
 }
@@ -0,0 +1,146 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+
+/**
+ * Serialization proxy for {@link Geometry}s. Instead of the object graph containing every single {@link Point} it
+ * writes the whole geometry as EWKB, which is a lot smaller and faster to read and write. Sub-geometries are part of
+ * the EWKB, so they are not shared with other objects in the same stream.
+ * @author Sebastian Baumhekel
+ */
+@NonNullByDefault
+final class GeometrySerializationProxy implements Externalizable
+{
+	private static final long serialVersionUID = 0x100;
+
+	/**
+	 * Flag for a {@link LinearRing}, which has no representation in EWKB on its own and is written as a
+	 * {@link LineString}.
+	 */
+	private static final byte FLAG_LINEAR_RING = 1;
+
+	/**
+	 * The geometry.
+	 */
+	@Nullable
+	private Geometry geometry;
+
+	/**
+	 * Constructs an instance for deserialization.
+	 */
+	public GeometrySerializationProxy()
+	{
+	}
+
+	/**
+	 * Constructs an instance for serialization.
+	 * @param geometry {@link Geometry}
+	 */
+	GeometrySerializationProxy(Geometry geometry)
+	{
+		this.geometry = geometry;
+	}
+
+	@Override
+	public void readExternal(@SuppressWarnings("null") ObjectInput in) throws IOException
+	{
+		byte flags = in.readByte();
+		byte[] data = new byte[in.readInt()];
+		in.readFully(data);
+		try
+		{
+			Geometry geom = BinaryParser.parse(data, 0);
+			if ((flags & FLAG_LINEAR_RING) != 0)
+			{
+				LinearRing ring = new LinearRing(geom.getCoordinates());
+				ring.setSrid(geom.getSrid());
+				geom = ring;
+			}
+			this.geometry = geom;
+		}
+		catch (IllegalArgumentException | IndexOutOfBoundsException ex)
+		{
+			throw new InvalidObjectException("invalid geometry data: " + ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Resolves the deserialized {@link Geometry}.
+	 * @return {@link Geometry}
+	 * @throws ObjectStreamException if no geometry has been read
+	 */
+	private Object readResolve() throws ObjectStreamException
+	{
+		Geometry geom = this.geometry;
+		if (geom == null)
+		{
+			throw new InvalidObjectException("no geometry data");
+		}
+		return geom;
+	}
+
+	@Override
+	public void writeExternal(@SuppressWarnings("null") ObjectOutput out) throws IOException
+	{
+		Geometry geom = this.geometry;
+		if (geom == null)
+		{
+			throw new IllegalStateException("no geometry has been set");
+		}
+		byte flags = 0;
+		if (geom instanceof LinearRing ring)
+		{
+			LineString ls = new LineString(ring.getCoordinates());
+			ls.setSrid(ring.getSrid());
+			geom = ls;
+			flags |= FLAG_LINEAR_RING;
+		}
+		byte[] data;
+		try
+		{
+			data = BinaryWriter.writeBinary(geom);
+		}
+		catch (IllegalArgumentException ex)
+		{
+			throw new IOException("unable to serialize geometry: " + ex.getMessage(), ex);
+		}
+		out.writeByte(flags);
+		out.writeInt(data.length);
+		out.write(data);
+	}
+
+}
@@ -106,6 +106,19 @@ public class LineString extends Curve implements Iterable<Point>
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#apply(io.github.sebasbaumh.postgis.CoordinateFilter)
+	 */
+	@Override
+	public void apply(CoordinateFilter filter)
+	{
+		for (Point p : points)
+		{
+			filter.filter(p);
+		}
+	}
+
 	@Override
 	public boolean checkConsistency()
 	{
@@ -132,6 +145,31 @@ public class LineString extends Curve implements Iterable<Point>
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#copy()
+	 */
+	@Override
+	public LineString copy()
+	{
+		return copyTo(new LineString());
+	}
+
+	/**
+	 * Copies the points and the SRID of this line to the given empty line.
+	 * @param dest destination
+	 * @return destination
+	 */
+	protected <T extends LineString> T copyTo(T dest)
+	{
+		for (Point p : points)
+		{
+			dest.add(p.copy());
+		}
+		dest.setSrid(getSrid());
+		return dest;
+	}
+
 	@Override
 	public boolean equals(@Nullable Object other)
 	{
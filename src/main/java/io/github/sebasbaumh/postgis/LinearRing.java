@@ -52,4 +52,14 @@ public class LinearRing extends LineString
 		super(LinearRing.TYPE, points);
 	}
 
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.LineString#copy()
+	 */
+	@Override
+	public LinearRing copy()
+	{
+		return copyTo(new LinearRing());
+	}
 }
\ No newline at end of file
@@ -79,4 +79,14 @@ public class MultiCurve extends MultiGeometry<Curve>
 		return d;
 	}
 
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#copy()
+	 */
+	@Override
+	public MultiCurve copy()
+	{
+		return copyTo(new MultiCurve());
+	}
 }
@@ -88,6 +88,19 @@ public abstract class MultiGeometry<T extends Geometry> extends Geometry impleme
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#apply(io.github.sebasbaumh.postgis.CoordinateFilter)
+	 */
+	@Override
+	public void apply(CoordinateFilter filter)
+	{
+		for (T geom : subgeoms)
+		{
+			geom.apply(filter);
+		}
+	}
+
 	@Override
 	public boolean checkConsistency()
 	{
@@ -98,6 +111,22 @@ public abstract class MultiGeometry<T extends Geometry> extends Geometry impleme
 		return PostGisUtil.checkConsistency(subgeoms);
 	}
 
+	/**
+	 * Copies the geometries and the SRID of this geometry to the given empty geometry.
+	 * @param dest destination
+	 * @return destination
+	 */
+	@SuppressWarnings("unchecked")
+	protected <M extends MultiGeometry<T>> M copyTo(M dest)
+	{
+		for (T geom : subgeoms)
+		{
+			dest.add((T) geom.copy());
+		}
+		dest.setSrid(getSrid());
+		return dest;
+	}
+
 	@Override
 	public boolean equals(@Nullable Object other)
 	{
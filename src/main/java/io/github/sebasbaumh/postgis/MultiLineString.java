@@ -55,4 +55,14 @@ public class MultiLineString extends MultiGeometry<LineString>
 		super(TYPE, lines);
 	}
 
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#copy()
+	 */
+	@Override
+	public MultiLineString copy()
+	{
+		return copyTo(new MultiLineString());
+	}
 }
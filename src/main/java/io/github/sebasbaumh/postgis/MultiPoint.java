@@ -54,4 +54,14 @@ public class MultiPoint extends MultiGeometry<Point>
 	{
 		super(TYPE, points);
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#copy()
+	 */
+	@Override
+	public MultiPoint copy()
+	{
+		return copyTo(new MultiPoint());
+	}
 }
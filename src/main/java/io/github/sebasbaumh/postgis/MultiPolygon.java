@@ -55,4 +55,14 @@ public class MultiPolygon extends MultiGeometry<Polygon>
 		super(TYPE, polygons);
 	}
 
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#copy()
+	 */
+	@Override
+	public MultiPolygon copy()
+	{
+		return copyTo(new MultiPolygon());
+	}
 }
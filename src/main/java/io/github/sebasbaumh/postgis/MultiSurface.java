@@ -58,4 +58,14 @@ public class MultiSurface extends MultiGeometry<PolygonBase<?>>
 		}
 	}
 
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#copy()
+	 */
+	@Override
+	public MultiSurface copy()
+	{
+		return copyTo(new MultiSurface());
+	}
 }
@@ -23,7 +23,6 @@
 package io.github.sebasbaumh.postgis;
 
 import java.sql.SQLException;
-import java.util.List;
 import java.util.Objects;
 
 import javax.annotation.Nonnull;
@@ -91,26 +90,6 @@ public abstract class PGboxbase extends PGobject
 		setValue(value);
 	}
 
-	/**
-	 * Appends a double value to a {@link StringBuilder}. In contrast to {@link StringBuilder#append(double)} it omits a
-	 * 0 decimal like "1.0" it will output "1".
-	 * @param sb {@link StringBuilder}
-	 * @param d double
-	 */
-	private static void appendDouble(StringBuilder sb, double d)
-	{
-		// check for fractional digits (or if the double exceeds the long range)
-		if (((d % 1.0) != 0) || (d >= Long.MAX_VALUE) || (d <= Long.MIN_VALUE))
-		{
-			sb.append(d);
-		}
-		else
-		{
-			// omit 0-digit
-			sb.append((long) d);
-		}
-	}
-
 	/**
 	 * Converts a point to an inner WKT string like "1 2" or "1 2 3".
 	 * @param sb {@link StringBuilder}
@@ -118,36 +97,16 @@ public abstract class PGboxbase extends PGobject
 	 */
 	private static void appendPoint(StringBuilder sb, Point p)
 	{
-		PGboxbase.appendDouble(sb, p.getX());
+		PostGisUtil.appendDouble(sb, p.getX());
 		sb.append(' ');
-		PGboxbase.appendDouble(sb, p.getY());
+		PostGisUtil.appendDouble(sb, p.getY());
 		if (p.is3d())
 		{
 			sb.append(' ');
-			PGboxbase.appendDouble(sb, p.getZ());
+			PostGisUtil.appendDouble(sb, p.getZ());
 		}
 	}
 
-	/**
-	 * Gets a point from an inner WKT string like "1 2" or "1 2 3".
-	 * @param wkt WKT
-	 * @return {@link Point} on success, else null
-	 * @throws NumberFormatException if a coordinate is invalid
-	 */
-	private static Point pointFromWKT(String wkt)
-	{
-		List<String> tokens = PostGisUtil.split(wkt.trim(), ' ');
-		double x = Double.parseDouble(tokens.get(0));
-		double y = Double.parseDouble(tokens.get(1));
-		// 3d?
-		if (tokens.size() == 3)
-		{
-			double z = Double.parseDouble(tokens.get(2));
-			return new Point(x, y, z);
-		}
-		return new Point(x, y);
-	}
-
 	@Override
 	public PGboxbase clone() throws CloneNotSupportedException
 	{
@@ -269,42 +228,20 @@ public abstract class PGboxbase extends PGobject
 	{
 		try
 		{
-			int srid = Geometry.UNKNOWN_SRID;
-			value = value.trim();
-			if (value.startsWith("SRID="))
-			{
-				int index = value.indexOf(';', 5); // sridprefix length is 5
-				if (index < 0)
-				{
-					throw new SQLException("Error parsing Geometry - SRID not delimited with ';' ");
-				}
-				String sSrid = value.substring(5, index);
-				value = value.substring(index + 1).trim();
-				srid = Integer.parseInt(sSrid);
-				// ensure valid SRID
-				if (srid < 0)
-				{
-					srid = Geometry.UNKNOWN_SRID;
-				}
-			}
-			String myPrefix = getPrefix();
-			if (value.startsWith(myPrefix))
+			// parse all coordinates in a single pass directly into the corners, they are only created once
+			if (llb == null)
 			{
-				value = value.substring(myPrefix.length()).trim();
+				llb = new Point();
 			}
-			String valueNoParans = PostGisUtil.removeBrackets(value);
-			List<String> tokens = PostGisUtil.split(valueNoParans, ',');
-			llb = PGboxbase.pointFromWKT(tokens.get(0));
-			urt = PGboxbase.pointFromWKT(tokens.get(1));
-			if (srid != Geometry.UNKNOWN_SRID)
+			if (urt == null)
 			{
-				llb.setSrid(srid);
-				urt.setSrid(srid);
+				urt = new Point();
 			}
+			BoxParser.parse(value, llb, urt);
 		}
-		catch (NumberFormatException | IndexOutOfBoundsException ex)
+		catch (IllegalArgumentException ex)
 		{
-			throw new SQLException("Error parsing Point: " + ex.getMessage(), ex);
+			throw new SQLException("Error parsing Box: " + ex.getMessage(), ex);
 		}
 	}
 
@@ -23,6 +23,7 @@
 package io.github.sebasbaumh.postgis;
 
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Objects;
 
 import javax.annotation.Nonnull;
@@ -34,7 +35,9 @@ import org.postgresql.util.PGBinaryObject;
 import org.postgresql.util.PGobject;
 
 import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryValueGetter;
 import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+import io.github.sebasbaumh.postgis.binary.GeometryCache;
 
 /**
  * A PostgreSQL JDBC {@link PGobject} extension data type modeling a "geo" type. This class serves as a common
@@ -47,6 +50,23 @@ public abstract class PGgeometrybase extends PGobject implements PGBinaryObject
 	/* JDK 1.5 Serialization */
 	private static final long serialVersionUID = 0x100;
 
+	/**
+	 * Optional cache for interning geometries parsed from their binary representation used by new instances.
+	 */
+	@Nullable
+	private static volatile GeometryCache defaultGeometryCache;
+
+	/**
+	 * Compare this instance with others by the binary representation of the geometry byte by byte?
+	 */
+	private boolean binaryEquality;
+
+	/**
+	 * Optional cache for interning geometries parsed from their binary representation.
+	 */
+	@Nullable
+	private transient GeometryCache geometryCache = defaultGeometryCache;
+
 	/**
 	 * Underlying geometry.
 	 */
@@ -54,10 +74,25 @@ public abstract class PGgeometrybase extends PGobject implements PGBinaryObject
 	protected Geometry geometry;
 
 	/**
-	 * Geometry data as bytes.
+	 * Geometry data as bytes (only used as a cache, the geometry itself is serialized).
 	 */
 	@Nullable
-	private byte[] geometryData;
+	private transient byte[] geometryData;
+
+	/**
+	 * Cached hash code of the geometry (only valid if there is binary data and binary equality is enabled).
+	 */
+	private transient int geometryHash;
+
+	/**
+	 * Is the hash code of the geometry cached?
+	 */
+	private transient boolean geometryHashed;
+
+	/**
+	 * Is the geometry shared with a {@link GeometryCache}?
+	 */
+	private transient boolean geometryShared;
 
 	/**
 	 * Constructs an instance.
@@ -94,15 +129,49 @@ public abstract class PGgeometrybase extends PGobject implements PGBinaryObject
 		setValue(value);
 	}
 
+	/**
+	 * Applies the given {@link CoordinateFilter} to all coordinates of the underlying {@link Geometry} (if there is
+	 * one) and resets the cached binary data.
+	 * @param filter {@link CoordinateFilter}
+	 */
+	public void apply(CoordinateFilter filter)
+	{
+		// never change a shared geometry, but work on a copy of it
+		Geometry geom = getGeometry();
+		if (geom != null)
+		{
+			geom.apply(filter);
+		}
+		// reset binary data
+		resetBinaryValue();
+	}
+
 	@Override
 	public PGgeometrybase clone() throws CloneNotSupportedException
 	{
 		PGgeometrybase o = (PGgeometrybase) super.clone();
 		o.setType(this.getType());
-		o.setGeometry(this.getGeometry());
+		o.setGeometry(this.geometry);
+		o.geometryShared = this.geometryShared;
 		return o;
 	}
 
+	/**
+	 * Gets a copy of the underlying {@link Geometry}, which can be modified without affecting this instance.
+	 * @return {@link Geometry} on success, else null
+	 * @see Geometry#copy()
+	 */
+	@Nullable
+	public Geometry copyGeometry()
+	{
+		Geometry geom = this.geometry;
+		if (geom != null)
+		{
+			return geom.copy();
+		}
+		return null;
+	}
+
 	@Override
 	public boolean equals(@Nullable Object obj)
 	{
@@ -115,6 +184,22 @@ public abstract class PGgeometrybase extends PGobject implements PGBinaryObject
 			return false;
 		}
 		PGgeometrybase other = (PGgeometrybase) obj;
+		// both have to use binary equality to keep equals symmetric
+		if (this.binaryEquality && other.binaryEquality)
+		{
+			// different hash codes cannot be equal
+			if (this.geometryHashed && other.geometryHashed && (this.geometryHash != other.geometryHash))
+			{
+				return false;
+			}
+			// compare the binary representation byte by byte (it is created if needed)
+			byte[] data = this.getBinaryValue();
+			byte[] otherData = other.getBinaryValue();
+			if ((data != null) && (otherData != null))
+			{
+				return Arrays.equals(data, otherData);
+			}
+		}
 		return Objects.equals(this.geometry, other.geometry);
 	}
 
@@ -143,11 +228,54 @@ public abstract class PGgeometrybase extends PGobject implements PGBinaryObject
 	}
 
 	/**
-	 * Gets the underlying {@link Geometry}.
+	 * Gets the cache used for interning geometries parsed from their binary representation by new instances.
+	 * @return {@link GeometryCache} on success, else null
+	 * @see #setDefaultGeometryCache(GeometryCache)
+	 */
+	@Nullable
+	public static GeometryCache getDefaultGeometryCache()
+	{
+		return defaultGeometryCache;
+	}
+
+	/**
+	 * Gets the underlying {@link Geometry}, which can be modified. A geometry shared with other instances by a
+	 * {@link GeometryCache} is replaced by a copy of it ({@link Geometry#copy()}) on the first call. Use
+	 * {@link #getSharedGeometry()} to read the geometry without copying it.
 	 * @return {@link Geometry} on success, else null
 	 */
 	@Nullable
 	public Geometry getGeometry()
+	{
+		Geometry geom = this.geometry;
+		if ((geom != null) && geometryShared)
+		{
+			geom = geom.copy();
+			this.geometry = geom;
+			this.geometryShared = false;
+		}
+		return geom;
+	}
+
+	/**
+	 * Gets the cache used for interning geometries parsed from their binary representation by this instance.
+	 * @return {@link GeometryCache} on success, else null
+	 */
+	@Nullable
+	public GeometryCache getGeometryCache()
+	{
+		return geometryCache;
+	}
+
+	/**
+	 * Gets the underlying {@link Geometry} without copying it, so it may be shared with other instances by a
+	 * {@link GeometryCache} and must be treated as immutable. Use {@link #getGeometry()} or {@link #copyGeometry()} to
+	 * modify it.
+	 * @return {@link Geometry} on success, else null
+	 * @see #isGeometryShared()
+	 */
+	@Nullable
+	public Geometry getSharedGeometry()
 	{
 		return geometry;
 	}
@@ -166,7 +294,39 @@ public abstract class PGgeometrybase extends PGobject implements PGBinaryObject
 	@Override
 	public int hashCode()
 	{
-		return Objects.hashCode(geometry);
+		// short cut
+		if (this.geometryHashed)
+		{
+			return this.geometryHash;
+		}
+		int hash = Objects.hashCode(geometry);
+		// the hash code can only be cached while the geometry is unchanged
+		if (binaryEquality && (this.geometryData != null))
+		{
+			this.geometryHash = hash;
+			this.geometryHashed = true;
+		}
+		return hash;
+	}
+
+	/**
+	 * Checks if this instance is compared with others by the binary representation of its geometry.
+	 * @return true on success, else false
+	 * @see #setBinaryEquality(boolean)
+	 */
+	public boolean isBinaryEquality()
+	{
+		return binaryEquality;
+	}
+
+	/**
+	 * Checks if the underlying {@link Geometry} is shared with other instances by a {@link GeometryCache}, so it must
+	 * not be modified.
+	 * @return true on success, else false
+	 */
+	public boolean isGeometryShared()
+	{
+		return geometryShared;
 	}
 
 	@Override
@@ -181,11 +341,64 @@ public abstract class PGgeometrybase extends PGobject implements PGBinaryObject
 		return 0;
 	}
 
+	/**
+	 * Resets the cached binary data and hash code.
+	 */
+	private void resetBinaryValue()
+	{
+		this.geometryData = null;
+		this.geometryHashed = false;
+	}
+
+	/**
+	 * Sets if this instance should be compared with others by the binary representation of its geometry byte by byte.
+	 * The comparison is only used if both instances have it enabled. If it is enabled,
+	 * {@link #setByteValue(byte[], int)} keeps a copy of the raw EWKB data, otherwise the binary representation is created on the first comparison and kept. This is an exact comparison, so
+	 * geometries which differ in their encoding (e.g. byte order) or by less than the tolerance of
+	 * {@link Point#equals(Object)} are not considered equal. The hash code is cached while the binary data is held.
+	 * <p>
+	 * In this mode the geometry should only be modified by {@link #apply(CoordinateFilter)} or replaced by
+	 * {@link #setGeometry(Geometry)}, which both reset the binary data.
+	 * </p>
+	 * @param enabled true to enable it, else false (default)
+	 */
+	public void setBinaryEquality(boolean enabled)
+	{
+		this.binaryEquality = enabled;
+		// the hash code is only cached in this mode
+		this.geometryHashed = false;
+	}
+
 	@Override
 	public void setByteValue(@SuppressWarnings("null") byte[] value, int offset) throws SQLException
 	{
-		// parse the given bytes
-		this.geometry = BinaryParser.parse(value, offset);
+		resetBinaryValue();
+		// parse the given bytes or get a shared geometry from the cache
+		GeometryCache cache = geometryCache;
+		if (cache != null)
+		{
+			this.geometry = cache.getShared(value, offset);
+			this.geometryShared = true;
+			if (binaryEquality)
+			{
+				// keep the raw data of the geometry for comparing it, but not any trailing bytes of the given array
+				this.geometryData = Arrays.copyOfRange(value, offset,
+						offset + BinaryParser.getLength(value, offset));
+			}
+		}
+		else if (binaryEquality)
+		{
+			BinaryValueGetter data = new BinaryValueGetter(value, offset);
+			this.geometry = BinaryParser.parse(data);
+			this.geometryShared = false;
+			// keep the raw data of the geometry for comparing it, but not any trailing bytes of the given array
+			this.geometryData = Arrays.copyOfRange(value, offset, data.getPosition());
+		}
+		else
+		{
+			this.geometry = BinaryParser.parse(value, offset);
+			this.geometryShared = false;
+		}
 	}
 
 	/**
@@ -195,16 +408,42 @@ public abstract class PGgeometrybase extends PGobject implements PGBinaryObject
 	public void setGeometry(@Nullable Geometry newgeom)
 	{
 		this.geometry = newgeom;
+		this.geometryShared = false;
 		// reset binary data
-		this.geometryData = null;
+		resetBinaryValue();
+	}
+
+	/**
+	 * Sets the cache for interning geometries parsed from their binary representation used by all instances created
+	 * afterwards, including the ones created by the JDBC driver for all connections of this JVM (and class loader).
+	 * Existing instances keep their cache. Reset it to null to disable caching again.
+	 * @param cache {@link GeometryCache} (null to disable caching)
+	 * @see #setGeometryCache(GeometryCache)
+	 */
+	public static void setDefaultGeometryCache(@Nullable GeometryCache cache)
+	{
+		defaultGeometryCache = cache;
+	}
+
+	/**
+	 * Sets a cache for interning geometries parsed from their binary representation by
+	 * {@link #setByteValue(byte[], int)} of this instance, so repeated values are only parsed once and share the same
+	 * {@link Geometry} instance (see {@link #getSharedGeometry()}). It defaults to the cache set by
+	 * {@link #setDefaultGeometryCache(GeometryCache)}.
+	 * @param cache {@link GeometryCache} (null to disable caching)
+	 */
+	public void setGeometryCache(@Nullable GeometryCache cache)
+	{
+		this.geometryCache = cache;
 	}
 
 	@Override
 	public void setValue(@SuppressWarnings("null") @Nonnull String value) throws SQLException
 	{
 		this.geometry = BinaryParser.parse(value);
+		this.geometryShared = false;
 		// reset binary data
-		this.geometryData = null;
+		resetBinaryValue();
 	}
 
 	@Override
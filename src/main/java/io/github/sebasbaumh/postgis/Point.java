@@ -109,6 +109,16 @@ public class Point extends Geometry
 		this.m = m;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#apply(io.github.sebasbaumh.postgis.CoordinateFilter)
+	 */
+	@Override
+	public void apply(CoordinateFilter filter)
+	{
+		filter.filter(this);
+	}
+
 	@Override
 	public boolean checkConsistency()
 	{
@@ -131,6 +141,7 @@ public class Point extends Geometry
 	 * Creates a copy of this {@link Point}.
 	 * @return {@link Point}
 	 */
+	@Override
 	public Point copy()
 	{
 		Point p = new Point(this.x, this.y, this.z, this.m);
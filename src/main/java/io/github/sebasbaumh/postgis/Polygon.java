@@ -63,4 +63,14 @@ public class Polygon extends PolygonBase<LinearRing>
 		super(TYPE, lsOuterRing);
 	}
 
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#copy()
+	 */
+	@Override
+	public Polygon copy()
+	{
+		return copyRingsTo(new Polygon(copyOuterRing()));
+	}
 }
@@ -113,6 +113,31 @@ public abstract class PolygonBase<T extends Curve> extends Geometry implements I
 		this.rings.add(ring);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#apply(io.github.sebasbaumh.postgis.CoordinateFilter)
+	 */
+	@Override
+	public void apply(CoordinateFilter filter)
+	{
+		// a mirroring filter changes the orientation, so keep the orientation of the outer ring
+		boolean clockwise = lsOuterRing.isClockwise();
+		lsOuterRing.apply(filter);
+		if (lsOuterRing.isClockwise() != clockwise)
+		{
+			lsOuterRing.reverse();
+		}
+		for (T ring : rings)
+		{
+			ring.apply(filter);
+			// and ensure correct orientation for holes again
+			if (!ring.isClockwise())
+			{
+				ring.reverse();
+			}
+		}
+	}
+
 	@Override
 	public boolean checkConsistency()
 	{
@@ -131,6 +156,32 @@ public abstract class PolygonBase<T extends Curve> extends Geometry implements I
 		this.rings.clear();
 	}
 
+	/**
+	 * Creates a copy of the outer ring.
+	 * @return ring
+	 */
+	@SuppressWarnings("unchecked")
+	protected T copyOuterRing()
+	{
+		return (T) lsOuterRing.copy();
+	}
+
+	/**
+	 * Copies the inner rings and the SRID of this polygon to the given polygon.
+	 * @param dest destination (without inner rings)
+	 * @return destination
+	 */
+	@SuppressWarnings("unchecked")
+	protected <P extends PolygonBase<T>> P copyRingsTo(P dest)
+	{
+		for (T ring : rings)
+		{
+			dest.addRing((T) ring.copy());
+		}
+		dest.setSrid(getSrid());
+		return dest;
+	}
+
 	/**
 	 * Creates a new empty ring.
 	 * @param clazzRing class of the ring
@@ -157,7 +208,9 @@ public abstract class PolygonBase<T extends Curve> extends Geometry implements I
 		// check type and parent
 		if ((other instanceof PolygonBase<?> poly) && super.equals(other))
 		{
-			return PostGisUtil.equalsIterable(this.rings, poly.rings);
+			// compare the number of rings first before comparing any coordinates
+			return (this.rings.size() == poly.rings.size()) && this.lsOuterRing.equals(poly.lsOuterRing)
+					&& PostGisUtil.equalsIterable(this.rings, poly.rings);
 		}
 		return false;
 	}
@@ -244,6 +297,10 @@ public abstract class PolygonBase<T extends Curve> extends Geometry implements I
 	@Override
 	public boolean hasMeasure()
 	{
+		if (lsOuterRing.hasMeasure())
+		{
+			return true;
+		}
 		for (T geom : rings)
 		{
 			if (geom.hasMeasure())
@@ -261,6 +318,10 @@ public abstract class PolygonBase<T extends Curve> extends Geometry implements I
 	@Override
 	public boolean is3d()
 	{
+		if (lsOuterRing.is3d())
+		{
+			return true;
+		}
 		for (T geom : rings)
 		{
 			if (geom.is3d())
@@ -23,6 +23,7 @@
 package io.github.sebasbaumh.postgis;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -55,6 +56,15 @@ public final class PostGisUtil
 	 * Little endian encoding.
 	 */
 	public static final byte LITTLE_ENDIAN = 1;
+	/**
+	 * Maximum number of significant digits collected when parsing a double value.
+	 */
+	private static final int MAX_DIGITS = 18;
+	/**
+	 * Powers of 10 that can be represented exactly as a double.
+	 */
+	private static final double[] POW10 = new double[] { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
 
 	// prevent instantiating this class
 	@Deprecated
@@ -62,6 +72,26 @@ public final class PostGisUtil
 	{
 	}
 
+	/**
+	 * Appends a double value to a {@link StringBuilder}. In contrast to {@link StringBuilder#append(double)} it omits a
+	 * 0 decimal like "1.0" it will output "1".
+	 * @param sb {@link StringBuilder}
+	 * @param d double
+	 */
+	public static void appendDouble(StringBuilder sb, double d)
+	{
+		// check for fractional digits (or if the double exceeds the long range)
+		if (((d % 1.0) != 0) || (d >= Long.MAX_VALUE) || (d <= Long.MIN_VALUE))
+		{
+			sb.append(d);
+		}
+		else
+		{
+			// omit 0-digit
+			sb.append((long) d);
+		}
+	}
+
 	/**
 	 * Calculates the area of the outer ring of the given polygon (signed).
 	 * @param points points
@@ -181,6 +211,11 @@ public final class PostGisUtil
 		{
 			return false;
 		}
+		// collections of different sizes can be rejected without comparing any item
+		if ((la instanceof Collection<?> ca) && (lb instanceof Collection<?> cb) && (ca.size() != cb.size()))
+		{
+			return false;
+		}
 		// walk through items
 		Iterator<T> it = la.iterator();
 		Iterator<U> it2 = lb.iterator();
@@ -240,6 +275,113 @@ public final class PostGisUtil
 		return last;
 	}
 
+	/**
+	 * Parses a double value like {@link Double#parseDouble(String)}, but directly from a part of a
+	 * {@link CharSequence}. Values with up to 15 significant digits and a small exponent are converted exactly without
+	 * creating a {@link String}.
+	 * @param s {@link CharSequence}
+	 * @param start start index
+	 * @param end end index (exclusive)
+	 * @return double value
+	 * @throws NumberFormatException if the value is not a valid decimal number
+	 */
+	public static double parseDouble(CharSequence s, int start, int end)
+	{
+		int i = start;
+		boolean negative = false;
+		if ((i < end) && ((s.charAt(i) == '-') || (s.charAt(i) == '+')))
+		{
+			negative = s.charAt(i) == '-';
+			i++;
+		}
+		// collect the significant digits in a long and count the decimal exponent
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean anyDigit = false;
+		boolean truncated = false;
+		boolean fraction = false;
+		for (; i < end; i++)
+		{
+			char c = s.charAt(i);
+			if ((c >= '0') && (c <= '9'))
+			{
+				anyDigit = true;
+				if (digits < MAX_DIGITS)
+				{
+					mantissa = mantissa * 10 + (c - '0');
+					if (mantissa != 0)
+					{
+						digits++;
+					}
+					if (fraction)
+					{
+						exponent--;
+					}
+				}
+				else
+				{
+					truncated |= c != '0';
+					if (!fraction)
+					{
+						exponent++;
+					}
+				}
+			}
+			else if ((c == '.') && !fraction)
+			{
+				fraction = true;
+			}
+			else
+			{
+				break;
+			}
+		}
+		if (!anyDigit)
+		{
+			throw new NumberFormatException("Invalid number: " + s.subSequence(start, end));
+		}
+		// exponent
+		if ((i < end) && ((s.charAt(i) == 'e') || (s.charAt(i) == 'E')))
+		{
+			i++;
+			boolean negativeExponent = false;
+			if ((i < end) && ((s.charAt(i) == '-') || (s.charAt(i) == '+')))
+			{
+				negativeExponent = s.charAt(i) == '-';
+				i++;
+			}
+			int e = 0;
+			int expStart = i;
+			for (; (i < end) && (s.charAt(i) >= '0') && (s.charAt(i) <= '9'); i++)
+			{
+				// limit the exponent as everything beyond will be infinity or zero anyway
+				if (e < 100000)
+				{
+					e = e * 10 + (s.charAt(i) - '0');
+				}
+			}
+			if (i == expStart)
+			{
+				throw new NumberFormatException("Invalid number: " + s.subSequence(start, end));
+			}
+			exponent += negativeExponent ? -e : e;
+		}
+		if (i != end)
+		{
+			throw new NumberFormatException("Invalid number: " + s.subSequence(start, end));
+		}
+		// fast path: the mantissa and the power of 10 are exact doubles, so a single operation is correctly rounded
+		if (!truncated && (mantissa < (1L << 53)) && (exponent >= -22) && (exponent <= 22))
+		{
+			double d = mantissa;
+			d = (exponent < 0) ? d / POW10[-exponent] : d * POW10[exponent];
+			return negative ? -d : d;
+		}
+		// rare case of many significant digits or large exponents
+		return Double.parseDouble(s.subSequence(start, end).toString());
+	}
+
 	/**
 	 * Removes brackets from the given {@link String}.
 	 * @param s {@link String}
@@ -0,0 +1,422 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * A triangulated irregular network (TIN), which is a set of triangles. As a TIN can consist of millions of triangles,
+ * the coordinates are kept in a single packed array storing only the 3 distinct vertices of each triangle. The
+ * {@link Triangle}s are only created on access.
+ * @author Sebastian Baumhekel
+ */
+@NonNullByDefault
+public final class Tin extends Geometry implements Iterable<Triangle>
+{
+	/* JDK 1.5 Serialization */
+	private static final long serialVersionUID = 0x100;
+	/**
+	 * The OGIS geometry type number for triangulated irregular networks.
+	 */
+	public static final int TYPE = 16;
+
+	/**
+	 * Packed coordinates, 3 vertices per triangle with x, y, (z), (m) each.
+	 */
+	private double[] coords;
+	private boolean haveM;
+	private boolean haveZ;
+	private int numTriangles;
+
+	/**
+	 * Constructs an instance.
+	 */
+	public Tin()
+	{
+		super(TYPE);
+		this.coords = new double[0];
+	}
+
+	/**
+	 * Constructs an instance from the given packed coordinates. Each triangle consists of 3 vertices (without the
+	 * closing vertex) with x, y, z (if present) and m (if present) ordinates each. The coordinates are copied.
+	 * @param coords packed coordinates
+	 * @param numTriangles number of triangles
+	 * @param haveZ are there z ordinates?
+	 * @param haveM are there m ordinates?
+	 * @throws IllegalArgumentException if the array is too small for the given number of triangles
+	 */
+	public Tin(double[] coords, int numTriangles, boolean haveZ, boolean haveM)
+	{
+		super(TYPE);
+		this.haveZ = haveZ;
+		this.haveM = haveM;
+		int size = numTriangles * 3 * getDimension();
+		if ((numTriangles < 0) || (coords.length < size))
+		{
+			throw new IllegalArgumentException("not enough coordinates for " + numTriangles + " triangles");
+		}
+		this.coords = Arrays.copyOf(coords, size);
+		this.numTriangles = numTriangles;
+	}
+
+	/**
+	 * Constructs an instance.
+	 * @param triangles triangles
+	 * @throws IllegalArgumentException if a triangle does not have 3 distinct vertices
+	 */
+	public Tin(Iterable<Triangle> triangles)
+	{
+		super(TYPE);
+		ArrayList<Triangle> l = new ArrayList<Triangle>();
+		for (Triangle t : triangles)
+		{
+			// the dimension is determined by all triangles
+			haveZ |= t.is3d();
+			haveM |= t.hasMeasure();
+			l.add(t);
+		}
+		this.coords = new double[l.size() * 3 * getDimension()];
+		for (Triangle t : l)
+		{
+			add(t);
+		}
+	}
+
+	/**
+	 * Adds a triangle. Ordinates not supported by this {@link Tin} (see {@link #is3d()} and {@link #hasMeasure()}) are
+	 * dropped, missing ones are set to NaN.
+	 * @param triangle {@link Triangle}
+	 * @throws IllegalArgumentException if the triangle does not have 3 distinct vertices
+	 */
+	public void add(Triangle triangle)
+	{
+		LinearRing ring = triangle.getOuterRing();
+		if (ring.getNumberOfCoordinates() < 3)
+		{
+			throw new IllegalArgumentException("a triangle needs 3 vertices");
+		}
+		int dimension = getDimension();
+		int stride = 3 * dimension;
+		ensureCapacity((numTriangles + 1) * stride);
+		int offset = numTriangles * stride;
+		Iterator<Point> it = ring.iterator();
+		for (int i = 0; i < 3; i++, offset += dimension)
+		{
+			Point p = it.next();
+			coords[offset] = p.getX();
+			coords[offset + 1] = p.getY();
+			if (haveZ)
+			{
+				coords[offset + 2] = p.getZ();
+			}
+			if (haveM)
+			{
+				coords[offset + dimension - 1] = p.getM();
+			}
+		}
+		numTriangles++;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#apply(io.github.sebasbaumh.postgis.CoordinateFilter)
+	 */
+	@Override
+	public void apply(CoordinateFilter filter)
+	{
+		int dimension = getDimension();
+		// reuse a single point for all vertices and write the values back afterwards
+		Point p = new Point();
+		for (int offset = 0, n = numTriangles * 3 * dimension; offset < n; offset += dimension)
+		{
+			p.setX(coords[offset]);
+			p.setY(coords[offset + 1]);
+			p.setZ(haveZ ? coords[offset + 2] : Double.NaN);
+			p.setM(haveM ? coords[offset + dimension - 1] : Double.NaN);
+			filter.filter(p);
+			coords[offset] = p.getX();
+			coords[offset + 1] = p.getY();
+			if (haveZ)
+			{
+				coords[offset + 2] = p.getZ();
+			}
+			if (haveM)
+			{
+				coords[offset + dimension - 1] = p.getM();
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#checkConsistency()
+	 */
+	@Override
+	public boolean checkConsistency()
+	{
+		return super.checkConsistency() && (numTriangles > 0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#copy()
+	 */
+	@Override
+	public Tin copy()
+	{
+		Tin tin = new Tin(coords, numTriangles, haveZ, haveM);
+		tin.setSrid(getSrid());
+		return tin;
+	}
+
+	/**
+	 * Ensures the coordinate array can hold the given number of values.
+	 * @param size number of values
+	 */
+	private void ensureCapacity(int size)
+	{
+		if (coords.length < size)
+		{
+			coords = Arrays.copyOf(coords, Math.max(size, coords.length * 2));
+		}
+	}
+
+	@Override
+	public boolean equals(@Nullable Object other)
+	{
+		// check type and parent
+		if ((other instanceof Tin tin) && super.equals(other))
+		{
+			if ((this.haveZ != tin.haveZ) || (this.haveM != tin.haveM) || (this.numTriangles != tin.numTriangles))
+			{
+				return false;
+			}
+			// compare ordinates like for points
+			for (int i = 0, n = getNumberOfValues(); i < n; i++)
+			{
+				if (!PostGisUtil.equalsDouble(this.coords[i], tin.coords[i]))
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#getCoordinates()
+	 */
+	@Override
+	public Iterable<Point> getCoordinates()
+	{
+		// include the closing vertex of each triangle like for any other polygon
+		ArrayList<Point> l = new ArrayList<Point>(numTriangles * 4);
+		for (int i = 0; i < numTriangles; i++)
+		{
+			Point first = getVertex(i, 0);
+			l.add(first);
+			l.add(getVertex(i, 1));
+			l.add(getVertex(i, 2));
+			l.add(first.copy());
+		}
+		return l;
+	}
+
+	/**
+	 * Gets the number of ordinates per vertex.
+	 * @return dimension (2 to 4)
+	 */
+	public int getDimension()
+	{
+		return 2 + (haveZ ? 1 : 0) + (haveM ? 1 : 0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#getNumberOfCoordinates()
+	 */
+	@Override
+	public int getNumberOfCoordinates()
+	{
+		return numTriangles * 4;
+	}
+
+	/**
+	 * Gets the number of triangles.
+	 * @return number of triangles
+	 */
+	public int getNumberOfTriangles()
+	{
+		return numTriangles;
+	}
+
+	/**
+	 * Gets the number of used values in the packed coordinate array.
+	 * @return number of values
+	 */
+	private int getNumberOfValues()
+	{
+		return numTriangles * 3 * getDimension();
+	}
+
+	/**
+	 * Gets a single ordinate without creating any objects.
+	 * @param triangle index of the triangle
+	 * @param vertex index of the vertex (0 to 2)
+	 * @param ordinate index of the ordinate (0 to {@link #getDimension()}-1)
+	 * @return ordinate
+	 * @throws IndexOutOfBoundsException if an index is invalid
+	 */
+	public double getOrdinate(int triangle, int vertex, int ordinate)
+	{
+		int dimension = getDimension();
+		if ((triangle < 0) || (triangle >= numTriangles) || (vertex < 0) || (vertex > 2) || (ordinate < 0)
+				|| (ordinate >= dimension))
+		{
+			throw new IndexOutOfBoundsException(triangle + "/" + vertex + "/" + ordinate);
+		}
+		return coords[(triangle * 3 + vertex) * dimension + ordinate];
+	}
+
+	/**
+	 * Gets a triangle. The returned {@link Triangle} is a copy, so changing it does not change this {@link Tin}.
+	 * @param index index of the triangle
+	 * @return {@link Triangle}
+	 * @throws IndexOutOfBoundsException if the index is invalid
+	 */
+	public Triangle getTriangle(int index)
+	{
+		if ((index < 0) || (index >= numTriangles))
+		{
+			throw new IndexOutOfBoundsException(index);
+		}
+		Triangle t = new Triangle(getVertex(index, 0), getVertex(index, 1), getVertex(index, 2));
+		t.setSrid(getSrid());
+		return t;
+	}
+
+	/**
+	 * Creates a point for the given vertex.
+	 * @param triangle index of the triangle
+	 * @param vertex index of the vertex
+	 * @return {@link Point}
+	 */
+	private Point getVertex(int triangle, int vertex)
+	{
+		int dimension = getDimension();
+		int offset = (triangle * 3 + vertex) * dimension;
+		return new Point(coords[offset], coords[offset + 1], haveZ ? coords[offset + 2] : Double.NaN,
+				haveM ? coords[offset + dimension - 1] : Double.NaN);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		int result = 31 * super.hashCode() + numTriangles;
+		for (int i = 0, n = getNumberOfValues(); i < n; i++)
+		{
+			result = 31 * result + Double.hashCode(coords[i]);
+		}
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#hasMeasure()
+	 */
+	@Override
+	public boolean hasMeasure()
+	{
+		return haveM;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#is3d()
+	 */
+	@Override
+	public boolean is3d()
+	{
+		return haveZ;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#isEmpty()
+	 */
+	@Override
+	public boolean isEmpty()
+	{
+		return numTriangles == 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<Triangle> iterator()
+	{
+		return new Iterator<Triangle>()
+		{
+			private int index;
+
+			@Override
+			public boolean hasNext()
+			{
+				return index < numTriangles;
+			}
+
+			@Override
+			public Triangle next()
+			{
+				if (index >= numTriangles)
+				{
+					throw new NoSuchElementException();
+				}
+				return getTriangle(index++);
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return this.getClass().getSimpleName() + " [" + numTriangles + " triangles]";
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * A triangle, which is a polygon with exactly 3 distinct vertices and no holes.
+ * @author Sebastian Baumhekel
+ */
+@NonNullByDefault
+public class Triangle extends PolygonBase<LinearRing>
+{
+	private static final long serialVersionUID = 0x100;
+	/**
+	 * The OGIS geometry type number for triangles.
+	 */
+	public static final int TYPE = 17;
+
+	/**
+	 * Constructs an instance.
+	 */
+	public Triangle()
+	{
+		super(TYPE, LinearRing.class);
+	}
+
+	/**
+	 * Constructs an instance with the given rings.
+	 * @param rings rings (first one will be the outer ring, there should be no others)
+	 */
+	public Triangle(Iterable<LinearRing> rings)
+	{
+		super(TYPE, LinearRing.class, rings);
+	}
+
+	/**
+	 * Constructs an instance.
+	 * @param lsOuterRing outer ring
+	 */
+	public Triangle(LinearRing lsOuterRing)
+	{
+		super(TYPE, lsOuterRing);
+	}
+
+	/**
+	 * Constructs an instance from the given vertices. The outer ring is closed automatically.
+	 * @param a first vertex
+	 * @param b second vertex
+	 * @param c third vertex
+	 */
+	public Triangle(Point a, Point b, Point c)
+	{
+		super(TYPE, createRing(a, b, c));
+	}
+
+	/**
+	 * Creates a closed ring from the given vertices.
+	 * @param a first vertex
+	 * @param b second vertex
+	 * @param c third vertex
+	 * @return {@link LinearRing}
+	 */
+	private static LinearRing createRing(Point a, Point b, Point c)
+	{
+		LinearRing ring = new LinearRing();
+		ring.add(a);
+		ring.add(b);
+		ring.add(c);
+		ring.add(a.copy());
+		return ring;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.PolygonBase#checkConsistency()
+	 */
+	@Override
+	public boolean checkConsistency()
+	{
+		// a triangle has no holes and its outer ring consists of 3 vertices and the closing one
+		return super.checkConsistency() && (getNumberOfRings() == 0)
+				&& (isEmpty() || ((getNumberOfCoordinates() == 4) && isClosed()));
+	}
+
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.Geometry#copy()
+	 */
+	@Override
+	public Triangle copy()
+	{
+		return copyRingsTo(new Triangle(copyOuterRing()));
+	}
+}
@@ -0,0 +1,295 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.algorithms;
+
+import javax.annotation.Nullable;
+
+import io.github.sebasbaumh.postgis.CoordinateFilter;
+import io.github.sebasbaumh.postgis.Point;
+
+/**
+ * An affine transformation of 2d and 3d coordinates given by a 3x4 matrix. The z row is only applied to 3d
+ * coordinates, 2d coordinates are treated as having a z value of 0. Measure values are not changed.
+ * <p>
+ * It can be applied to geometries in place using {@link io.github.sebasbaumh.postgis.Geometry#apply(CoordinateFilter)}
+ * or to packed coordinate arrays. The loops over separate ordinate arrays are simple enough to be vectorized by the
+ * JIT compiler. Instances are immutable and can be shared between threads.
+ * </p>
+ * @author Sebastian Baumhekel
+ */
+public final class AffineTransformation implements CoordinateFilter
+{
+	private final double m00;
+	private final double m01;
+	private final double m02;
+	private final double m03;
+	private final double m10;
+	private final double m11;
+	private final double m12;
+	private final double m13;
+	private final double m20;
+	private final double m21;
+	private final double m22;
+	private final double m23;
+
+	/**
+	 * Constructs a 2d transformation: <code>x' = m00 * x + m01 * y + m02</code> and
+	 * <code>y' = m10 * x + m11 * y + m12</code>.
+	 * @param m00 x scale
+	 * @param m01 x shear
+	 * @param m02 x translation
+	 * @param m10 y shear
+	 * @param m11 y scale
+	 * @param m12 y translation
+	 */
+	public AffineTransformation(double m00, double m01, double m02, double m10, double m11, double m12)
+	{
+		this(m00, m01, 0, m02, m10, m11, 0, m12, 0, 0, 1, 0);
+	}
+
+	/**
+	 * Constructs a 3d transformation: <code>x' = m00 * x + m01 * y + m02 * z + m03</code>,
+	 * <code>y' = m10 * x + m11 * y + m12 * z + m13</code> and <code>z' = m20 * x + m21 * y + m22 * z + m23</code>.
+	 * @param m00 matrix value
+	 * @param m01 matrix value
+	 * @param m02 matrix value
+	 * @param m03 x translation
+	 * @param m10 matrix value
+	 * @param m11 matrix value
+	 * @param m12 matrix value
+	 * @param m13 y translation
+	 * @param m20 matrix value
+	 * @param m21 matrix value
+	 * @param m22 matrix value
+	 * @param m23 z translation
+	 */
+	public AffineTransformation(double m00, double m01, double m02, double m03, double m10, double m11, double m12,
+			double m13, double m20, double m21, double m22, double m23)
+	{
+		this.m00 = m00;
+		this.m01 = m01;
+		this.m02 = m02;
+		this.m03 = m03;
+		this.m10 = m10;
+		this.m11 = m11;
+		this.m12 = m12;
+		this.m13 = m13;
+		this.m20 = m20;
+		this.m21 = m21;
+		this.m22 = m22;
+		this.m23 = m23;
+	}
+
+	/**
+	 * Creates a rotation around the origin.
+	 * @param theta angle in radians (counter clockwise)
+	 * @return {@link AffineTransformation}
+	 */
+	public static AffineTransformation rotation(double theta)
+	{
+		double cos = Math.cos(theta);
+		double sin = Math.sin(theta);
+		return new AffineTransformation(cos, -sin, 0, sin, cos, 0);
+	}
+
+	/**
+	 * Creates a rotation around the given point.
+	 * @param theta angle in radians (counter clockwise)
+	 * @param x x coordinate of the center
+	 * @param y y coordinate of the center
+	 * @return {@link AffineTransformation}
+	 */
+	public static AffineTransformation rotation(double theta, double x, double y)
+	{
+		return translation(-x, -y).then(rotation(theta)).then(translation(x, y));
+	}
+
+	/**
+	 * Creates a scaling.
+	 * @param sx x factor
+	 * @param sy y factor
+	 * @return {@link AffineTransformation}
+	 */
+	public static AffineTransformation scaling(double sx, double sy)
+	{
+		return new AffineTransformation(sx, 0, 0, 0, sy, 0);
+	}
+
+	/**
+	 * Creates a 3d scaling.
+	 * @param sx x factor
+	 * @param sy y factor
+	 * @param sz z factor
+	 * @return {@link AffineTransformation}
+	 */
+	public static AffineTransformation scaling(double sx, double sy, double sz)
+	{
+		return new AffineTransformation(sx, 0, 0, 0, 0, sy, 0, 0, 0, 0, sz, 0);
+	}
+
+	/**
+	 * Creates a translation.
+	 * @param dx x offset
+	 * @param dy y offset
+	 * @return {@link AffineTransformation}
+	 */
+	public static AffineTransformation translation(double dx, double dy)
+	{
+		return new AffineTransformation(1, 0, dx, 0, 1, dy);
+	}
+
+	/**
+	 * Creates a 3d translation.
+	 * @param dx x offset
+	 * @param dy y offset
+	 * @param dz z offset
+	 * @return {@link AffineTransformation}
+	 */
+	public static AffineTransformation translation(double dx, double dy, double dz)
+	{
+		return new AffineTransformation(1, 0, 0, dx, 0, 1, 0, dy, 0, 0, 1, dz);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.CoordinateFilter#filter(io.github.sebasbaumh.postgis.Point)
+	 */
+	@Override
+	public void filter(Point p)
+	{
+		double x = p.getX();
+		double y = p.getY();
+		if (p.is3d())
+		{
+			double z = p.getZ();
+			p.setX(m00 * x + m01 * y + m02 * z + m03);
+			p.setY(m10 * x + m11 * y + m12 * z + m13);
+			p.setZ(m20 * x + m21 * y + m22 * z + m23);
+		}
+		else
+		{
+			p.setX(m00 * x + m01 * y + m03);
+			p.setY(m10 * x + m11 * y + m13);
+		}
+	}
+
+	/**
+	 * Gets the matrix of this transformation.
+	 * @return matrix as m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22, m23
+	 */
+	public double[] getMatrix()
+	{
+		return new double[] { m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22, m23 };
+	}
+
+	/**
+	 * Creates a transformation applying this transformation first and then the given one.
+	 * @param next transformation to apply afterwards
+	 * @return {@link AffineTransformation}
+	 */
+	public AffineTransformation then(AffineTransformation next)
+	{
+		return new AffineTransformation(next.m00 * m00 + next.m01 * m10 + next.m02 * m20,
+				next.m00 * m01 + next.m01 * m11 + next.m02 * m21, next.m00 * m02 + next.m01 * m12 + next.m02 * m22,
+				next.m00 * m03 + next.m01 * m13 + next.m02 * m23 + next.m03,
+				next.m10 * m00 + next.m11 * m10 + next.m12 * m20, next.m10 * m01 + next.m11 * m11 + next.m12 * m21,
+				next.m10 * m02 + next.m11 * m12 + next.m12 * m22,
+				next.m10 * m03 + next.m11 * m13 + next.m12 * m23 + next.m13,
+				next.m20 * m00 + next.m21 * m10 + next.m22 * m20, next.m20 * m01 + next.m21 * m11 + next.m22 * m21,
+				next.m20 * m02 + next.m21 * m12 + next.m22 * m22,
+				next.m20 * m03 + next.m21 * m13 + next.m22 * m23 + next.m23);
+	}
+
+	/**
+	 * Transforms packed coordinates in place. Coordinates are stored interleaved, so the ordinates of coordinate
+	 * <code>i</code> start at <code>coords[offset + i * dimension]</code> in the order x, y, z (if present) and m (if
+	 * present).
+	 * @param coords coordinates
+	 * @param offset offset of the first coordinate
+	 * @param count number of coordinates
+	 * @param dimension number of ordinates per coordinate (2-4)
+	 * @param haveZ are there z values?
+	 */
+	public void transform(double[] coords, int offset, int count, int dimension, boolean haveZ)
+	{
+		int end = offset + count * dimension;
+		if (haveZ)
+		{
+			for (int i = offset; i < end; i += dimension)
+			{
+				double x = coords[i];
+				double y = coords[i + 1];
+				double z = coords[i + 2];
+				coords[i] = m00 * x + m01 * y + m02 * z + m03;
+				coords[i + 1] = m10 * x + m11 * y + m12 * z + m13;
+				coords[i + 2] = m20 * x + m21 * y + m22 * z + m23;
+			}
+		}
+		else
+		{
+			for (int i = offset; i < end; i += dimension)
+			{
+				double x = coords[i];
+				double y = coords[i + 1];
+				coords[i] = m00 * x + m01 * y + m03;
+				coords[i + 1] = m10 * x + m11 * y + m13;
+			}
+		}
+	}
+
+	/**
+	 * Transforms coordinates stored in separate arrays per ordinate in place.
+	 * @param xs x values
+	 * @param ys y values
+	 * @param zs z values (can be null for 2d coordinates)
+	 * @param offset index of the first coordinate
+	 * @param count number of coordinates
+	 */
+	public void transform(double[] xs, double[] ys, @Nullable double[] zs, int offset, int count)
+	{
+		int end = offset + count;
+		if (zs != null)
+		{
+			for (int i = offset; i < end; i++)
+			{
+				double x = xs[i];
+				double y = ys[i];
+				double z = zs[i];
+				xs[i] = m00 * x + m01 * y + m02 * z + m03;
+				ys[i] = m10 * x + m11 * y + m12 * z + m13;
+				zs[i] = m20 * x + m21 * y + m22 * z + m23;
+			}
+		}
+		else
+		{
+			for (int i = offset; i < end; i++)
+			{
+				double x = xs[i];
+				double y = ys[i];
+				xs[i] = m00 * x + m01 * y + m03;
+				ys[i] = m10 * x + m11 * y + m13;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.algorithms;
+
+/**
+ * Simplifies lines using the Douglas-Peucker algorithm. A coordinate is kept if its distance to the simplified line is
+ * larger than the tolerance. Only x and y are taken into account for the distance. The implementation is iterative, so
+ * even very long lines do not need a deep call stack.
+ * @author Sebastian Baumhekel
+ */
+public class DouglasPeuckerSimplifier extends Simplifier
+{
+	/**
+	 * Constructs an instance.
+	 * @param tolerance distance tolerance (has to be &gt;=0)
+	 * @throws IllegalArgumentException if the tolerance is negative or not a number
+	 */
+	public DouglasPeuckerSimplifier(double tolerance)
+	{
+		super(tolerance);
+	}
+
+	/**
+	 * Gets the squared distance of point p to the segment a-b.
+	 * @param px x coordinate of p
+	 * @param py y coordinate of p
+	 * @param ax x coordinate of a
+	 * @param ay y coordinate of a
+	 * @param bx x coordinate of b
+	 * @param by y coordinate of b
+	 * @return squared distance
+	 */
+	private static double getSegmentDistanceSquared(double px, double py, double ax, double ay, double bx, double by)
+	{
+		double dx = bx - ax;
+		double dy = by - ay;
+		double len2 = dx * dx + dy * dy;
+		double x = ax;
+		double y = ay;
+		if (len2 > 0)
+		{
+			double t = ((px - ax) * dx + (py - ay) * dy) / len2;
+			if (t >= 1)
+			{
+				x = bx;
+				y = by;
+			}
+			else if (t > 0)
+			{
+				x += t * dx;
+				y += t * dy;
+			}
+		}
+		dx = px - x;
+		dy = py - y;
+		return dx * dx + dy * dy;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.algorithms.Simplifier#mark(double[], int, int, boolean[])
+	 */
+	@Override
+	protected int mark(double[] coords, int count, int dimension, boolean[] keep)
+	{
+		double tolerance2 = getTolerance() * getTolerance();
+		keep[0] = true;
+		keep[count - 1] = true;
+		int kept = 2;
+		// stack of index ranges still to check, the ranges never overlap so count is enough
+		int[] stack = new int[count * 2];
+		int size = 0;
+		stack[size++] = 0;
+		stack[size++] = count - 1;
+		while (size > 0)
+		{
+			int end = stack[--size];
+			int start = stack[--size];
+			double ax = coords[start * dimension];
+			double ay = coords[start * dimension + 1];
+			double bx = coords[end * dimension];
+			double by = coords[end * dimension + 1];
+			double maxDistance = -1;
+			int maxIndex = -1;
+			for (int i = start + 1, j = (start + 1) * dimension; i < end; i++, j += dimension)
+			{
+				double d = getSegmentDistanceSquared(coords[j], coords[j + 1], ax, ay, bx, by);
+				if (d > maxDistance)
+				{
+					maxDistance = d;
+					maxIndex = i;
+				}
+			}
+			if (maxDistance > tolerance2)
+			{
+				keep[maxIndex] = true;
+				kept++;
+				if (maxIndex - start > 1)
+				{
+					stack[size++] = start;
+					stack[size++] = maxIndex;
+				}
+				if (end - maxIndex > 1)
+				{
+					stack[size++] = maxIndex;
+					stack[size++] = end;
+				}
+			}
+		}
+		return kept;
+	}
+
+}
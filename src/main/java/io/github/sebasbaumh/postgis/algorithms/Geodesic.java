@@ -0,0 +1,450 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.algorithms;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.GeometryCollection;
+import io.github.sebasbaumh.postgis.LineString;
+import io.github.sebasbaumh.postgis.LinearRing;
+import io.github.sebasbaumh.postgis.MultiLineString;
+import io.github.sebasbaumh.postgis.MultiPolygon;
+import io.github.sebasbaumh.postgis.Point;
+import io.github.sebasbaumh.postgis.Polygon;
+
+/**
+ * Geodesic computations on the WGS84 ellipsoid for geographic coordinates (longitude as x and latitude as y in
+ * degrees), e.g. of {@link io.github.sebasbaumh.postgis.PGgeography} values. Distances and lengths are given in meters,
+ * areas in square meters.
+ * <p>
+ * Distances can either be computed fast using the haversine formula on the mean earth sphere (error up to about 0.5%)
+ * or accurately using the inverse formula of Vincenty on the ellipsoid (error below a millimeter). For nearly
+ * antipodal points, where the Vincenty iteration does not converge, the haversine distance is used. Areas are computed
+ * on the authalic sphere, which preserves the area of the ellipsoid.
+ * </p>
+ * @author Sebastian Baumhekel
+ */
+public final class Geodesic
+{
+	/**
+	 * Semi-major axis of the WGS84 ellipsoid.
+	 */
+	private static final double A = 6378137.0;
+	/**
+	 * Flattening of the WGS84 ellipsoid.
+	 */
+	private static final double F = 1 / 298.257223563;
+	/**
+	 * Semi-minor axis of the WGS84 ellipsoid.
+	 */
+	private static final double B = A * (1 - F);
+	/**
+	 * Mean radius of the earth.
+	 */
+	private static final double MEAN_RADIUS = (2 * A + B) / 3;
+	/**
+	 * Eccentricity of the WGS84 ellipsoid.
+	 */
+	private static final double E = Math.sqrt(F * (2 - F));
+	/**
+	 * Value of the authalic latitude function at the pole.
+	 */
+	private static final double QP = getQ(1);
+	/**
+	 * Squared radius of the authalic sphere.
+	 */
+	private static final double AUTHALIC_RADIUS_SQUARED = A * A * QP / 2;
+	/**
+	 * Maximum number of iterations of the Vincenty formula.
+	 */
+	private static final int MAX_ITERATIONS = 200;
+
+	/**
+	 * Methods to compute distances.
+	 */
+	public enum Method
+	{
+		/**
+		 * Haversine formula on the mean earth sphere (fast).
+		 */
+		HAVERSINE,
+		/**
+		 * Inverse Vincenty formula on the WGS84 ellipsoid (accurate).
+		 */
+		VINCENTY;
+	}
+
+	// prevent instantiating this class
+	@Deprecated
+	private Geodesic()
+	{
+	}
+
+	/**
+	 * Calculates the area of polygons. Polygons, multi polygons and polygons inside of geometry collections are taken
+	 * into account. The area of holes is subtracted.
+	 * @param geom {@link Geometry}
+	 * @return area in square meters
+	 */
+	public static double area(Geometry geom)
+	{
+		switch (geom.getType())
+		{
+			case Polygon.TYPE:
+			{
+				Polygon poly = (Polygon) geom;
+				double area = area(poly.getOuterRing());
+				for (LinearRing ring : poly.getRings())
+				{
+					area -= area(ring);
+				}
+				return Math.max(area, 0);
+			}
+			case MultiPolygon.TYPE:
+			{
+				double area = 0;
+				for (Polygon poly : (MultiPolygon) geom)
+				{
+					area += area(poly);
+				}
+				return area;
+			}
+			case GeometryCollection.TYPE:
+			{
+				double area = 0;
+				for (Geometry g : (GeometryCollection) geom)
+				{
+					area += area(g);
+				}
+				return area;
+			}
+			default:
+				return 0;
+		}
+	}
+
+	/**
+	 * Calculates the area of a ring given as packed coordinates.
+	 * @param coords coordinates (see {@link #length(double[], int, int, int, Method)})
+	 * @param offset offset of the first coordinate
+	 * @param count number of coordinates
+	 * @param dimension number of ordinates per coordinate (2-4)
+	 * @return area in square meters
+	 */
+	public static double area(double[] coords, int offset, int count, int dimension)
+	{
+		if (count < 3)
+		{
+			return 0;
+		}
+		double sum = 0;
+		int last = offset + (count - 1) * dimension;
+		double prevLon = Math.toRadians(coords[last]);
+		double prevTan = Math.tan(getAuthalicLatitude(coords[last + 1]) / 2);
+		for (int i = offset; i <= last; i += dimension)
+		{
+			double lon = Math.toRadians(coords[i]);
+			double tan = Math.tan(getAuthalicLatitude(coords[i + 1]) / 2);
+			sum += getExcess(lon - prevLon, prevTan, tan);
+			prevLon = lon;
+			prevTan = tan;
+		}
+		double area = Math.abs(sum) * AUTHALIC_RADIUS_SQUARED;
+		// a ring around a pole encloses either side of the sphere
+		return Math.min(area, 4 * Math.PI * AUTHALIC_RADIUS_SQUARED - area);
+	}
+
+	/**
+	 * Calculates the area of a ring.
+	 * @param ring ring
+	 * @return area in square meters
+	 */
+	private static double area(LinearRing ring)
+	{
+		return area(toArray(ring), 0, ring.getNumberOfCoordinates(), 2);
+	}
+
+	/**
+	 * Calculates the distance between two points using the inverse Vincenty formula.
+	 * @param a first {@link Point}
+	 * @param b second {@link Point}
+	 * @return distance in meters
+	 */
+	public static double distance(Point a, Point b)
+	{
+		return distance(a.getX(), a.getY(), b.getX(), b.getY(), Method.VINCENTY);
+	}
+
+	/**
+	 * Calculates the distance between two points.
+	 * @param lon1 longitude of the first point in degrees
+	 * @param lat1 latitude of the first point in degrees
+	 * @param lon2 longitude of the second point in degrees
+	 * @param lat2 latitude of the second point in degrees
+	 * @param method {@link Method}
+	 * @return distance in meters
+	 */
+	public static double distance(double lon1, double lat1, double lon2, double lat2, Method method)
+	{
+		if (method == Method.HAVERSINE)
+		{
+			return haversine(lon1, lat1, lon2, lat2);
+		}
+		double u1 = getReducedLatitude(lat1);
+		double u2 = getReducedLatitude(lat2);
+		return vincenty(lon1, lat1, lon2, lat2, Math.sin(u1), Math.cos(u1), Math.sin(u2), Math.cos(u2));
+	}
+
+	/**
+	 * Gets the authalic latitude.
+	 * @param lat geodetic latitude in degrees
+	 * @return authalic latitude in radians
+	 */
+	private static double getAuthalicLatitude(double lat)
+	{
+		double q = getQ(Math.sin(Math.toRadians(lat)));
+		return Math.asin(Math.max(-1, Math.min(1, q / QP)));
+	}
+
+	/**
+	 * Gets the spherical excess of the area between an edge and the equator.
+	 * @param dLon longitude difference in radians
+	 * @param tan1 tangent of the half latitude of the start point
+	 * @param tan2 tangent of the half latitude of the end point
+	 * @return excess
+	 */
+	private static double getExcess(double dLon, double tan1, double tan2)
+	{
+		// normalize to -PI..PI
+		if (dLon > Math.PI)
+		{
+			dLon -= 2 * Math.PI;
+		}
+		else if (dLon < -Math.PI)
+		{
+			dLon += 2 * Math.PI;
+		}
+		return 2 * Math.atan2(Math.tan(dLon / 2) * (tan1 + tan2), 1 + tan1 * tan2);
+	}
+
+	/**
+	 * Gets the value of the authalic latitude function q.
+	 * @param sinPhi sine of the geodetic latitude
+	 * @return value
+	 */
+	private static double getQ(double sinPhi)
+	{
+		double e2 = E * E;
+		return (1 - e2) * (sinPhi / (1 - e2 * sinPhi * sinPhi)
+				- 1 / (2 * E) * Math.log((1 - E * sinPhi) / (1 + E * sinPhi)));
+	}
+
+	/**
+	 * Gets the reduced latitude.
+	 * @param lat geodetic latitude in degrees
+	 * @return reduced latitude in radians
+	 */
+	private static double getReducedLatitude(double lat)
+	{
+		return Math.atan((1 - F) * Math.tan(Math.toRadians(lat)));
+	}
+
+	/**
+	 * Calculates the distance between two points using the haversine formula.
+	 * @param lon1 longitude of the first point in degrees
+	 * @param lat1 latitude of the first point in degrees
+	 * @param lon2 longitude of the second point in degrees
+	 * @param lat2 latitude of the second point in degrees
+	 * @return distance in meters
+	 */
+	private static double haversine(double lon1, double lat1, double lon2, double lat2)
+	{
+		double sinLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+		double sinLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+		double h = sinLat * sinLat
+				+ Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+		return 2 * MEAN_RADIUS * Math.asin(Math.min(1, Math.sqrt(h)));
+	}
+
+	/**
+	 * Calculates the length of lines. Line strings, multi line strings and line strings inside of geometry collections
+	 * are taken into account using the inverse Vincenty formula.
+	 * @param geom {@link Geometry}
+	 * @return length in meters
+	 */
+	public static double length(Geometry geom)
+	{
+		return length(geom, Method.VINCENTY);
+	}
+
+	/**
+	 * Calculates the length of lines. Line strings, multi line strings and line strings inside of geometry collections
+	 * are taken into account.
+	 * @param geom {@link Geometry}
+	 * @param method {@link Method}
+	 * @return length in meters
+	 */
+	public static double length(Geometry geom, Method method)
+	{
+		switch (geom.getType())
+		{
+			case LineString.TYPE:
+			{
+				LineString ls = (LineString) geom;
+				return length(toArray(ls), 0, ls.getNumberOfCoordinates(), 2, method);
+			}
+			case MultiLineString.TYPE:
+			{
+				double length = 0;
+				for (LineString ls : (MultiLineString) geom)
+				{
+					length += length(ls, method);
+				}
+				return length;
+			}
+			case GeometryCollection.TYPE:
+			{
+				double length = 0;
+				for (Geometry g : (GeometryCollection) geom)
+				{
+					length += length(g, method);
+				}
+				return length;
+			}
+			default:
+				return 0;
+		}
+	}
+
+	/**
+	 * Calculates the length of a line given as packed coordinates. Coordinates are stored interleaved, so the
+	 * longitude of coordinate <code>i</code> is at <code>coords[offset + i * dimension]</code> followed by the latitude.
+	 * @param coords coordinates
+	 * @param offset offset of the first coordinate
+	 * @param count number of coordinates
+	 * @param dimension number of ordinates per coordinate (2-4)
+	 * @param method {@link Method}
+	 * @return length in meters
+	 */
+	public static double length(double[] coords, int offset, int count, int dimension, Method method)
+	{
+		double length = 0;
+		int end = offset + count * dimension;
+		if (method == Method.HAVERSINE)
+		{
+			for (int i = offset + dimension; i < end; i += dimension)
+			{
+				length += haversine(coords[i - dimension], coords[i - dimension + 1], coords[i], coords[i + 1]);
+			}
+			return length;
+		}
+		if (count < 2)
+		{
+			return 0;
+		}
+		// reuse the reduced latitude of the previous point
+		double u = getReducedLatitude(coords[offset + 1]);
+		double sinU1 = Math.sin(u);
+		double cosU1 = Math.cos(u);
+		for (int i = offset + dimension; i < end; i += dimension)
+		{
+			u = getReducedLatitude(coords[i + 1]);
+			double sinU2 = Math.sin(u);
+			double cosU2 = Math.cos(u);
+			length += vincenty(coords[i - dimension], coords[i - dimension + 1], coords[i], coords[i + 1], sinU1, cosU1,
+					sinU2, cosU2);
+			sinU1 = sinU2;
+			cosU1 = cosU2;
+		}
+		return length;
+	}
+
+	/**
+	 * Copies the x and y values of the given {@link LineString} to an array.
+	 * @param ls {@link LineString}
+	 * @return coordinates
+	 */
+	private static double[] toArray(LineString ls)
+	{
+		double[] coords = new double[ls.getNumberOfCoordinates() * 2];
+		int i = 0;
+		for (Point p : ls)
+		{
+			coords[i++] = p.getX();
+			coords[i++] = p.getY();
+		}
+		return coords;
+	}
+
+	/**
+	 * Calculates the distance between two points using the inverse Vincenty formula.
+	 * @param lon1 longitude of the first point in degrees
+	 * @param lat1 latitude of the first point in degrees
+	 * @param lon2 longitude of the second point in degrees
+	 * @param lat2 latitude of the second point in degrees
+	 * @param sinU1 sine of the reduced latitude of the first point
+	 * @param cosU1 cosine of the reduced latitude of the first point
+	 * @param sinU2 sine of the reduced latitude of the second point
+	 * @param cosU2 cosine of the reduced latitude of the second point
+	 * @return distance in meters
+	 */
+	private static double vincenty(double lon1, double lat1, double lon2, double lat2, double sinU1, double cosU1,
+			double sinU2, double cosU2)
+	{
+		double l = Math.toRadians(lon2 - lon1);
+		double lambda = l;
+		for (int i = 0; i < MAX_ITERATIONS; i++)
+		{
+			double sinLambda = Math.sin(lambda);
+			double cosLambda = Math.cos(lambda);
+			double t = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda;
+			double sinSigma = Math.sqrt(cosU2 * sinLambda * cosU2 * sinLambda + t * t);
+			if (sinSigma == 0)
+			{
+				// coincident points
+				return 0;
+			}
+			double cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+			double sigma = Math.atan2(sinSigma, cosSigma);
+			double sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
+			double cos2Alpha = 1 - sinAlpha * sinAlpha;
+			// on the equator cos2Alpha is 0
+			double cos2SigmaM = cos2Alpha != 0 ? cosSigma - 2 * sinU1 * sinU2 / cos2Alpha : 0;
+			double c = F / 16 * cos2Alpha * (4 + F * (4 - 3 * cos2Alpha));
+			double lambdaPrev = lambda;
+			lambda = l + (1 - c) * F * sinAlpha
+					* (sigma + c * sinSigma * (cos2SigmaM + c * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+			if (Math.abs(lambda - lambdaPrev) < 1e-12)
+			{
+				double u2 = cos2Alpha * (A * A - B * B) / (B * B);
+				double a = 1 + u2 / 16384 * (4096 + u2 * (-768 + u2 * (320 - 175 * u2)));
+				double b = u2 / 1024 * (256 + u2 * (-128 + u2 * (74 - 47 * u2)));
+				double deltaSigma = b * sinSigma * (cos2SigmaM + b / 4 * (cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)
+						- b / 6 * cos2SigmaM * (-3 + 4 * sinSigma * sinSigma) * (-3 + 4 * cos2SigmaM * cos2SigmaM)));
+				return B * a * (sigma - deltaSigma);
+			}
+		}
+		// no convergence for nearly antipodal points
+		return haversine(lon1, lat1, lon2, lat2);
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.algorithms;
+
+/**
+ * Sorts arrays of indices by primitive keys without boxing.
+ * @author Sebastian Baumhekel
+ */
+final class IndexSorter
+{
+	/**
+	 * Ranges smaller than this are sorted using insertion sort.
+	 */
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	// prevent instantiating this class
+	@Deprecated
+	private IndexSorter()
+	{
+	}
+
+	/**
+	 * Sorts the given range of indices by their keys in ascending order.
+	 * @param indices indices (into the keys array)
+	 * @param keys keys
+	 * @param from start index (inclusive)
+	 * @param to end index (exclusive)
+	 */
+	static void sort(int[] indices, double[] keys, int from, int to)
+	{
+		int lo = from;
+		int hi = to - 1;
+		while (hi - lo >= INSERTION_SORT_THRESHOLD)
+		{
+			// median of three as pivot
+			int mid = (lo + hi) >>> 1;
+			double a = keys[indices[lo]];
+			double b = keys[indices[mid]];
+			double c = keys[indices[hi]];
+			double pivot = a < b ? (b < c ? b : Math.max(a, c)) : (a < c ? a : Math.max(b, c));
+			int i = lo;
+			int j = hi;
+			while (i <= j)
+			{
+				while (keys[indices[i]] < pivot)
+				{
+					i++;
+				}
+				while (keys[indices[j]] > pivot)
+				{
+					j--;
+				}
+				if (i <= j)
+				{
+					int t = indices[i];
+					indices[i++] = indices[j];
+					indices[j--] = t;
+				}
+			}
+			// recurse into the smaller part to limit the stack depth
+			if (j - lo < hi - i)
+			{
+				sort(indices, keys, lo, j + 1);
+				lo = i;
+			}
+			else
+			{
+				sort(indices, keys, i, hi + 1);
+				hi = j;
+			}
+		}
+		for (int i = lo + 1; i <= hi; i++)
+		{
+			int index = indices[i];
+			double key = keys[index];
+			int j = i - 1;
+			while ((j >= lo) && (keys[indices[j]] > key))
+			{
+				indices[j + 1] = indices[j];
+				j--;
+			}
+			indices[j + 1] = index;
+		}
+	}
+
+}
@@ -0,0 +1,303 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.algorithms;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.LinearRing;
+import io.github.sebasbaumh.postgis.MultiPolygon;
+import io.github.sebasbaumh.postgis.Point;
+import io.github.sebasbaumh.postgis.Polygon;
+
+/**
+ * A prepared {@link Polygon} or {@link MultiPolygon} for fast repeated point in polygon tests. The edges of all rings
+ * (including holes) are indexed once in horizontal bands, so a test only needs to look at the few edges crossing the
+ * band of the point instead of all edges.
+ * <p>
+ * The index is immutable, so instances can be shared between threads. Testing points does not allocate any memory.
+ * Points exactly on the boundary may be considered to be inside or outside.
+ * </p>
+ * @author Sebastian Baumhekel
+ */
+public final class PreparedPolygon
+{
+	/**
+	 * Number of values stored per edge in the band index.
+	 */
+	private static final int EDGE_SIZE = 4;
+
+	private final double minX;
+	private final double minY;
+	private final double maxX;
+	private final double maxY;
+	/**
+	 * Number of bands divided by the height of the polygon.
+	 */
+	private final double bandScale;
+	/**
+	 * Start index of the edges of each band in {@link #bandEdges} (in edges, one more than the number of bands).
+	 */
+	private final int[] bandStarts;
+	/**
+	 * Edges sorted by bands as y1, y2, x1 and the inverse slope dx/dy.
+	 */
+	private final double[] bandEdges;
+
+	/**
+	 * Prepares the given {@link Polygon} or {@link MultiPolygon}.
+	 * @param geom {@link Polygon} or {@link MultiPolygon}
+	 * @throws IllegalArgumentException if the geometry is not a {@link Polygon} or {@link MultiPolygon}
+	 */
+	public PreparedPolygon(Geometry geom)
+	{
+		// collect all edges as x1, y1, x2, y2
+		double[] edges;
+		if (geom instanceof Polygon)
+		{
+			edges = new double[getNumberOfEdges((Polygon) geom) * 4];
+			addEdges((Polygon) geom, edges, 0);
+		}
+		else if (geom instanceof MultiPolygon)
+		{
+			int numEdges = 0;
+			for (Polygon poly : (MultiPolygon) geom)
+			{
+				numEdges += getNumberOfEdges(poly);
+			}
+			edges = new double[numEdges * 4];
+			int index = 0;
+			for (Polygon poly : (MultiPolygon) geom)
+			{
+				index = addEdges(poly, edges, index);
+			}
+		}
+		else
+		{
+			throw new IllegalArgumentException("geometry is not a polygon: " + geom.getClass().getSimpleName());
+		}
+		int numEdges = edges.length / 4;
+		// determine bounding box
+		double x0 = Double.POSITIVE_INFINITY;
+		double y0 = Double.POSITIVE_INFINITY;
+		double x1 = Double.NEGATIVE_INFINITY;
+		double y1 = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < edges.length; i += 2)
+		{
+			x0 = Math.min(x0, edges[i]);
+			y0 = Math.min(y0, edges[i + 1]);
+			x1 = Math.max(x1, edges[i]);
+			y1 = Math.max(y1, edges[i + 1]);
+		}
+		this.minX = x0;
+		this.minY = y0;
+		this.maxX = x1;
+		this.maxY = y1;
+		// use about one band per edge
+		int numBands = Math.max(1, numEdges);
+		double height = y1 - y0;
+		this.bandScale = height > 0 ? numBands / height : 0;
+		// count edges per band
+		int[] starts = new int[numBands + 1];
+		for (int i = 0; i < edges.length; i += 4)
+		{
+			int first = getBand(Math.min(edges[i + 1], edges[i + 3]), numBands);
+			int last = getBand(Math.max(edges[i + 1], edges[i + 3]), numBands);
+			for (int band = first; band <= last; band++)
+			{
+				starts[band + 1]++;
+			}
+		}
+		for (int band = 0; band < numBands; band++)
+		{
+			starts[band + 1] += starts[band];
+		}
+		// fill the bands
+		double[] entries = new double[starts[numBands] * EDGE_SIZE];
+		int[] fill = new int[numBands];
+		for (int i = 0; i < edges.length; i += 4)
+		{
+			double ey1 = edges[i + 1];
+			double ey2 = edges[i + 3];
+			double slope = ey1 != ey2 ? (edges[i + 2] - edges[i]) / (ey2 - ey1) : 0;
+			int first = getBand(Math.min(ey1, ey2), numBands);
+			int last = getBand(Math.max(ey1, ey2), numBands);
+			for (int band = first; band <= last; band++)
+			{
+				int j = (starts[band] + fill[band]++) * EDGE_SIZE;
+				entries[j] = ey1;
+				entries[j + 1] = ey2;
+				entries[j + 2] = edges[i];
+				entries[j + 3] = slope;
+			}
+		}
+		this.bandStarts = starts;
+		this.bandEdges = entries;
+	}
+
+	/**
+	 * Adds the edges of all rings of the given {@link Polygon}.
+	 * @param poly {@link Polygon}
+	 * @param edges edges as x1, y1, x2, y2
+	 * @param index start index in the edges array
+	 * @return next index in the edges array
+	 */
+	private static int addEdges(Polygon poly, double[] edges, int index)
+	{
+		index = addEdges(poly.getOuterRing(), edges, index);
+		for (LinearRing ring : poly.getRings())
+		{
+			index = addEdges(ring, edges, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Adds the edges of the given ring.
+	 * @param ring {@link LinearRing}
+	 * @param edges edges as x1, y1, x2, y2
+	 * @param index start index in the edges array
+	 * @return next index in the edges array
+	 */
+	private static int addEdges(LinearRing ring, double[] edges, int index)
+	{
+		if (ring.getNumberOfCoordinates() < 2)
+		{
+			return index;
+		}
+		double firstX = Double.NaN;
+		double firstY = Double.NaN;
+		double lastX = Double.NaN;
+		double lastY = Double.NaN;
+		boolean first = true;
+		for (Point p : ring)
+		{
+			if (first)
+			{
+				firstX = p.getX();
+				firstY = p.getY();
+				first = false;
+			}
+			else
+			{
+				edges[index++] = lastX;
+				edges[index++] = lastY;
+				edges[index++] = p.getX();
+				edges[index++] = p.getY();
+			}
+			lastX = p.getX();
+			lastY = p.getY();
+		}
+		// add the closing edge for unclosed rings
+		if ((lastX != firstX) || (lastY != firstY))
+		{
+			edges[index++] = lastX;
+			edges[index++] = lastY;
+			edges[index++] = firstX;
+			edges[index++] = firstY;
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the number of edges of all rings of the given {@link Polygon}.
+	 * @param poly {@link Polygon}
+	 * @return number of edges
+	 */
+	private static int getNumberOfEdges(Polygon poly)
+	{
+		int n = getNumberOfEdges(poly.getOuterRing());
+		for (LinearRing ring : poly.getRings())
+		{
+			n += getNumberOfEdges(ring);
+		}
+		return n;
+	}
+
+	/**
+	 * Gets the number of edges of the given ring (including the closing edge).
+	 * @param ring {@link LinearRing}
+	 * @return number of edges
+	 */
+	private static int getNumberOfEdges(LinearRing ring)
+	{
+		int n = ring.getNumberOfCoordinates();
+		if (n < 2)
+		{
+			return 0;
+		}
+		return ring.isClosed() ? n - 1 : n;
+	}
+
+	/**
+	 * Checks if the given point is inside of the polygon.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return true if it is inside, else false
+	 */
+	public boolean contains(double x, double y)
+	{
+		// negated checks also filter NaN values and empty polygons
+		if (!((x >= minX) && (x <= maxX) && (y >= minY) && (y <= maxY)))
+		{
+			return false;
+		}
+		int band = getBand(y, bandStarts.length - 1);
+		boolean inside = false;
+		// crossing number test with a ray in positive x direction
+		for (int j = bandStarts[band] * EDGE_SIZE, end = bandStarts[band + 1] * EDGE_SIZE; j < end; j += EDGE_SIZE)
+		{
+			double y1 = bandEdges[j];
+			if ((y1 > y) != (bandEdges[j + 1] > y) && (x < bandEdges[j + 2] + (y - y1) * bandEdges[j + 3]))
+			{
+				inside = !inside;
+			}
+		}
+		return inside;
+	}
+
+	/**
+	 * Checks if the given {@link Point} is inside of the polygon.
+	 * @param p {@link Point}
+	 * @return true if it is inside, else false
+	 */
+	public boolean contains(Point p)
+	{
+		return contains(p.getX(), p.getY());
+	}
+
+	/**
+	 * Gets the band of the given y coordinate.
+	 * @param y y coordinate
+	 * @param numBands number of bands
+	 * @return band index
+	 */
+	private int getBand(double y, int numBands)
+	{
+		int band = (int) ((y - minY) * bandScale);
+		if (band < 0)
+		{
+			return 0;
+		}
+		return Math.min(band, numBands - 1);
+	}
+
+}
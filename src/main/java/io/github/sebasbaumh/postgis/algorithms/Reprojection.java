@@ -0,0 +1,307 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.algorithms;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.Point;
+
+/**
+ * Reprojection of coordinates between common coordinate reference systems using closed-form formulas, so no
+ * projection library or database round trip is needed. Supported are WGS84 (EPSG:4326), Web Mercator (EPSG:3857) and
+ * the WGS84 UTM zones (EPSG:32601-32660 and EPSG:32701-32760).
+ * <p>
+ * Coordinates are transformed in place without allocating memory per coordinate. Geographic coordinates are given as
+ * longitude (x) and latitude (y) in degrees. Web Mercator clamps latitudes to about ±85.05°. UTM uses the Krüger
+ * series (up to n^4), which is accurate to well below a millimeter within the zones.
+ * </p>
+ * @author Sebastian Baumhekel
+ */
+public final class Reprojection
+{
+	/**
+	 * SRID of WGS84 geographic coordinates.
+	 */
+	public static final int WGS84 = 4326;
+	/**
+	 * SRID of Web Mercator (Pseudo-Mercator).
+	 */
+	public static final int WEB_MERCATOR = 3857;
+	/**
+	 * Legacy SRID of Web Mercator.
+	 */
+	private static final int WEB_MERCATOR_LEGACY = 900913;
+	/**
+	 * SRID of the first WGS84 UTM zone on the northern hemisphere.
+	 */
+	private static final int UTM_NORTH = 32600;
+	/**
+	 * SRID of the first WGS84 UTM zone on the southern hemisphere.
+	 */
+	private static final int UTM_SOUTH = 32700;
+
+	/**
+	 * Semi-major axis of the WGS84 ellipsoid.
+	 */
+	private static final double A = 6378137.0;
+	/**
+	 * Flattening of the WGS84 ellipsoid.
+	 */
+	private static final double F = 1 / 298.257223563;
+	/**
+	 * Maximum latitude of Web Mercator.
+	 */
+	private static final double MAX_MERCATOR_LATITUDE = 85.0511287798066;
+	/**
+	 * Scale factor of UTM.
+	 */
+	private static final double UTM_K0 = 0.9996;
+	/**
+	 * False easting of UTM.
+	 */
+	private static final double UTM_FALSE_EASTING = 500000.0;
+	/**
+	 * False northing of UTM on the southern hemisphere.
+	 */
+	private static final double UTM_FALSE_NORTHING_SOUTH = 10000000.0;
+
+	/**
+	 * Third flattening.
+	 */
+	private static final double N = F / (2 - F);
+	/**
+	 * Scaled rectifying radius (k0 * A).
+	 */
+	private static final double UTM_RADIUS = UTM_K0 * A / (1 + N) * (1 + N * N / 4 + N * N * N * N / 64);
+	/**
+	 * Factor for the conformal latitude.
+	 */
+	private static final double CONFORMAL_FACTOR = 2 * Math.sqrt(N) / (1 + N);
+	/**
+	 * Coefficients of the forward Krüger series.
+	 */
+	private static final double[] ALPHA = new double[] {
+			N / 2 - 2.0 / 3 * N * N + 5.0 / 16 * N * N * N + 41.0 / 180 * N * N * N * N,
+			13.0 / 48 * N * N - 3.0 / 5 * N * N * N + 557.0 / 1440 * N * N * N * N,
+			61.0 / 240 * N * N * N - 103.0 / 140 * N * N * N * N, 49561.0 / 161280 * N * N * N * N };
+	/**
+	 * Coefficients of the inverse Krüger series.
+	 */
+	private static final double[] BETA = new double[] {
+			N / 2 - 2.0 / 3 * N * N + 37.0 / 96 * N * N * N - 1.0 / 360 * N * N * N * N,
+			1.0 / 48 * N * N + 1.0 / 15 * N * N * N - 437.0 / 1440 * N * N * N * N,
+			17.0 / 480 * N * N * N - 37.0 / 840 * N * N * N * N, 4397.0 / 161280 * N * N * N * N };
+	/**
+	 * Coefficients of the series from conformal to geographic latitude.
+	 */
+	private static final double[] DELTA = new double[] {
+			2 * N - 2.0 / 3 * N * N - 2 * N * N * N + 116.0 / 45 * N * N * N * N,
+			7.0 / 3 * N * N - 8.0 / 5 * N * N * N - 227.0 / 45 * N * N * N * N,
+			56.0 / 15 * N * N * N - 136.0 / 35 * N * N * N * N, 4279.0 / 630 * N * N * N * N };
+
+	// prevent instantiating this class
+	@Deprecated
+	private Reprojection()
+	{
+	}
+
+	/**
+	 * Checks the given SRID.
+	 * @param srid SRID
+	 * @throws IllegalArgumentException if the SRID is not supported
+	 */
+	private static void checkSrid(int srid)
+	{
+		if (!isSupported(srid))
+		{
+			throw new IllegalArgumentException("unsupported SRID: " + srid);
+		}
+	}
+
+	/**
+	 * Projects geographic coordinates.
+	 * @param srid target SRID
+	 * @param coords coordinates
+	 * @param i index of the x ordinate (longitude), the y ordinate (latitude) follows
+	 */
+	private static void fromGeographic(int srid, double[] coords, int i)
+	{
+		if (srid == WGS84)
+		{
+			return;
+		}
+		double lon = coords[i];
+		double lat = coords[i + 1];
+		if ((srid == WEB_MERCATOR) || (srid == WEB_MERCATOR_LEGACY))
+		{
+			lat = Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, lat));
+			coords[i] = A * Math.toRadians(lon);
+			coords[i + 1] = A * Math.log(Math.tan(Math.PI / 4 + Math.toRadians(lat) / 2));
+			return;
+		}
+		// UTM
+		double lambda = Math.toRadians(lon - getCentralMeridian(srid));
+		double sinPhi = Math.sin(Math.toRadians(lat));
+		double t = Math.sinh(atanh(sinPhi) - CONFORMAL_FACTOR * atanh(CONFORMAL_FACTOR * sinPhi));
+		double xi = Math.atan2(t, Math.cos(lambda));
+		double eta = atanh(Math.sin(lambda) / Math.sqrt(1 + t * t));
+		double x = eta;
+		double y = xi;
+		for (int j = 0; j < ALPHA.length; j++)
+		{
+			double k = 2 * (j + 1);
+			x += ALPHA[j] * Math.cos(k * xi) * Math.sinh(k * eta);
+			y += ALPHA[j] * Math.sin(k * xi) * Math.cosh(k * eta);
+		}
+		coords[i] = UTM_FALSE_EASTING + UTM_RADIUS * x;
+		coords[i + 1] = (srid > UTM_SOUTH ? UTM_FALSE_NORTHING_SOUTH : 0) + UTM_RADIUS * y;
+	}
+
+	/**
+	 * Calculates the inverse hyperbolic tangent.
+	 * @param x value
+	 * @return inverse hyperbolic tangent
+	 */
+	private static double atanh(double x)
+	{
+		return 0.5 * Math.log((1 + x) / (1 - x));
+	}
+
+	/**
+	 * Gets the central meridian of a UTM zone.
+	 * @param srid SRID of the UTM zone
+	 * @return central meridian in degrees
+	 */
+	private static int getCentralMeridian(int srid)
+	{
+		return (srid % 100) * 6 - 183;
+	}
+
+	/**
+	 * Checks if the given SRID is supported.
+	 * @param srid SRID
+	 * @return true if it is supported, else false
+	 */
+	public static boolean isSupported(int srid)
+	{
+		return (srid == WGS84) || (srid == WEB_MERCATOR) || (srid == WEB_MERCATOR_LEGACY)
+				|| ((srid > UTM_NORTH) && (srid <= UTM_NORTH + 60)) || ((srid > UTM_SOUTH) && (srid <= UTM_SOUTH + 60));
+	}
+
+	/**
+	 * Converts projected coordinates to geographic coordinates.
+	 * @param srid source SRID
+	 * @param coords coordinates
+	 * @param i index of the x ordinate, the y ordinate follows
+	 */
+	private static void toGeographic(int srid, double[] coords, int i)
+	{
+		if (srid == WGS84)
+		{
+			return;
+		}
+		double x = coords[i];
+		double y = coords[i + 1];
+		if ((srid == WEB_MERCATOR) || (srid == WEB_MERCATOR_LEGACY))
+		{
+			coords[i] = Math.toDegrees(x / A);
+			coords[i + 1] = Math.toDegrees(2 * Math.atan(Math.exp(y / A)) - Math.PI / 2);
+			return;
+		}
+		// UTM
+		double xi = (y - (srid > UTM_SOUTH ? UTM_FALSE_NORTHING_SOUTH : 0)) / UTM_RADIUS;
+		double eta = (x - UTM_FALSE_EASTING) / UTM_RADIUS;
+		double xi1 = xi;
+		double eta1 = eta;
+		for (int j = 0; j < BETA.length; j++)
+		{
+			double k = 2 * (j + 1);
+			xi1 -= BETA[j] * Math.sin(k * xi) * Math.cosh(k * eta);
+			eta1 -= BETA[j] * Math.cos(k * xi) * Math.sinh(k * eta);
+		}
+		double chi = Math.asin(Math.sin(xi1) / Math.cosh(eta1));
+		double phi = chi;
+		for (int j = 0; j < DELTA.length; j++)
+		{
+			phi += DELTA[j] * Math.sin(2 * (j + 1) * chi);
+		}
+		coords[i] = getCentralMeridian(srid) + Math.toDegrees(Math.atan2(Math.sinh(eta1), Math.cos(xi1)));
+		coords[i + 1] = Math.toDegrees(phi);
+	}
+
+	/**
+	 * Transforms packed coordinates in place. Coordinates are stored interleaved, so the ordinates of coordinate
+	 * <code>i</code> start at <code>coords[offset + i * dimension]</code> with x and y first.
+	 * @param coords coordinates
+	 * @param offset offset of the first coordinate
+	 * @param count number of coordinates
+	 * @param dimension number of ordinates per coordinate (2-4)
+	 * @param sourceSrid SRID of the coordinates
+	 * @param targetSrid target SRID
+	 * @throws IllegalArgumentException if a SRID is not supported
+	 */
+	public static void transform(double[] coords, int offset, int count, int dimension, int sourceSrid,
+			int targetSrid)
+	{
+		checkSrid(sourceSrid);
+		checkSrid(targetSrid);
+		if (sourceSrid == targetSrid)
+		{
+			return;
+		}
+		for (int i = offset, end = offset + count * dimension; i < end; i += dimension)
+		{
+			toGeographic(sourceSrid, coords, i);
+			fromGeographic(targetSrid, coords, i);
+		}
+	}
+
+	/**
+	 * Transforms the given {@link Geometry} in place and sets the new SRID on it.
+	 * @param geom {@link Geometry}
+	 * @param targetSrid target SRID
+	 * @return the given {@link Geometry}
+	 * @throws IllegalArgumentException if the SRID of the geometry or the target SRID is not supported
+	 */
+	public static <T extends Geometry> T transform(T geom, int targetSrid)
+	{
+		int sourceSrid = geom.getSrid();
+		checkSrid(sourceSrid);
+		checkSrid(targetSrid);
+		if (sourceSrid != targetSrid)
+		{
+			// buffer shared by all coordinates
+			double[] coords = new double[2];
+			geom.apply((Point p) -> {
+				coords[0] = p.getX();
+				coords[1] = p.getY();
+				toGeographic(sourceSrid, coords, 0);
+				fromGeographic(targetSrid, coords, 0);
+				p.setX(coords[0]);
+				p.setY(coords[1]);
+			});
+			geom.setSrid(targetSrid);
+		}
+		return geom;
+	}
+
+}
@@ -0,0 +1,477 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.PGgeometrybase;
+import io.github.sebasbaumh.postgis.Point;
+
+/**
+ * An immutable R-tree over the envelopes of geometries, which is bulk loaded using the Sort-Tile-Recursive (STR)
+ * algorithm. All nodes are stored in flat primitive arrays, so the tree is compact and cache friendly. Once built, it
+ * can be queried concurrently from multiple threads without any locking.
+ * <p>
+ * The envelope of a geometry is computed from its coordinates. Empty geometries are not added to the tree, as they can
+ * never be found by a query.
+ * </p>
+ * @author Sebastian Baumhekel
+ * @param <T> type of the items
+ */
+public final class STRtree<T>
+{
+	/**
+	 * Default maximum number of children of a node.
+	 */
+	public static final int DEFAULT_NODE_CAPACITY = 16;
+
+	/**
+	 * Items in the order of the leaf entries.
+	 */
+	private final Object[] items;
+	/**
+	 * Bounds of all entries as minX, minY, maxX, maxY. The first entries are the items, followed by the nodes of each
+	 * level. The root node is the last entry.
+	 */
+	private final double[] bounds;
+	/**
+	 * Start and end index (exclusive) of the children of each node (starting after the items).
+	 */
+	private final int[] children;
+	/**
+	 * Maximum number of entries on the stack of a window query.
+	 */
+	private final int maxStackSize;
+
+	/**
+	 * Builds a tree.
+	 * @param items items
+	 * @param envelopes envelopes of the items as minX, minY, maxX, maxY
+	 * @param count number of items
+	 * @param nodeCapacity maximum number of children of a node
+	 */
+	private STRtree(Object[] items, double[] envelopes, int count, int nodeCapacity)
+	{
+		// determine the total number of entries
+		int total = count;
+		int levels = 1;
+		for (int c = count; c > 1; levels++)
+		{
+			c = (c + nodeCapacity - 1) / nodeCapacity;
+			total += c;
+		}
+		this.items = new Object[count];
+		this.bounds = new double[total * 4];
+		this.children = new int[(total - count) * 2];
+		this.maxStackSize = levels * nodeCapacity + 1;
+		// level of entries (starting with the items)
+		double[] levelBounds = envelopes;
+		int[] levelChildren = null;
+		int offset = 0;
+		int levelCount = count;
+		while (levelCount > 0)
+		{
+			int[] order = getSTROrder(levelBounds, levelCount, nodeCapacity);
+			for (int i = 0; i < levelCount; i++)
+			{
+				int j = order[i];
+				System.arraycopy(levelBounds, j * 4, bounds, (offset + i) * 4, 4);
+				if (levelChildren == null)
+				{
+					this.items[i] = items[j];
+				}
+				else
+				{
+					children[(offset + i - count) * 2] = levelChildren[j * 2];
+					children[(offset + i - count) * 2 + 1] = levelChildren[j * 2 + 1];
+				}
+			}
+			if (levelCount == 1)
+			{
+				break;
+			}
+			// group the sorted entries to parent nodes
+			int parentCount = (levelCount + nodeCapacity - 1) / nodeCapacity;
+			double[] parentBounds = new double[parentCount * 4];
+			int[] parentChildren = new int[parentCount * 2];
+			for (int p = 0; p < parentCount; p++)
+			{
+				int start = offset + p * nodeCapacity;
+				int end = Math.min(start + nodeCapacity, offset + levelCount);
+				parentChildren[p * 2] = start;
+				parentChildren[p * 2 + 1] = end;
+				double minX = Double.POSITIVE_INFINITY;
+				double minY = Double.POSITIVE_INFINITY;
+				double maxX = Double.NEGATIVE_INFINITY;
+				double maxY = Double.NEGATIVE_INFINITY;
+				for (int i = start * 4; i < end * 4; i += 4)
+				{
+					minX = Math.min(minX, bounds[i]);
+					minY = Math.min(minY, bounds[i + 1]);
+					maxX = Math.max(maxX, bounds[i + 2]);
+					maxY = Math.max(maxY, bounds[i + 3]);
+				}
+				parentBounds[p * 4] = minX;
+				parentBounds[p * 4 + 1] = minY;
+				parentBounds[p * 4 + 2] = maxX;
+				parentBounds[p * 4 + 3] = maxY;
+			}
+			offset += levelCount;
+			levelBounds = parentBounds;
+			levelChildren = parentChildren;
+			levelCount = parentCount;
+		}
+	}
+
+	/**
+	 * Builds a tree over the given geometries using the default node capacity.
+	 * @param geoms geometries
+	 * @return {@link STRtree}
+	 */
+	public static <T extends Geometry> STRtree<T> build(Iterable<T> geoms)
+	{
+		return build(geoms, geom -> geom, DEFAULT_NODE_CAPACITY);
+	}
+
+	/**
+	 * Builds a tree over the given items using the default node capacity.
+	 * @param items items
+	 * @param getter function to get the {@link Geometry} of an item (items without a geometry are skipped)
+	 * @return {@link STRtree}
+	 */
+	public static <T> STRtree<T> build(Iterable<T> items, Function<? super T, Geometry> getter)
+	{
+		return build(items, getter, DEFAULT_NODE_CAPACITY);
+	}
+
+	/**
+	 * Builds a tree over the given items.
+	 * @param items items
+	 * @param getter function to get the {@link Geometry} of an item (items without a geometry are skipped)
+	 * @param nodeCapacity maximum number of children of a node (at least 2)
+	 * @return {@link STRtree}
+	 * @throws IllegalArgumentException if the node capacity is invalid
+	 */
+	public static <T> STRtree<T> build(Iterable<T> items, Function<? super T, Geometry> getter, int nodeCapacity)
+	{
+		if (nodeCapacity < 2)
+		{
+			throw new IllegalArgumentException("invalid node capacity: " + nodeCapacity);
+		}
+		ArrayList<Object> list = new ArrayList<Object>();
+		double[] envelopes = new double[64];
+		double[] envelope = new double[4];
+		for (T item : items)
+		{
+			Geometry geom = getter.apply(item);
+			if ((geom != null) && getEnvelope(geom, envelope))
+			{
+				int n = list.size();
+				if (envelopes.length < (n + 1) * 4)
+				{
+					envelopes = Arrays.copyOf(envelopes, envelopes.length * 2);
+				}
+				System.arraycopy(envelope, 0, envelopes, n * 4, 4);
+				list.add(item);
+			}
+		}
+		return new STRtree<T>(list.toArray(), envelopes, list.size(), nodeCapacity);
+	}
+
+	/**
+	 * Builds a tree over the geometries of the given {@link PGgeometrybase} instances using the default node capacity.
+	 * @param geoms geometries
+	 * @return {@link STRtree}
+	 */
+	public static <T extends PGgeometrybase> STRtree<T> buildFromPGgeometries(Iterable<T> geoms)
+	{
+		return build(geoms, PGgeometrybase::getGeometry, DEFAULT_NODE_CAPACITY);
+	}
+
+	/**
+	 * Gets the squared distance of a point to the bounds of the given entry.
+	 * @param entry entry
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return squared distance (0 if the point is inside)
+	 */
+	private double getDistanceSquared(int entry, double x, double y)
+	{
+		int i = entry * 4;
+		double dx = Math.max(Math.max(bounds[i] - x, x - bounds[i + 2]), 0);
+		double dy = Math.max(Math.max(bounds[i + 1] - y, y - bounds[i + 3]), 0);
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Computes the envelope of the given {@link Geometry}.
+	 * @param geom {@link Geometry}
+	 * @param envelope envelope as minX, minY, maxX, maxY
+	 * @return true if the geometry has coordinates, else false
+	 */
+	static boolean getEnvelope(Geometry geom, double[] envelope)
+	{
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (Point p : geom.getCoordinates())
+		{
+			// comparisons also skip NaN values of empty points
+			double x = p.getX();
+			double y = p.getY();
+			if (x < minX)
+			{
+				minX = x;
+			}
+			if (x > maxX)
+			{
+				maxX = x;
+			}
+			if (y < minY)
+			{
+				minY = y;
+			}
+			if (y > maxY)
+			{
+				maxY = y;
+			}
+		}
+		if ((minX > maxX) || (minY > maxY))
+		{
+			return false;
+		}
+		envelope[0] = minX;
+		envelope[1] = minY;
+		envelope[2] = maxX;
+		envelope[3] = maxY;
+		return true;
+	}
+
+	/**
+	 * Gets the order of the given entries for packing them into nodes using the Sort-Tile-Recursive algorithm.
+	 * @param bounds bounds of the entries as minX, minY, maxX, maxY
+	 * @param count number of entries
+	 * @param nodeCapacity maximum number of children of a node
+	 * @return indices of the entries in sorted order
+	 */
+	private static int[] getSTROrder(double[] bounds, int count, int nodeCapacity)
+	{
+		int[] order = new int[count];
+		double[] centersX = new double[count];
+		double[] centersY = new double[count];
+		for (int i = 0; i < count; i++)
+		{
+			order[i] = i;
+			centersX[i] = (bounds[i * 4] + bounds[i * 4 + 2]) * 0.5;
+			centersY[i] = (bounds[i * 4 + 1] + bounds[i * 4 + 3]) * 0.5;
+		}
+		// sort by x, then cut into vertical slices and sort each slice by y
+		IndexSorter.sort(order, centersX, 0, count);
+		int numNodes = (count + nodeCapacity - 1) / nodeCapacity;
+		int sliceSize = (int) Math.ceil(Math.sqrt(numNodes)) * nodeCapacity;
+		for (int start = 0; start < count; start += sliceSize)
+		{
+			IndexSorter.sort(order, centersY, start, Math.min(start + sliceSize, count));
+		}
+		return order;
+	}
+
+	/**
+	 * Checks if the bounds of the given entry intersect the given window.
+	 * @param entry entry
+	 * @param minX minimum x coordinate
+	 * @param minY minimum y coordinate
+	 * @param maxX maximum x coordinate
+	 * @param maxY maximum y coordinate
+	 * @return true if they intersect, else false
+	 */
+	private boolean intersects(int entry, double minX, double minY, double maxX, double maxY)
+	{
+		int i = entry * 4;
+		return (bounds[i] <= maxX) && (bounds[i + 2] >= minX) && (bounds[i + 1] <= maxY) && (bounds[i + 3] >= minY);
+	}
+
+	/**
+	 * Gets the nearest items to the given point ordered by the distance of their envelopes.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @param k maximum number of items
+	 * @return nearest items (up to k)
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> nearest(double x, double y, int k)
+	{
+		ArrayList<T> result = new ArrayList<T>(Math.max(0, Math.min(k, items.length)));
+		if ((k <= 0) || (items.length == 0))
+		{
+			return result;
+		}
+		// best first search using a binary heap of entries ordered by their distance
+		int[] heap = new int[maxStackSize];
+		double[] distances = new double[maxStackSize];
+		int size = 0;
+		int root = getRoot();
+		heap[size] = root;
+		distances[size++] = getDistanceSquared(root, x, y);
+		while (size > 0)
+		{
+			int entry = heap[0];
+			// remove the first entry and restore heap order
+			size--;
+			int last = heap[size];
+			double lastDistance = distances[size];
+			int pos = 0;
+			int child;
+			while ((child = 2 * pos + 1) < size)
+			{
+				if ((child + 1 < size) && (distances[child + 1] < distances[child]))
+				{
+					child++;
+				}
+				if (lastDistance <= distances[child])
+				{
+					break;
+				}
+				heap[pos] = heap[child];
+				distances[pos] = distances[child];
+				pos = child;
+			}
+			heap[pos] = last;
+			distances[pos] = lastDistance;
+			if (entry < items.length)
+			{
+				result.add((T) items[entry]);
+				if (result.size() == k)
+				{
+					break;
+				}
+				continue;
+			}
+			int node = entry - items.length;
+			for (int c = children[node * 2], end = children[node * 2 + 1]; c < end; c++)
+			{
+				if (size == heap.length)
+				{
+					heap = Arrays.copyOf(heap, size * 2);
+					distances = Arrays.copyOf(distances, size * 2);
+				}
+				double d = getDistanceSquared(c, x, y);
+				// insert and restore heap order
+				pos = size++;
+				while (pos > 0)
+				{
+					int parent = (pos - 1) >>> 1;
+					if (distances[parent] <= d)
+					{
+						break;
+					}
+					heap[pos] = heap[parent];
+					distances[pos] = distances[parent];
+					pos = parent;
+				}
+				heap[pos] = c;
+				distances[pos] = d;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets all items whose envelopes intersect the given window.
+	 * @param minX minimum x coordinate
+	 * @param minY minimum y coordinate
+	 * @param maxX maximum x coordinate
+	 * @param maxY maximum y coordinate
+	 * @return found items
+	 */
+	public List<T> query(double minX, double minY, double maxX, double maxY)
+	{
+		ArrayList<T> result = new ArrayList<T>();
+		query(minX, minY, maxX, maxY, result::add);
+		return result;
+	}
+
+	/**
+	 * Passes all items whose envelopes intersect the given window to the given consumer.
+	 * @param minX minimum x coordinate
+	 * @param minY minimum y coordinate
+	 * @param maxX maximum x coordinate
+	 * @param maxY maximum y coordinate
+	 * @param consumer consumer for the found items
+	 */
+	@SuppressWarnings("unchecked")
+	public void query(double minX, double minY, double maxX, double maxY, Consumer<? super T> consumer)
+	{
+		if (items.length == 0)
+		{
+			return;
+		}
+		int[] stack = new int[maxStackSize];
+		int size = 0;
+		stack[size++] = getRoot();
+		while (size > 0)
+		{
+			int entry = stack[--size];
+			if (intersects(entry, minX, minY, maxX, maxY))
+			{
+				if (entry < items.length)
+				{
+					consumer.accept((T) items[entry]);
+				}
+				else
+				{
+					int node = entry - items.length;
+					for (int c = children[node * 2], end = children[node * 2 + 1]; c < end; c++)
+					{
+						stack[size++] = c;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the index of the root entry.
+	 * @return root entry
+	 */
+	private int getRoot()
+	{
+		return (bounds.length / 4) - 1;
+	}
+
+	/**
+	 * Gets the number of items in this tree.
+	 * @return number of items
+	 */
+	public int size()
+	{
+		return items.length;
+	}
+
+}
@@ -0,0 +1,250 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.algorithms;
+
+import java.util.ArrayList;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.GeometryCollection;
+import io.github.sebasbaumh.postgis.LineString;
+import io.github.sebasbaumh.postgis.LinearRing;
+import io.github.sebasbaumh.postgis.MultiLineString;
+import io.github.sebasbaumh.postgis.MultiPolygon;
+import io.github.sebasbaumh.postgis.Point;
+import io.github.sebasbaumh.postgis.Polygon;
+import io.github.sebasbaumh.postgis.binary.LineFilter;
+
+/**
+ * Base class for line simplification algorithms. The algorithms work on flat coordinate arrays, so they can be used
+ * on existing geometries using {@link #simplify(Geometry)} or as a {@link LineFilter} directly while parsing (see
+ * {@link io.github.sebasbaumh.postgis.binary.BinaryParser#parse(String, LineFilter)}).
+ * <p>
+ * The start and end coordinate of a line are always kept. Rings are never reduced to less than 4 coordinates, so a
+ * ring which would collapse is kept unchanged. Instances do not hold any state besides the tolerance and can be shared
+ * between threads.
+ * </p>
+ * @author Sebastian Baumhekel
+ */
+public abstract class Simplifier implements LineFilter
+{
+	/**
+	 * Minimum number of coordinates of a ring.
+	 */
+	private static final int MIN_RING_COORDINATES = 4;
+
+	private final double tolerance;
+
+	/**
+	 * Constructor for subclasses.
+	 * @param tolerance tolerance (has to be &gt;=0)
+	 * @throws IllegalArgumentException if the tolerance is negative or not a number
+	 */
+	protected Simplifier(double tolerance)
+	{
+		if (!(tolerance >= 0))
+		{
+			throw new IllegalArgumentException("invalid tolerance: " + tolerance);
+		}
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Copies the coordinates of the given {@link LineString} to an array.
+	 * @param ls {@link LineString}
+	 * @param dimension number of ordinates per coordinate (2-4)
+	 * @param haveZ copy z values?
+	 * @param haveM copy measure values?
+	 * @return coordinates
+	 */
+	private static double[] toArray(LineString ls, int dimension, boolean haveZ, boolean haveM)
+	{
+		double[] coords = new double[ls.getNumberOfCoordinates() * dimension];
+		int j = 0;
+		for (Point p : ls)
+		{
+			coords[j] = p.getX();
+			coords[j + 1] = p.getY();
+			if (haveZ)
+			{
+				coords[j + 2] = p.getZ();
+			}
+			if (haveM)
+			{
+				coords[j + dimension - 1] = p.getM();
+			}
+			j += dimension;
+		}
+		return coords;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.binary.LineFilter#filter(double[], int, int, boolean)
+	 */
+	@Override
+	public final int filter(double[] coords, int count, int dimension, boolean ring)
+	{
+		int minCount = ring ? MIN_RING_COORDINATES : 2;
+		if (count <= minCount)
+		{
+			return count;
+		}
+		boolean[] keep = new boolean[count];
+		int kept = mark(coords, count, dimension, keep);
+		// keep collapsed rings and unchanged lines as they are
+		if ((kept < minCount) || (kept == count))
+		{
+			return count;
+		}
+		// move kept coordinates to the start of the array
+		int k = 0;
+		for (int i = 0; i < count; i++)
+		{
+			if (keep[i])
+			{
+				if (k != i)
+				{
+					System.arraycopy(coords, i * dimension, coords, k * dimension, dimension);
+				}
+				k++;
+			}
+		}
+		return k;
+	}
+
+	/**
+	 * Gets the tolerance.
+	 * @return tolerance
+	 */
+	public double getTolerance()
+	{
+		return tolerance;
+	}
+
+	/**
+	 * Marks the coordinates to keep. The first and last coordinate always have to be kept.
+	 * @param coords coordinates (see {@link LineFilter#filter(double[], int, int, boolean)})
+	 * @param count number of coordinates (at least 3)
+	 * @param dimension number of ordinates per coordinate (2-4)
+	 * @param keep flags for the coordinates to keep (initially all false)
+	 * @return number of kept coordinates
+	 */
+	protected abstract int mark(double[] coords, int count, int dimension, boolean[] keep);
+
+	/**
+	 * Simplifies the given geometry. {@link LineString}s, {@link Polygon}s and their multi geometries (also inside of
+	 * a {@link GeometryCollection}) are simplified, all other geometries like points and curves are returned
+	 * unchanged.
+	 * @param geom {@link Geometry}
+	 * @return simplified {@link Geometry} (a new instance if it was simplified)
+	 */
+	public Geometry simplify(Geometry geom)
+	{
+		Geometry result;
+		switch (geom.getType())
+		{
+			case LineString.TYPE:
+				result = simplify((LineString) geom, false);
+				break;
+			case Polygon.TYPE:
+				result = simplify((Polygon) geom);
+				break;
+			case MultiLineString.TYPE:
+			{
+				ArrayList<LineString> lines = new ArrayList<LineString>();
+				for (LineString ls : (MultiLineString) geom)
+				{
+					lines.add(simplify(ls, false));
+				}
+				result = new MultiLineString(lines);
+				break;
+			}
+			case MultiPolygon.TYPE:
+			{
+				ArrayList<Polygon> polys = new ArrayList<Polygon>();
+				for (Polygon poly : (MultiPolygon) geom)
+				{
+					polys.add(simplify(poly));
+				}
+				result = new MultiPolygon(polys);
+				break;
+			}
+			case GeometryCollection.TYPE:
+			{
+				ArrayList<Geometry> geoms = new ArrayList<Geometry>();
+				for (Geometry g : (GeometryCollection) geom)
+				{
+					geoms.add(simplify(g));
+				}
+				result = new GeometryCollection(geoms);
+				break;
+			}
+			default:
+				return geom;
+		}
+		result.setSrid(geom.getSrid());
+		return result;
+	}
+
+	/**
+	 * Simplifies the given {@link LineString} or {@link LinearRing}.
+	 * @param ls {@link LineString}
+	 * @param ring is it a ring?
+	 * @return simplified {@link LineString} or {@link LinearRing}
+	 */
+	private LineString simplify(LineString ls, boolean ring)
+	{
+		boolean haveZ = ls.is3d();
+		boolean haveM = ls.hasMeasure();
+		int dimension = 2 + (haveZ ? 1 : 0) + (haveM ? 1 : 0);
+		double[] coords = toArray(ls, dimension, haveZ, haveM);
+		int count = filter(coords, ls.getNumberOfCoordinates(), dimension, ring);
+		ArrayList<Point> points = new ArrayList<Point>(count);
+		for (int i = 0, j = 0; i < count; i++, j += dimension)
+		{
+			double z = haveZ ? coords[j + 2] : Double.NaN;
+			double m = haveM ? coords[j + dimension - 1] : Double.NaN;
+			points.add(new Point(coords[j], coords[j + 1], z, m));
+		}
+		LineString result = ring ? new LinearRing(points) : new LineString(points);
+		result.setSrid(ls.getSrid());
+		return result;
+	}
+
+	/**
+	 * Simplifies all rings of the given {@link Polygon}.
+	 * @param poly {@link Polygon}
+	 * @return simplified {@link Polygon}
+	 */
+	private Polygon simplify(Polygon poly)
+	{
+		Polygon result = new Polygon((LinearRing) simplify(poly.getOuterRing(), true));
+		for (LinearRing ring : poly.getRings())
+		{
+			result.addRing((LinearRing) simplify(ring, true));
+		}
+		result.setSrid(poly.getSrid());
+		return result;
+	}
+
+}
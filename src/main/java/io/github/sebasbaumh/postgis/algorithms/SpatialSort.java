@@ -0,0 +1,280 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+
+/**
+ * Sorts geometries along a space filling curve (Hilbert or Z-order) by the centers of their envelopes. Inserting
+ * geometries in this order (e.g. by batch inserts or COPY) clusters them spatially, which speeds up building spatial
+ * indices and improves the locality of later queries.
+ * <p>
+ * The keys are computed on a grid of 65536x65536 cells spanning the envelope of all centers. Sorting uses primitive
+ * arrays and runs in parallel for large inputs. Items without coordinates are placed at the end in their original
+ * order.
+ * </p>
+ * @author Sebastian Baumhekel
+ */
+public final class SpatialSort
+{
+	/**
+	 * Number of bits of a grid coordinate.
+	 */
+	private static final int GRID_BITS = 16;
+	/**
+	 * Maximum grid coordinate.
+	 */
+	private static final int GRID_MAX = (1 << GRID_BITS) - 1;
+
+	/**
+	 * Space filling curves to sort by.
+	 */
+	public enum Order
+	{
+		/**
+		 * Hilbert curve, which has the best locality.
+		 */
+		HILBERT,
+		/**
+		 * Z-order (Morton) curve, which is cheaper to compute.
+		 */
+		Z_ORDER;
+	}
+
+	// prevent instantiating this class
+	@Deprecated
+	private SpatialSort()
+	{
+	}
+
+	/**
+	 * Gets the key of the given grid cell on the Hilbert curve.
+	 * @param x x coordinate of the cell (0-65535)
+	 * @param y y coordinate of the cell (0-65535)
+	 * @return key (0 to 2^32-1)
+	 */
+	public static long getHilbertKey(int x, int y)
+	{
+		long key = 0;
+		for (int s = 1 << (GRID_BITS - 1); s > 0; s >>>= 1)
+		{
+			int rx = (x & s) != 0 ? 1 : 0;
+			int ry = (y & s) != 0 ? 1 : 0;
+			key += (long) s * s * ((3 * rx) ^ ry);
+			// rotate the quadrant
+			if (ry == 0)
+			{
+				if (rx == 1)
+				{
+					x = GRID_MAX - x;
+					y = GRID_MAX - y;
+				}
+				int t = x;
+				x = y;
+				y = t;
+			}
+		}
+		return key;
+	}
+
+	/**
+	 * Gets the key of the given grid cell on the Z-order (Morton) curve by interleaving the bits of the coordinates.
+	 * @param x x coordinate of the cell (0-65535)
+	 * @param y y coordinate of the cell (0-65535)
+	 * @return key (0 to 2^32-1)
+	 */
+	public static long getMortonKey(int x, int y)
+	{
+		return spreadBits(x) | (spreadBits(y) << 1);
+	}
+
+	/**
+	 * Gets the order of the given centers along a space filling curve.
+	 * @param centers centers as x, y (NaN values for items without coordinates)
+	 * @param count number of centers
+	 * @param order {@link Order}
+	 * @return indices of the centers in sorted order
+	 */
+	public static int[] getOrder(double[] centers, int count, Order order)
+	{
+		// determine the extent of all centers
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		int valid = 0;
+		for (int i = 0; i < count; i++)
+		{
+			double x = centers[i * 2];
+			double y = centers[i * 2 + 1];
+			if (!Double.isNaN(x) && !Double.isNaN(y))
+			{
+				minX = Math.min(minX, x);
+				minY = Math.min(minY, y);
+				maxX = Math.max(maxX, x);
+				maxY = Math.max(maxY, y);
+				valid++;
+			}
+		}
+		double scaleX = maxX > minX ? GRID_MAX / (maxX - minX) : 0;
+		double scaleY = maxY > minY ? GRID_MAX / (maxY - minY) : 0;
+		// pack key and index into a single value, so a primitive sort can be used
+		long[] keys = new long[valid];
+		int[] result = new int[count];
+		int k = 0;
+		int invalid = valid;
+		for (int i = 0; i < count; i++)
+		{
+			double x = centers[i * 2];
+			double y = centers[i * 2 + 1];
+			if (!Double.isNaN(x) && !Double.isNaN(y))
+			{
+				int gx = (int) ((x - minX) * scaleX);
+				int gy = (int) ((y - minY) * scaleY);
+				long key = order == Order.HILBERT ? getHilbertKey(gx, gy) : getMortonKey(gx, gy);
+				keys[k++] = (key << 32) | i;
+			}
+			else
+			{
+				result[invalid++] = i;
+			}
+		}
+		Arrays.parallelSort(keys);
+		for (int i = 0; i < valid; i++)
+		{
+			result[i] = (int) keys[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Sorts the given geometries along a space filling curve.
+	 * @param geoms geometries
+	 * @param order {@link Order}
+	 * @return sorted geometries
+	 */
+	public static <T extends Geometry> List<T> sort(Collection<T> geoms, Order order)
+	{
+		return sort(geoms, geom -> geom, order);
+	}
+
+	/**
+	 * Sorts the given items along a space filling curve.
+	 * @param items items
+	 * @param getter function to get the {@link Geometry} of an item (may return null for items without a geometry)
+	 * @param order {@link Order}
+	 * @return sorted items
+	 */
+	public static <T> List<T> sort(Collection<T> items, Function<? super T, Geometry> getter, Order order)
+	{
+		ArrayList<T> list = new ArrayList<T>(items);
+		double[] centers = new double[list.size() * 2];
+		double[] envelope = new double[4];
+		for (int i = 0; i < list.size(); i++)
+		{
+			Geometry geom = getter.apply(list.get(i));
+			setCenter(centers, i, (geom != null) && STRtree.getEnvelope(geom, envelope), envelope);
+		}
+		return reorder(list, getOrder(centers, list.size(), order));
+	}
+
+	/**
+	 * Sorts the given binary encoded geometries (EWKB) along a space filling curve. The geometries are not parsed,
+	 * only their envelopes are read.
+	 * @param records binary encoded geometries
+	 * @param order {@link Order}
+	 * @return sorted binary encoded geometries
+	 * @throws IllegalArgumentException if a geometry cannot be read
+	 */
+	public static List<byte[]> sortBinary(Collection<byte[]> records, Order order)
+	{
+		ArrayList<byte[]> list = new ArrayList<byte[]>(records);
+		double[] centers = new double[list.size() * 2];
+		double[] envelope = new double[4];
+		for (int i = 0; i < list.size(); i++)
+		{
+			setCenter(centers, i, BinaryParser.parseEnvelope(list.get(i), 0, envelope), envelope);
+		}
+		return reorder(list, getOrder(centers, list.size(), order));
+	}
+
+	/**
+	 * Reorders the given list.
+	 * @param list list
+	 * @param indices indices of the items in the new order
+	 * @return reordered list
+	 */
+	private static <T> List<T> reorder(List<T> list, int[] indices)
+	{
+		ArrayList<T> result = new ArrayList<T>(indices.length);
+		for (int index : indices)
+		{
+			result.add(list.get(index));
+		}
+		return result;
+	}
+
+	/**
+	 * Sets the center of an item.
+	 * @param centers centers as x, y
+	 * @param index index of the item
+	 * @param valid is the envelope valid?
+	 * @param envelope envelope as minX, minY, maxX, maxY
+	 */
+	private static void setCenter(double[] centers, int index, boolean valid, double[] envelope)
+	{
+		if (valid)
+		{
+			centers[index * 2] = (envelope[0] + envelope[2]) * 0.5;
+			centers[index * 2 + 1] = (envelope[1] + envelope[3]) * 0.5;
+		}
+		else
+		{
+			centers[index * 2] = Double.NaN;
+			centers[index * 2 + 1] = Double.NaN;
+		}
+	}
+
+	/**
+	 * Spreads the lower 16 bits of the given value to the even bits of the result.
+	 * @param v value
+	 * @return spread value
+	 */
+	private static long spreadBits(int v)
+	{
+		long x = v & 0xFFFFL;
+		x = (x | (x << 8)) & 0x00FF00FFL;
+		x = (x | (x << 4)) & 0x0F0F0F0FL;
+		x = (x | (x << 2)) & 0x33333333L;
+		x = (x | (x << 1)) & 0x55555555L;
+		return x;
+	}
+
+}
@@ -0,0 +1,207 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Simplifies lines using the Visvalingam-Whyatt algorithm. Coordinates are removed in order of the area of the
+ * triangle they form with their neighbors as long as this area is smaller than the tolerance. Only x and y are taken
+ * into account for the area. The implementation uses an indexed binary heap, so the runtime is O(n log n).
+ * @author Sebastian Baumhekel
+ */
+public class VisvalingamSimplifier extends Simplifier
+{
+	/**
+	 * Constructs an instance.
+	 * @param tolerance area tolerance (has to be &gt;=0)
+	 * @throws IllegalArgumentException if the tolerance is negative or not a number
+	 */
+	public VisvalingamSimplifier(double tolerance)
+	{
+		super(tolerance);
+	}
+
+	/**
+	 * Gets the area of the triangle formed by the coordinates at the given indices.
+	 * @param coords coordinates
+	 * @param dimension number of ordinates per coordinate
+	 * @param a index of the first coordinate
+	 * @param b index of the second coordinate
+	 * @param c index of the third coordinate
+	 * @return area
+	 */
+	private static double getArea(double[] coords, int dimension, int a, int b, int c)
+	{
+		double ax = coords[a * dimension];
+		double ay = coords[a * dimension + 1];
+		return Math.abs((coords[b * dimension] - ax) * (coords[c * dimension + 1] - ay)
+				- (coords[c * dimension] - ax) * (coords[b * dimension + 1] - ay)) * 0.5;
+	}
+
+	/**
+	 * Moves the entry at the given heap position down until the heap order is restored.
+	 * @param heap heap containing coordinate indices
+	 * @param positions positions of the coordinate indices in the heap
+	 * @param areas areas of the coordinates
+	 * @param size size of the heap
+	 * @param pos heap position
+	 */
+	private static void siftDown(int[] heap, int[] positions, double[] areas, int size, int pos)
+	{
+		int index = heap[pos];
+		double area = areas[index];
+		int half = size >>> 1;
+		while (pos < half)
+		{
+			int child = 2 * pos + 1;
+			if ((child + 1 < size) && (areas[heap[child + 1]] < areas[heap[child]]))
+			{
+				child++;
+			}
+			if (area <= areas[heap[child]])
+			{
+				break;
+			}
+			heap[pos] = heap[child];
+			positions[heap[pos]] = pos;
+			pos = child;
+		}
+		heap[pos] = index;
+		positions[index] = pos;
+	}
+
+	/**
+	 * Moves the entry at the given heap position up until the heap order is restored.
+	 * @param heap heap containing coordinate indices
+	 * @param positions positions of the coordinate indices in the heap
+	 * @param areas areas of the coordinates
+	 * @param pos heap position
+	 */
+	private static void siftUp(int[] heap, int[] positions, double[] areas, int pos)
+	{
+		int index = heap[pos];
+		double area = areas[index];
+		while (pos > 0)
+		{
+			int parent = (pos - 1) >>> 1;
+			if (areas[heap[parent]] <= area)
+			{
+				break;
+			}
+			heap[pos] = heap[parent];
+			positions[heap[pos]] = pos;
+			pos = parent;
+		}
+		heap[pos] = index;
+		positions[index] = pos;
+	}
+
+	/**
+	 * Updates the area of the coordinate at the given index and restores the heap order.
+	 * @param heap heap containing coordinate indices
+	 * @param positions positions of the coordinate indices in the heap
+	 * @param areas areas of the coordinates
+	 * @param size size of the heap
+	 * @param index coordinate index
+	 * @param area new area
+	 */
+	private static void update(int[] heap, int[] positions, double[] areas, int size, int index, double area)
+	{
+		double old = areas[index];
+		areas[index] = area;
+		if (area < old)
+		{
+			siftUp(heap, positions, areas, positions[index]);
+		}
+		else
+		{
+			siftDown(heap, positions, areas, size, positions[index]);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see io.github.sebasbaumh.postgis.algorithms.Simplifier#mark(double[], int, int, boolean[])
+	 */
+	@Override
+	protected int mark(double[] coords, int count, int dimension, boolean[] keep)
+	{
+		Arrays.fill(keep, true);
+		int[] prev = new int[count];
+		int[] next = new int[count];
+		double[] areas = new double[count];
+		// heap only contains the inner coordinates
+		int size = count - 2;
+		int[] heap = new int[size];
+		int[] positions = new int[count];
+		for (int i = 1; i < count - 1; i++)
+		{
+			prev[i] = i - 1;
+			next[i] = i + 1;
+			areas[i] = getArea(coords, dimension, i - 1, i, i + 1);
+			heap[i - 1] = i;
+			positions[i] = i - 1;
+		}
+		for (int i = (size >>> 1) - 1; i >= 0; i--)
+		{
+			siftDown(heap, positions, areas, size, i);
+		}
+		double tolerance = getTolerance();
+		int kept = count;
+		while (size > 0)
+		{
+			int index = heap[0];
+			double area = areas[index];
+			if (area >= tolerance)
+			{
+				break;
+			}
+			// remove the coordinate with the smallest area
+			keep[index] = false;
+			kept--;
+			size--;
+			if (size > 0)
+			{
+				heap[0] = heap[size];
+				positions[heap[0]] = 0;
+				siftDown(heap, positions, areas, size, 0);
+			}
+			int p = prev[index];
+			int n = next[index];
+			next[p] = n;
+			prev[n] = p;
+			// the area of the neighbors never gets smaller than the one of the removed coordinate
+			if (p > 0)
+			{
+				update(heap, positions, areas, size, p, Math.max(getArea(coords, dimension, prev[p], p, n), area));
+			}
+			if (n < count - 1)
+			{
+				update(heap, positions, areas, size, n, Math.max(getArea(coords, dimension, p, n, next[n]), area));
+			}
+		}
+		return kept;
+	}
+
+}
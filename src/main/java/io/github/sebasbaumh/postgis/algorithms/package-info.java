@@ -0,0 +1,6 @@
+/**
+ * Algorithms working on geometries like simplification.
+ * @author Sebastian Baumhekel
+ */
+@org.eclipse.jdt.annotation.NonNullByDefault
+package io.github.sebasbaumh.postgis.algorithms;
@@ -25,6 +25,8 @@ package io.github.sebasbaumh.postgis.binary;
 import java.util.ArrayList;
 import java.util.Collection;
 
+import javax.annotation.Nullable;
+
 import io.github.sebasbaumh.postgis.CircularString;
 import io.github.sebasbaumh.postgis.CompoundCurve;
 import io.github.sebasbaumh.postgis.Curve;
@@ -41,9 +43,13 @@ import io.github.sebasbaumh.postgis.MultiSurface;
 import io.github.sebasbaumh.postgis.Point;
 import io.github.sebasbaumh.postgis.Polygon;
 import io.github.sebasbaumh.postgis.PolygonBase;
+import io.github.sebasbaumh.postgis.PolyhedralSurface;
+import io.github.sebasbaumh.postgis.Tin;
+import io.github.sebasbaumh.postgis.Triangle;
 
 /**
- * A parser for reading geometries from a binary or hex string representation.
+ * A parser for reading geometries from a binary or hex string representation. Both the EWKB and the ISO WKB dialect
+ * are detected automatically.
  * @author Sebastian Baumhekel
  */
 public final class BinaryParser
@@ -55,6 +61,60 @@ public final class BinaryParser
 	{
 	}
 
+	/**
+	 * Gets the geometry type from a typeword. Both the EWKB dialect (flag bits) and the ISO WKB dialect (type offsets of
+	 * 1000, 2000 or 3000 for z, m or both) are supported.
+	 * @param typeword typeword
+	 * @return geometry type
+	 */
+	public static int getGeometryType(int typeword)
+	{
+		// cut off high flag bits and the ISO dimension offset
+		return (typeword & 0x1FFFFFFF) % 1000;
+	}
+
+	/**
+	 * Gets the number of bytes of a binary encoded geometry without reading any coordinates, so trailing bytes after
+	 * the geometry can be ignored.
+	 * @param value byte array containing the geometry
+	 * @param offset offset
+	 * @return number of bytes
+	 * @throws IllegalArgumentException if the geometry type is unknown or the value is truncated
+	 */
+	public static int getLength(byte[] value, int offset)
+	{
+		BinaryValueGetter data = new BinaryValueGetter(value, offset);
+		skipGeometry(data);
+		int end = data.getPosition();
+		if (end > value.length)
+		{
+			throw new IllegalArgumentException("truncated geometry: " + (end - offset) + " > " + (value.length - offset));
+		}
+		return end - offset;
+	}
+
+	/**
+	 * Checks if the given typeword indicates m ordinates in either the EWKB or the ISO WKB dialect.
+	 * @param typeword typeword
+	 * @return true if there are m ordinates, else false
+	 */
+	public static boolean hasM(int typeword)
+	{
+		int iso = (typeword & 0x1FFFFFFF) / 1000;
+		return ((typeword & 0x40000000) != 0) || (iso == 2) || (iso == 3);
+	}
+
+	/**
+	 * Checks if the given typeword indicates z ordinates in either the EWKB or the ISO WKB dialect.
+	 * @param typeword typeword
+	 * @return true if there are z ordinates, else false
+	 */
+	public static boolean hasZ(int typeword)
+	{
+		int iso = (typeword & 0x1FFFFFFF) / 1000;
+		return ((typeword & 0x80000000) != 0) || (iso == 1) || (iso == 3);
+	}
+
 	/**
 	 * Parse a hex encoded geometry
 	 * @param value byte array containing the data to be parsed
@@ -64,7 +124,33 @@ public final class BinaryParser
 	 */
 	public static Geometry parse(byte[] value, int offset)
 	{
-		return parseGeometry(new BinaryValueGetter(value, offset));
+		return parseGeometry(new BinaryValueGetter(value, offset), null);
+	}
+
+	/**
+	 * Parse a binary encoded geometry applying a filter to all line strings and linear rings.
+	 * @param value byte array containing the data to be parsed
+	 * @param offset offset
+	 * @param filter {@link LineFilter}
+	 * @return resulting geometry for the parsed data
+	 * @throws IllegalArgumentException if a contained geometry is of the wrong type or the encoding type is unknown
+	 */
+	public static Geometry parse(byte[] value, int offset, LineFilter filter)
+	{
+		return parseGeometry(new BinaryValueGetter(value, offset), DecodeOptions.DEFAULT.withLineFilter(filter));
+	}
+
+	/**
+	 * Parse a binary encoded geometry reducing it while parsing according to the given options.
+	 * @param value byte array containing the data to be parsed
+	 * @param offset offset
+	 * @param options {@link DecodeOptions}
+	 * @return resulting geometry for the parsed data
+	 * @throws IllegalArgumentException if a contained geometry is of the wrong type or the encoding type is unknown
+	 */
+	public static Geometry parse(byte[] value, int offset, DecodeOptions options)
+	{
+		return parseGeometry(new BinaryValueGetter(value, offset), options);
 	}
 
 	/**
@@ -75,7 +161,205 @@ public final class BinaryParser
 	 */
 	public static Geometry parse(String value)
 	{
-		return parseGeometry(new StringValueGetter(value));
+		return parseGeometry(new StringValueGetter(value), null);
+	}
+
+	/**
+	 * Parse a geometry from the given {@link ValueGetter}, e.g. to read it from a source other than a byte array or a
+	 * String.
+	 * @param data {@link ValueGetter}
+	 * @return resulting geometry for the parsed data
+	 * @throws IllegalArgumentException if a contained geometry is of the wrong type or the encoding type is unknown
+	 */
+	public static Geometry parse(ValueGetter data)
+	{
+		return parseGeometry(data, null);
+	}
+
+	/**
+	 * Parse a geometry from the given {@link ValueGetter} reducing it while parsing according to the given options.
+	 * @param data {@link ValueGetter}
+	 * @param options {@link DecodeOptions}
+	 * @return resulting geometry for the parsed data
+	 * @throws IllegalArgumentException if a contained geometry is of the wrong type or the encoding type is unknown
+	 */
+	public static Geometry parse(ValueGetter data, DecodeOptions options)
+	{
+		return parseGeometry(data, options);
+	}
+
+	/**
+	 * Parse a hex encoded geometry applying a filter to all line strings and linear rings.
+	 * @param value String containing the data to be parsed
+	 * @param filter {@link LineFilter}
+	 * @return resulting geometry for the parsed data
+	 * @throws IllegalArgumentException if a contained geometry is of the wrong type or the encoding type is unknown
+	 */
+	public static Geometry parse(String value, LineFilter filter)
+	{
+		return parseGeometry(new StringValueGetter(value), DecodeOptions.DEFAULT.withLineFilter(filter));
+	}
+
+	/**
+	 * Parse a hex encoded geometry reducing it while parsing according to the given options.
+	 * @param value String containing the data to be parsed
+	 * @param options {@link DecodeOptions}
+	 * @return resulting geometry for the parsed data
+	 * @throws IllegalArgumentException if a contained geometry is of the wrong type or the encoding type is unknown
+	 */
+	public static Geometry parse(String value, DecodeOptions options)
+	{
+		return parseGeometry(new StringValueGetter(value), options);
+	}
+
+	/**
+	 * Parse a binary encoded geometry into a {@link CompactGeometry} storing the coordinates as 32-bit floats.
+	 * @param value byte array containing the data to be parsed
+	 * @param offset offset
+	 * @return {@link CompactGeometry}
+	 * @throws IllegalArgumentException if the geometry type or the encoding type is unknown or there are infinite
+	 *             coordinates
+	 */
+	public static CompactGeometry parseCompact(byte[] value, int offset)
+	{
+		return parseCompact(new BinaryValueGetter(value, offset)).buildFloat32();
+	}
+
+	/**
+	 * Parse a binary encoded geometry into a {@link CompactGeometry} storing the coordinates as quantized integers.
+	 * @param value byte array containing the data to be parsed
+	 * @param offset offset
+	 * @param resolution resolution (distance between two quantized values), so the maximum error is half of it
+	 * @return {@link CompactGeometry}
+	 * @throws IllegalArgumentException if the geometry type or the encoding type is unknown, there are infinite
+	 *             coordinates or the resolution is too small for the extent of the geometry
+	 */
+	public static CompactGeometry parseCompact(byte[] value, int offset, double resolution)
+	{
+		return parseCompact(new BinaryValueGetter(value, offset)).buildQuantized(resolution);
+	}
+
+	/**
+	 * Parse a hex encoded geometry into a {@link CompactGeometry} storing the coordinates as 32-bit floats.
+	 * @param value String containing the data to be parsed
+	 * @return {@link CompactGeometry}
+	 * @throws IllegalArgumentException if the geometry type or the encoding type is unknown or there are infinite
+	 *             coordinates
+	 */
+	public static CompactGeometry parseCompact(String value)
+	{
+		return parseCompact(new StringValueGetter(value)).buildFloat32();
+	}
+
+	/**
+	 * Parse a hex encoded geometry into a {@link CompactGeometry} storing the coordinates as quantized integers.
+	 * @param value String containing the data to be parsed
+	 * @param resolution resolution (distance between two quantized values), so the maximum error is half of it
+	 * @return {@link CompactGeometry}
+	 * @throws IllegalArgumentException if the geometry type or the encoding type is unknown, there are infinite
+	 *             coordinates or the resolution is too small for the extent of the geometry
+	 */
+	public static CompactGeometry parseCompact(String value, double resolution)
+	{
+		return parseCompact(new StringValueGetter(value)).buildQuantized(resolution);
+	}
+
+	/**
+	 * Parse a geometry into a {@link CompactGeometry.Builder}.
+	 * @param data {@link ValueGetter}
+	 * @return {@link CompactGeometry.Builder}
+	 * @throws IllegalArgumentException for unknown geometry types
+	 */
+	private static CompactGeometry.Builder parseCompact(ValueGetter data)
+	{
+		CompactGeometry.Builder builder = new CompactGeometry.Builder();
+		parseCompact(data, builder);
+		return builder;
+	}
+
+	/**
+	 * Parse a geometry and add its structure and coordinates to the given {@link CompactGeometry.Builder}.
+	 * @param data {@link ValueGetter}
+	 * @param builder {@link CompactGeometry.Builder}
+	 * @throws IllegalArgumentException for unknown geometry types
+	 */
+	private static void parseCompact(ValueGetter data, CompactGeometry.Builder builder)
+	{
+		// read endian flag
+		data.readEncoding();
+		// and get the type
+		int typeword = data.getInt();
+		int geometryType = getGeometryType(typeword);
+		boolean haveZ = hasZ(typeword);
+		boolean haveM = hasM(typeword);
+		boolean haveS = (typeword & 0x20000000) != 0;
+		// store the type as EWKB typeword
+		builder.addStructure(geometryType | (haveZ ? 0x80000000 : 0) | (haveM ? 0x40000000 : 0)
+				| (haveS ? 0x20000000 : 0));
+		if (haveS)
+		{
+			builder.addStructure(data.getInt());
+		}
+		switch (geometryType)
+		{
+			case Point.TYPE:
+				builder.addCoordinate(data, haveZ, haveM);
+				break;
+			case LineString.TYPE:
+			case CircularString.TYPE:
+				parseCompact(data, data.getInt(), haveZ, haveM, builder);
+				break;
+			case Polygon.TYPE:
+			case Triangle.TYPE:
+			{
+				int count = data.getInt();
+				builder.addStructure(count);
+				for (int i = 0; i < count; i++)
+				{
+					parseCompact(data, data.getInt(), haveZ, haveM, builder);
+				}
+				break;
+			}
+			case CompoundCurve.TYPE:
+			case CurvePolygon.TYPE:
+			case MultiPoint.TYPE:
+			case MultiLineString.TYPE:
+			case MultiCurve.TYPE:
+			case MultiPolygon.TYPE:
+			case MultiSurface.TYPE:
+			case GeometryCollection.TYPE:
+			case PolyhedralSurface.TYPE:
+			case Tin.TYPE:
+			{
+				int count = data.getInt();
+				builder.addStructure(count);
+				for (int i = 0; i < count; i++)
+				{
+					parseCompact(data, builder);
+				}
+				break;
+			}
+			default:
+				throw new IllegalArgumentException("Unknown Geometry Type: " + geometryType);
+		}
+	}
+
+	/**
+	 * Parse coordinates and add them preceded by their count to the given {@link CompactGeometry.Builder}.
+	 * @param data {@link ValueGetter}
+	 * @param count number of coordinates
+	 * @param haveZ parse z value?
+	 * @param haveM parse measure value?
+	 * @param builder {@link CompactGeometry.Builder}
+	 */
+	private static void parseCompact(ValueGetter data, int count, boolean haveZ, boolean haveM,
+			CompactGeometry.Builder builder)
+	{
+		builder.addStructure(count);
+		for (int i = 0; i < count; i++)
+		{
+			builder.addCoordinate(data, haveZ, haveM);
+		}
 	}
 
 	/**
@@ -83,11 +367,13 @@ public final class BinaryParser
 	 * {@link ValueGetter}.
 	 * @param clazz {@link Class} of the geometries
 	 * @param data {@link ValueGetter}
+	 * @param options {@link DecodeOptions} (can be null)
 	 * @return {@link Collection} of geometries
 	 * @throws IllegalArgumentException if a contained geometry is of the wrong type
 	 */
 	@SuppressWarnings("unchecked")
-	private static <T extends Geometry> Collection<T> parseGeometries(Class<T> clazz, ValueGetter data)
+	private static <T extends Geometry> Collection<T> parseGeometries(Class<T> clazz, ValueGetter data,
+			@Nullable DecodeOptions options)
 	{
 		// get number of geometries to parse
 		int count = data.getInt();
@@ -95,11 +381,15 @@ public final class BinaryParser
 		// parse geometries
 		for (int i = 0; i < count; i++)
 		{
-			Geometry geom = parseGeometry(data);
+			Geometry geom = parseGeometry(data, options);
 			// check if the geometry is of the correct type
 			if (clazz.isInstance(geom))
 			{
-				l.add((T) geom);
+				// drop geometries emptied by clipping
+				if ((options == null) || !options.isClipping() || !geom.isEmpty())
+				{
+					l.add((T) geom);
+				}
 			}
 			else
 			{
@@ -110,22 +400,153 @@ public final class BinaryParser
 		return l;
 	}
 
+	/**
+	 * Parse the envelope (bounding box of the x and y coordinates) of a binary encoded geometry without creating any
+	 * geometry objects.
+	 * @param value byte array containing the data to be parsed
+	 * @param offset offset
+	 * @param envelope array receiving the envelope as minX, minY, maxX, maxY
+	 * @return true if the geometry has coordinates, false if it is empty
+	 * @throws IllegalArgumentException if the geometry type or the encoding type is unknown
+	 */
+	public static boolean parseEnvelope(byte[] value, int offset, double[] envelope)
+	{
+		return parseEnvelope(new BinaryValueGetter(value, offset), envelope);
+	}
+
+	/**
+	 * Parse the envelope (bounding box of the x and y coordinates) of a geometry from the given {@link ValueGetter}
+	 * without creating any geometry objects.
+	 * @param data {@link ValueGetter}
+	 * @param envelope array receiving the envelope as minX, minY, maxX, maxY
+	 * @return true if the geometry has coordinates, false if it is empty
+	 * @throws IllegalArgumentException if the geometry type or the encoding type is unknown
+	 */
+	public static boolean parseEnvelope(ValueGetter data, double[] envelope)
+	{
+		envelope[0] = Double.POSITIVE_INFINITY;
+		envelope[1] = Double.POSITIVE_INFINITY;
+		envelope[2] = Double.NEGATIVE_INFINITY;
+		envelope[3] = Double.NEGATIVE_INFINITY;
+		extendEnvelope(data, envelope);
+		return (envelope[0] <= envelope[2]) && (envelope[1] <= envelope[3]);
+	}
+
+	/**
+	 * Parse the envelope of a geometry and extend the given envelope by it.
+	 * @param data {@link ValueGetter}
+	 * @param envelope envelope as minX, minY, maxX, maxY
+	 * @throws IllegalArgumentException for unknown geometry types
+	 */
+	private static void extendEnvelope(ValueGetter data, double[] envelope)
+	{
+		// read endian flag
+		data.readEncoding();
+		// and get the type
+		int typeword = data.getInt();
+		int geometryType = getGeometryType(typeword);
+		int dimension = 2 + (hasZ(typeword) ? 1 : 0) + (hasM(typeword) ? 1 : 0);
+		if ((typeword & 0x20000000) != 0)
+		{
+			// skip SRID
+			data.getInt();
+		}
+		switch (geometryType)
+		{
+			case Point.TYPE:
+				extendEnvelope(data, 1, dimension, envelope);
+				break;
+			case LineString.TYPE:
+			case CircularString.TYPE:
+				extendEnvelope(data, data.getInt(), dimension, envelope);
+				break;
+			case Polygon.TYPE:
+			case Triangle.TYPE:
+			{
+				int count = data.getInt();
+				for (int i = 0; i < count; i++)
+				{
+					extendEnvelope(data, data.getInt(), dimension, envelope);
+				}
+				break;
+			}
+			case CompoundCurve.TYPE:
+			case CurvePolygon.TYPE:
+			case MultiPoint.TYPE:
+			case MultiLineString.TYPE:
+			case MultiCurve.TYPE:
+			case MultiPolygon.TYPE:
+			case MultiSurface.TYPE:
+			case GeometryCollection.TYPE:
+			case PolyhedralSurface.TYPE:
+			case Tin.TYPE:
+			{
+				int count = data.getInt();
+				for (int i = 0; i < count; i++)
+				{
+					extendEnvelope(data, envelope);
+				}
+				break;
+			}
+			default:
+				throw new IllegalArgumentException("Unknown Geometry Type: " + geometryType);
+		}
+	}
+
+	/**
+	 * Parse coordinates and extend the given envelope by them.
+	 * @param data {@link ValueGetter}
+	 * @param count number of coordinates
+	 * @param dimension number of ordinates per coordinate
+	 * @param envelope envelope as minX, minY, maxX, maxY
+	 */
+	private static void extendEnvelope(ValueGetter data, int count, int dimension, double[] envelope)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			double x = data.getDouble();
+			double y = data.getDouble();
+			for (int d = 2; d < dimension; d++)
+			{
+				data.getDouble();
+			}
+			// comparisons also skip NaN values of empty points
+			if (x < envelope[0])
+			{
+				envelope[0] = x;
+			}
+			if (y < envelope[1])
+			{
+				envelope[1] = y;
+			}
+			if (x > envelope[2])
+			{
+				envelope[2] = x;
+			}
+			if (y > envelope[3])
+			{
+				envelope[3] = y;
+			}
+		}
+	}
+
 	/**
 	 * Parse a geometry starting at offset.
 	 * @param data ValueGetter with the data to be parsed
+	 * @param options {@link DecodeOptions} (can be null)
 	 * @return the parsed geometry
 	 * @throws IllegalArgumentException for unknown geometry types
 	 */
-	private static Geometry parseGeometry(ValueGetter data)
+	private static Geometry parseGeometry(ValueGetter data, @Nullable DecodeOptions options)
 	{
 		// read endian flag
 		data.readEncoding();
 		// and get the type
 		int typeword = data.getInt();
-		int geometryType = typeword & 0x1FFFFFFF; // cut off high flag bits
+		int geometryType = getGeometryType(typeword);
 
-		boolean haveZ = (typeword & 0x80000000) != 0;
-		boolean haveM = (typeword & 0x40000000) != 0;
+		boolean haveZ = hasZ(typeword);
+		boolean haveM = hasM(typeword);
 		boolean haveS = (typeword & 0x20000000) != 0;
 
 		int srid = Geometry.UNKNOWN_SRID;
@@ -138,45 +559,57 @@ public final class BinaryParser
 				srid = Geometry.UNKNOWN_SRID;
 			}
 		}
+		// curves are never clipped as their parts are connected
+		DecodeOptions curveOptions = (options != null) ? options.withoutClip() : null;
 		// parse geometry according to type
 		Geometry result;
 		switch (geometryType)
 		{
 			case Point.TYPE:
-				result = parsePoint(data, haveZ, haveM);
+				result = parsePoint(data, haveZ, haveM, options);
 				break;
 			case LineString.TYPE:
-				result = new LineString(parsePoints(data, haveZ, haveM));
+				result = new LineString(parsePoints(data, haveZ, haveM, options, false, true));
 				break;
 			case CircularString.TYPE:
-				result = new CircularString(parsePoints(data, haveZ, haveM));
+				result = new CircularString(parsePoints(data, haveZ, haveM, curveOptions, false, false));
 				break;
 			case CompoundCurve.TYPE:
-				result = new CompoundCurve(parseGeometries(LineString.class, data));
+				result = new CompoundCurve(parseGeometries(LineString.class, data, curveOptions));
 				break;
 			case Polygon.TYPE:
-				result = parsePolygon(data, haveZ, haveM);
+				result = parsePolygon(data, haveZ, haveM, options);
 				break;
 			case CurvePolygon.TYPE:
-				result = new CurvePolygon(parseGeometries(Curve.class, data));
+				result = new CurvePolygon(parseGeometries(Curve.class, data, curveOptions));
 				break;
 			case MultiPoint.TYPE:
-				result = new MultiPoint(parseGeometries(Point.class, data));
+				result = new MultiPoint(parseGeometries(Point.class, data, options));
 				break;
 			case MultiLineString.TYPE:
-				result = new MultiLineString(parseGeometries(LineString.class, data));
+				result = new MultiLineString(parseGeometries(LineString.class, data, options));
 				break;
 			case MultiCurve.TYPE:
-				result = new MultiCurve(parseGeometries(Curve.class, data));
+				result = new MultiCurve(parseGeometries(Curve.class, data, curveOptions));
 				break;
 			case MultiPolygon.TYPE:
-				result = new MultiPolygon(parseGeometries(Polygon.class, data));
+				result = new MultiPolygon(parseGeometries(Polygon.class, data, options));
 				break;
 			case MultiSurface.TYPE:
-				result = new MultiSurface(parseGeometries(PolygonBase.class, data));
+				result = new MultiSurface(parseGeometries(PolygonBase.class, data, curveOptions));
 				break;
 			case GeometryCollection.TYPE:
-				result = new GeometryCollection(parseGeometries(Geometry.class, data));
+				result = new GeometryCollection(parseGeometries(Geometry.class, data, options));
+				break;
+			case PolyhedralSurface.TYPE:
+				result = new PolyhedralSurface(parseGeometries(Polygon.class, data, options));
+				break;
+			case Tin.TYPE:
+				result = parseTin(data, haveZ, haveM, (options == null) || !options.isStripZ(),
+						(options == null) || !options.isStripM());
+				break;
+			case Triangle.TYPE:
+				result = new Triangle(parseRings(data, haveZ, haveM, curveOptions, false));
 				break;
 			default:
 				throw new IllegalArgumentException("Unknown Geometry Type: " + geometryType);
@@ -186,6 +619,31 @@ public final class BinaryParser
 		return result;
 	}
 
+	/**
+	 * Parse a single point.
+	 * @param data {@link ValueGetter}
+	 * @param haveZ parse z value?
+	 * @param haveM parse measure value?
+	 * @param options {@link DecodeOptions} (can be null)
+	 * @return {@link Point} (empty if it was clipped)
+	 */
+	private static Point parsePoint(ValueGetter data, boolean haveZ, boolean haveM, @Nullable DecodeOptions options)
+	{
+		if (options == null)
+		{
+			return parsePoint(data, haveZ, haveM);
+		}
+		double x = data.getDouble();
+		double y = data.getDouble();
+		double z = haveZ ? data.getDouble() : Double.NaN;
+		double m = haveM ? data.getDouble() : Double.NaN;
+		if (!options.intersects(x, y))
+		{
+			return new Point();
+		}
+		return new Point(x, y, options.isStripZ() ? Double.NaN : z, options.isStripM() ? Double.NaN : m);
+	}
+
 	/**
 	 * Parse a single point.
 	 * @param data {@link ValueGetter}
@@ -221,11 +679,19 @@ public final class BinaryParser
 	 * @param data {@link ValueGetter}
 	 * @param haveZ parse z value?
 	 * @param haveM parse measure value?
+	 * @param options {@link DecodeOptions} (can be null)
+	 * @param ring are the points a closed ring?
+	 * @param filterLines apply the line filters of the options?
 	 * @return {@link Collection} of {@link Point}s
 	 */
-	private static Collection<Point> parsePoints(ValueGetter data, boolean haveZ, boolean haveM)
+	private static Collection<Point> parsePoints(ValueGetter data, boolean haveZ, boolean haveM,
+			@Nullable DecodeOptions options, boolean ring, boolean filterLines)
 	{
 		int count = data.getInt();
+		if (options != null)
+		{
+			return parsePointsFiltered(data, count, haveZ, haveM, options, ring, filterLines);
+		}
 		ArrayList<Point> l = new ArrayList<Point>(count);
 		for (int i = 0; i < count; i++)
 		{
@@ -234,21 +700,239 @@ public final class BinaryParser
 		return l;
 	}
 
+	/**
+	 * Parse an Array of "slim" {@link Point}s applying the given options to the coordinates before creating the
+	 * points.
+	 * @param data {@link ValueGetter}
+	 * @param count number of points
+	 * @param haveZ parse z value?
+	 * @param haveM parse measure value?
+	 * @param options {@link DecodeOptions}
+	 * @param ring are the points a closed ring?
+	 * @param filterLines apply the line filters of the options?
+	 * @return {@link Collection} of {@link Point}s (empty if they were clipped)
+	 */
+	private static Collection<Point> parsePointsFiltered(ValueGetter data, int count, boolean haveZ, boolean haveM,
+			DecodeOptions options, boolean ring, boolean filterLines)
+	{
+		int dimension = 2 + (haveZ ? 1 : 0) + (haveM ? 1 : 0);
+		double[] coords = new double[count * dimension];
+		for (int i = 0; i < coords.length; i++)
+		{
+			coords[i] = data.getDouble();
+		}
+		if (!options.intersects(coords, count, dimension))
+		{
+			return new ArrayList<Point>(0);
+		}
+		int kept = count;
+		if (filterLines && options.isFilteringLines())
+		{
+			kept = options.filter(coords, count, dimension, ring);
+		}
+		boolean keepZ = haveZ && !options.isStripZ();
+		boolean keepM = haveM && !options.isStripM();
+		ArrayList<Point> l = new ArrayList<Point>(kept);
+		for (int i = 0, j = 0; i < kept; i++, j += dimension)
+		{
+			double z = keepZ ? coords[j + 2] : Double.NaN;
+			double m = keepM ? coords[j + dimension - 1] : Double.NaN;
+			l.add(new Point(coords[j], coords[j + 1], z, m));
+		}
+		return l;
+	}
+
 	/**
 	 * Parse a {@link Polygon}.
 	 * @param data {@link ValueGetter}
 	 * @param haveZ parse z value?
 	 * @param haveM parse measure value?
+	 * @param options {@link DecodeOptions} (can be null)
 	 * @return {@link Polygon}
 	 */
-	private static Polygon parsePolygon(ValueGetter data, boolean haveZ, boolean haveM)
+	private static Polygon parsePolygon(ValueGetter data, boolean haveZ, boolean haveM,
+			@Nullable DecodeOptions options)
+	{
+		return new Polygon(parseRings(data, haveZ, haveM, options, true));
+	}
+
+	/**
+	 * Parse the {@link LinearRing}s of a {@link Polygon} or {@link Triangle}.
+	 * @param data {@link ValueGetter}
+	 * @param haveZ parse z value?
+	 * @param haveM parse measure value?
+	 * @param options {@link DecodeOptions} (can be null)
+	 * @param filterLines apply the line filters of the options?
+	 * @return {@link Collection} of {@link LinearRing}s (empty if the outer ring was clipped)
+	 */
+	private static Collection<LinearRing> parseRings(ValueGetter data, boolean haveZ, boolean haveM,
+			@Nullable DecodeOptions options, boolean filterLines)
 	{
 		int count = data.getInt();
+		boolean clipping = (options != null) && options.isClipping();
 		ArrayList<LinearRing> rings = new ArrayList<LinearRing>(count);
 		for (int i = 0; i < count; i++)
 		{
-			rings.add(new LinearRing(parsePoints(data, haveZ, haveM)));
+			Collection<Point> points = parsePoints(data, haveZ, haveM, options, true, filterLines);
+			if (clipping && points.isEmpty())
+			{
+				// drop the whole polygon if the outer ring was clipped, but skip the data of its holes
+				if (i == 0)
+				{
+					int dimension = 2 + (haveZ ? 1 : 0) + (haveM ? 1 : 0);
+					for (int j = 1; j < count; j++)
+					{
+						int numValues = data.getInt() * dimension;
+						for (int k = 0; k < numValues; k++)
+						{
+							data.getDouble();
+						}
+					}
+					return rings;
+				}
+				// drop clipped holes
+				continue;
+			}
+			rings.add(new LinearRing(points));
+		}
+		return rings;
+	}
+
+	/**
+	 * Parse a {@link Tin} directly into its packed coordinates without creating any {@link Triangle}s.
+	 * @param data {@link ValueGetter}
+	 * @param haveZ parse z value?
+	 * @param haveM parse measure value?
+	 * @param keepZ keep z values?
+	 * @param keepM keep measure values?
+	 * @return {@link Tin}
+	 * @throws IllegalArgumentException if a contained geometry is not a valid {@link Triangle}
+	 */
+	private static Tin parseTin(ValueGetter data, boolean haveZ, boolean haveM, boolean keepZ, boolean keepM)
+	{
+		int dimension = 2 + (haveZ ? 1 : 0) + (haveM ? 1 : 0);
+		boolean outZ = haveZ && keepZ;
+		boolean outM = haveM && keepM;
+		int count = data.getInt();
+		int numTriangles = 0;
+		double[] coords = new double[count * 3 * (2 + (outZ ? 1 : 0) + (outM ? 1 : 0))];
+		int offset = 0;
+		for (int i = 0; i < count; i++)
+		{
+			// read the header of the triangle
+			data.readEncoding();
+			int typeword = data.getInt();
+			if (getGeometryType(typeword) != Triangle.TYPE)
+			{
+				throw new IllegalArgumentException("expected triangle, got type: " + getGeometryType(typeword));
+			}
+			if ((typeword & 0x20000000) != 0)
+			{
+				// skip SRID
+				data.getInt();
+			}
+			int numRings = data.getInt();
+			if (numRings == 0)
+			{
+				// skip empty triangles
+				continue;
+			}
+			int numPoints = data.getInt();
+			if ((numRings != 1) || (numPoints != 4))
+			{
+				throw new IllegalArgumentException(
+						"invalid triangle with " + numRings + " rings and " + numPoints + " points");
+			}
+			// only keep the distinct vertices
+			for (int j = 0; j < 3; j++)
+			{
+				coords[offset++] = data.getDouble();
+				coords[offset++] = data.getDouble();
+				if (haveZ)
+				{
+					double z = data.getDouble();
+					if (outZ)
+					{
+						coords[offset++] = z;
+					}
+				}
+				if (haveM)
+				{
+					double m = data.getDouble();
+					if (outM)
+					{
+						coords[offset++] = m;
+					}
+				}
+			}
+			// skip the closing vertex
+			for (int j = 0; j < dimension; j++)
+			{
+				data.getDouble();
+			}
+			numTriangles++;
+		}
+		return new Tin(coords, numTriangles, outZ, outM);
+	}
+
+	/**
+	 * Skips a geometry without reading its coordinates.
+	 * @param data {@link BinaryValueGetter}
+	 * @throws IllegalArgumentException for unknown geometry types
+	 */
+	private static void skipGeometry(BinaryValueGetter data)
+	{
+		// read endian flag
+		data.readEncoding();
+		// and get the type
+		int typeword = data.getInt();
+		int geometryType = getGeometryType(typeword);
+		// size of a coordinate in bytes
+		int size = 8 * (2 + (hasZ(typeword) ? 1 : 0) + (hasM(typeword) ? 1 : 0));
+		if ((typeword & 0x20000000) != 0)
+		{
+			// skip SRID
+			data.skip(4);
+		}
+		switch (geometryType)
+		{
+			case Point.TYPE:
+				data.skip(size);
+				break;
+			case LineString.TYPE:
+			case CircularString.TYPE:
+				data.skip(data.getInt() * size);
+				break;
+			case Polygon.TYPE:
+			case Triangle.TYPE:
+			{
+				int count = data.getInt();
+				for (int i = 0; i < count; i++)
+				{
+					data.skip(data.getInt() * size);
+				}
+				break;
+			}
+			case CompoundCurve.TYPE:
+			case CurvePolygon.TYPE:
+			case MultiPoint.TYPE:
+			case MultiLineString.TYPE:
+			case MultiCurve.TYPE:
+			case MultiPolygon.TYPE:
+			case MultiSurface.TYPE:
+			case GeometryCollection.TYPE:
+			case PolyhedralSurface.TYPE:
+			case Tin.TYPE:
+			{
+				int count = data.getInt();
+				for (int i = 0; i < count; i++)
+				{
+					skipGeometry(data);
+				}
+				break;
+			}
+			default:
+				throw new IllegalArgumentException("Unknown Geometry Type: " + geometryType);
 		}
-		return new Polygon(rings);
 	}
 }
@@ -29,7 +29,7 @@ package io.github.sebasbaumh.postgis.binary;
 public class BinaryValueGetter extends ValueGetter
 {
 	private int position;
-	private final byte[] value;
+	private byte[] value;
 
 	/**
 	 * Constructs an instance.
@@ -86,4 +86,33 @@ public class BinaryValueGetter extends ValueGetter
 		return (value[index]) & 0xFF;
 	}
 
+	/**
+	 * Gets the current position, which is the index of the next byte to be read.
+	 * @return position
+	 */
+	public int getPosition()
+	{
+		return position;
+	}
+
+	/**
+	 * Resets this instance to read from the given value, so it can be reused.
+	 * @param newValue value
+	 * @param offset offset to use
+	 */
+	public void reset(byte[] newValue, int offset)
+	{
+		this.value = newValue;
+		this.position = offset;
+	}
+
+	/**
+	 * Skips the given number of bytes without reading them.
+	 * @param count number of bytes
+	 */
+	public void skip(int count)
+	{
+		position += count;
+	}
+
 }
@@ -22,15 +22,65 @@
 
 package io.github.sebasbaumh.postgis.binary;
 
-import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 
 /**
- * Allows writing values to a byte array in little endian format.
+ * Allows writing values to a byte array in little endian format. The internal buffer grows as needed and is kept on
+ * {@link #reset()}, so an instance can be reused.
  * @author Sebastian Baumhekel
  */
 public class BinaryValueSetter extends ValueSetter
 {
-	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	/**
+	 * Buffer.
+	 */
+	private byte[] buffer;
+	/**
+	 * Number of bytes written to the buffer.
+	 */
+	private int size;
+
+	/**
+	 * Constructs an instance.
+	 */
+	public BinaryValueSetter()
+	{
+		this(64);
+	}
+
+	/**
+	 * Constructs an instance.
+	 * @param initialCapacity initial capacity of the buffer in bytes
+	 */
+	public BinaryValueSetter(int initialCapacity)
+	{
+		this.buffer = new byte[Math.max(initialCapacity, 16)];
+	}
+
+	/**
+	 * Gets the capacity of the internal buffer, which is kept on {@link #reset()}.
+	 * @return capacity in bytes
+	 */
+	public int capacity()
+	{
+		return buffer.length;
+	}
+
+	/**
+	 * Ensures that the given number of bytes can be added to the buffer.
+	 * @param count number of bytes
+	 * @return index to write to
+	 */
+	private int ensureCapacity(int count)
+	{
+		int index = size;
+		if (index + count > buffer.length)
+		{
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, index + count));
+		}
+		size = index + count;
+		return index;
+	}
 
 	/**
 	 * Gets the written value.
@@ -38,35 +88,69 @@ public class BinaryValueSetter extends ValueSetter
 	 */
 	public byte[] getValue()
 	{
-		return out.toByteArray();
+		return Arrays.copyOf(buffer, size);
+	}
+
+	/**
+	 * Copies the written value to the given array.
+	 * @param dest destination array
+	 * @param offset offset in the destination array
+	 * @throws IndexOutOfBoundsException if the destination array is too small
+	 */
+	public void getValue(byte[] dest, int offset)
+	{
+		System.arraycopy(buffer, 0, dest, offset, size);
+	}
+
+	/**
+	 * Resets this instance, so it can be reused. The internal buffer is kept.
+	 */
+	public void reset()
+	{
+		size = 0;
 	}
 
 	@Override
 	public void setByte(byte b)
 	{
-		out.write(b);
+		// the buffer may be replaced by ensureCapacity, so it has to be called first
+		int i = ensureCapacity(1);
+		buffer[i] = b;
 	}
 
 	@Override
 	public void setInt(int value)
 	{
-		out.write((value >>> 0) & 0xFF);
-		out.write((value >>> 8) & 0xFF);
-		out.write((value >>> 16) & 0xFF);
-		out.write((value >>> 24) & 0xFF);
+		int i = ensureCapacity(4);
+		byte[] b = buffer;
+		b[i] = (byte) value;
+		b[i + 1] = (byte) (value >>> 8);
+		b[i + 2] = (byte) (value >>> 16);
+		b[i + 3] = (byte) (value >>> 24);
 	}
 
 	@Override
 	public void setLong(long value)
 	{
-		out.write((int) ((value >>> 0) & 0xFF));
-		out.write((int) ((value >>> 8) & 0xFF));
-		out.write((int) ((value >>> 16) & 0xFF));
-		out.write((int) ((value >>> 24) & 0xFF));
-		out.write((int) ((value >>> 32) & 0xFF));
-		out.write((int) ((value >>> 40) & 0xFF));
-		out.write((int) ((value >>> 48) & 0xFF));
-		out.write((int) ((value >>> 56) & 0xFF));
+		int i = ensureCapacity(8);
+		byte[] b = buffer;
+		b[i] = (byte) value;
+		b[i + 1] = (byte) (value >>> 8);
+		b[i + 2] = (byte) (value >>> 16);
+		b[i + 3] = (byte) (value >>> 24);
+		b[i + 4] = (byte) (value >>> 32);
+		b[i + 5] = (byte) (value >>> 40);
+		b[i + 6] = (byte) (value >>> 48);
+		b[i + 7] = (byte) (value >>> 56);
+	}
+
+	/**
+	 * Gets the number of written bytes.
+	 * @return number of bytes
+	 */
+	public int size()
+	{
+		return size;
 	}
 
 }
@@ -41,7 +41,10 @@ import io.github.sebasbaumh.postgis.MultiSurface;
 import io.github.sebasbaumh.postgis.Point;
 import io.github.sebasbaumh.postgis.Polygon;
 import io.github.sebasbaumh.postgis.PolygonBase;
+import io.github.sebasbaumh.postgis.PolyhedralSurface;
 import io.github.sebasbaumh.postgis.PostGisUtil;
+import io.github.sebasbaumh.postgis.Tin;
+import io.github.sebasbaumh.postgis.Triangle;
 
 /**
  * A writer for building a binary or hex string representation of geometries.
@@ -49,12 +52,59 @@ import io.github.sebasbaumh.postgis.PostGisUtil;
  */
 public final class BinaryWriter
 {
+	/**
+	 * Dialects of the well-known binary format.
+	 */
+	public enum WkbDialect
+	{
+		/**
+		 * Extended WKB as used by PostGIS, which marks z and m ordinates and the SRID by flag bits in the type.
+		 */
+		EWKB,
+		/**
+		 * ISO WKB, which marks z and m ordinates by adding 1000 (z), 2000 (m) or 3000 (z and m) to the type and has no
+		 * SRID. For 2d geometries this is also the same as the OGC WKB format.
+		 */
+		ISO;
+	}
+
 	// prevent instantiating this class
 	@Deprecated
 	private BinaryWriter()
 	{
 	}
 
+	/**
+	 * Gets the typeword for the given geometry type.
+	 * @param type geometry type
+	 * @param haveZ are there z ordinates?
+	 * @param haveM are there m ordinates?
+	 * @param haveS is there a SRID (only supported by {@link WkbDialect#EWKB})?
+	 * @param dialect {@link WkbDialect}
+	 * @return typeword
+	 */
+	private static int getTypeword(int type, boolean haveZ, boolean haveM, boolean haveS, WkbDialect dialect)
+	{
+		if (dialect == WkbDialect.ISO)
+		{
+			return type + (haveZ ? 1000 : 0) + (haveM ? 2000 : 0);
+		}
+		int typeword = type;
+		if (haveZ)
+		{
+			typeword |= 0x80000000;
+		}
+		if (haveM)
+		{
+			typeword |= 0x40000000;
+		}
+		if (haveS)
+		{
+			typeword |= 0x20000000;
+		}
+		return typeword;
+	}
+
 	/**
 	 * Write a binary encoded geometry. The geometry you put in must be consistent, geom.checkConsistency() must return
 	 * true. If not, the result may be invalid WKB.
@@ -63,39 +113,169 @@ public final class BinaryWriter
 	 * @return byte arrray containing the encoded geometry
 	 */
 	public static byte[] writeBinary(Geometry geom)
+	{
+		return writeBinary(geom, WkbDialect.EWKB);
+	}
+
+	/**
+	 * Write a binary encoded geometry using the given dialect. The geometry you put in must be consistent,
+	 * geom.checkConsistency() must return true. If not, the result may be invalid WKB.
+	 * @see Geometry#checkConsistency() the consistency checker
+	 * @param geom the geometry to be written
+	 * @param dialect {@link WkbDialect}
+	 * @return byte arrray containing the encoded geometry
+	 */
+	public static byte[] writeBinary(Geometry geom, WkbDialect dialect)
 	{
 		BinaryValueSetter bytes = new BinaryValueSetter();
-		writeGeometry(geom, bytes);
+		writeGeometry(geom, bytes, dialect);
 		return bytes.getValue();
 	}
 
 	/**
-	 * Parse a geometry starting at offset.
-	 * @param geom the geometry to write
-	 * @param dest the value setting to be used for writing
+	 * Write a binary encoded geometry from a {@link CompactGeometry}. The stored coordinates are written as they are, so
+	 * parsing the result again gives the same {@link CompactGeometry}.
+	 * @param geom {@link CompactGeometry}
+	 * @return byte arrray containing the encoded geometry
 	 */
-	private static void writeGeometry(Geometry geom, ValueSetter dest)
+	public static byte[] writeBinary(CompactGeometry geom)
 	{
+		return writeBinary(geom, WkbDialect.EWKB);
+	}
+
+	/**
+	 * Write a binary encoded geometry from a {@link CompactGeometry} using the given dialect.
+	 * @param geom {@link CompactGeometry}
+	 * @param dialect {@link WkbDialect}
+	 * @return byte arrray containing the encoded geometry
+	 */
+	public static byte[] writeBinary(CompactGeometry geom, WkbDialect dialect)
+	{
+		BinaryValueSetter bytes = new BinaryValueSetter();
+		writeCompact(geom, new int[2], bytes, dialect);
+		return bytes.getValue();
+	}
+
+	/**
+	 * Writes a geometry from a {@link CompactGeometry}.
+	 * @param geom {@link CompactGeometry}
+	 * @param position current position in the structure and the values of the {@link CompactGeometry}
+	 * @param dest writer
+	 * @param dialect {@link WkbDialect}
+	 * @throws IllegalArgumentException for unknown geometry types
+	 */
+	private static void writeCompact(CompactGeometry geom, int[] position, ValueSetter dest, WkbDialect dialect)
+	{
+		int[] structure = geom.getStructure();
 		// write endian flag, NDR (little endian)
 		dest.setByte(PostGisUtil.LITTLE_ENDIAN);
-
-		// write typeword
-		int typeword = geom.getType();
-		if (geom.is3d())
+		// the structure contains the EWKB typeword
+		int typeword = structure[position[0]++];
+		int geometryType = typeword & 0x1FFFFFFF;
+		boolean haveZ = (typeword & 0x80000000) != 0;
+		boolean haveM = (typeword & 0x40000000) != 0;
+		boolean haveS = (typeword & 0x20000000) != 0;
+		dest.setInt(getTypeword(geometryType, haveZ, haveM, haveS && (dialect == WkbDialect.EWKB), dialect));
+		if (haveS)
 		{
-			typeword |= 0x80000000;
+			int srid = structure[position[0]++];
+			if (dialect == WkbDialect.EWKB)
+			{
+				dest.setInt(srid);
+			}
 		}
-		if (geom.hasMeasure())
+		switch (geometryType)
 		{
-			typeword |= 0x40000000;
+			case Point.TYPE:
+				writeCompactCoordinates(geom, position, 1, haveZ, haveM, dest);
+				break;
+			case LineString.TYPE:
+			case CircularString.TYPE:
+			{
+				int count = structure[position[0]++];
+				dest.setInt(count);
+				writeCompactCoordinates(geom, position, count, haveZ, haveM, dest);
+				break;
+			}
+			case Polygon.TYPE:
+			case Triangle.TYPE:
+			{
+				int numRings = structure[position[0]++];
+				dest.setInt(numRings);
+				for (int i = 0; i < numRings; i++)
+				{
+					int count = structure[position[0]++];
+					dest.setInt(count);
+					writeCompactCoordinates(geom, position, count, haveZ, haveM, dest);
+				}
+				break;
+			}
+			case CompoundCurve.TYPE:
+			case CurvePolygon.TYPE:
+			case MultiPoint.TYPE:
+			case MultiLineString.TYPE:
+			case MultiCurve.TYPE:
+			case MultiPolygon.TYPE:
+			case MultiSurface.TYPE:
+			case GeometryCollection.TYPE:
+			case PolyhedralSurface.TYPE:
+			case Tin.TYPE:
+			{
+				int count = structure[position[0]++];
+				dest.setInt(count);
+				for (int i = 0; i < count; i++)
+				{
+					writeCompact(geom, position, dest, dialect);
+				}
+				break;
+			}
+			default:
+				throw new IllegalArgumentException("Unknown Geometry Type: " + geometryType);
 		}
-		if (geom.getSrid() != Geometry.UNKNOWN_SRID)
+	}
+
+	/**
+	 * Writes coordinates from a {@link CompactGeometry}.
+	 * @param geom {@link CompactGeometry}
+	 * @param position current position in the structure and the values of the {@link CompactGeometry}
+	 * @param count number of coordinates
+	 * @param haveZ write z value?
+	 * @param haveM write measure value?
+	 * @param dest writer
+	 */
+	private static void writeCompactCoordinates(CompactGeometry geom, int[] position, int count, boolean haveZ,
+			boolean haveM, ValueSetter dest)
+	{
+		for (int i = 0; i < count; i++)
 		{
-			typeword |= 0x20000000;
+			dest.setDouble(geom.getValue(position[1]++, 0));
+			dest.setDouble(geom.getValue(position[1]++, 1));
+			if (haveZ)
+			{
+				dest.setDouble(geom.getValue(position[1]++, 2));
+			}
+			if (haveM)
+			{
+				dest.setDouble(geom.getValue(position[1]++, 3));
+			}
 		}
-		dest.setInt(typeword);
+	}
+
+	/**
+	 * Parse a geometry starting at offset.
+	 * @param geom the geometry to write
+	 * @param dest the value setting to be used for writing
+	 * @param dialect {@link WkbDialect}
+	 */
+	static void writeGeometry(Geometry geom, ValueSetter dest, WkbDialect dialect)
+	{
+		// write endian flag, NDR (little endian)
+		dest.setByte(PostGisUtil.LITTLE_ENDIAN);
 
-		if (geom.getSrid() != Geometry.UNKNOWN_SRID)
+		// write typeword (the SRID is only supported by EWKB)
+		boolean haveS = (geom.getSrid() != Geometry.UNKNOWN_SRID) && (dialect == WkbDialect.EWKB);
+		dest.setInt(getTypeword(geom.getType(), geom.is3d(), geom.hasMeasure(), haveS, dialect));
+		if (haveS)
 		{
 			dest.setInt(geom.getSrid());
 		}
@@ -112,31 +292,40 @@ public final class BinaryWriter
 				writePoints((CircularString) geom, dest);
 				break;
 			case CompoundCurve.TYPE:
-				writeMultiGeometry(((CompoundCurve) geom).getGeometries(), dest);
+				writeMultiGeometry(((CompoundCurve) geom).getGeometries(), dest, dialect);
 				break;
 			case Polygon.TYPE:
-				writePolygon((Polygon) geom, dest);
+				writePolygon((Polygon) geom, dest, dialect);
 				break;
 			case CurvePolygon.TYPE:
-				writePolygon((CurvePolygon) geom, dest);
+				writePolygon((CurvePolygon) geom, dest, dialect);
 				break;
 			case MultiPoint.TYPE:
-				writeMultiGeometry(((MultiPoint) geom).getGeometries(), dest);
+				writeMultiGeometry(((MultiPoint) geom).getGeometries(), dest, dialect);
 				break;
 			case MultiLineString.TYPE:
-				writeMultiGeometry(((MultiLineString) geom).getGeometries(), dest);
+				writeMultiGeometry(((MultiLineString) geom).getGeometries(), dest, dialect);
 				break;
 			case MultiCurve.TYPE:
-				writeMultiGeometry(((MultiCurve) geom).getGeometries(), dest);
+				writeMultiGeometry(((MultiCurve) geom).getGeometries(), dest, dialect);
 				break;
 			case MultiPolygon.TYPE:
-				writeMultiGeometry(((MultiPolygon) geom).getGeometries(), dest);
+				writeMultiGeometry(((MultiPolygon) geom).getGeometries(), dest, dialect);
 				break;
 			case MultiSurface.TYPE:
-				writeMultiGeometry(((MultiSurface) geom).getGeometries(), dest);
+				writeMultiGeometry(((MultiSurface) geom).getGeometries(), dest, dialect);
 				break;
 			case GeometryCollection.TYPE:
-				writeMultiGeometry(((GeometryCollection) geom).getGeometries(), dest);
+				writeMultiGeometry(((GeometryCollection) geom).getGeometries(), dest, dialect);
+				break;
+			case PolyhedralSurface.TYPE:
+				writeMultiGeometry(((PolyhedralSurface) geom).getGeometries(), dest, dialect);
+				break;
+			case Tin.TYPE:
+				writeTin((Tin) geom, dest, dialect);
+				break;
+			case Triangle.TYPE:
+				writePolygon((Triangle) geom, dest, dialect);
 				break;
 			default:
 				throw new IllegalArgumentException("Unknown Geometry Type: " + geom.getType());
@@ -151,9 +340,46 @@ public final class BinaryWriter
 	 * @return String containing the hex encoded geometry
 	 */
 	public static String writeHexed(Geometry geom)
+	{
+		return writeHexed(geom, WkbDialect.EWKB);
+	}
+
+	/**
+	 * Write a hex encoded geometry using the given dialect. The geometry you put in must be consistent,
+	 * geom.checkConsistency() must return true. If not, the result may be invalid WKB.
+	 * @see Geometry#checkConsistency() the consistency checker
+	 * @param geom the geometry to be written
+	 * @param dialect {@link WkbDialect}
+	 * @return String containing the hex encoded geometry
+	 */
+	public static String writeHexed(Geometry geom, WkbDialect dialect)
 	{
 		StringValueSetter bytes = new StringValueSetter();
-		writeGeometry(geom, bytes);
+		writeGeometry(geom, bytes, dialect);
+		return bytes.getValue();
+	}
+
+	/**
+	 * Write a hex encoded geometry from a {@link CompactGeometry}. The stored coordinates are written as they are, so
+	 * parsing the result again gives the same {@link CompactGeometry}.
+	 * @param geom {@link CompactGeometry}
+	 * @return String containing the hex encoded geometry
+	 */
+	public static String writeHexed(CompactGeometry geom)
+	{
+		return writeHexed(geom, WkbDialect.EWKB);
+	}
+
+	/**
+	 * Write a hex encoded geometry from a {@link CompactGeometry} using the given dialect.
+	 * @param geom {@link CompactGeometry}
+	 * @param dialect {@link WkbDialect}
+	 * @return String containing the hex encoded geometry
+	 */
+	public static String writeHexed(CompactGeometry geom, WkbDialect dialect)
+	{
+		StringValueSetter bytes = new StringValueSetter();
+		writeCompact(geom, new int[2], bytes, dialect);
 		return bytes.getValue();
 	}
 
@@ -161,13 +387,15 @@ public final class BinaryWriter
 	 * Writes multiple geometries preceded by their count.
 	 * @param geoms geometries
 	 * @param dest writer
+	 * @param dialect {@link WkbDialect}
 	 */
-	private static <T extends Geometry> void writeMultiGeometry(Collection<T> geoms, ValueSetter dest)
+	private static <T extends Geometry> void writeMultiGeometry(Collection<T> geoms, ValueSetter dest,
+			WkbDialect dialect)
 	{
 		dest.setInt(geoms.size());
 		for (Geometry geom : geoms)
 		{
-			writeGeometry(geom, dest);
+			writeGeometry(geom, dest, dialect);
 		}
 	}
 
@@ -213,8 +441,9 @@ public final class BinaryWriter
 	 * Writes a {@link Polygon}.
 	 * @param geom {@link Polygon}
 	 * @param dest writer
+	 * @param dialect {@link WkbDialect}
 	 */
-	private static <T extends Curve> void writePolygon(PolygonBase<T> geom, ValueSetter dest)
+	private static <T extends Curve> void writePolygon(PolygonBase<T> geom, ValueSetter dest, WkbDialect dialect)
 	{
 		// collect all rings (outer ring+inner rings)
 		ArrayList<T> rings = new ArrayList<T>(geom.getNumberOfRings() + 1);
@@ -236,7 +465,38 @@ public final class BinaryWriter
 			else
 			{
 				// curve polygons can have different geometries
-				writeGeometry(ring, dest);
+				writeGeometry(ring, dest, dialect);
+			}
+		}
+	}
+
+	/**
+	 * Writes a {@link Tin} directly from its packed coordinates without creating any {@link Triangle}s.
+	 * @param geom {@link Tin}
+	 * @param dest writer
+	 * @param dialect {@link WkbDialect}
+	 */
+	private static void writeTin(Tin geom, ValueSetter dest, WkbDialect dialect)
+	{
+		int dimension = geom.getDimension();
+		// typeword of the triangles (same dimensions, but no SRID)
+		int typeword = getTypeword(Triangle.TYPE, geom.is3d(), geom.hasMeasure(), false, dialect);
+		int count = geom.getNumberOfTriangles();
+		dest.setInt(count);
+		for (int i = 0; i < count; i++)
+		{
+			dest.setByte(PostGisUtil.LITTLE_ENDIAN);
+			dest.setInt(typeword);
+			// a single ring with 4 points
+			dest.setInt(1);
+			dest.setInt(4);
+			for (int v = 0; v < 4; v++)
+			{
+				for (int d = 0; d < dimension; d++)
+				{
+					// the closing vertex is the first one
+					dest.setDouble(geom.getOrdinate(i, v % 3, d));
+				}
 			}
 		}
 	}
@@ -0,0 +1,105 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.binary;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.Nullable;
+
+/**
+ * A small lock-free pool of reusable codec contexts. It does not rely on thread locals or locks, so it can be used
+ * from platform and virtual threads alike without pinning them or creating an instance per virtual thread.
+ * @author Sebastian Baumhekel
+ * @param <T> type of the pooled instances
+ */
+final class CodecPool<T>
+{
+	/**
+	 * Slots holding the idle instances.
+	 */
+	private final AtomicReferenceArray<T> slots;
+
+	/**
+	 * Constructs an instance.
+	 * @param capacity maximum number of idle instances
+	 */
+	CodecPool(int capacity)
+	{
+		this.slots = new AtomicReferenceArray<T>(Math.max(capacity, 1));
+	}
+
+	/**
+	 * Gets the slot to start searching at for the current thread, so different threads are likely to use different
+	 * slots.
+	 * @return slot index
+	 */
+	private int getStartSlot()
+	{
+		return (int) ((Thread.currentThread().threadId() & 0x7FFFFFFF) % slots.length());
+	}
+
+	/**
+	 * Returns an idle instance to the pool.
+	 * @param item instance
+	 * @return true if the instance was added, false if the pool is full
+	 */
+	boolean offer(T item)
+	{
+		int n = slots.length();
+		int start = getStartSlot();
+		for (int i = 0; i < n; i++)
+		{
+			if (slots.compareAndSet((start + i) % n, null, item))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Takes an idle instance from the pool.
+	 * @return instance on success, else null if the pool is empty
+	 */
+	@Nullable
+	T poll()
+	{
+		int n = slots.length();
+		int start = getStartSlot();
+		for (int i = 0; i < n; i++)
+		{
+			int index = (start + i) % n;
+			// check first to avoid writing to empty slots
+			if (slots.get(index) != null)
+			{
+				T item = slots.getAndSet(index, null);
+				if (item != null)
+				{
+					return item;
+				}
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,374 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.binary;
+
+import java.util.Arrays;
+
+import io.github.sebasbaumh.postgis.Geometry;
+
+/**
+ * A compact, immutable representation of a geometry for memory bound caches. The structure of the geometry (types,
+ * SRID and counts) is kept in a small int array, while the coordinates are stored with reduced precision either as
+ * 32-bit floats or as quantized 32-bit integers. In both cases the values are stored relative to a per-geometry
+ * offset for each ordinate, so the precision does not depend on the distance to the origin. Instances are created by
+ * {@link BinaryParser#parseCompact(byte[], int)} and {@link BinaryParser#parseCompact(byte[], int, double)} without
+ * creating any intermediate {@link Geometry} and can be written back by {@link BinaryWriter#writeBinary(CompactGeometry)}.
+ * @author Sebastian Baumhekel
+ */
+public final class CompactGeometry
+{
+	/**
+	 * Encoding of the coordinates.
+	 */
+	public enum Encoding
+	{
+		/**
+		 * 32-bit floating point values.
+		 */
+		FLOAT32,
+		/**
+		 * Fixed-point integers using a given resolution.
+		 */
+		QUANTIZED;
+	}
+
+	/**
+	 * Marker for NaN values (e.g. of empty points) in quantized coordinates.
+	 */
+	private static final int QUANTIZED_NAN = Integer.MIN_VALUE;
+
+	private final Encoding encoding;
+	private final float[] floats;
+	private final int[] ints;
+	private final double maxError;
+	private final int numCoordinates;
+	/**
+	 * Offsets of the x, y, z and m ordinates.
+	 */
+	private final double[] offsets;
+	private final double resolution;
+	private final int[] structure;
+
+	/**
+	 * Constructs an instance.
+	 * @param encoding {@link Encoding}
+	 * @param structure structure
+	 * @param floats float values (for {@link Encoding#FLOAT32})
+	 * @param ints quantized values (for {@link Encoding#QUANTIZED})
+	 * @param offsets offsets of the x, y, z and m ordinates
+	 * @param resolution resolution (for {@link Encoding#QUANTIZED})
+	 * @param numCoordinates number of coordinates
+	 * @param maxError maximum absolute error of all ordinates
+	 */
+	private CompactGeometry(Encoding encoding, int[] structure, float[] floats, int[] ints, double[] offsets,
+			double resolution, int numCoordinates, double maxError)
+	{
+		this.encoding = encoding;
+		this.structure = structure;
+		this.floats = floats;
+		this.ints = ints;
+		this.offsets = offsets;
+		this.resolution = resolution;
+		this.numCoordinates = numCoordinates;
+		this.maxError = maxError;
+	}
+
+	/**
+	 * Gets the encoding of the coordinates.
+	 * @return {@link Encoding}
+	 */
+	public Encoding getEncoding()
+	{
+		return encoding;
+	}
+
+	/**
+	 * Gets the maximum absolute difference of any stored ordinate to its original value.
+	 * @return maximum error
+	 */
+	public double getMaxError()
+	{
+		return maxError;
+	}
+
+	/**
+	 * Gets the approximate number of bytes used by the arrays of this instance.
+	 * @return number of bytes
+	 */
+	public long getMemorySize()
+	{
+		return 4L * (structure.length + floats.length + ints.length) + 8L * offsets.length;
+	}
+
+	/**
+	 * Gets the number of stored coordinates (including the ones of all rings and sub-geometries).
+	 * @return number of coordinates
+	 */
+	public int getNumberOfCoordinates()
+	{
+		return numCoordinates;
+	}
+
+	/**
+	 * Gets the resolution of quantized coordinates.
+	 * @return resolution for {@link Encoding#QUANTIZED}, else NaN
+	 */
+	public double getResolution()
+	{
+		return resolution;
+	}
+
+	/**
+	 * Gets the SRID.
+	 * @return SRID or {@link Geometry#UNKNOWN_SRID}
+	 */
+	public int getSrid()
+	{
+		return ((structure[0] & 0x20000000) != 0) ? structure[1] : Geometry.UNKNOWN_SRID;
+	}
+
+	/**
+	 * Gets the structure of the geometry. For each (sub-)geometry it contains its EWKB typeword, the SRID (if flagged)
+	 * and the counts in the same order as in the binary representation.
+	 * @return structure (must not be modified)
+	 */
+	int[] getStructure()
+	{
+		return structure;
+	}
+
+	/**
+	 * Gets the OGIS geometry type.
+	 * @return geometry type
+	 */
+	public int getType()
+	{
+		return structure[0] & 0x1FFFFFFF;
+	}
+
+	/**
+	 * Gets a stored value.
+	 * @param index index of the value
+	 * @param ordinate index of the ordinate (0=x, 1=y, 2=z, 3=m)
+	 * @return value
+	 */
+	double getValue(int index, int ordinate)
+	{
+		if (encoding == Encoding.FLOAT32)
+		{
+			return offsets[ordinate] + floats[index];
+		}
+		int q = ints[index];
+		return (q == QUANTIZED_NAN) ? Double.NaN : offsets[ordinate] + q * resolution;
+	}
+
+	/**
+	 * Creates a {@link Geometry} from this instance.
+	 * @return {@link Geometry}
+	 */
+	public Geometry toGeometry()
+	{
+		return BinaryParser.parse(BinaryWriter.writeBinary(this), 0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return this.getClass().getSimpleName() + " [" + encoding + ", " + numCoordinates + " points, max error "
+				+ maxError + "]";
+	}
+
+	/**
+	 * Collects the structure and the coordinates of a geometry while parsing it.
+	 */
+	static final class Builder
+	{
+		private final double[] max = { Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+				Double.NEGATIVE_INFINITY };
+		private final double[] min = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+				Double.POSITIVE_INFINITY };
+		private int numCoordinates;
+		private int numStructure;
+		private int numValues;
+		private byte[] ordinates = new byte[64];
+		private int[] structure = new int[16];
+		private double[] values = new double[64];
+
+		/**
+		 * Adds a coordinate.
+		 * @param data {@link ValueGetter} to read the ordinates from
+		 * @param haveZ read z value?
+		 * @param haveM read measure value?
+		 */
+		void addCoordinate(ValueGetter data, boolean haveZ, boolean haveM)
+		{
+			addOrdinate(0, data.getDouble());
+			addOrdinate(1, data.getDouble());
+			if (haveZ)
+			{
+				addOrdinate(2, data.getDouble());
+			}
+			if (haveM)
+			{
+				addOrdinate(3, data.getDouble());
+			}
+			numCoordinates++;
+		}
+
+		/**
+		 * Adds a single ordinate.
+		 * @param ordinate index of the ordinate (0=x, 1=y, 2=z, 3=m)
+		 * @param value value
+		 */
+		private void addOrdinate(int ordinate, double value)
+		{
+			if (numValues == values.length)
+			{
+				values = Arrays.copyOf(values, numValues * 2);
+				ordinates = Arrays.copyOf(ordinates, numValues * 2);
+			}
+			values[numValues] = value;
+			ordinates[numValues] = (byte) ordinate;
+			numValues++;
+			// comparisons also skip NaN values of empty points
+			if (value < min[ordinate])
+			{
+				min[ordinate] = value;
+			}
+			if (value > max[ordinate])
+			{
+				max[ordinate] = value;
+			}
+		}
+
+		/**
+		 * Adds a value to the structure.
+		 * @param value value
+		 */
+		void addStructure(int value)
+		{
+			if (numStructure == structure.length)
+			{
+				structure = Arrays.copyOf(structure, numStructure * 2);
+			}
+			structure[numStructure++] = value;
+		}
+
+		/**
+		 * Builds a {@link CompactGeometry} storing 32-bit floats.
+		 * @return {@link CompactGeometry}
+		 */
+		CompactGeometry buildFloat32()
+		{
+			double[] offsets = getOffsets();
+			float[] floats = new float[numValues];
+			double maxError = 0;
+			for (int i = 0; i < numValues; i++)
+			{
+				double offset = offsets[ordinates[i]];
+				float f = (float) (values[i] - offset);
+				floats[i] = f;
+				// NaN values give a NaN error, which is never larger
+				double error = Math.abs((offset + f) - values[i]);
+				if (error > maxError)
+				{
+					maxError = error;
+				}
+			}
+			return new CompactGeometry(Encoding.FLOAT32, Arrays.copyOf(structure, numStructure), floats, new int[0],
+					offsets, Double.NaN, numCoordinates, maxError);
+		}
+
+		/**
+		 * Builds a {@link CompactGeometry} storing quantized values.
+		 * @param resolution resolution (distance between two quantized values)
+		 * @return {@link CompactGeometry}
+		 * @throws IllegalArgumentException if the resolution is invalid or too small for the extent of the geometry
+		 */
+		CompactGeometry buildQuantized(double resolution)
+		{
+			if (!(resolution > 0) || Double.isInfinite(resolution))
+			{
+				throw new IllegalArgumentException("invalid resolution: " + resolution);
+			}
+			double[] offsets = getOffsets();
+			for (int i = 0; i < offsets.length; i++)
+			{
+				if ((max[i] - offsets[i]) / resolution >= Integer.MAX_VALUE)
+				{
+					throw new IllegalArgumentException("resolution " + resolution + " is too small for the extent "
+							+ (max[i] - offsets[i]));
+				}
+			}
+			int[] ints = new int[numValues];
+			double maxError = 0;
+			for (int i = 0; i < numValues; i++)
+			{
+				double value = values[i];
+				if (Double.isNaN(value))
+				{
+					ints[i] = QUANTIZED_NAN;
+					continue;
+				}
+				double offset = offsets[ordinates[i]];
+				int q = (int) Math.round((value - offset) / resolution);
+				ints[i] = q;
+				double error = Math.abs((offset + q * resolution) - value);
+				if (error > maxError)
+				{
+					maxError = error;
+				}
+			}
+			return new CompactGeometry(Encoding.QUANTIZED, Arrays.copyOf(structure, numStructure), new float[0], ints,
+					offsets, resolution, numCoordinates, maxError);
+		}
+
+		/**
+		 * Gets the offsets of all ordinates, which are their minimum values.
+		 * @return offsets
+		 * @throws IllegalArgumentException if there are infinite values
+		 */
+		private double[] getOffsets()
+		{
+			double[] offsets = new double[4];
+			for (int i = 0; i < offsets.length; i++)
+			{
+				// unused ordinates have no minimum
+				if (min[i] <= max[i])
+				{
+					if (Double.isInfinite(min[i]) || Double.isInfinite(max[i]))
+					{
+						throw new IllegalArgumentException("infinite coordinates are not supported");
+					}
+					offsets[i] = min[i];
+				}
+			}
+			return offsets;
+		}
+	}
+
+}
@@ -0,0 +1,366 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.binary;
+
+import javax.annotation.Nullable;
+
+import io.github.sebasbaumh.postgis.Envelope;
+
+/**
+ * Options for reducing a geometry while it is parsed by the {@link BinaryParser}, so the full resolution geometry is
+ * never created. Options are immutable and can be shared between threads, start with {@link #DEFAULT} and combine
+ * the options needed:
+ *
+ * <pre>
+ * DecodeOptions options = DecodeOptions.DEFAULT.withClip(viewport).withTolerance(pixelSize).withoutZ().withoutM();
+ * Geometry geom = BinaryParser.parse(value, 0, options);
+ * </pre>
+ *
+ * @author Sebastian Baumhekel
+ */
+public final class DecodeOptions
+{
+	/**
+	 * Options which do not change the parsed geometry.
+	 */
+	public static final DecodeOptions DEFAULT = new DecodeOptions(null, 0, null, false, false);
+
+	/**
+	 * Minimum number of coordinates of a ring.
+	 */
+	private static final int MIN_RING_COORDINATES = 4;
+
+	/**
+	 * Envelope to clip to (can be null).
+	 */
+	@Nullable
+	private final Envelope clip;
+	/**
+	 * Additional filter for the coordinates of lines (can be null).
+	 */
+	@Nullable
+	private final LineFilter lineFilter;
+	/**
+	 * Drop measure values?
+	 */
+	private final boolean stripM;
+	/**
+	 * Drop z values?
+	 */
+	private final boolean stripZ;
+	/**
+	 * Minimum distance between consecutive coordinates.
+	 */
+	private final double tolerance;
+
+	/**
+	 * Constructs an instance.
+	 * @param clip envelope to clip to (can be null)
+	 * @param tolerance minimum distance between consecutive coordinates
+	 * @param lineFilter additional filter for the coordinates of lines (can be null)
+	 * @param stripZ drop z values?
+	 * @param stripM drop measure values?
+	 */
+	private DecodeOptions(@Nullable Envelope clip, double tolerance, @Nullable LineFilter lineFilter, boolean stripZ,
+			boolean stripM)
+	{
+		this.clip = clip;
+		this.tolerance = tolerance;
+		this.lineFilter = lineFilter;
+		this.stripZ = stripZ;
+		this.stripM = stripM;
+	}
+
+	/**
+	 * Removes all coordinates which are closer than the tolerance to the previous kept coordinate. The first and last
+	 * coordinate are always kept and rings are never reduced to less than 4 coordinates.
+	 * @param coords coordinates (see {@link LineFilter#filter(double[], int, int, boolean)})
+	 * @param count number of coordinates
+	 * @param dimension number of ordinates per coordinate (2-4)
+	 * @param ring are the coordinates a closed ring?
+	 * @return number of kept coordinates
+	 */
+	private int decimate(double[] coords, int count, int dimension, boolean ring)
+	{
+		int minCount = ring ? MIN_RING_COORDINATES : 2;
+		if (count <= minCount)
+		{
+			return count;
+		}
+		double tolerance2 = tolerance * tolerance;
+		// count the kept coordinates first, so collapsing lines can be kept unchanged
+		int kept = 1;
+		int last = 0;
+		for (int i = 1, j = dimension; i < count - 1; i++, j += dimension)
+		{
+			double dx = coords[j] - coords[last];
+			double dy = coords[j + 1] - coords[last + 1];
+			if (dx * dx + dy * dy >= tolerance2)
+			{
+				last = j;
+				kept++;
+			}
+		}
+		kept++;
+		if ((kept < minCount) || (kept == count))
+		{
+			return count;
+		}
+		// then move the kept coordinates to the start of the array
+		int k = dimension;
+		last = 0;
+		for (int i = 1, j = dimension; i < count - 1; i++, j += dimension)
+		{
+			double dx = coords[j] - coords[last];
+			double dy = coords[j + 1] - coords[last + 1];
+			if (dx * dx + dy * dy >= tolerance2)
+			{
+				System.arraycopy(coords, j, coords, k, dimension);
+				last = k;
+				k += dimension;
+			}
+		}
+		System.arraycopy(coords, (count - 1) * dimension, coords, k, dimension);
+		return kept;
+	}
+
+	/**
+	 * Filters the coordinates of a line string or linear ring by decimating them and applying the additional
+	 * {@link LineFilter}.
+	 * @param coords coordinates (see {@link LineFilter#filter(double[], int, int, boolean)})
+	 * @param count number of coordinates
+	 * @param dimension number of ordinates per coordinate (2-4)
+	 * @param ring are the coordinates a closed ring?
+	 * @return number of kept coordinates
+	 */
+	int filter(double[] coords, int count, int dimension, boolean ring)
+	{
+		int n = count;
+		if (tolerance > 0)
+		{
+			n = decimate(coords, n, dimension, ring);
+		}
+		LineFilter filter = this.lineFilter;
+		if (filter != null)
+		{
+			n = filter.filter(coords, n, dimension, ring);
+		}
+		return n;
+	}
+
+	/**
+	 * Gets the envelope parts of the geometry have to intersect to be kept.
+	 * @return {@link Envelope} on success, else null
+	 */
+	@Nullable
+	public Envelope getClip()
+	{
+		return clip;
+	}
+
+	/**
+	 * Gets the additional filter applied to the coordinates of lines.
+	 * @return {@link LineFilter} on success, else null
+	 */
+	@Nullable
+	public LineFilter getLineFilter()
+	{
+		return lineFilter;
+	}
+
+	/**
+	 * Gets the minimum distance between consecutive coordinates of lines.
+	 * @return tolerance (0 if coordinates are not decimated)
+	 */
+	public double getTolerance()
+	{
+		return tolerance;
+	}
+
+	/**
+	 * Checks if the given coordinates intersect the envelope to clip to.
+	 * @param coords coordinates (see {@link LineFilter#filter(double[], int, int, boolean)})
+	 * @param count number of coordinates
+	 * @param dimension number of ordinates per coordinate (2-4)
+	 * @return true if they intersect or there is no envelope to clip to, else false
+	 */
+	boolean intersects(double[] coords, int count, int dimension)
+	{
+		Envelope env = this.clip;
+		if (env == null)
+		{
+			return true;
+		}
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0, j = 0; i < count; i++, j += dimension)
+		{
+			minX = Math.min(minX, coords[j]);
+			minY = Math.min(minY, coords[j + 1]);
+			maxX = Math.max(maxX, coords[j]);
+			maxY = Math.max(maxY, coords[j + 1]);
+		}
+		return (minX <= env.getMaxX()) && (maxX >= env.getMinX()) && (minY <= env.getMaxY())
+				&& (maxY >= env.getMinY());
+	}
+
+	/**
+	 * Checks if the given coordinate intersects the envelope to clip to.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return true if it intersects or there is no envelope to clip to, else false
+	 */
+	boolean intersects(double x, double y)
+	{
+		Envelope env = this.clip;
+		return (env == null) || env.contains(x, y);
+	}
+
+	/**
+	 * Checks if parts of the geometry are dropped if they do not intersect an envelope.
+	 * @return true on success, else false
+	 */
+	public boolean isClipping()
+	{
+		return clip != null;
+	}
+
+	/**
+	 * Checks if the coordinates of lines are filtered.
+	 * @return true on success, else false
+	 */
+	boolean isFilteringLines()
+	{
+		return (tolerance > 0) || (lineFilter != null);
+	}
+
+	/**
+	 * Checks if measure values are dropped.
+	 * @return true on success, else false
+	 */
+	public boolean isStripM()
+	{
+		return stripM;
+	}
+
+	/**
+	 * Checks if z values are dropped.
+	 * @return true on success, else false
+	 */
+	public boolean isStripZ()
+	{
+		return stripZ;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return this.getClass().getSimpleName() + " [clip=" + clip + ", tolerance=" + tolerance + ", lineFilter="
+				+ lineFilter + ", stripZ=" + stripZ + ", stripM=" + stripM + "]";
+	}
+
+	/**
+	 * Gets options which drop all parts of a geometry not intersecting the given envelope: points, line strings and
+	 * polygons (by their outer ring) and the holes of polygons. Parts intersecting the envelope are kept completely.
+	 * Emptied multi geometries and collections are dropped as well and a geometry not intersecting the envelope at all
+	 * results in an empty geometry of the same type. Curves, triangles and TINs are never dropped.
+	 * @param env {@link Envelope} (null to disable clipping)
+	 * @return {@link DecodeOptions}
+	 * @throws IllegalArgumentException if the envelope is empty
+	 */
+	public DecodeOptions withClip(@Nullable Envelope env)
+	{
+		if ((env != null) && env.isEmpty())
+		{
+			throw new IllegalArgumentException("invalid clip envelope: " + env);
+		}
+		return new DecodeOptions(env, tolerance, lineFilter, stripZ, stripM);
+	}
+
+	/**
+	 * Gets options which apply an additional {@link LineFilter} (like a
+	 * {@link io.github.sebasbaumh.postgis.algorithms.Simplifier}) to the coordinates of line strings and linear rings
+	 * after decimating them.
+	 * @param filter {@link LineFilter} (null to disable it)
+	 * @return {@link DecodeOptions}
+	 */
+	public DecodeOptions withLineFilter(@Nullable LineFilter filter)
+	{
+		return new DecodeOptions(clip, tolerance, filter, stripZ, stripM);
+	}
+
+	/**
+	 * Gets options which decimate the coordinates of line strings and linear rings by dropping all coordinates closer
+	 * than the given distance to the previous kept coordinate. The first and last coordinate are always kept and rings
+	 * are never reduced to less than 4 coordinates. Circular strings are not decimated.
+	 * @param distance minimum distance (0 to disable decimation)
+	 * @return {@link DecodeOptions}
+	 * @throws IllegalArgumentException if the distance is negative or not a number
+	 */
+	public DecodeOptions withTolerance(double distance)
+	{
+		if (!(distance >= 0))
+		{
+			throw new IllegalArgumentException("invalid tolerance: " + distance);
+		}
+		return new DecodeOptions(clip, distance, lineFilter, stripZ, stripM);
+	}
+
+	/**
+	 * Gets options which do not drop any parts of the geometry, but keep all other options.
+	 * @return {@link DecodeOptions}
+	 */
+	DecodeOptions withoutClip()
+	{
+		if (clip == null)
+		{
+			return this;
+		}
+		return new DecodeOptions(null, tolerance, lineFilter, stripZ, stripM);
+	}
+
+	/**
+	 * Gets options which drop all measure values.
+	 * @return {@link DecodeOptions}
+	 */
+	public DecodeOptions withoutM()
+	{
+		return new DecodeOptions(clip, tolerance, lineFilter, stripZ, true);
+	}
+
+	/**
+	 * Gets options which drop all z values.
+	 * @return {@link DecodeOptions}
+	 */
+	public DecodeOptions withoutZ()
+	{
+		return new DecodeOptions(clip, tolerance, lineFilter, true, stripM);
+	}
+
+}
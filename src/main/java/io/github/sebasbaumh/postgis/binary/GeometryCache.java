@@ -0,0 +1,532 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.binary;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import io.github.sebasbaumh.postgis.Geometry;
+
+/**
+ * A bounded cache interning parsed geometries by their binary representation, so repeated values (e.g. the same
+ * boundary joined to many rows) are only parsed once and share a single {@link Geometry} instance. Entries are found
+ * by a 64-bit hash of the bytes and verified by a full comparison. The size of the cache is limited by the total
+ * number of bytes of the cached values and entries are evicted using a segmented LRU policy: new entries start in a
+ * probation segment and are promoted to a protected segment on their first hit, so values only seen once do not
+ * displace frequently used ones. Values are parsed using the {@link DecodeOptions} given on construction, as the cache
+ * is only keyed by the bytes. {@link #getShared(byte[], int)} returns the shared instance, which must be treated as
+ * immutable, so use {@link Geometry#copy()} to get a modifiable copy. Instances are thread-safe.
+ * @author Sebastian Baumhekel
+ */
+public final class GeometryCache
+{
+	/**
+	 * Share of the protected segment of the maximum weight in percent.
+	 */
+	private static final int PROTECTED_PERCENT = 80;
+
+	private final EntryTable entries = new EntryTable();
+	private long hits;
+	private final long maxWeight;
+	private long misses;
+	private final DecodeOptions options;
+	private final Segment probation = new Segment();
+	private final Segment protectedSegment = new Segment();
+
+	/**
+	 * Constructs an instance.
+	 * @param maxWeight maximum total number of bytes of the binary representations of all cached geometries
+	 * @throws IllegalArgumentException if the maximum weight is not positive
+	 */
+	public GeometryCache(long maxWeight)
+	{
+		this(maxWeight, DecodeOptions.DEFAULT);
+	}
+
+	/**
+	 * Constructs an instance parsing values using the given options.
+	 * @param maxWeight maximum total number of bytes of the binary representations of all cached geometries
+	 * @param options {@link DecodeOptions}
+	 * @throws IllegalArgumentException if the maximum weight is not positive
+	 */
+	public GeometryCache(long maxWeight, DecodeOptions options)
+	{
+		if (maxWeight <= 0)
+		{
+			throw new IllegalArgumentException("invalid maximum weight: " + maxWeight);
+		}
+		this.maxWeight = maxWeight;
+		this.options = options;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public synchronized void clear()
+	{
+		entries.clear();
+		probation.clear();
+		protectedSegment.clear();
+	}
+
+	/**
+	 * Evicts entries until the total weight fits into the maximum weight.
+	 */
+	private void evict()
+	{
+		while (probation.weight + protectedSegment.weight > maxWeight)
+		{
+			// prefer entries which have not been used again
+			Entry victim = probation.head;
+			if (victim == null)
+			{
+				victim = protectedSegment.head;
+			}
+			if (victim == null)
+			{
+				return;
+			}
+			victim.segment.remove(victim);
+			entries.remove(victim.hash);
+		}
+	}
+
+	/**
+	 * Gets the parsed geometry for the given binary representation, which is either taken from the cache or parsed
+	 * and added to it. The returned {@link Geometry} is shared with all other callers for the same value, so it must
+	 * be treated as immutable. Use {@link Geometry#copy()} to get a copy which can be modified.
+	 * @param value byte array containing the data to be parsed (any bytes after the geometry are ignored)
+	 * @param offset offset
+	 * @return shared {@link Geometry}
+	 * @throws IllegalArgumentException if a contained geometry is of the wrong type or the encoding type is unknown
+	 */
+	public Geometry getShared(byte[] value, int offset)
+	{
+		int end = offset + BinaryParser.getLength(value, offset);
+		long hash = hash(value, offset, end);
+		synchronized (this)
+		{
+			Entry entry = entries.get(hash);
+			if ((entry != null) && Arrays.equals(entry.data, 0, entry.data.length, value, offset, end))
+			{
+				hits++;
+				promote(entry);
+				return entry.geometry;
+			}
+			misses++;
+		}
+		// parse outside of the lock
+		BinaryValueGetter data = new BinaryValueGetter(value, offset);
+		Geometry geom = BinaryParser.parse(data, options);
+		end = data.getPosition();
+		if (end - offset <= maxWeight)
+		{
+			synchronized (this)
+			{
+				// keep an existing entry in case of a concurrent insertion or a hash collision
+				if (entries.get(hash) == null)
+				{
+					Entry entry = new Entry(hash, Arrays.copyOfRange(value, offset, end), geom, probation);
+					entries.put(entry);
+					probation.addLast(entry);
+					evict();
+				}
+			}
+		}
+		return geom;
+	}
+
+	/**
+	 * Gets the number of requests answered from the cache.
+	 * @return number of hits
+	 */
+	public synchronized long getHitCount()
+	{
+		return hits;
+	}
+
+	/**
+	 * Gets the maximum total number of bytes of the cached values.
+	 * @return maximum weight
+	 */
+	public long getMaxWeight()
+	{
+		return maxWeight;
+	}
+
+	/**
+	 * Gets the number of requests which had to be parsed.
+	 * @return number of misses
+	 */
+	public synchronized long getMissCount()
+	{
+		return misses;
+	}
+
+	/**
+	 * Gets the options used to parse values.
+	 * @return {@link DecodeOptions}
+	 */
+	public DecodeOptions getOptions()
+	{
+		return options;
+	}
+
+	/**
+	 * Gets the total number of bytes of the cached values.
+	 * @return weight
+	 */
+	public synchronized long getWeight()
+	{
+		return probation.weight + protectedSegment.weight;
+	}
+
+	/**
+	 * Calculates a 64-bit hash of the given bytes.
+	 * @param value bytes
+	 * @param offset offset of the first byte
+	 * @param end offset after the last byte
+	 * @return hash
+	 */
+	static long hash(byte[] value, int offset, int end)
+	{
+		long h = 0x9E3779B97F4A7C15L * (end - offset + 1);
+		int i = offset;
+		// process 8 bytes at once
+		for (; i + 8 <= end; i += 8)
+		{
+			long k = (value[i] & 0xFFL) | ((value[i + 1] & 0xFFL) << 8) | ((value[i + 2] & 0xFFL) << 16)
+					| ((value[i + 3] & 0xFFL) << 24) | ((value[i + 4] & 0xFFL) << 32) | ((value[i + 5] & 0xFFL) << 40)
+					| ((value[i + 6] & 0xFFL) << 48) | ((value[i + 7] & 0xFFL) << 56);
+			h = Long.rotateLeft(h ^ mix(k), 27) * 0x9E3779B97F4A7C15L + 0x52DCE729L;
+		}
+		long k = 0;
+		for (int shift = 0; i < end; i++, shift += 8)
+		{
+			k |= (value[i] & 0xFFL) << shift;
+		}
+		return mix(h ^ mix(k));
+	}
+
+	/**
+	 * Mixes the bits of the given value (finalizer of MurmurHash3).
+	 * @param value value
+	 * @return mixed value
+	 */
+	private static long mix(long value)
+	{
+		long k = value;
+		k ^= k >>> 33;
+		k *= 0xFF51AFD7ED558CCDL;
+		k ^= k >>> 33;
+		k *= 0xC4CEB9FE1A85EC53L;
+		k ^= k >>> 33;
+		return k;
+	}
+
+	/**
+	 * Promotes an entry after a hit.
+	 * @param entry {@link Entry}
+	 */
+	private void promote(Entry entry)
+	{
+		entry.segment.remove(entry);
+		protectedSegment.addLast(entry);
+		// demote the least recently used entries of the protected segment if it is too large
+		long maxProtected = maxWeight * PROTECTED_PERCENT / 100;
+		while ((protectedSegment.weight > maxProtected) && (protectedSegment.head != entry))
+		{
+			Entry demoted = protectedSegment.head;
+			if (demoted == null)
+			{
+				break;
+			}
+			protectedSegment.remove(demoted);
+			probation.addLast(demoted);
+		}
+	}
+
+	/**
+	 * Gets the number of cached geometries.
+	 * @return number of cached geometries
+	 */
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public synchronized String toString()
+	{
+		return this.getClass().getSimpleName() + " [" + entries.size() + " geometries, " + getWeight() + "/"
+				+ maxWeight + " bytes, " + hits + " hits, " + misses + " misses]";
+	}
+
+	/**
+	 * A cached geometry.
+	 */
+	private static final class Entry
+	{
+		private final byte[] data;
+		private final Geometry geometry;
+		private final long hash;
+		@Nullable
+		private Entry next;
+		@Nullable
+		private Entry previous;
+		private Segment segment;
+
+		/**
+		 * Constructs an instance.
+		 * @param hash hash of the data
+		 * @param data binary representation
+		 * @param geometry parsed geometry
+		 * @param segment initial {@link Segment}
+		 */
+		Entry(long hash, byte[] data, Geometry geometry, Segment segment)
+		{
+			this.hash = hash;
+			this.data = data;
+			this.geometry = geometry;
+			this.segment = segment;
+		}
+	}
+
+	/**
+	 * A hash table of entries keyed by their 64-bit hash using open addressing with linear probing, so keys are not
+	 * boxed.
+	 */
+	private static final class EntryTable
+	{
+		private long[] keys = new long[16];
+		private int size;
+		private Entry[] values = new Entry[16];
+
+		/**
+		 * Removes all entries.
+		 */
+		void clear()
+		{
+			Arrays.fill(values, null);
+			size = 0;
+		}
+
+		/**
+		 * Gets the entry for the given hash.
+		 * @param hash hash
+		 * @return {@link Entry} on success, else null
+		 */
+		@Nullable
+		Entry get(long hash)
+		{
+			int mask = keys.length - 1;
+			for (int i = slot(hash, mask);; i = (i + 1) & mask)
+			{
+				Entry entry = values[i];
+				if ((entry == null) || (keys[i] == hash))
+				{
+					return entry;
+				}
+			}
+		}
+
+		/**
+		 * Adds an entry. There must not be an entry with the same hash.
+		 * @param entry {@link Entry}
+		 */
+		void put(Entry entry)
+		{
+			// keep the load factor at most 1/2
+			if ((size + 1) * 2 > keys.length)
+			{
+				long[] oldKeys = keys;
+				Entry[] oldValues = values;
+				keys = new long[oldKeys.length * 2];
+				values = new Entry[oldKeys.length * 2];
+				for (int i = 0; i < oldKeys.length; i++)
+				{
+					Entry e = oldValues[i];
+					if (e != null)
+					{
+						insert(oldKeys[i], e);
+					}
+				}
+			}
+			insert(entry.hash, entry);
+			size++;
+		}
+
+		/**
+		 * Inserts an entry into the first free slot.
+		 * @param hash hash
+		 * @param entry {@link Entry}
+		 */
+		private void insert(long hash, Entry entry)
+		{
+			int mask = keys.length - 1;
+			int i = slot(hash, mask);
+			while (values[i] != null)
+			{
+				i = (i + 1) & mask;
+			}
+			keys[i] = hash;
+			values[i] = entry;
+		}
+
+		/**
+		 * Removes the entry for the given hash.
+		 * @param hash hash
+		 */
+		void remove(long hash)
+		{
+			int mask = keys.length - 1;
+			int i = slot(hash, mask);
+			while (keys[i] != hash)
+			{
+				if (values[i] == null)
+				{
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			if (values[i] == null)
+			{
+				return;
+			}
+			// shift following entries back to close the gap, so lookups do not stop early
+			for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask)
+			{
+				int home = slot(keys[j], mask);
+				// move the entry if its home slot is not within (i, j]
+				if (((j - home) & mask) >= ((j - i) & mask))
+				{
+					keys[i] = keys[j];
+					values[i] = values[j];
+					i = j;
+				}
+			}
+			values[i] = null;
+			size--;
+		}
+
+		/**
+		 * Gets the number of entries.
+		 * @return number of entries
+		 */
+		int size()
+		{
+			return size;
+		}
+
+		/**
+		 * Gets the home slot of a hash.
+		 * @param hash hash
+		 * @param mask mask for the table size
+		 * @return slot
+		 */
+		private static int slot(long hash, int mask)
+		{
+			// the hashes are already well mixed
+			return (int) hash & mask;
+		}
+	}
+
+	/**
+	 * A segment of the cache as a doubly linked list ordered from the least to the most recently used entry.
+	 */
+	private static final class Segment
+	{
+		@Nullable
+		private Entry head;
+		@Nullable
+		private Entry tail;
+		private long weight;
+
+		/**
+		 * Adds an entry as the most recently used one.
+		 * @param entry {@link Entry}
+		 */
+		void addLast(Entry entry)
+		{
+			Entry last = tail;
+			entry.segment = this;
+			entry.previous = last;
+			entry.next = null;
+			if (last != null)
+			{
+				last.next = entry;
+			}
+			else
+			{
+				head = entry;
+			}
+			tail = entry;
+			weight += entry.data.length;
+		}
+
+		/**
+		 * Removes all entries.
+		 */
+		void clear()
+		{
+			head = null;
+			tail = null;
+			weight = 0;
+		}
+
+		/**
+		 * Removes an entry.
+		 * @param entry {@link Entry}
+		 */
+		void remove(Entry entry)
+		{
+			Entry previous = entry.previous;
+			Entry next = entry.next;
+			if (previous != null)
+			{
+				previous.next = next;
+			}
+			else
+			{
+				head = next;
+			}
+			if (next != null)
+			{
+				next.previous = previous;
+			}
+			else
+			{
+				tail = previous;
+			}
+			entry.previous = null;
+			entry.next = null;
+			weight -= entry.data.length;
+		}
+	}
+
+}
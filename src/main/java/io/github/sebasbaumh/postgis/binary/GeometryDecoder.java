@@ -0,0 +1,205 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.binary;
+
+import io.github.sebasbaumh.postgis.Geometry;
+
+/**
+ * A reusable context for decoding geometries from their binary or hex encoded representation. It keeps its value
+ * readers, so decoding only allocates the resulting geometry. An instance is not thread-safe, so it should either be
+ * confined to a single thread or be taken from a shared pool by {@link #acquire()} and returned by {@link #close()}:
+ *
+ * <pre>
+ * try (GeometryDecoder decoder = GeometryDecoder.acquire())
+ * {
+ * 	Geometry geom = decoder.decode(value, 0);
+ * }
+ * </pre>
+ *
+ * @author Sebastian Baumhekel
+ */
+public final class GeometryDecoder implements AutoCloseable
+{
+	/**
+	 * Empty value to avoid keeping references to decoded values.
+	 */
+	private static final byte[] EMPTY = new byte[0];
+
+	/**
+	 * Shared pool of idle instances.
+	 */
+	private static final CodecPool<GeometryDecoder> POOL = new CodecPool<GeometryDecoder>(
+			Runtime.getRuntime().availableProcessors() * 2);
+
+	/**
+	 * Reader for binary values.
+	 */
+	private final BinaryValueGetter binaryGetter = new BinaryValueGetter(EMPTY, 0);
+	/**
+	 * Was this instance taken from the shared pool?
+	 */
+	private boolean pooled;
+	/**
+	 * Reader for hex encoded values.
+	 */
+	private final StringValueGetter stringGetter = new StringValueGetter("");
+
+	/**
+	 * Constructs an instance for use by a single thread.
+	 */
+	public GeometryDecoder()
+	{
+	}
+
+	/**
+	 * Takes an instance from the shared pool (or creates a new one if the pool is empty). It has to be returned by
+	 * {@link #close()} and must not be used afterwards.
+	 * @return {@link GeometryDecoder}
+	 */
+	public static GeometryDecoder acquire()
+	{
+		GeometryDecoder decoder = POOL.poll();
+		if (decoder == null)
+		{
+			decoder = new GeometryDecoder();
+		}
+		decoder.pooled = true;
+		return decoder;
+	}
+
+	/**
+	 * Returns this instance to the shared pool if it was taken from it by {@link #acquire()}, else nothing is done.
+	 */
+	@Override
+	public void close()
+	{
+		if (pooled)
+		{
+			pooled = false;
+			POOL.offer(this);
+		}
+	}
+
+	/**
+	 * Decodes a binary encoded geometry.
+	 * @param value byte array containing the data to be parsed
+	 * @param offset offset
+	 * @return resulting geometry for the parsed data
+	 * @throws IllegalArgumentException if a contained geometry is of the wrong type or the encoding type is unknown
+	 */
+	public Geometry decode(byte[] value, int offset)
+	{
+		binaryGetter.reset(value, offset);
+		try
+		{
+			return BinaryParser.parse(binaryGetter);
+		}
+		finally
+		{
+			binaryGetter.reset(EMPTY, 0);
+		}
+	}
+
+	/**
+	 * Decodes a binary encoded geometry reducing it while decoding according to the given options.
+	 * @param value byte array containing the data to be parsed
+	 * @param offset offset
+	 * @param options {@link DecodeOptions}
+	 * @return resulting geometry for the parsed data
+	 * @throws IllegalArgumentException if a contained geometry is of the wrong type or the encoding type is unknown
+	 */
+	public Geometry decode(byte[] value, int offset, DecodeOptions options)
+	{
+		binaryGetter.reset(value, offset);
+		try
+		{
+			return BinaryParser.parse(binaryGetter, options);
+		}
+		finally
+		{
+			binaryGetter.reset(EMPTY, 0);
+		}
+	}
+
+	/**
+	 * Decodes a hex encoded geometry.
+	 * @param value String containing the data to be parsed
+	 * @return resulting geometry for the parsed data
+	 * @throws IllegalArgumentException if a contained geometry is of the wrong type or the encoding type is unknown
+	 */
+	public Geometry decode(String value)
+	{
+		stringGetter.reset(value);
+		try
+		{
+			return BinaryParser.parse(stringGetter);
+		}
+		finally
+		{
+			stringGetter.reset("");
+		}
+	}
+
+	/**
+	 * Decodes a hex encoded geometry reducing it while decoding according to the given options.
+	 * @param value String containing the data to be parsed
+	 * @param options {@link DecodeOptions}
+	 * @return resulting geometry for the parsed data
+	 * @throws IllegalArgumentException if a contained geometry is of the wrong type or the encoding type is unknown
+	 */
+	public Geometry decode(String value, DecodeOptions options)
+	{
+		stringGetter.reset(value);
+		try
+		{
+			return BinaryParser.parse(stringGetter, options);
+		}
+		finally
+		{
+			stringGetter.reset("");
+		}
+	}
+
+	/**
+	 * Decodes the envelope (bounding box of the x and y coordinates) of a binary encoded geometry without creating any
+	 * geometry objects.
+	 * @param value byte array containing the data to be parsed
+	 * @param offset offset
+	 * @param envelope array receiving the envelope as minX, minY, maxX, maxY
+	 * @return true if the geometry has coordinates, false if it is empty
+	 * @throws IllegalArgumentException if the geometry type or the encoding type is unknown
+	 */
+	public boolean decodeEnvelope(byte[] value, int offset, double[] envelope)
+	{
+		binaryGetter.reset(value, offset);
+		try
+		{
+			return BinaryParser.parseEnvelope(binaryGetter, envelope);
+		}
+		finally
+		{
+			binaryGetter.reset(EMPTY, 0);
+		}
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.binary;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter.WkbDialect;
+
+/**
+ * A reusable context for encoding geometries to their binary or hex encoded representation. It keeps its buffers, so
+ * encoding only allocates the resulting value. An instance is not thread-safe, so it should either be confined to a
+ * single thread or be taken from a shared pool by {@link #acquire()} and returned by {@link #close()}:
+ *
+ * <pre>
+ * try (GeometryEncoder encoder = GeometryEncoder.acquire())
+ * {
+ * 	byte[] value = encoder.encode(geom);
+ * }
+ * </pre>
+ *
+ * @author Sebastian Baumhekel
+ */
+public final class GeometryEncoder implements AutoCloseable
+{
+	/**
+	 * Maximum size of the buffers kept by pooled instances, so single large geometries do not occupy memory forever.
+	 */
+	private static final int MAX_RETAINED_SIZE = 1 << 20;
+
+	/**
+	 * Shared pool of idle instances.
+	 */
+	private static final CodecPool<GeometryEncoder> POOL = new CodecPool<GeometryEncoder>(
+			Runtime.getRuntime().availableProcessors() * 2);
+
+	/**
+	 * Writer for binary values.
+	 */
+	private BinaryValueSetter binarySetter = new BinaryValueSetter(1024);
+	/**
+	 * Writer for hex encoded values.
+	 */
+	private StringValueSetter hexSetter = new StringValueSetter();
+	/**
+	 * Was this instance taken from the shared pool?
+	 */
+	private boolean pooled;
+
+	/**
+	 * Constructs an instance for use by a single thread.
+	 */
+	public GeometryEncoder()
+	{
+	}
+
+	/**
+	 * Takes an instance from the shared pool (or creates a new one if the pool is empty). It has to be returned by
+	 * {@link #close()} and must not be used afterwards.
+	 * @return {@link GeometryEncoder}
+	 */
+	public static GeometryEncoder acquire()
+	{
+		GeometryEncoder encoder = POOL.poll();
+		if (encoder == null)
+		{
+			encoder = new GeometryEncoder();
+		}
+		encoder.pooled = true;
+		return encoder;
+	}
+
+	/**
+	 * Returns this instance to the shared pool if it was taken from it by {@link #acquire()}, else nothing is done.
+	 */
+	@Override
+	public void close()
+	{
+		if (pooled)
+		{
+			pooled = false;
+			// drop buffers which have grown too large, even if the last value was a small one
+			if (binarySetter.capacity() > MAX_RETAINED_SIZE)
+			{
+				binarySetter = new BinaryValueSetter(1024);
+			}
+			if (hexSetter.capacity() > MAX_RETAINED_SIZE)
+			{
+				hexSetter = new StringValueSetter();
+			}
+			POOL.offer(this);
+		}
+	}
+
+	/**
+	 * Gets the total capacity of the buffers kept by this instance for encoding further geometries.
+	 * @return capacity (bytes of the binary buffer plus characters of the hex buffer)
+	 */
+	public int getCapacity()
+	{
+		return binarySetter.capacity() + hexSetter.capacity();
+	}
+
+	/**
+	 * Encodes a geometry to its binary representation. The geometry you put in must be consistent,
+	 * geom.checkConsistency() must return true. If not, the result may be invalid WKB.
+	 * @param geom the geometry to be written
+	 * @return byte arrray containing the encoded geometry
+	 */
+	public byte[] encode(Geometry geom)
+	{
+		return encode(geom, WkbDialect.EWKB);
+	}
+
+	/**
+	 * Encodes a geometry to its binary representation using the given dialect. The geometry you put in must be
+	 * consistent, geom.checkConsistency() must return true. If not, the result may be invalid WKB.
+	 * @param geom the geometry to be written
+	 * @param dialect {@link WkbDialect}
+	 * @return byte arrray containing the encoded geometry
+	 */
+	public byte[] encode(Geometry geom, WkbDialect dialect)
+	{
+		BinaryValueSetter dest = binarySetter;
+		dest.reset();
+		BinaryWriter.writeGeometry(geom, dest, dialect);
+		return dest.getValue();
+	}
+
+	/**
+	 * Encodes a geometry to its hex encoded binary representation. The geometry you put in must be consistent,
+	 * geom.checkConsistency() must return true. If not, the result may be invalid WKB.
+	 * @param geom the geometry to be written
+	 * @return String containing the hex encoded geometry
+	 */
+	public String encodeHexed(Geometry geom)
+	{
+		return encodeHexed(geom, WkbDialect.EWKB);
+	}
+
+	/**
+	 * Encodes a geometry to its hex encoded binary representation using the given dialect. The geometry you put in
+	 * must be consistent, geom.checkConsistency() must return true. If not, the result may be invalid WKB.
+	 * @param geom the geometry to be written
+	 * @param dialect {@link WkbDialect}
+	 * @return String containing the hex encoded geometry
+	 */
+	public String encodeHexed(Geometry geom, WkbDialect dialect)
+	{
+		StringValueSetter dest = hexSetter;
+		dest.reset();
+		BinaryWriter.writeGeometry(geom, dest, dialect);
+		return dest.getValue();
+	}
+
+}
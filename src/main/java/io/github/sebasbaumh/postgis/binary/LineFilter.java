@@ -0,0 +1,45 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.binary;
+
+/**
+ * A filter for the coordinates of line strings and linear rings, which is applied by the {@link BinaryParser} while
+ * parsing, so coordinates can be reduced before any {@link io.github.sebasbaumh.postgis.Point} is created.
+ * @author Sebastian Baumhekel
+ */
+@FunctionalInterface
+public interface LineFilter
+{
+	/**
+	 * Filters the coordinates of a line string or linear ring. Coordinates are stored interleaved, so the ordinates
+	 * of coordinate <code>i</code> are at <code>coords[i * dimension]</code> to
+	 * <code>coords[i * dimension + dimension - 1]</code> in the order x, y, z (if present) and m (if present). The
+	 * kept coordinates have to be moved to the start of the array keeping their order.
+	 * @param coords coordinates
+	 * @param count number of coordinates
+	 * @param dimension number of ordinates per coordinate (2-4)
+	 * @param ring are the coordinates a closed ring?
+	 * @return number of kept coordinates
+	 */
+	int filter(double[] coords, int count, int dimension, boolean ring);
+}
@@ -31,7 +31,7 @@ import io.github.sebasbaumh.postgis.PostGisUtil;
 public class StringValueGetter extends ValueGetter
 {
 	private int position;
-	private final String value;
+	private String value;
 
 	/**
 	 * Constructs an instance.
@@ -52,4 +52,14 @@ public class StringValueGetter extends ValueGetter
 		return ((PostGisUtil.toHexByte(value.charAt(index)) << 4) | PostGisUtil.toHexByte(value.charAt(index + 1)));
 	}
 
+	/**
+	 * Resets this instance to read from the given value, so it can be reused.
+	 * @param newValue value as hex string
+	 */
+	public void reset(String newValue)
+	{
+		this.value = newValue;
+		this.position = 0;
+	}
+
 }
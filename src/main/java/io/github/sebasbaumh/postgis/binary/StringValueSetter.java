@@ -39,6 +39,15 @@ public class StringValueSetter extends ValueSetter
 	{
 	}
 
+	/**
+	 * Gets the capacity of the internal buffer, which is kept on {@link #reset()}.
+	 * @return capacity in characters
+	 */
+	public int capacity()
+	{
+		return sb.capacity();
+	}
+
 	/**
 	 * Gets the written value.
 	 * @return value
@@ -48,6 +57,14 @@ public class StringValueSetter extends ValueSetter
 		return sb.toString();
 	}
 
+	/**
+	 * Resets this instance, so it can be reused. The internal buffer is kept.
+	 */
+	public void reset()
+	{
+		sb.setLength(0);
+	}
+
 	@Override
 	public void setByte(byte b)
 	{
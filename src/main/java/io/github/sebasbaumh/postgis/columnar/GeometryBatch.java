@@ -0,0 +1,536 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.columnar;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nullable;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.LineString;
+import io.github.sebasbaumh.postgis.LinearRing;
+import io.github.sebasbaumh.postgis.MultiLineString;
+import io.github.sebasbaumh.postgis.MultiPoint;
+import io.github.sebasbaumh.postgis.MultiPolygon;
+import io.github.sebasbaumh.postgis.Point;
+import io.github.sebasbaumh.postgis.Polygon;
+
+/**
+ * A batch of geometries of the same type stored in columns of primitive arrays following the
+ * <a href="https://geoarrow.org/format.html">GeoArrow native memory layout</a>. Coordinates are stored either
+ * interleaved (<code>xyxy...</code>) or separated (one array per ordinate) and the structure of the geometries is
+ * described by offset arrays:
+ * <ul>
+ * <li>{@link GeometryType#POINT}: coordinate index equals geometry index</li>
+ * <li>{@link GeometryType#LINESTRING}, {@link GeometryType#MULTIPOINT}: geometry offsets into the coordinates</li>
+ * <li>{@link GeometryType#POLYGON}: geometry offsets into the rings, ring offsets into the coordinates</li>
+ * <li>{@link GeometryType#MULTILINESTRING}: geometry offsets into the parts, part offsets into the coordinates</li>
+ * <li>{@link GeometryType#MULTIPOLYGON}: geometry offsets into the parts (polygons), part offsets into the rings, ring
+ * offsets into the coordinates</li>
+ * </ul>
+ * Offset arrays contain one more element than the number of items they describe, so the coordinates of line string
+ * <code>i</code> are in the range <code>[offsets[i], offsets[i + 1])</code>. Instances are immutable and the arrays
+ * returned by the getters are the backing arrays, so they must not be modified. Use {@link GeometryBatchBuilder} to
+ * create instances.
+ * @author Sebastian Baumhekel
+ */
+public final class GeometryBatch implements Iterable<Geometry>
+{
+	/**
+	 * Supported geometry types.
+	 */
+	public enum GeometryType
+	{
+		/**
+		 * Points.
+		 */
+		POINT,
+		/**
+		 * Line strings.
+		 */
+		LINESTRING,
+		/**
+		 * Polygons.
+		 */
+		POLYGON,
+		/**
+		 * Multi points.
+		 */
+		MULTIPOINT,
+		/**
+		 * Multi line strings.
+		 */
+		MULTILINESTRING,
+		/**
+		 * Multi polygons.
+		 */
+		MULTIPOLYGON;
+	}
+
+	/**
+	 * Layout of the coordinates.
+	 */
+	public enum CoordinateLayout
+	{
+		/**
+		 * All ordinates of a coordinate are stored next to each other in a single array (<code>xyxy...</code>).
+		 */
+		INTERLEAVED,
+		/**
+		 * Every ordinate is stored in its own array (<code>xx...</code>, <code>yy...</code>).
+		 */
+		SEPARATED;
+	}
+
+	/**
+	 * Empty offsets.
+	 */
+	private static final int[] NO_OFFSETS = new int[0];
+
+	/**
+	 * Coordinate arrays (a single one for interleaved coordinates, else one per ordinate).
+	 */
+	private final double[][] coordinates;
+	/**
+	 * Dimension of the coordinates.
+	 */
+	private final int dimension;
+	/**
+	 * Geometry offsets.
+	 */
+	private final int[] geometryOffsets;
+	/**
+	 * Has a measure?
+	 */
+	private final boolean hasM;
+	/**
+	 * Has a z coordinate?
+	 */
+	private final boolean hasZ;
+	/**
+	 * Layout of the coordinates.
+	 */
+	private final CoordinateLayout layout;
+	/**
+	 * Number of coordinates.
+	 */
+	private final int numCoordinates;
+	/**
+	 * Part offsets.
+	 */
+	private final int[] partOffsets;
+	/**
+	 * Ring offsets.
+	 */
+	private final int[] ringOffsets;
+	/**
+	 * Number of geometries.
+	 */
+	private final int size;
+	/**
+	 * SRID of all geometries.
+	 */
+	private final int srid;
+	/**
+	 * Geometry type.
+	 */
+	private final GeometryType type;
+	/**
+	 * Set bits mark null geometries (null if there are no null geometries).
+	 */
+	@Nullable
+	private final BitSet nulls;
+
+	/**
+	 * Constructs an instance.
+	 * @param type geometry type
+	 * @param hasZ has a z coordinate?
+	 * @param hasM has a measure?
+	 * @param srid SRID
+	 * @param layout layout of the coordinates
+	 * @param coordinates coordinate arrays
+	 * @param numCoordinates number of coordinates
+	 * @param size number of geometries
+	 * @param geometryOffsets geometry offsets
+	 * @param partOffsets part offsets
+	 * @param ringOffsets ring offsets
+	 * @param nulls null geometries (can be null)
+	 */
+	GeometryBatch(GeometryType type, boolean hasZ, boolean hasM, int srid, CoordinateLayout layout,
+			double[][] coordinates, int numCoordinates, int size, int[] geometryOffsets, int[] partOffsets,
+			int[] ringOffsets, @Nullable BitSet nulls)
+	{
+		this.type = type;
+		this.hasZ = hasZ;
+		this.hasM = hasM;
+		this.dimension = getDimension(hasZ, hasM);
+		this.srid = srid;
+		this.layout = layout;
+		this.coordinates = coordinates;
+		this.numCoordinates = numCoordinates;
+		this.size = size;
+		this.geometryOffsets = geometryOffsets;
+		this.partOffsets = partOffsets;
+		this.ringOffsets = ringOffsets;
+		this.nulls = nulls;
+	}
+
+	/**
+	 * Gets the dimension of coordinates.
+	 * @param hasZ has a z coordinate?
+	 * @param hasM has a measure?
+	 * @return dimension
+	 */
+	static int getDimension(boolean hasZ, boolean hasM)
+	{
+		return 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+	}
+
+	/**
+	 * Creates a {@link Point} from the coordinate at the given index.
+	 * @param index coordinate index
+	 * @return {@link Point}
+	 */
+	private Point createPoint(int index)
+	{
+		double z = hasZ ? getOrdinate(index, 2) : Double.NaN;
+		double m = hasM ? getOrdinate(index, dimension - 1) : Double.NaN;
+		return new Point(getOrdinate(index, 0), getOrdinate(index, 1), z, m);
+	}
+
+	/**
+	 * Creates a list of {@link Point}s from the given coordinate range.
+	 * @param start index of the first coordinate
+	 * @param end index after the last coordinate
+	 * @return {@link Point}s
+	 */
+	private ArrayList<Point> createPoints(int start, int end)
+	{
+		ArrayList<Point> l = new ArrayList<Point>(end - start);
+		for (int i = start; i < end; i++)
+		{
+			l.add(createPoint(i));
+		}
+		return l;
+	}
+
+	/**
+	 * Creates a {@link Polygon} from the given ring range.
+	 * @param start index of the first ring
+	 * @param end index after the last ring
+	 * @return {@link Polygon}
+	 */
+	private Polygon createPolygon(int start, int end)
+	{
+		ArrayList<LinearRing> rings = new ArrayList<LinearRing>(end - start);
+		for (int i = start; i < end; i++)
+		{
+			rings.add(new LinearRing(createPoints(ringOffsets[i], ringOffsets[i + 1])));
+		}
+		return new Polygon(rings);
+	}
+
+	/**
+	 * Gets the coordinates in the interleaved layout (<code>xyxy...</code>). For an interleaved batch this is the
+	 * backing array, else a new array is created.
+	 * @return coordinates
+	 */
+	public double[] getCoordinates()
+	{
+		if (layout == CoordinateLayout.INTERLEAVED)
+		{
+			return coordinates[0];
+		}
+		double[] data = new double[numCoordinates * dimension];
+		for (int d = 0; d < dimension; d++)
+		{
+			double[] ordinates = coordinates[d];
+			for (int i = 0; i < numCoordinates; i++)
+			{
+				data[i * dimension + d] = ordinates[i];
+			}
+		}
+		return data;
+	}
+
+	/**
+	 * Gets the layout of the coordinates.
+	 * @return layout
+	 */
+	public CoordinateLayout getCoordinateLayout()
+	{
+		return layout;
+	}
+
+	/**
+	 * Gets the dimension of the coordinates, so the number of ordinates per coordinate (2-4).
+	 * @return dimension
+	 */
+	public int getDimension()
+	{
+		return dimension;
+	}
+
+	/**
+	 * Gets the geometry at the given index.
+	 * @param index index
+	 * @return {@link Geometry} on success, else null for a null geometry
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	@Nullable
+	public Geometry getGeometry(int index)
+	{
+		if ((index < 0) || (index >= size))
+		{
+			throw new IndexOutOfBoundsException("index " + index + " out of range 0-" + size);
+		}
+		if (isNull(index))
+		{
+			return null;
+		}
+		Geometry geom;
+		switch (type)
+		{
+			case POINT:
+				geom = createPoint(index);
+				break;
+			case LINESTRING:
+				geom = new LineString(createPoints(geometryOffsets[index], geometryOffsets[index + 1]));
+				break;
+			case POLYGON:
+				geom = createPolygon(geometryOffsets[index], geometryOffsets[index + 1]);
+				break;
+			case MULTIPOINT:
+				geom = new MultiPoint(createPoints(geometryOffsets[index], geometryOffsets[index + 1]));
+				break;
+			case MULTILINESTRING:
+			{
+				MultiLineString mls = new MultiLineString();
+				for (int i = geometryOffsets[index]; i < geometryOffsets[index + 1]; i++)
+				{
+					mls.add(new LineString(createPoints(partOffsets[i], partOffsets[i + 1])));
+				}
+				geom = mls;
+			}
+				break;
+			case MULTIPOLYGON:
+			{
+				MultiPolygon mp = new MultiPolygon();
+				for (int i = geometryOffsets[index]; i < geometryOffsets[index + 1]; i++)
+				{
+					mp.add(createPolygon(partOffsets[i], partOffsets[i + 1]));
+				}
+				geom = mp;
+			}
+				break;
+			default:
+				throw new IllegalStateException("Unknown geometry type: " + type);
+		}
+		geom.setSrid(srid);
+		return geom;
+	}
+
+	/**
+	 * Gets the geometry offsets. They point to coordinates for {@link GeometryType#LINESTRING} and
+	 * {@link GeometryType#MULTIPOINT}, to rings for {@link GeometryType#POLYGON} and to parts for
+	 * {@link GeometryType#MULTILINESTRING} and {@link GeometryType#MULTIPOLYGON}.
+	 * @return geometry offsets (empty for {@link GeometryType#POINT})
+	 */
+	public int[] getGeometryOffsets()
+	{
+		return geometryOffsets;
+	}
+
+	/**
+	 * Gets the geometry type.
+	 * @return geometry type
+	 */
+	public GeometryType getGeometryType()
+	{
+		return type;
+	}
+
+	/**
+	 * Gets the number of coordinates.
+	 * @return number of coordinates
+	 */
+	public int getNumberOfCoordinates()
+	{
+		return numCoordinates;
+	}
+
+	/**
+	 * Gets a single ordinate.
+	 * @param index coordinate index
+	 * @param ordinate ordinate index (0=x, 1=y, then z and/or m)
+	 * @return ordinate value
+	 */
+	public double getOrdinate(int index, int ordinate)
+	{
+		if (layout == CoordinateLayout.INTERLEAVED)
+		{
+			return coordinates[0][index * dimension + ordinate];
+		}
+		return coordinates[ordinate][index];
+	}
+
+	/**
+	 * Gets all values of an ordinate. For a separated batch this is the backing array, else a new array is created.
+	 * @param ordinate ordinate index (0=x, 1=y, then z and/or m)
+	 * @return ordinate values
+	 */
+	public double[] getOrdinates(int ordinate)
+	{
+		if (layout == CoordinateLayout.SEPARATED)
+		{
+			return coordinates[ordinate];
+		}
+		double[] data = new double[numCoordinates];
+		double[] interleaved = coordinates[0];
+		for (int i = 0; i < numCoordinates; i++)
+		{
+			data[i] = interleaved[i * dimension + ordinate];
+		}
+		return data;
+	}
+
+	/**
+	 * Gets the part offsets. They point to coordinates for {@link GeometryType#MULTILINESTRING} and to rings for
+	 * {@link GeometryType#MULTIPOLYGON}.
+	 * @return part offsets (empty for other types)
+	 */
+	public int[] getPartOffsets()
+	{
+		return partOffsets;
+	}
+
+	/**
+	 * Gets the ring offsets, which point to coordinates.
+	 * @return ring offsets (empty for types other than {@link GeometryType#POLYGON} and
+	 *         {@link GeometryType#MULTIPOLYGON})
+	 */
+	public int[] getRingOffsets()
+	{
+		return ringOffsets;
+	}
+
+	/**
+	 * Gets the SRID of all geometries.
+	 * @return SRID
+	 */
+	public int getSrid()
+	{
+		return srid;
+	}
+
+	/**
+	 * Checks if the coordinates have a measure.
+	 * @return true on success, else false
+	 */
+	public boolean hasMeasure()
+	{
+		return hasM;
+	}
+
+	/**
+	 * Checks if the coordinates have a z coordinate.
+	 * @return true on success, else false
+	 */
+	public boolean is3d()
+	{
+		return hasZ;
+	}
+
+	/**
+	 * Checks if the geometry at the given index is null.
+	 * @param index index
+	 * @return true on success, else false
+	 */
+	public boolean isNull(int index)
+	{
+		BitSet bs = this.nulls;
+		return (bs != null) && bs.get(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<Geometry> iterator()
+	{
+		return new Iterator<Geometry>()
+		{
+			private int index;
+
+			@Override
+			public boolean hasNext()
+			{
+				return index < size;
+			}
+
+			@Nullable
+			@Override
+			public Geometry next()
+			{
+				if (index >= size)
+				{
+					throw new NoSuchElementException();
+				}
+				return getGeometry(index++);
+			}
+		};
+	}
+
+	/**
+	 * Gets the number of geometries.
+	 * @return number of geometries
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return "GeometryBatch [" + type + ", " + size + " geometries, " + numCoordinates + " coordinates]";
+	}
+
+	/**
+	 * Gets empty offsets.
+	 * @return empty offsets
+	 */
+	static int[] noOffsets()
+	{
+		return NO_OFFSETS;
+	}
+
+}
@@ -0,0 +1,768 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.columnar;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import javax.annotation.Nullable;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.LineString;
+import io.github.sebasbaumh.postgis.LinearRing;
+import io.github.sebasbaumh.postgis.MultiLineString;
+import io.github.sebasbaumh.postgis.MultiPoint;
+import io.github.sebasbaumh.postgis.MultiPolygon;
+import io.github.sebasbaumh.postgis.Point;
+import io.github.sebasbaumh.postgis.Polygon;
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryValueGetter;
+import io.github.sebasbaumh.postgis.binary.StringValueGetter;
+import io.github.sebasbaumh.postgis.binary.ValueGetter;
+import io.github.sebasbaumh.postgis.columnar.GeometryBatch.CoordinateLayout;
+import io.github.sebasbaumh.postgis.columnar.GeometryBatch.GeometryType;
+
+/**
+ * Builder for a {@link GeometryBatch}. Geometries can either be added as {@link Geometry} objects or directly as
+ * (E)WKB, which avoids creating any objects per geometry or coordinate. Single geometries are accepted by a builder
+ * for the corresponding multi geometry type, e.g. a {@link Polygon} becomes a multi polygon with one part.
+ * Coordinates are converted to the dimension of the builder, so missing ordinates are filled with {@link Double#NaN}
+ * and additional ordinates are dropped. Instances are not thread-safe.
+ * @author Sebastian Baumhekel
+ */
+public final class GeometryBatchBuilder
+{
+	/**
+	 * Initial capacity of the internal arrays.
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * Interleaved coordinates.
+	 */
+	private double[] coordinates;
+	/**
+	 * Dimension of the coordinates.
+	 */
+	private final int dimension;
+	/**
+	 * Geometry offsets.
+	 */
+	private int[] geometryOffsets;
+	/**
+	 * Has a measure?
+	 */
+	private final boolean hasM;
+	/**
+	 * Has a z coordinate?
+	 */
+	private final boolean hasZ;
+	/**
+	 * Layout of the coordinates.
+	 */
+	private final CoordinateLayout layout;
+	/**
+	 * Null geometries.
+	 */
+	private final BitSet nulls = new BitSet();
+	/**
+	 * Number of coordinates.
+	 */
+	private int numCoordinates;
+	/**
+	 * Number of geometries.
+	 */
+	private int numGeometries;
+	/**
+	 * Number of parts.
+	 */
+	private int numParts;
+	/**
+	 * Number of rings.
+	 */
+	private int numRings;
+	/**
+	 * Part offsets.
+	 */
+	private int[] partOffsets;
+	/**
+	 * Ring offsets.
+	 */
+	private int[] ringOffsets;
+	/**
+	 * SRID of all geometries.
+	 */
+	private int srid = Geometry.UNKNOWN_SRID;
+	/**
+	 * Geometry type.
+	 */
+	private final GeometryType type;
+
+	/**
+	 * Constructs an instance for 2d coordinates stored interleaved.
+	 * @param type geometry type
+	 */
+	public GeometryBatchBuilder(GeometryType type)
+	{
+		this(type, false, false, CoordinateLayout.INTERLEAVED);
+	}
+
+	/**
+	 * Constructs an instance.
+	 * @param type geometry type
+	 * @param hasZ store z coordinates?
+	 * @param hasM store measures?
+	 * @param layout layout of the coordinates
+	 */
+	public GeometryBatchBuilder(GeometryType type, boolean hasZ, boolean hasM, CoordinateLayout layout)
+	{
+		this.type = type;
+		this.hasZ = hasZ;
+		this.hasM = hasM;
+		this.dimension = GeometryBatch.getDimension(hasZ, hasM);
+		this.layout = layout;
+		this.coordinates = new double[INITIAL_CAPACITY * dimension];
+		// offsets always start with 0
+		this.geometryOffsets = new int[INITIAL_CAPACITY];
+		this.partOffsets = new int[INITIAL_CAPACITY];
+		this.ringOffsets = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Appends a value to the given offsets.
+	 * @param offsets offsets
+	 * @param index index of the value
+	 * @param value value
+	 * @return offsets (the given or an enlarged array)
+	 */
+	private static int[] appendOffset(int[] offsets, int index, int value)
+	{
+		int[] result = offsets;
+		if (index >= result.length)
+		{
+			result = Arrays.copyOf(result, result.length * 2);
+		}
+		result[index] = value;
+		return result;
+	}
+
+	/**
+	 * Gets a builder for the type and dimension of the given geometries and adds them.
+	 * @param geoms geometries (may contain null values)
+	 * @param layout layout of the coordinates
+	 * @return {@link GeometryBatchBuilder}
+	 * @throws IllegalArgumentException if the geometries cannot be stored in a single batch
+	 */
+	public static GeometryBatchBuilder of(Iterable<? extends Geometry> geoms, CoordinateLayout layout)
+	{
+		GeometryType batchType = null;
+		boolean z = false;
+		boolean m = false;
+		for (Geometry geom : geoms)
+		{
+			if (geom != null)
+			{
+				batchType = unify(batchType, getGeometryType(geom));
+				z |= geom.is3d();
+				m |= geom.hasMeasure();
+			}
+		}
+		// an empty batch or only nulls
+		if (batchType == null)
+		{
+			batchType = GeometryType.POINT;
+		}
+		GeometryBatchBuilder builder = new GeometryBatchBuilder(batchType, z, m, layout);
+		for (Geometry geom : geoms)
+		{
+			builder.add(geom);
+		}
+		return builder;
+	}
+
+	/**
+	 * Gets the {@link GeometryType} for the given geometry.
+	 * @param geom {@link Geometry}
+	 * @return {@link GeometryType}
+	 * @throws IllegalArgumentException if the geometry type is not supported
+	 */
+	private static GeometryType getGeometryType(Geometry geom)
+	{
+		switch (geom.getType())
+		{
+			case Point.TYPE:
+				return GeometryType.POINT;
+			case LineString.TYPE:
+				return GeometryType.LINESTRING;
+			case Polygon.TYPE:
+				return GeometryType.POLYGON;
+			case MultiPoint.TYPE:
+				return GeometryType.MULTIPOINT;
+			case MultiLineString.TYPE:
+				return GeometryType.MULTILINESTRING;
+			case MultiPolygon.TYPE:
+				return GeometryType.MULTIPOLYGON;
+			default:
+				throw new IllegalArgumentException("Unsupported geometry type: " + geom.getClass().getSimpleName());
+		}
+	}
+
+	/**
+	 * Gets the multi geometry type for the given type.
+	 * @param t {@link GeometryType}
+	 * @return multi {@link GeometryType}
+	 */
+	private static GeometryType toMulti(GeometryType t)
+	{
+		switch (t)
+		{
+			case POINT:
+				return GeometryType.MULTIPOINT;
+			case LINESTRING:
+				return GeometryType.MULTILINESTRING;
+			case POLYGON:
+				return GeometryType.MULTIPOLYGON;
+			default:
+				return t;
+		}
+	}
+
+	/**
+	 * Gets a type able to hold geometries of both given types.
+	 * @param current current type (can be null)
+	 * @param t type to add
+	 * @return {@link GeometryType}
+	 * @throws IllegalArgumentException if there is no common type
+	 */
+	private static GeometryType unify(@Nullable GeometryType current, GeometryType t)
+	{
+		if ((current == null) || (current == t))
+		{
+			return t;
+		}
+		GeometryType multi = toMulti(current);
+		if (multi == toMulti(t))
+		{
+			return multi;
+		}
+		throw new IllegalArgumentException("Geometry types cannot be mixed in a batch: " + current + ", " + t);
+	}
+
+	/**
+	 * Adds a geometry.
+	 * @param geom {@link Geometry} (can be null)
+	 * @return this instance
+	 * @throws IllegalArgumentException if the geometry does not match the type of this batch or the SRID differs
+	 */
+	public GeometryBatchBuilder add(@Nullable Geometry geom)
+	{
+		if (geom == null)
+		{
+			return addNull();
+		}
+		GeometryType t = getGeometryType(geom);
+		checkType(t);
+		// remember the current state to be able to undo a partially added geometry
+		int oldCoordinates = numCoordinates;
+		int oldParts = numParts;
+		int oldRings = numRings;
+		int oldSrid = srid;
+		try
+		{
+			checkSrid(geom.getSrid());
+			addGeometry(geom, t);
+		}
+		catch (RuntimeException ex)
+		{
+			rollback(oldCoordinates, oldParts, oldRings, oldSrid);
+			throw ex;
+		}
+		endGeometry();
+		return this;
+	}
+
+	/**
+	 * Adds the coordinates and parts of a geometry. The geometry itself is not finished.
+	 * @param geom {@link Geometry}
+	 * @param t {@link GeometryType} of the geometry
+	 */
+	private void addGeometry(Geometry geom, GeometryType t)
+	{
+		switch (t)
+		{
+			case POINT:
+				addPoint((Point) geom);
+				break;
+			case LINESTRING:
+				addPoints(((LineString) geom).getCoordinates());
+				if (type == GeometryType.MULTILINESTRING)
+				{
+					endPart();
+				}
+				break;
+			case POLYGON:
+				addPolygon((Polygon) geom);
+				break;
+			case MULTIPOINT:
+				addPoints(((MultiPoint) geom).getGeometries());
+				break;
+			case MULTILINESTRING:
+				for (LineString ls : ((MultiLineString) geom).getGeometries())
+				{
+					addPoints(ls.getCoordinates());
+					endPart();
+				}
+				break;
+			case MULTIPOLYGON:
+				for (Polygon poly : ((MultiPolygon) geom).getGeometries())
+				{
+					addPolygon(poly);
+				}
+				break;
+			default:
+				throw new IllegalStateException("Unknown geometry type: " + t);
+		}
+	}
+
+	/**
+	 * Adds all given geometries.
+	 * @param geoms geometries (may contain null values)
+	 * @return this instance
+	 * @throws IllegalArgumentException if a geometry does not match the type of this batch or the SRID differs
+	 */
+	public GeometryBatchBuilder addAll(Iterable<? extends Geometry> geoms)
+	{
+		for (Geometry geom : geoms)
+		{
+			add(geom);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a geometry given as (E)WKB without creating intermediate geometry objects.
+	 * @param value binary value
+	 * @param offset offset of the geometry in the given value
+	 * @return this instance
+	 * @throws IllegalArgumentException if the geometry does not match the type of this batch or the SRID differs
+	 */
+	public GeometryBatchBuilder addBinary(byte[] value, int offset)
+	{
+		return addEncoded(new BinaryValueGetter(value, offset));
+	}
+
+	/**
+	 * Adds a geometry given as (E)WKB. A geometry that cannot be read completely is not added at all.
+	 * @param data {@link ValueGetter}
+	 * @return this instance
+	 * @throws IllegalArgumentException if the geometry does not match the type of this batch or the SRID differs
+	 */
+	private GeometryBatchBuilder addEncoded(ValueGetter data)
+	{
+		// remember the current state to be able to undo a partially added geometry
+		int oldCoordinates = numCoordinates;
+		int oldParts = numParts;
+		int oldRings = numRings;
+		int oldSrid = srid;
+		try
+		{
+			readGeometry(data, null);
+		}
+		catch (RuntimeException ex)
+		{
+			rollback(oldCoordinates, oldParts, oldRings, oldSrid);
+			throw ex;
+		}
+		endGeometry();
+		return this;
+	}
+
+	/**
+	 * Adds a geometry given as hex encoded (E)WKB without creating intermediate geometry objects.
+	 * @param value hex encoded (E)WKB
+	 * @return this instance
+	 * @throws IllegalArgumentException if the geometry does not match the type of this batch or the SRID differs
+	 */
+	public GeometryBatchBuilder addHexed(String value)
+	{
+		return addEncoded(new StringValueGetter(value));
+	}
+
+	/**
+	 * Adds a null geometry.
+	 * @return this instance
+	 */
+	public GeometryBatchBuilder addNull()
+	{
+		nulls.set(numGeometries);
+		if (type == GeometryType.POINT)
+		{
+			// points always occupy a coordinate
+			addCoordinate(Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+		}
+		endGeometry();
+		return this;
+	}
+
+	/**
+	 * Adds a coordinate.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @param z z coordinate
+	 * @param m measure
+	 */
+	private void addCoordinate(double x, double y, double z, double m)
+	{
+		int i = numCoordinates * dimension;
+		if (i + dimension > coordinates.length)
+		{
+			coordinates = Arrays.copyOf(coordinates, coordinates.length * 2);
+		}
+		coordinates[i++] = x;
+		coordinates[i++] = y;
+		if (hasZ)
+		{
+			coordinates[i++] = z;
+		}
+		if (hasM)
+		{
+			coordinates[i] = m;
+		}
+		numCoordinates++;
+	}
+
+	/**
+	 * Adds a point.
+	 * @param p {@link Point}
+	 */
+	private void addPoint(Point p)
+	{
+		addCoordinate(p.getX(), p.getY(), p.getZ(), p.getM());
+	}
+
+	/**
+	 * Adds all points.
+	 * @param points {@link Point}s
+	 */
+	private void addPoints(Iterable<Point> points)
+	{
+		for (Point p : points)
+		{
+			addPoint(p);
+		}
+	}
+
+	/**
+	 * Adds a polygon.
+	 * @param poly {@link Polygon}
+	 */
+	private void addPolygon(Polygon poly)
+	{
+		addPoints(poly.getOuterRing().getCoordinates());
+		endRing();
+		for (LinearRing ring : poly.getRings())
+		{
+			addPoints(ring.getCoordinates());
+			endRing();
+		}
+		if (type == GeometryType.MULTIPOLYGON)
+		{
+			endPart();
+		}
+	}
+
+	/**
+	 * Builds the batch. The builder can still be used afterwards.
+	 * @return {@link GeometryBatch}
+	 */
+	public GeometryBatch build()
+	{
+		double[][] data;
+		if (layout == CoordinateLayout.INTERLEAVED)
+		{
+			data = new double[][] { Arrays.copyOf(coordinates, numCoordinates * dimension) };
+		}
+		else
+		{
+			data = new double[dimension][numCoordinates];
+			for (int i = 0, j = 0; i < numCoordinates; i++)
+			{
+				for (int d = 0; d < dimension; d++)
+				{
+					data[d][i] = coordinates[j++];
+				}
+			}
+		}
+		// points do not need any offsets
+		int[] geoms = (type == GeometryType.POINT) ? GeometryBatch.noOffsets()
+				: Arrays.copyOf(geometryOffsets, numGeometries + 1);
+		int[] parts = ((type == GeometryType.MULTILINESTRING) || (type == GeometryType.MULTIPOLYGON))
+				? Arrays.copyOf(partOffsets, numParts + 1) : GeometryBatch.noOffsets();
+		int[] rings = ((type == GeometryType.POLYGON) || (type == GeometryType.MULTIPOLYGON))
+				? Arrays.copyOf(ringOffsets, numRings + 1) : GeometryBatch.noOffsets();
+		return new GeometryBatch(type, hasZ, hasM, srid, layout, data, numCoordinates, numGeometries, geoms, parts,
+				rings, nulls.isEmpty() ? null : (BitSet) nulls.clone());
+	}
+
+	/**
+	 * Checks and records the SRID of a geometry.
+	 * @param geomSrid SRID of the geometry
+	 * @throws IllegalArgumentException if the SRID differs from the one of previous geometries
+	 */
+	private void checkSrid(int geomSrid)
+	{
+		if (geomSrid != Geometry.UNKNOWN_SRID)
+		{
+			if (srid == Geometry.UNKNOWN_SRID)
+			{
+				srid = geomSrid;
+			}
+			else if (srid != geomSrid)
+			{
+				throw new IllegalArgumentException("SRIDs cannot be mixed in a batch: " + srid + ", " + geomSrid);
+			}
+		}
+	}
+
+	/**
+	 * Checks if a geometry of the given type can be added.
+	 * @param t {@link GeometryType}
+	 * @throws IllegalArgumentException if the type does not match the type of this batch
+	 */
+	private void checkType(GeometryType t)
+	{
+		if ((t != type) && (toMulti(t) != type))
+		{
+			throw new IllegalArgumentException("Geometry type " + t + " does not match batch type " + type);
+		}
+	}
+
+	/**
+	 * Finishes the current geometry.
+	 */
+	private void endGeometry()
+	{
+		numGeometries++;
+		int value;
+		switch (type)
+		{
+			case POINT:
+				// no offsets
+				return;
+			case POLYGON:
+				value = numRings;
+				break;
+			case MULTILINESTRING:
+			case MULTIPOLYGON:
+				value = numParts;
+				break;
+			default:
+				value = numCoordinates;
+				break;
+		}
+		geometryOffsets = appendOffset(geometryOffsets, numGeometries, value);
+	}
+
+	/**
+	 * Finishes the current part.
+	 */
+	private void endPart()
+	{
+		numParts++;
+		partOffsets = appendOffset(partOffsets, numParts,
+				(type == GeometryType.MULTIPOLYGON) ? numRings : numCoordinates);
+	}
+
+	/**
+	 * Finishes the current ring.
+	 */
+	private void endRing()
+	{
+		numRings++;
+		ringOffsets = appendOffset(ringOffsets, numRings, numCoordinates);
+	}
+
+	/**
+	 * Gets the geometry type.
+	 * @return geometry type
+	 */
+	public GeometryType getGeometryType()
+	{
+		return type;
+	}
+
+	/**
+	 * Reads a single coordinate.
+	 * @param data {@link ValueGetter}
+	 * @param haveZ read z value?
+	 * @param haveM read measure value?
+	 */
+	private void readCoordinate(ValueGetter data, boolean haveZ, boolean haveM)
+	{
+		double x = data.getDouble();
+		double y = data.getDouble();
+		double z = haveZ ? data.getDouble() : Double.NaN;
+		double m = haveM ? data.getDouble() : Double.NaN;
+		addCoordinate(x, y, z, m);
+	}
+
+	/**
+	 * Reads a number of coordinates.
+	 * @param data {@link ValueGetter}
+	 * @param haveZ read z value?
+	 * @param haveM read measure value?
+	 */
+	private void readCoordinates(ValueGetter data, boolean haveZ, boolean haveM)
+	{
+		int count = data.getInt();
+		for (int i = 0; i < count; i++)
+		{
+			readCoordinate(data, haveZ, haveM);
+		}
+	}
+
+	/**
+	 * Reads a geometry and adds its coordinates and parts. The geometry itself is not finished.
+	 * @param data {@link ValueGetter}
+	 * @param expected expected type for elements of a multi geometry (null for the geometry itself)
+	 * @throws IllegalArgumentException if the geometry does not match the type of this batch or the SRID differs
+	 */
+	private void readGeometry(ValueGetter data, @Nullable GeometryType expected)
+	{
+		// read endian flag
+		data.readEncoding();
+		// and get the type
+		int typeword = data.getInt();
+		int geometryType = BinaryParser.getGeometryType(typeword);
+		boolean haveZ = BinaryParser.hasZ(typeword);
+		boolean haveM = BinaryParser.hasM(typeword);
+		boolean haveS = (typeword & 0x20000000) != 0;
+		if (haveS)
+		{
+			int geomSrid = data.getInt();
+			checkSrid(geomSrid < 0 ? Geometry.UNKNOWN_SRID : geomSrid);
+		}
+		GeometryType t;
+		switch (geometryType)
+		{
+			case Point.TYPE:
+				t = GeometryType.POINT;
+				break;
+			case LineString.TYPE:
+				t = GeometryType.LINESTRING;
+				break;
+			case Polygon.TYPE:
+				t = GeometryType.POLYGON;
+				break;
+			case MultiPoint.TYPE:
+				t = GeometryType.MULTIPOINT;
+				break;
+			case MultiLineString.TYPE:
+				t = GeometryType.MULTILINESTRING;
+				break;
+			case MultiPolygon.TYPE:
+				t = GeometryType.MULTIPOLYGON;
+				break;
+			default:
+				throw new IllegalArgumentException("Unsupported geometry type: " + geometryType);
+		}
+		if (expected != null)
+		{
+			if (t != expected)
+			{
+				throw new IllegalArgumentException("Unexpected geometry type " + t + " in a multi geometry");
+			}
+		}
+		else
+		{
+			checkType(t);
+		}
+		switch (t)
+		{
+			case POINT:
+				readCoordinate(data, haveZ, haveM);
+				break;
+			case LINESTRING:
+				readCoordinates(data, haveZ, haveM);
+				if (type == GeometryType.MULTILINESTRING)
+				{
+					endPart();
+				}
+				break;
+			case POLYGON:
+			{
+				int count = data.getInt();
+				for (int i = 0; i < count; i++)
+				{
+					readCoordinates(data, haveZ, haveM);
+					endRing();
+				}
+				if (type == GeometryType.MULTIPOLYGON)
+				{
+					endPart();
+				}
+			}
+				break;
+			case MULTIPOINT:
+			case MULTILINESTRING:
+			case MULTIPOLYGON:
+			{
+				GeometryType elementType = (t == GeometryType.MULTIPOINT) ? GeometryType.POINT
+						: (t == GeometryType.MULTILINESTRING) ? GeometryType.LINESTRING : GeometryType.POLYGON;
+				int count = data.getInt();
+				for (int i = 0; i < count; i++)
+				{
+					readGeometry(data, elementType);
+				}
+			}
+				break;
+			default:
+				throw new IllegalStateException("Unknown geometry type: " + t);
+		}
+	}
+
+	/**
+	 * Discards everything added after the given state, so a geometry that failed to be added leaves no trace.
+	 * @param oldCoordinates previous number of coordinates
+	 * @param oldParts previous number of parts
+	 * @param oldRings previous number of rings
+	 * @param oldSrid previous SRID
+	 */
+	private void rollback(int oldCoordinates, int oldParts, int oldRings, int oldSrid)
+	{
+		numCoordinates = oldCoordinates;
+		numParts = oldParts;
+		numRings = oldRings;
+		srid = oldSrid;
+	}
+
+	/**
+	 * Gets the number of geometries added so far.
+	 * @return number of geometries
+	 */
+	public int size()
+	{
+		return numGeometries;
+	}
+
+}
@@ -0,0 +1,6 @@
+/**
+ * Columnar representation of geometries following the GeoArrow native memory layout.
+ * @author Sebastian Baumhekel
+ */
+@org.eclipse.jdt.annotation.NonNullByDefault
+package io.github.sebasbaumh.postgis.columnar;
@@ -0,0 +1,814 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.geojson;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.GeometryCollection;
+import io.github.sebasbaumh.postgis.LineString;
+import io.github.sebasbaumh.postgis.LinearRing;
+import io.github.sebasbaumh.postgis.MultiLineString;
+import io.github.sebasbaumh.postgis.MultiPoint;
+import io.github.sebasbaumh.postgis.MultiPolygon;
+import io.github.sebasbaumh.postgis.Point;
+import io.github.sebasbaumh.postgis.Polygon;
+import io.github.sebasbaumh.postgis.PostGisUtil;
+
+/**
+ * A pull reader for GeoJSON (RFC 7946). Every call to {@link #read()} returns the next geometry of the input, which
+ * can be a geometry object, a feature, a feature collection, an array of those or a sequence of them (e.g. newline
+ * delimited GeoJSON or GeoJSON text sequences). Features of a feature collection are read one at a time, so large
+ * collections are never held in memory completely. Members other than the geometry are skipped and features without
+ * a geometry are ignored. Instances are not thread-safe.
+ * @author Sebastian Baumhekel
+ */
+public final class GeoJsonReader implements Closeable
+{
+	/**
+	 * Geometry types supported by GeoJSON.
+	 */
+	private static final int[] GEOMETRY_TYPES = new int[] { Point.TYPE, LineString.TYPE, Polygon.TYPE, MultiPoint.TYPE,
+			MultiLineString.TYPE, MultiPolygon.TYPE, GeometryCollection.TYPE };
+	/**
+	 * Type code for a feature.
+	 */
+	private static final int TYPE_FEATURE = -2;
+	/**
+	 * Type code for a feature collection.
+	 */
+	private static final int TYPE_FEATURE_COLLECTION = -3;
+	/**
+	 * Type code for a missing type.
+	 */
+	private static final int TYPE_UNKNOWN = -1;
+
+	/**
+	 * Arrays of items that are currently read.
+	 */
+	private final ArrayDeque<ItemArray> arrays = new ArrayDeque<ItemArray>();
+	/**
+	 * Input buffer.
+	 */
+	private final char[] buffer = new char[8192];
+	/**
+	 * Number of valid characters in the input buffer.
+	 */
+	private int bufferLength;
+	/**
+	 * Current position in the input buffer.
+	 */
+	private int bufferPos;
+	/**
+	 * Input.
+	 */
+	private final Reader reader;
+	/**
+	 * Buffer for names and numbers.
+	 */
+	private final StringBuilder scratch = new StringBuilder();
+
+	/**
+	 * Constructs an instance.
+	 * @param reader input
+	 */
+	public GeoJsonReader(Reader reader)
+	{
+		this.reader = reader;
+	}
+
+	/**
+	 * Parses a single geometry given as GeoJSON.
+	 * @param value GeoJSON
+	 * @return {@link Geometry}
+	 * @throws IllegalArgumentException if the value is not valid GeoJSON or does not contain a geometry
+	 */
+	public static Geometry parse(String value)
+	{
+		try (GeoJsonReader reader = new GeoJsonReader(new StringReader(value)))
+		{
+			Geometry geom = reader.read();
+			if (geom == null)
+			{
+				throw new IllegalArgumentException("No geometry found");
+			}
+			return geom;
+		}
+		catch (IOException ex)
+		{
+			// should not happen for a StringReader
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Gets a list from parsed coordinates.
+	 * @param coords coordinates
+	 * @return list
+	 * @throws IllegalArgumentException if the coordinates are not a list
+	 */
+	@SuppressWarnings("unchecked")
+	private static ArrayList<Object> asList(@Nullable Object coords)
+	{
+		if (coords instanceof ArrayList)
+		{
+			return (ArrayList<Object>) coords;
+		}
+		throw new IllegalArgumentException("Invalid coordinates");
+	}
+
+	/**
+	 * Creates a {@link Point} from a position.
+	 * @param position position
+	 * @return {@link Point}
+	 * @throws IllegalArgumentException if the position is invalid
+	 */
+	private static Point createPoint(@Nullable Object position)
+	{
+		if (position instanceof double[] ordinates)
+		{
+			switch (ordinates.length)
+			{
+				case 2:
+					return new Point(ordinates[0], ordinates[1]);
+				case 3:
+					return new Point(ordinates[0], ordinates[1], ordinates[2]);
+				default:
+					if (ordinates.length >= 4)
+					{
+						return new Point(ordinates[0], ordinates[1], ordinates[2], ordinates[3]);
+					}
+			}
+		}
+		else if ((position instanceof ArrayList<?> l) && l.isEmpty())
+		{
+			// empty point
+			return new Point();
+		}
+		throw new IllegalArgumentException("Invalid position");
+	}
+
+	/**
+	 * Creates {@link Point}s from a list of positions.
+	 * @param positions positions
+	 * @return {@link Point}s
+	 */
+	private static ArrayList<Point> createPoints(@Nullable Object positions)
+	{
+		ArrayList<Object> l = asList(positions);
+		ArrayList<Point> points = new ArrayList<Point>(l.size());
+		for (Object position : l)
+		{
+			points.add(createPoint(position));
+		}
+		return points;
+	}
+
+	/**
+	 * Creates a {@link Polygon} from a list of rings.
+	 * @param rings rings
+	 * @return {@link Polygon}
+	 */
+	private static Polygon createPolygon(@Nullable Object rings)
+	{
+		ArrayList<Object> l = asList(rings);
+		ArrayList<LinearRing> polyRings = new ArrayList<LinearRing>(l.size());
+		for (Object ring : l)
+		{
+			polyRings.add(new LinearRing(createPoints(ring)));
+		}
+		return new Polygon(polyRings);
+	}
+
+	/**
+	 * Creates a geometry.
+	 * @param type geometry type
+	 * @param coords coordinates (can be null)
+	 * @param geometries geometries of a geometry collection (can be null)
+	 * @return {@link Geometry}
+	 * @throws IllegalArgumentException if the geometry is invalid
+	 */
+	private static Geometry createGeometry(int type, @Nullable Object coords, @Nullable ArrayList<Geometry> geometries)
+	{
+		if (type == GeometryCollection.TYPE)
+		{
+			if (geometries == null)
+			{
+				throw new IllegalArgumentException("Missing geometries");
+			}
+			return new GeometryCollection(geometries);
+		}
+		if (coords == null)
+		{
+			throw new IllegalArgumentException("Missing coordinates");
+		}
+		switch (type)
+		{
+			case Point.TYPE:
+				return createPoint(coords);
+			case LineString.TYPE:
+				return new LineString(createPoints(coords));
+			case Polygon.TYPE:
+				return createPolygon(coords);
+			case MultiPoint.TYPE:
+				return new MultiPoint(createPoints(coords));
+			case MultiLineString.TYPE:
+			{
+				ArrayList<Object> l = asList(coords);
+				ArrayList<LineString> lines = new ArrayList<LineString>(l.size());
+				for (Object line : l)
+				{
+					lines.add(new LineString(createPoints(line)));
+				}
+				return new MultiLineString(lines);
+			}
+			case MultiPolygon.TYPE:
+			{
+				ArrayList<Object> l = asList(coords);
+				ArrayList<Polygon> polys = new ArrayList<Polygon>(l.size());
+				for (Object poly : l)
+				{
+					polys.add(createPolygon(poly));
+				}
+				return new MultiPolygon(polys);
+			}
+			default:
+				throw new IllegalArgumentException("Unknown Geometry Type: " + type);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		reader.close();
+	}
+
+	/**
+	 * Expects the given character as the next non-whitespace character and consumes it.
+	 * @param c character
+	 * @throws IOException if reading fails
+	 * @throws IllegalArgumentException if the next character is a different one
+	 */
+	private void expect(char c) throws IOException
+	{
+		if (nextNonWhitespace() != c)
+		{
+			throw new IllegalArgumentException("Expected '" + c + "'");
+		}
+	}
+
+	/**
+	 * Expects the given literal and consumes it.
+	 * @param literal literal
+	 * @throws IOException if reading fails
+	 * @throws IllegalArgumentException if the input does not match
+	 */
+	private void expectLiteral(String literal) throws IOException
+	{
+		for (int i = 0; i < literal.length(); i++)
+		{
+			if (nextChar() != literal.charAt(i))
+			{
+				throw new IllegalArgumentException("Expected '" + literal + "'");
+			}
+		}
+	}
+
+	/**
+	 * Skips the remaining members of an object.
+	 * @throws IOException if reading fails
+	 */
+	private void finishObject() throws IOException
+	{
+		int c;
+		while ((c = nextNonWhitespace()) != '}')
+		{
+			if (c != ',')
+			{
+				throw new IllegalArgumentException("Expected ',' or '}'");
+			}
+			expect('"');
+			readString();
+			expect(':');
+			skipValue();
+		}
+	}
+
+	/**
+	 * Gets the type code for the type name in the scratch buffer.
+	 * @return type code
+	 * @throws IllegalArgumentException for unknown types
+	 */
+	private int getTypeCode()
+	{
+		for (int type : GEOMETRY_TYPES)
+		{
+			if (GeoJsonWriter.getTypeName(type).contentEquals(scratch))
+			{
+				return type;
+			}
+		}
+		if ("Feature".contentEquals(scratch))
+		{
+			return TYPE_FEATURE;
+		}
+		if ("FeatureCollection".contentEquals(scratch))
+		{
+			return TYPE_FEATURE_COLLECTION;
+		}
+		throw new IllegalArgumentException("Unknown GeoJSON type: " + scratch);
+	}
+
+	/**
+	 * Checks if the given character is whitespace (including the record separator of GeoJSON text sequences).
+	 * @param c character
+	 * @return true on success, else false
+	 */
+	private static boolean isWhitespace(int c)
+	{
+		return (c == ' ') || (c == '\n') || (c == '\r') || (c == '\t') || (c == 0x1E);
+	}
+
+	/**
+	 * Reads the next non-whitespace character.
+	 * @return character or -1 at the end of the input
+	 * @throws IOException if reading fails
+	 */
+	private int nextNonWhitespace() throws IOException
+	{
+		int c;
+		do
+		{
+			c = nextChar();
+		}
+		while (isWhitespace(c));
+		return c;
+	}
+
+	/**
+	 * Parses coordinates, so either a position or a (nested) list of positions.
+	 * @return position as double array or list of coordinates
+	 * @throws IOException if reading fails
+	 */
+	private Object parseCoordinates() throws IOException
+	{
+		expect('[');
+		skipWhitespace();
+		int c = peek();
+		if (c == ']')
+		{
+			nextChar();
+			return new ArrayList<Object>(0);
+		}
+		if (c == '[')
+		{
+			ArrayList<Object> l = new ArrayList<Object>();
+			do
+			{
+				l.add(parseCoordinates());
+				c = nextNonWhitespace();
+			}
+			while (c == ',');
+			if (c != ']')
+			{
+				throw new IllegalArgumentException("Expected ',' or ']'");
+			}
+			return l;
+		}
+		// position
+		double[] position = new double[4];
+		int n = 0;
+		do
+		{
+			if (n == position.length)
+			{
+				position = Arrays.copyOf(position, n * 2);
+			}
+			position[n++] = parseNumber();
+			c = nextNonWhitespace();
+		}
+		while (c == ',');
+		if (c != ']')
+		{
+			throw new IllegalArgumentException("Expected ',' or ']'");
+		}
+		return (n == position.length) ? position : Arrays.copyOf(position, n);
+	}
+
+	/**
+	 * Parses the geometries of a geometry collection.
+	 * @return geometries
+	 * @throws IOException if reading fails
+	 */
+	private ArrayList<Geometry> parseGeometries() throws IOException
+	{
+		ArrayList<Geometry> l = new ArrayList<Geometry>();
+		expect('[');
+		int c = nextNonWhitespace();
+		while (c != ']')
+		{
+			if (!l.isEmpty())
+			{
+				if (c != ',')
+				{
+					throw new IllegalArgumentException("Expected ',' or ']'");
+				}
+				c = nextNonWhitespace();
+			}
+			if (c != '{')
+			{
+				throw new IllegalArgumentException("Expected '{'");
+			}
+			Geometry geom = parseObject(false);
+			if (geom == null)
+			{
+				throw new IllegalArgumentException("Expected a geometry");
+			}
+			l.add(geom);
+			c = nextNonWhitespace();
+		}
+		return l;
+	}
+
+	/**
+	 * Parses a geometry that can also be null.
+	 * @return {@link Geometry} or null
+	 * @throws IOException if reading fails
+	 */
+	@Nullable
+	private Geometry parseNullableGeometry() throws IOException
+	{
+		int c = nextNonWhitespace();
+		if (c == 'n')
+		{
+			expectLiteral("ull");
+			return null;
+		}
+		if (c != '{')
+		{
+			throw new IllegalArgumentException("Expected '{'");
+		}
+		return parseObject(false);
+	}
+
+	/**
+	 * Parses a number.
+	 * @return number
+	 * @throws IOException if reading fails
+	 */
+	private double parseNumber() throws IOException
+	{
+		skipWhitespace();
+		scratch.setLength(0);
+		int c;
+		while (((c = peek()) >= 0) && (((c >= '0') && (c <= '9')) || (c == '-') || (c == '+') || (c == '.')
+				|| (c == 'e') || (c == 'E')))
+		{
+			scratch.append((char) nextChar());
+		}
+		try
+		{
+			return PostGisUtil.parseDouble(scratch, 0, scratch.length());
+		}
+		catch (NumberFormatException ex)
+		{
+			throw new IllegalArgumentException("Expected a number", ex);
+		}
+	}
+
+	/**
+	 * Parses an object after its opening bracket.
+	 * @param streaming allow streaming the features of a feature collection?
+	 * @return {@link Geometry} or null for a feature without a geometry or a feature collection
+	 * @throws IOException if reading fails
+	 */
+	@Nullable
+	private Geometry parseObject(boolean streaming) throws IOException
+	{
+		int type = TYPE_UNKNOWN;
+		Object coords = null;
+		ArrayList<Geometry> geometries = null;
+		Geometry geometry = null;
+		boolean first = true;
+		int c;
+		while ((c = nextNonWhitespace()) != '}')
+		{
+			if (!first)
+			{
+				if (c != ',')
+				{
+					throw new IllegalArgumentException("Expected ',' or '}'");
+				}
+				c = nextNonWhitespace();
+			}
+			first = false;
+			if (c != '"')
+			{
+				throw new IllegalArgumentException("Expected a member name");
+			}
+			readString();
+			expect(':');
+			if ("type".contentEquals(scratch))
+			{
+				expect('"');
+				readString();
+				type = getTypeCode();
+			}
+			else if ("coordinates".contentEquals(scratch))
+			{
+				coords = parseCoordinates();
+			}
+			else if ("geometries".contentEquals(scratch))
+			{
+				geometries = parseGeometries();
+			}
+			else if ("geometry".contentEquals(scratch))
+			{
+				geometry = parseNullableGeometry();
+			}
+			else if (streaming && "features".contentEquals(scratch))
+			{
+				// the features are read one by one, the rest of the object is skipped afterwards
+				expect('[');
+				arrays.push(new ItemArray(true));
+				return null;
+			}
+			else
+			{
+				skipValue();
+			}
+		}
+		switch (type)
+		{
+			case TYPE_FEATURE:
+				return geometry;
+			case TYPE_FEATURE_COLLECTION:
+				return null;
+			case TYPE_UNKNOWN:
+				throw new IllegalArgumentException("Missing type");
+			default:
+				return createGeometry(type, coords, geometries);
+		}
+	}
+
+	/**
+	 * Gets the next character without consuming it.
+	 * @return character or -1 at the end of the input
+	 * @throws IOException if reading fails
+	 */
+	private int peek() throws IOException
+	{
+		if (bufferPos >= bufferLength)
+		{
+			bufferLength = reader.read(buffer);
+			bufferPos = 0;
+			if (bufferLength <= 0)
+			{
+				bufferLength = 0;
+				return -1;
+			}
+		}
+		return buffer[bufferPos];
+	}
+
+	/**
+	 * Reads the next character.
+	 * @return character or -1 at the end of the input
+	 * @throws IOException if reading fails
+	 */
+	private int nextChar() throws IOException
+	{
+		int c = peek();
+		if (c >= 0)
+		{
+			bufferPos++;
+		}
+		return c;
+	}
+
+	/**
+	 * Reads the next geometry.
+	 * @return {@link Geometry} or null at the end of the input
+	 * @throws IOException if reading fails
+	 * @throws IllegalArgumentException if the input is not valid GeoJSON
+	 */
+	@Nullable
+	public Geometry read() throws IOException
+	{
+		while (true)
+		{
+			ItemArray array = arrays.peek();
+			int c = nextNonWhitespace();
+			if (array == null)
+			{
+				if (c < 0)
+				{
+					return null;
+				}
+				if (c == '[')
+				{
+					arrays.push(new ItemArray(false));
+					continue;
+				}
+			}
+			else
+			{
+				if (c == ']')
+				{
+					arrays.pop();
+					if (array.owned)
+					{
+						finishObject();
+					}
+					continue;
+				}
+				if (!array.first)
+				{
+					if (c != ',')
+					{
+						throw new IllegalArgumentException("Expected ',' or ']'");
+					}
+					c = nextNonWhitespace();
+				}
+				array.first = false;
+			}
+			if (c != '{')
+			{
+				throw new IllegalArgumentException("Expected '{'");
+			}
+			Geometry geom = parseObject(true);
+			if (geom != null)
+			{
+				return geom;
+			}
+		}
+	}
+
+	/**
+	 * Reads a string after its opening quote into the scratch buffer.
+	 * @throws IOException if reading fails
+	 */
+	private void readString() throws IOException
+	{
+		scratch.setLength(0);
+		int c;
+		while ((c = nextChar()) != '"')
+		{
+			if (c < 0)
+			{
+				throw new IllegalArgumentException("Unterminated string");
+			}
+			if (c == '\\')
+			{
+				c = nextChar();
+				switch (c)
+				{
+					case 'b':
+						c = '\b';
+						break;
+					case 'f':
+						c = '\f';
+						break;
+					case 'n':
+						c = '\n';
+						break;
+					case 'r':
+						c = '\r';
+						break;
+					case 't':
+						c = '\t';
+						break;
+					case 'u':
+					{
+						int code = 0;
+						for (int i = 0; i < 4; i++)
+						{
+							code = (code << 4) | PostGisUtil.toHexByte((char) nextChar());
+						}
+						c = code;
+					}
+						break;
+					default:
+						// '"', '\\' and '/' stand for themselves
+						break;
+				}
+			}
+			scratch.append((char) c);
+		}
+	}
+
+	/**
+	 * Skips a value of any type.
+	 * @throws IOException if reading fails
+	 */
+	private void skipValue() throws IOException
+	{
+		int c = nextNonWhitespace();
+		if (c == '"')
+		{
+			readString();
+		}
+		else if ((c == '{') || (c == '['))
+		{
+			int depth = 1;
+			while (depth > 0)
+			{
+				c = nextChar();
+				if (c < 0)
+				{
+					throw new IllegalArgumentException("Unexpected end of input");
+				}
+				if (c == '"')
+				{
+					readString();
+				}
+				else if ((c == '{') || (c == '['))
+				{
+					depth++;
+				}
+				else if ((c == '}') || (c == ']'))
+				{
+					depth--;
+				}
+			}
+		}
+		else
+		{
+			// number or literal
+			while (((c = peek()) >= 0) && (c != ',') && (c != '}') && (c != ']') && !isWhitespace(c))
+			{
+				nextChar();
+			}
+		}
+	}
+
+	/**
+	 * Skips whitespace.
+	 * @throws IOException if reading fails
+	 */
+	private void skipWhitespace() throws IOException
+	{
+		while (isWhitespace(peek()))
+		{
+			nextChar();
+		}
+	}
+
+	/**
+	 * An array of items (geometries, features or feature collections) that is currently read.
+	 */
+	private static final class ItemArray
+	{
+		/**
+		 * Is the array the value of a member of an object, whose remaining members have to be skipped?
+		 */
+		final boolean owned;
+		/**
+		 * Is the next item the first one?
+		 */
+		boolean first = true;
+
+		/**
+		 * Constructs an instance.
+		 * @param owned is the array the value of a member of an object?
+		 */
+		ItemArray(boolean owned)
+		{
+			this.owned = owned;
+		}
+	}
+
+}
@@ -0,0 +1,618 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.geojson;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import javax.annotation.Nullable;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.GeometryCollection;
+import io.github.sebasbaumh.postgis.LineString;
+import io.github.sebasbaumh.postgis.MultiLineString;
+import io.github.sebasbaumh.postgis.MultiPoint;
+import io.github.sebasbaumh.postgis.MultiPolygon;
+import io.github.sebasbaumh.postgis.Point;
+import io.github.sebasbaumh.postgis.Polygon;
+import io.github.sebasbaumh.postgis.PostGisUtil;
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryValueGetter;
+import io.github.sebasbaumh.postgis.binary.StringValueGetter;
+import io.github.sebasbaumh.postgis.binary.ValueGetter;
+
+/**
+ * A streaming writer for GeoJSON geometry objects (RFC 7946). Output is collected in an internal buffer and handed to
+ * the underlying {@link Appendable} or {@link OutputStream} in chunks, so no intermediate objects are built and
+ * coordinates are never boxed. Geometries can also be transcoded directly from (E)WKB without creating any
+ * {@link Point}s.
+ * <p>
+ * GeoJSON only supports points, line strings, polygons, their multi variants and geometry collections. Curved
+ * geometries are rejected, measures are dropped and the SRID is not written as RFC 7946 expects WGS 84 coordinates.
+ * Instances are not thread-safe.
+ * @author Sebastian Baumhekel
+ */
+public final class GeoJsonWriter implements Flushable
+{
+	/**
+	 * Size of the internal buffer before it is written to the output.
+	 */
+	private static final int FLUSH_SIZE = 8192;
+
+	/**
+	 * Output (null if there is only the internal buffer).
+	 */
+	@Nullable
+	private final Appendable out;
+	/**
+	 * Output stream (null if there is only the internal buffer).
+	 */
+	@Nullable
+	private final OutputStream os;
+	/**
+	 * Buffer for converting characters to bytes.
+	 */
+	@Nullable
+	private byte[] bytes;
+	/**
+	 * Internal buffer.
+	 */
+	private final StringBuilder sb = new StringBuilder(FLUSH_SIZE + 256);
+
+	/**
+	 * Constructs an instance writing to an internal buffer only.
+	 */
+	private GeoJsonWriter()
+	{
+		this.out = null;
+		this.os = null;
+	}
+
+	/**
+	 * Constructs an instance.
+	 * @param out output
+	 */
+	public GeoJsonWriter(Appendable out)
+	{
+		this.out = out;
+		this.os = null;
+	}
+
+	/**
+	 * Constructs an instance. As GeoJSON of geometries only contains ASCII characters, the output is valid UTF-8.
+	 * @param os output stream
+	 */
+	public GeoJsonWriter(OutputStream os)
+	{
+		this.out = null;
+		this.os = os;
+	}
+
+	/**
+	 * Converts a geometry to GeoJSON.
+	 * @param geom {@link Geometry}
+	 * @return GeoJSON
+	 * @throws IllegalArgumentException if the geometry cannot be represented as GeoJSON
+	 */
+	public static String toGeoJson(Geometry geom)
+	{
+		GeoJsonWriter writer = new GeoJsonWriter();
+		writer.writeGeometry(geom);
+		return writer.sb.toString();
+	}
+
+	/**
+	 * Converts a geometry given as (E)WKB to GeoJSON without creating any geometry objects.
+	 * @param value binary value
+	 * @param offset offset of the geometry in the given value
+	 * @return GeoJSON
+	 * @throws IllegalArgumentException if the geometry cannot be represented as GeoJSON
+	 */
+	public static String toGeoJson(byte[] value, int offset)
+	{
+		GeoJsonWriter writer = new GeoJsonWriter();
+		writer.writeEwkb(new BinaryValueGetter(value, offset));
+		return writer.sb.toString();
+	}
+
+	/**
+	 * Converts a geometry given as hex encoded (E)WKB to GeoJSON without creating any geometry objects.
+	 * @param value hex encoded (E)WKB
+	 * @return GeoJSON
+	 * @throws IllegalArgumentException if the geometry cannot be represented as GeoJSON
+	 */
+	public static String toGeoJson(String value)
+	{
+		GeoJsonWriter writer = new GeoJsonWriter();
+		writer.writeEwkb(new StringValueGetter(value));
+		return writer.sb.toString();
+	}
+
+	/**
+	 * Writes a coordinate value.
+	 * @param d value
+	 * @throws IllegalArgumentException if the value is not finite
+	 */
+	private void appendCoordinate(double d)
+	{
+		if (!Double.isFinite(d))
+		{
+			throw new IllegalArgumentException("Invalid coordinate for GeoJSON: " + d);
+		}
+		PostGisUtil.appendDouble(sb, d);
+	}
+
+	/**
+	 * Writes a position.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @param z z coordinate (only written if it is not {@link Double#NaN})
+	 */
+	private void appendPosition(double x, double y, double z)
+	{
+		// an empty point has no position
+		if (Double.isNaN(x) && Double.isNaN(y))
+		{
+			sb.append("[]");
+			return;
+		}
+		sb.append('[');
+		appendCoordinate(x);
+		sb.append(',');
+		appendCoordinate(y);
+		if (!Double.isNaN(z))
+		{
+			sb.append(',');
+			appendCoordinate(z);
+		}
+		sb.append(']');
+	}
+
+	/**
+	 * Writes the start of a geometry object.
+	 * @param type GeoJSON type
+	 * @param member name of the member holding the content
+	 */
+	private void beginGeometry(String type, String member)
+	{
+		sb.append("{\"type\":\"").append(type).append("\",\"").append(member).append("\":");
+	}
+
+	/**
+	 * Writes the internal buffer to the output if it is full.
+	 */
+	private void checkFlush()
+	{
+		if (sb.length() >= FLUSH_SIZE)
+		{
+			flushBuffer();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.Flushable#flush()
+	 */
+	@Override
+	public void flush() throws IOException
+	{
+		try
+		{
+			flushBuffer();
+		}
+		catch (UncheckedIOException ex)
+		{
+			throw ex.getCause();
+		}
+		if (out instanceof Flushable f)
+		{
+			f.flush();
+		}
+		else if (os != null)
+		{
+			os.flush();
+		}
+	}
+
+	/**
+	 * Writes the internal buffer to the output.
+	 * @throws UncheckedIOException if writing fails
+	 */
+	private void flushBuffer()
+	{
+		try
+		{
+			Appendable a = this.out;
+			OutputStream s = this.os;
+			if (a != null)
+			{
+				a.append(sb);
+			}
+			else if (s != null)
+			{
+				int len = sb.length();
+				byte[] buf = this.bytes;
+				if ((buf == null) || (buf.length < len))
+				{
+					buf = new byte[Math.max(len, FLUSH_SIZE + 256)];
+					this.bytes = buf;
+				}
+				for (int i = 0; i < len; i++)
+				{
+					buf[i] = (byte) sb.charAt(i);
+				}
+				s.write(buf, 0, len);
+			}
+			else
+			{
+				// only the internal buffer is used
+				return;
+			}
+			sb.setLength(0);
+		}
+		catch (IOException ex)
+		{
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Writes a geometry as a GeoJSON geometry object.
+	 * @param geom {@link Geometry}
+	 * @throws IOException if writing fails
+	 * @throws IllegalArgumentException if the geometry cannot be represented as GeoJSON
+	 */
+	public void write(Geometry geom) throws IOException
+	{
+		try
+		{
+			writeGeometry(geom);
+			checkFlush();
+		}
+		catch (UncheckedIOException ex)
+		{
+			throw ex.getCause();
+		}
+	}
+
+	/**
+	 * Writes a geometry given as (E)WKB as a GeoJSON geometry object without creating any geometry objects.
+	 * @param value binary value
+	 * @param offset offset of the geometry in the given value
+	 * @throws IOException if writing fails
+	 * @throws IllegalArgumentException if the geometry cannot be represented as GeoJSON
+	 */
+	public void writeBinary(byte[] value, int offset) throws IOException
+	{
+		try
+		{
+			writeEwkb(new BinaryValueGetter(value, offset));
+			checkFlush();
+		}
+		catch (UncheckedIOException ex)
+		{
+			throw ex.getCause();
+		}
+	}
+
+	/**
+	 * Writes the GeoJSON coordinates of a geometry given as (E)WKB.
+	 * @param data {@link ValueGetter}
+	 * @param geometryType geometry type
+	 * @param haveZ z coordinates given?
+	 * @param haveM measures given?
+	 * @throws IllegalArgumentException for unsupported geometry types
+	 */
+	private void writeEwkbCoordinates(ValueGetter data, int geometryType, boolean haveZ, boolean haveM)
+	{
+		switch (geometryType)
+		{
+			case Point.TYPE:
+				writeEwkbPosition(data, haveZ, haveM);
+				break;
+			case LineString.TYPE:
+				writeEwkbPositions(data, haveZ, haveM);
+				break;
+			case Polygon.TYPE:
+			{
+				int count = data.getInt();
+				sb.append('[');
+				for (int i = 0; i < count; i++)
+				{
+					if (i > 0)
+					{
+						sb.append(',');
+					}
+					writeEwkbPositions(data, haveZ, haveM);
+				}
+				sb.append(']');
+			}
+				break;
+			case MultiPoint.TYPE:
+			case MultiLineString.TYPE:
+			case MultiPolygon.TYPE:
+			{
+				int count = data.getInt();
+				sb.append('[');
+				for (int i = 0; i < count; i++)
+				{
+					if (i > 0)
+					{
+						sb.append(',');
+					}
+					// sub geometries have their own header
+					data.readEncoding();
+					int typeword = readTypeword(data);
+					writeEwkbCoordinates(data, BinaryParser.getGeometryType(typeword), haveZ, haveM);
+				}
+				sb.append(']');
+			}
+				break;
+			default:
+				throw new IllegalArgumentException("Geometry type is not supported by GeoJSON: " + geometryType);
+		}
+		checkFlush();
+	}
+
+	/**
+	 * Writes a geometry given as (E)WKB.
+	 * @param data {@link ValueGetter}
+	 * @throws IllegalArgumentException for unsupported geometry types
+	 */
+	private void writeEwkb(ValueGetter data)
+	{
+		// read endian flag
+		data.readEncoding();
+		int typeword = readTypeword(data);
+		int geometryType = BinaryParser.getGeometryType(typeword);
+		boolean haveZ = BinaryParser.hasZ(typeword);
+		boolean haveM = BinaryParser.hasM(typeword);
+		if (geometryType == GeometryCollection.TYPE)
+		{
+			beginGeometry("GeometryCollection", "geometries");
+			int count = data.getInt();
+			sb.append('[');
+			for (int i = 0; i < count; i++)
+			{
+				if (i > 0)
+				{
+					sb.append(',');
+				}
+				writeEwkb(data);
+			}
+			sb.append("]}");
+			return;
+		}
+		beginGeometry(getTypeName(geometryType), "coordinates");
+		writeEwkbCoordinates(data, geometryType, haveZ, haveM);
+		sb.append('}');
+	}
+
+	/**
+	 * Writes a single position given as (E)WKB.
+	 * @param data {@link ValueGetter}
+	 * @param haveZ z coordinates given?
+	 * @param haveM measures given?
+	 */
+	private void writeEwkbPosition(ValueGetter data, boolean haveZ, boolean haveM)
+	{
+		double x = data.getDouble();
+		double y = data.getDouble();
+		double z = haveZ ? data.getDouble() : Double.NaN;
+		if (haveM)
+		{
+			// measures are not supported by GeoJSON
+			data.getDouble();
+		}
+		appendPosition(x, y, z);
+	}
+
+	/**
+	 * Writes a list of positions given as (E)WKB.
+	 * @param data {@link ValueGetter}
+	 * @param haveZ z coordinates given?
+	 * @param haveM measures given?
+	 */
+	private void writeEwkbPositions(ValueGetter data, boolean haveZ, boolean haveM)
+	{
+		int count = data.getInt();
+		sb.append('[');
+		for (int i = 0; i < count; i++)
+		{
+			if (i > 0)
+			{
+				sb.append(',');
+			}
+			writeEwkbPosition(data, haveZ, haveM);
+		}
+		sb.append(']');
+	}
+
+	/**
+	 * Writes a geometry.
+	 * @param geom {@link Geometry}
+	 * @throws IllegalArgumentException if the geometry cannot be represented as GeoJSON
+	 */
+	private void writeGeometry(Geometry geom)
+	{
+		if (geom.getType() == GeometryCollection.TYPE)
+		{
+			beginGeometry("GeometryCollection", "geometries");
+			sb.append('[');
+			boolean first = true;
+			for (Geometry g : (GeometryCollection) geom)
+			{
+				if (!first)
+				{
+					sb.append(',');
+				}
+				first = false;
+				writeGeometry(g);
+			}
+			sb.append("]}");
+			return;
+		}
+		beginGeometry(getTypeName(geom.getType()), "coordinates");
+		writeCoordinates(geom, geom.is3d());
+		sb.append('}');
+	}
+
+	/**
+	 * Writes the GeoJSON coordinates of a geometry.
+	 * @param geom {@link Geometry}
+	 * @param haveZ write z coordinates?
+	 */
+	private void writeCoordinates(Geometry geom, boolean haveZ)
+	{
+		switch (geom.getType())
+		{
+			case Point.TYPE:
+			{
+				Point p = (Point) geom;
+				appendPosition(p.getX(), p.getY(), haveZ ? p.getZ() : Double.NaN);
+			}
+				break;
+			case LineString.TYPE:
+				writePositions((LineString) geom, haveZ);
+				break;
+			case Polygon.TYPE:
+			{
+				Polygon poly = (Polygon) geom;
+				sb.append('[');
+				if (!poly.isEmpty())
+				{
+					writePositions(poly.getOuterRing(), haveZ);
+					for (LineString ring : poly.getRings())
+					{
+						sb.append(',');
+						writePositions(ring, haveZ);
+					}
+				}
+				sb.append(']');
+			}
+				break;
+			case MultiPoint.TYPE:
+				writeElements(((MultiPoint) geom).getGeometries(), haveZ);
+				break;
+			case MultiLineString.TYPE:
+				writeElements(((MultiLineString) geom).getGeometries(), haveZ);
+				break;
+			case MultiPolygon.TYPE:
+				writeElements(((MultiPolygon) geom).getGeometries(), haveZ);
+				break;
+			default:
+				throw new IllegalArgumentException("Geometry type is not supported by GeoJSON: " + geom.getType());
+		}
+		checkFlush();
+	}
+
+	/**
+	 * Writes the coordinates of the elements of a multi geometry.
+	 * @param geoms elements
+	 * @param haveZ write z coordinates?
+	 */
+	private void writeElements(Iterable<? extends Geometry> geoms, boolean haveZ)
+	{
+		sb.append('[');
+		boolean first = true;
+		for (Geometry geom : geoms)
+		{
+			if (!first)
+			{
+				sb.append(',');
+			}
+			first = false;
+			writeCoordinates(geom, haveZ);
+		}
+		sb.append(']');
+	}
+
+	/**
+	 * Writes the positions of a line.
+	 * @param ls {@link LineString}
+	 * @param haveZ write z coordinates?
+	 */
+	private void writePositions(LineString ls, boolean haveZ)
+	{
+		sb.append('[');
+		boolean first = true;
+		for (Point p : ls)
+		{
+			if (!first)
+			{
+				sb.append(',');
+			}
+			first = false;
+			appendPosition(p.getX(), p.getY(), haveZ ? p.getZ() : Double.NaN);
+		}
+		sb.append(']');
+	}
+
+	/**
+	 * Gets the GeoJSON type name of a geometry type.
+	 * @param geometryType geometry type
+	 * @return type name
+	 * @throws IllegalArgumentException for geometry types that are not supported by GeoJSON
+	 */
+	static String getTypeName(int geometryType)
+	{
+		switch (geometryType)
+		{
+			case Point.TYPE:
+				return "Point";
+			case LineString.TYPE:
+				return "LineString";
+			case Polygon.TYPE:
+				return "Polygon";
+			case MultiPoint.TYPE:
+				return "MultiPoint";
+			case MultiLineString.TYPE:
+				return "MultiLineString";
+			case MultiPolygon.TYPE:
+				return "MultiPolygon";
+			case GeometryCollection.TYPE:
+				return "GeometryCollection";
+			default:
+				throw new IllegalArgumentException("Geometry type is not supported by GeoJSON: " + geometryType);
+		}
+	}
+
+	/**
+	 * Reads the typeword of an (E)WKB geometry and skips the SRID.
+	 * @param data {@link ValueGetter}
+	 * @return typeword
+	 */
+	private static int readTypeword(ValueGetter data)
+	{
+		int typeword = data.getInt();
+		if ((typeword & 0x20000000) != 0)
+		{
+			// SRID is not part of GeoJSON
+			data.getInt();
+		}
+		return typeword;
+	}
+
+}
@@ -0,0 +1,6 @@
+/**
+ * Streaming reading and writing of geometries as GeoJSON (RFC 7946).
+ * @author Sebastian Baumhekel
+ */
+@org.eclipse.jdt.annotation.NonNullByDefault
+package io.github.sebasbaumh.postgis.geojson;
@@ -0,0 +1,825 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.mvt;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.LineString;
+import io.github.sebasbaumh.postgis.LinearRing;
+import io.github.sebasbaumh.postgis.MultiLineString;
+import io.github.sebasbaumh.postgis.MultiPoint;
+import io.github.sebasbaumh.postgis.MultiPolygon;
+import io.github.sebasbaumh.postgis.Point;
+import io.github.sebasbaumh.postgis.Polygon;
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryValueGetter;
+import io.github.sebasbaumh.postgis.binary.StringValueGetter;
+import io.github.sebasbaumh.postgis.binary.ValueGetter;
+
+/**
+ * Encodes geometries for a single Mapbox Vector Tile like PostGIS <code>ST_AsMVTGeom</code> followed by the geometry
+ * encoding of <code>ST_AsMVT</code>. Coordinates are transformed from the given tile bounds to the tile coordinate
+ * space (with the y axis pointing down), clipped to the tile extent plus a buffer, quantized to integers and encoded
+ * as zigzag command integers. Parts that become degenerate (e.g. rings collapsing to a line) are dropped and polygon
+ * rings are oriented as required by the specification. Geometries can be given as {@link Geometry} or directly as
+ * (E)WKB without creating geometry objects.
+ * <p>
+ * Instances reuse internal buffers and are not thread-safe.
+ * @author Sebastian Baumhekel
+ */
+public final class MvtEncoder
+{
+	/**
+	 * Command to close a ring.
+	 */
+	private static final int CMD_CLOSE_PATH = 7;
+	/**
+	 * Command for drawing lines.
+	 */
+	private static final int CMD_LINE_TO = 2;
+	/**
+	 * Command for moving the cursor.
+	 */
+	private static final int CMD_MOVE_TO = 1;
+	/**
+	 * Default buffer around the tile in tile coordinates.
+	 */
+	public static final int DEFAULT_BUFFER = 256;
+	/**
+	 * Default extent of a tile in tile coordinates.
+	 */
+	public static final int DEFAULT_EXTENT = 4096;
+
+	/**
+	 * Upper bound of the clip box in tile coordinates.
+	 */
+	private final double clipMax;
+	/**
+	 * Lower bound of the clip box in tile coordinates.
+	 */
+	private final double clipMin;
+	/**
+	 * Parameter of the start of the currently clipped segment.
+	 */
+	private double clipT0;
+	/**
+	 * Parameter of the end of the currently clipped segment.
+	 */
+	private double clipT1;
+	/**
+	 * Buffer for clipping.
+	 */
+	private double[] clipped = new double[256];
+	/**
+	 * Buffer for clipping.
+	 */
+	private double[] clippedTemp = new double[256];
+	/**
+	 * Encoded command integers.
+	 */
+	private int[] commands = new int[256];
+	/**
+	 * Number of command integers.
+	 */
+	private int commandsSize;
+	/**
+	 * Current x position of the cursor.
+	 */
+	private int cursorX;
+	/**
+	 * Current y position of the cursor.
+	 */
+	private int cursorY;
+	/**
+	 * Transformed coordinates of the current part.
+	 */
+	private double[] part = new double[256];
+	/**
+	 * Number of coordinates of the current part.
+	 */
+	private int partSize;
+	/**
+	 * Quantized coordinates.
+	 */
+	private int[] quantized = new int[256];
+	/**
+	 * Scale of x coordinates.
+	 */
+	private final double scaleX;
+	/**
+	 * Scale of y coordinates.
+	 */
+	private final double scaleY;
+	/**
+	 * Skip holes as the exterior ring of the current polygon was dropped?
+	 */
+	private boolean skipHoles;
+	/**
+	 * Minimum x coordinate of the tile bounds.
+	 */
+	private final double tileMinX;
+	/**
+	 * Maximum y coordinate of the tile bounds.
+	 */
+	private final double tileMaxY;
+	/**
+	 * Geometry type of the current geometry.
+	 */
+	private int type;
+
+	/**
+	 * Constructs an instance using the {@link #DEFAULT_EXTENT} and {@link #DEFAULT_BUFFER}.
+	 * @param minX minimum x coordinate of the tile bounds
+	 * @param minY minimum y coordinate of the tile bounds
+	 * @param maxX maximum x coordinate of the tile bounds
+	 * @param maxY maximum y coordinate of the tile bounds
+	 */
+	public MvtEncoder(double minX, double minY, double maxX, double maxY)
+	{
+		this(minX, minY, maxX, maxY, DEFAULT_EXTENT, DEFAULT_BUFFER);
+	}
+
+	/**
+	 * Constructs an instance.
+	 * @param minX minimum x coordinate of the tile bounds
+	 * @param minY minimum y coordinate of the tile bounds
+	 * @param maxX maximum x coordinate of the tile bounds
+	 * @param maxY maximum y coordinate of the tile bounds
+	 * @param extent extent of the tile in tile coordinates
+	 * @param buffer buffer around the tile in tile coordinates used for clipping
+	 * @throws IllegalArgumentException if the bounds are empty or the extent is not positive
+	 */
+	public MvtEncoder(double minX, double minY, double maxX, double maxY, int extent, int buffer)
+	{
+		if ((maxX <= minX) || (maxY <= minY) || (extent <= 0))
+		{
+			throw new IllegalArgumentException("Invalid tile bounds or extent");
+		}
+		this.tileMinX = minX;
+		this.tileMaxY = maxY;
+		this.scaleX = extent / (maxX - minX);
+		this.scaleY = extent / (maxY - minY);
+		this.clipMin = -buffer;
+		this.clipMax = (double) extent + buffer;
+	}
+
+	/**
+	 * Encodes a parameter integer using zigzag encoding.
+	 * @param n value
+	 * @return encoded value
+	 */
+	private static int zigzag(int n)
+	{
+		return (n << 1) ^ (n >> 31);
+	}
+
+	/**
+	 * Adds a coordinate to the current part.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 */
+	private void addCoordinate(double x, double y)
+	{
+		int i = partSize * 2;
+		if (i + 2 > part.length)
+		{
+			part = Arrays.copyOf(part, part.length * 2);
+		}
+		part[i] = (x - tileMinX) * scaleX;
+		part[i + 1] = (tileMaxY - y) * scaleY;
+		partSize++;
+	}
+
+	/**
+	 * Appends a command integer.
+	 * @param value value
+	 */
+	private void append(int value)
+	{
+		if (commandsSize == commands.length)
+		{
+			commands = Arrays.copyOf(commands, commandsSize * 2);
+		}
+		commands[commandsSize++] = value;
+	}
+
+	/**
+	 * Appends a command.
+	 * @param id command id
+	 * @param count number of repetitions
+	 */
+	private void appendCommand(int id, int count)
+	{
+		append((id & 0x7) | (count << 3));
+	}
+
+	/**
+	 * Appends a position relative to the cursor and moves the cursor.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 */
+	private void appendPosition(int x, int y)
+	{
+		append(zigzag(x - cursorX));
+		append(zigzag(y - cursorY));
+		cursorX = x;
+		cursorY = y;
+	}
+
+	/**
+	 * Clips a closed ring against one edge of the clip box (Sutherland-Hodgman).
+	 * @param in input coordinates
+	 * @param n number of input coordinates
+	 * @param out output coordinates (must have room for twice the input)
+	 * @param axis 0 for x, 1 for y
+	 * @param max clip against the maximum (else the minimum)?
+	 * @return number of output coordinates
+	 */
+	private int clipEdge(double[] in, int n, double[] out, int axis, boolean max)
+	{
+		int count = 0;
+		double limit = max ? clipMax : clipMin;
+		for (int i = 0; i < n; i++)
+		{
+			int j = (i + 1) % n;
+			double a = in[i * 2 + axis];
+			double b = in[j * 2 + axis];
+			boolean insideA = max ? (a <= limit) : (a >= limit);
+			boolean insideB = max ? (b <= limit) : (b >= limit);
+			if (insideA)
+			{
+				out[count * 2] = in[i * 2];
+				out[count * 2 + 1] = in[i * 2 + 1];
+				count++;
+			}
+			if (insideA != insideB)
+			{
+				// add intersection with the edge
+				double t = (limit - a) / (b - a);
+				double ox = in[i * 2] + t * (in[j * 2] - in[i * 2]);
+				double oy = in[i * 2 + 1] + t * (in[j * 2 + 1] - in[i * 2 + 1]);
+				out[count * 2] = (axis == 0) ? limit : ox;
+				out[count * 2 + 1] = (axis == 1) ? limit : oy;
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Clips the current segment against one edge of the clip box (one step of the Liang-Barsky algorithm).
+	 * @param p negated projection of the segment on the edge normal
+	 * @param q distance of the segment start to the edge
+	 * @return true if the segment is still visible, else false
+	 */
+	private boolean clipSegment(double p, double q)
+	{
+		if (p == 0)
+		{
+			// parallel to the edge
+			return q >= 0;
+		}
+		double r = q / p;
+		if (p < 0)
+		{
+			clipT0 = Math.max(clipT0, r);
+		}
+		else
+		{
+			clipT1 = Math.min(clipT1, r);
+		}
+		return clipT0 <= clipT1;
+	}
+
+	/**
+	 * Encodes a geometry.
+	 * @param geom {@link Geometry}
+	 * @return {@link MvtGeometry} on success, else null if nothing is left after clipping
+	 * @throws IllegalArgumentException for geometry types not supported by MVT
+	 */
+	@Nullable
+	public MvtGeometry encode(Geometry geom)
+	{
+		reset();
+		switch (geom.getType())
+		{
+			case Point.TYPE:
+				type = MvtGeometry.TYPE_POINT;
+				encodePoint((Point) geom);
+				break;
+			case MultiPoint.TYPE:
+				type = MvtGeometry.TYPE_POINT;
+				for (Point p : ((MultiPoint) geom).getGeometries())
+				{
+					encodePoint(p);
+				}
+				break;
+			case LineString.TYPE:
+				type = MvtGeometry.TYPE_LINESTRING;
+				encodeLine((LineString) geom);
+				break;
+			case MultiLineString.TYPE:
+				type = MvtGeometry.TYPE_LINESTRING;
+				for (LineString ls : ((MultiLineString) geom).getGeometries())
+				{
+					encodeLine(ls);
+				}
+				break;
+			case Polygon.TYPE:
+				type = MvtGeometry.TYPE_POLYGON;
+				encodePolygon((Polygon) geom);
+				break;
+			case MultiPolygon.TYPE:
+				type = MvtGeometry.TYPE_POLYGON;
+				for (Polygon poly : ((MultiPolygon) geom).getGeometries())
+				{
+					encodePolygon(poly);
+				}
+				break;
+			default:
+				throw new IllegalArgumentException("Geometry type is not supported by MVT: " + geom.getType());
+		}
+		return finish();
+	}
+
+	/**
+	 * Encodes a geometry given as (E)WKB without creating geometry objects.
+	 * @param value binary value
+	 * @param offset offset of the geometry in the given value
+	 * @return {@link MvtGeometry} on success, else null if nothing is left after clipping
+	 * @throws IllegalArgumentException for geometry types not supported by MVT
+	 */
+	@Nullable
+	public MvtGeometry encode(byte[] value, int offset)
+	{
+		reset();
+		encodeEwkb(new BinaryValueGetter(value, offset), true);
+		return finish();
+	}
+
+	/**
+	 * Encodes a geometry given as hex encoded (E)WKB without creating geometry objects.
+	 * @param value hex encoded (E)WKB
+	 * @return {@link MvtGeometry} on success, else null if nothing is left after clipping
+	 * @throws IllegalArgumentException for geometry types not supported by MVT
+	 */
+	@Nullable
+	public MvtGeometry encode(String value)
+	{
+		reset();
+		encodeEwkb(new StringValueGetter(value), true);
+		return finish();
+	}
+
+	/**
+	 * Encodes a geometry given as (E)WKB.
+	 * @param data {@link ValueGetter}
+	 * @param topLevel is this the geometry itself (and not an element of a multi geometry)?
+	 * @throws IllegalArgumentException for geometry types not supported by MVT
+	 */
+	private void encodeEwkb(ValueGetter data, boolean topLevel)
+	{
+		data.readEncoding();
+		int typeword = data.getInt();
+		int geometryType = BinaryParser.getGeometryType(typeword);
+		boolean haveZ = BinaryParser.hasZ(typeword);
+		boolean haveM = BinaryParser.hasM(typeword);
+		if ((typeword & 0x20000000) != 0)
+		{
+			// skip SRID
+			data.getInt();
+		}
+		switch (geometryType)
+		{
+			case Point.TYPE:
+				type = MvtGeometry.TYPE_POINT;
+				partSize = 0;
+				readCoordinates(data, 1, haveZ, haveM);
+				encodePart(false, false);
+				break;
+			case LineString.TYPE:
+				type = MvtGeometry.TYPE_LINESTRING;
+				partSize = 0;
+				readCoordinates(data, data.getInt(), haveZ, haveM);
+				encodePart(false, false);
+				break;
+			case Polygon.TYPE:
+			{
+				type = MvtGeometry.TYPE_POLYGON;
+				int count = data.getInt();
+				for (int i = 0; i < count; i++)
+				{
+					partSize = 0;
+					readCoordinates(data, data.getInt(), haveZ, haveM);
+					encodePart(true, i == 0);
+				}
+			}
+				break;
+			case MultiPoint.TYPE:
+			case MultiLineString.TYPE:
+			case MultiPolygon.TYPE:
+			{
+				if (!topLevel)
+				{
+					throw new IllegalArgumentException("Nested multi geometries are not supported by MVT");
+				}
+				int count = data.getInt();
+				for (int i = 0; i < count; i++)
+				{
+					encodeEwkb(data, false);
+				}
+				// ensure the type is set for empty multi geometries
+				type = (geometryType == MultiPoint.TYPE) ? MvtGeometry.TYPE_POINT
+						: (geometryType == MultiLineString.TYPE) ? MvtGeometry.TYPE_LINESTRING
+								: MvtGeometry.TYPE_POLYGON;
+			}
+				break;
+			default:
+				throw new IllegalArgumentException("Geometry type is not supported by MVT: " + geometryType);
+		}
+	}
+
+	/**
+	 * Encodes a line.
+	 * @param ls {@link LineString}
+	 */
+	private void encodeLine(LineString ls)
+	{
+		partSize = 0;
+		for (Point p : ls)
+		{
+			addCoordinate(p.getX(), p.getY());
+		}
+		encodePart(false, false);
+	}
+
+	/**
+	 * Encodes the current part.
+	 * @param ring is the part a polygon ring?
+	 * @param exterior is the ring the exterior ring of a polygon?
+	 */
+	private void encodePart(boolean ring, boolean exterior)
+	{
+		if (ring)
+		{
+			encodeRing(exterior);
+		}
+		else if (type == MvtGeometry.TYPE_POINT)
+		{
+			encodePoints();
+		}
+		else
+		{
+			encodeLineParts();
+		}
+	}
+
+	/**
+	 * Clips the current part as a line and encodes the resulting lines.
+	 */
+	private void encodeLineParts()
+	{
+		ensureClipCapacity(partSize * 2);
+		int n = 0;
+		for (int i = 0; i < partSize - 1; i++)
+		{
+			double x0 = part[i * 2];
+			double y0 = part[i * 2 + 1];
+			double dx = part[i * 2 + 2] - x0;
+			double dy = part[i * 2 + 3] - y0;
+			// Liang-Barsky clipping of the segment
+			clipT0 = 0;
+			clipT1 = 1;
+			boolean visible = clipSegment(-dx, x0 - clipMin) && clipSegment(dx, clipMax - x0)
+					&& clipSegment(-dy, y0 - clipMin) && clipSegment(dy, clipMax - y0);
+			double t0 = clipT0;
+			double t1 = clipT1;
+			if (!visible)
+			{
+				if (n > 0)
+				{
+					encodeLineString(clipped, n);
+					n = 0;
+				}
+				continue;
+			}
+			if (n == 0)
+			{
+				clipped[0] = x0 + t0 * dx;
+				clipped[1] = y0 + t0 * dy;
+				n = 1;
+			}
+			clipped[n * 2] = x0 + t1 * dx;
+			clipped[n * 2 + 1] = y0 + t1 * dy;
+			n++;
+			if (t1 < 1)
+			{
+				// the segment leaves the clip box
+				encodeLineString(clipped, n);
+				n = 0;
+			}
+		}
+		if (n > 0)
+		{
+			encodeLineString(clipped, n);
+		}
+	}
+
+	/**
+	 * Quantizes and encodes a line string.
+	 * @param coords coordinates
+	 * @param n number of coordinates
+	 */
+	private void encodeLineString(double[] coords, int n)
+	{
+		int count = quantize(coords, n, false);
+		if (count < 2)
+		{
+			// degenerate line
+			return;
+		}
+		appendCommand(CMD_MOVE_TO, 1);
+		appendPosition(quantized[0], quantized[1]);
+		appendCommand(CMD_LINE_TO, count - 1);
+		for (int i = 1; i < count; i++)
+		{
+			appendPosition(quantized[i * 2], quantized[i * 2 + 1]);
+		}
+	}
+
+	/**
+	 * Encodes a point.
+	 * @param p {@link Point}
+	 */
+	private void encodePoint(Point p)
+	{
+		partSize = 0;
+		addCoordinate(p.getX(), p.getY());
+		encodePoints();
+	}
+
+	/**
+	 * Collects the points of the current part, they are encoded as a whole in {@link #finish()}.
+	 */
+	private void encodePoints()
+	{
+		for (int i = 0; i < partSize; i++)
+		{
+			double x = part[i * 2];
+			double y = part[i * 2 + 1];
+			// skips empty points (NaN) as well
+			if ((x >= clipMin) && (x <= clipMax) && (y >= clipMin) && (y <= clipMax))
+			{
+				// points are stored as absolute coordinates for now
+				append((int) Math.round(x));
+				append((int) Math.round(y));
+			}
+		}
+	}
+
+	/**
+	 * Encodes a polygon.
+	 * @param poly {@link Polygon}
+	 */
+	private void encodePolygon(Polygon poly)
+	{
+		encodeRing(poly.getOuterRing(), true);
+		for (LinearRing ring : poly.getRings())
+		{
+			encodeRing(ring, false);
+		}
+	}
+
+	/**
+	 * Encodes a ring.
+	 * @param ring ring
+	 * @param exterior is the ring the exterior ring of a polygon?
+	 */
+	private void encodeRing(LinearRing ring, boolean exterior)
+	{
+		partSize = 0;
+		for (Point p : ring)
+		{
+			addCoordinate(p.getX(), p.getY());
+		}
+		encodeRing(exterior);
+	}
+
+	/**
+	 * Clips, quantizes and encodes the current part as a polygon ring.
+	 * @param exterior is the ring the exterior ring of a polygon?
+	 */
+	private void encodeRing(boolean exterior)
+	{
+		if (!exterior && skipHoles)
+		{
+			return;
+		}
+		int n = partSize;
+		// the closing coordinate is implicit
+		if ((n > 1) && (part[0] == part[n * 2 - 2]) && (part[1] == part[n * 2 - 1]))
+		{
+			n--;
+		}
+		double[] coords = part;
+		if (!isInsideClipBox(part, n))
+		{
+			// the buffers need room for an additional coordinate per edge
+			ensureClipCapacity(n * 2 + 8);
+			n = clipEdge(part, n, clipped, 0, false);
+			n = clipEdge(clipped, n, clippedTemp, 0, true);
+			n = clipEdge(clippedTemp, n, clipped, 1, false);
+			n = clipEdge(clipped, n, clippedTemp, 1, true);
+			coords = clippedTemp;
+		}
+		int count = quantize(coords, n, true);
+		long area2 = 0;
+		for (int i = 0; i < count; i++)
+		{
+			int j = (i + 1) % count;
+			area2 += (long) quantized[i * 2] * quantized[j * 2 + 1] - (long) quantized[j * 2] * quantized[i * 2 + 1];
+		}
+		if ((count < 3) || (area2 == 0))
+		{
+			// degenerate ring, so holes of a dropped exterior ring are dropped too
+			if (exterior)
+			{
+				skipHoles = true;
+			}
+			return;
+		}
+		if (exterior)
+		{
+			skipHoles = false;
+		}
+		// exterior rings need a positive area in tile coordinates, interior rings a negative one
+		boolean reverse = exterior ? (area2 < 0) : (area2 > 0);
+		appendCommand(CMD_MOVE_TO, 1);
+		appendPosition(quantized[0], quantized[1]);
+		appendCommand(CMD_LINE_TO, count - 1);
+		for (int k = 1; k < count; k++)
+		{
+			// keep the first coordinate when reversing the ring
+			int i = reverse ? count - k : k;
+			appendPosition(quantized[i * 2], quantized[i * 2 + 1]);
+		}
+		appendCommand(CMD_CLOSE_PATH, 1);
+	}
+
+	/**
+	 * Ensures the clip buffers can hold the given number of coordinates.
+	 * @param n number of coordinates
+	 */
+	private void ensureClipCapacity(int n)
+	{
+		if (clipped.length < n * 2)
+		{
+			clipped = new double[n * 2];
+			clippedTemp = new double[n * 2];
+		}
+		if (quantized.length < n * 2)
+		{
+			quantized = new int[n * 2];
+		}
+	}
+
+	/**
+	 * Finishes the current geometry.
+	 * @return {@link MvtGeometry} on success, else null if nothing is left
+	 */
+	@Nullable
+	private MvtGeometry finish()
+	{
+		if (commandsSize == 0)
+		{
+			return null;
+		}
+		if (type == MvtGeometry.TYPE_POINT)
+		{
+			// all points are encoded by a single command
+			int[] points = Arrays.copyOf(commands, commandsSize);
+			commandsSize = 0;
+			appendCommand(CMD_MOVE_TO, points.length / 2);
+			for (int i = 0; i < points.length; i += 2)
+			{
+				appendPosition(points[i], points[i + 1]);
+			}
+		}
+		return new MvtGeometry(type, Arrays.copyOf(commands, commandsSize));
+	}
+
+	/**
+	 * Checks if the given coordinates are completely inside the clip box.
+	 * @param coords coordinates
+	 * @param n number of coordinates
+	 * @return true on success, else false
+	 */
+	private boolean isInsideClipBox(double[] coords, int n)
+	{
+		for (int i = 0; i < n * 2; i++)
+		{
+			if ((coords[i] < clipMin) || (coords[i] > clipMax))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Quantizes coordinates to integers and removes consecutive duplicates.
+	 * @param coords coordinates
+	 * @param n number of coordinates
+	 * @param ring is it a ring (so the last coordinate must not match the first one)?
+	 * @return number of quantized coordinates
+	 */
+	private int quantize(double[] coords, int n, boolean ring)
+	{
+		if (quantized.length < n * 2)
+		{
+			quantized = new int[n * 2];
+		}
+		int count = 0;
+		for (int i = 0; i < n; i++)
+		{
+			int x = (int) Math.round(coords[i * 2]);
+			int y = (int) Math.round(coords[i * 2 + 1]);
+			if ((count == 0) || (x != quantized[count * 2 - 2]) || (y != quantized[count * 2 - 1]))
+			{
+				quantized[count * 2] = x;
+				quantized[count * 2 + 1] = y;
+				count++;
+			}
+		}
+		if (ring)
+		{
+			while ((count > 1) && (quantized[0] == quantized[count * 2 - 2])
+					&& (quantized[1] == quantized[count * 2 - 1]))
+			{
+				count--;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Reads coordinates into the current part.
+	 * @param data {@link ValueGetter}
+	 * @param count number of coordinates
+	 * @param haveZ z coordinates given?
+	 * @param haveM measures given?
+	 */
+	private void readCoordinates(ValueGetter data, int count, boolean haveZ, boolean haveM)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			double x = data.getDouble();
+			double y = data.getDouble();
+			if (haveZ)
+			{
+				data.getDouble();
+			}
+			if (haveM)
+			{
+				data.getDouble();
+			}
+			addCoordinate(x, y);
+		}
+	}
+
+	/**
+	 * Resets the state for a new geometry.
+	 */
+	private void reset()
+	{
+		commandsSize = 0;
+		cursorX = 0;
+		cursorY = 0;
+		skipHoles = false;
+		type = 0;
+	}
+
+}
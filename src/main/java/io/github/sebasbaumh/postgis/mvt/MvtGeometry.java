@@ -0,0 +1,121 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.mvt;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * A geometry encoded for a Mapbox Vector Tile feature, so its geometry type and the command integers (the
+ * <code>type</code> and <code>geometry</code> fields of a tile feature).
+ * @author Sebastian Baumhekel
+ */
+public final class MvtGeometry
+{
+	/**
+	 * Geometry type of points and multi points.
+	 */
+	public static final int TYPE_POINT = 1;
+	/**
+	 * Geometry type of line strings and multi line strings.
+	 */
+	public static final int TYPE_LINESTRING = 2;
+	/**
+	 * Geometry type of polygons and multi polygons.
+	 */
+	public static final int TYPE_POLYGON = 3;
+
+	/**
+	 * Command integers.
+	 */
+	private final int[] commands;
+	/**
+	 * Geometry type.
+	 */
+	private final int type;
+
+	/**
+	 * Constructs an instance.
+	 * @param type geometry type
+	 * @param commands command integers
+	 */
+	MvtGeometry(int type, int[] commands)
+	{
+		this.type = type;
+		this.commands = commands;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(@Nullable Object obj)
+	{
+		if (obj instanceof MvtGeometry other)
+		{
+			return (type == other.type) && Arrays.equals(commands, other.commands);
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the command integers, which can be written as the packed <code>geometry</code> field of a tile feature.
+	 * @return command integers (must not be modified)
+	 */
+	public int[] getCommands()
+	{
+		return commands;
+	}
+
+	/**
+	 * Gets the geometry type, see {@link #TYPE_POINT}, {@link #TYPE_LINESTRING} and {@link #TYPE_POLYGON}.
+	 * @return geometry type
+	 */
+	public int getType()
+	{
+		return type;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode()
+	{
+		return 31 * type + Arrays.hashCode(commands);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return "MvtGeometry [type=" + type + ", commands=" + Arrays.toString(commands) + "]";
+	}
+
+}
@@ -0,0 +1,6 @@
+/**
+ * Encoding of geometries for Mapbox Vector Tiles (MVT).
+ * @author Sebastian Baumhekel
+ */
+@org.eclipse.jdt.annotation.NonNullByDefault
+package io.github.sebasbaumh.postgis.mvt;
@@ -0,0 +1,349 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.ValueGetter;
+
+/**
+ * A read-only store of geometries kept off-heap in a memory-mapped file, so even large amounts of geometries do not
+ * put any load on the garbage collector. The file is written by {@link GeometryStoreWriter} and can be opened again
+ * after a restart without parsing it. Geometries are stored as EWKB and only materialized on access, while the type,
+ * SRID and envelope can be read directly from the mapped memory. Instances are thread-safe.
+ * @author Sebastian Baumhekel
+ */
+public final class GeometryStore implements Iterable<Geometry>
+{
+	/**
+	 * Size of the mapped chunks as a power of 2 (1 GB).
+	 */
+	private static final int CHUNK_SHIFT = 30;
+	/**
+	 * Mask for the offset in a chunk.
+	 */
+	private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+	/**
+	 * Size of the footer (index position, number of geometries and magic number).
+	 */
+	private static final int FOOTER_SIZE = 24;
+	/**
+	 * Size of the header (magic number, version and a reserved int).
+	 */
+	static final int HEADER_SIZE = 16;
+	/**
+	 * Magic number of store files ("PGJGSTOR").
+	 */
+	static final long MAGIC = 0x524f5453474a4750L;
+	/**
+	 * Version of the file format.
+	 */
+	static final int VERSION = 1;
+
+	private final ByteBuffer[] chunks;
+	private final long indexPosition;
+	private final int size;
+
+	/**
+	 * Constructs an instance.
+	 * @param chunks mapped chunks
+	 * @param indexPosition position of the index
+	 * @param size number of geometries
+	 */
+	private GeometryStore(ByteBuffer[] chunks, long indexPosition, int size)
+	{
+		this.chunks = chunks;
+		this.indexPosition = indexPosition;
+		this.size = size;
+	}
+
+	/**
+	 * Opens a store file written by {@link GeometryStoreWriter} by mapping it into memory.
+	 * @param file file
+	 * @return {@link GeometryStore}
+	 * @throws IOException if the file cannot be read or is not a valid store file
+	 */
+	public static GeometryStore open(Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			long fileSize = channel.size();
+			if (fileSize < HEADER_SIZE + 8 + FOOTER_SIZE)
+			{
+				throw new IOException("invalid geometry store: " + file);
+			}
+			// the mapping stays valid after the channel is closed
+			ByteBuffer[] chunks = new ByteBuffer[(int) ((fileSize + CHUNK_MASK) >>> CHUNK_SHIFT)];
+			for (int i = 0; i < chunks.length; i++)
+			{
+				long start = (long) i << CHUNK_SHIFT;
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_MASK + 1, fileSize - start))
+						.order(ByteOrder.LITTLE_ENDIAN);
+			}
+			GeometryStore store = new GeometryStore(chunks, 0, 0);
+			long footer = fileSize - FOOTER_SIZE;
+			long indexPosition = store.getLong(footer);
+			long size = store.getLong(footer + 8);
+			if ((store.getLong(0) != MAGIC) || (store.getLong(footer + 16) != MAGIC)
+					|| (store.getInt(8) != VERSION) || (size < 0) || (size >= Integer.MAX_VALUE)
+					|| (indexPosition < HEADER_SIZE) || (indexPosition + (size + 1) * 8 != footer))
+			{
+				throw new IOException("invalid geometry store: " + file);
+			}
+			return new GeometryStore(chunks, indexPosition, (int) size);
+		}
+	}
+
+	/**
+	 * Gets a geometry. A new instance is parsed on every call.
+	 * @param index index
+	 * @return {@link Geometry}
+	 * @throws IndexOutOfBoundsException if the index is invalid
+	 */
+	public Geometry get(int index)
+	{
+		return BinaryParser.parse(new ChunkValueGetter(getOffset(index)));
+	}
+
+	/**
+	 * Gets the binary encoded geometry as a copy.
+	 * @param index index
+	 * @return binary encoded geometry
+	 * @throws IndexOutOfBoundsException if the index is invalid
+	 */
+	public byte[] getBinary(int index)
+	{
+		long start = getOffset(index);
+		// the index also contains the end of the last geometry
+		long end = getLong(indexPosition + (index + 1) * 8L);
+		byte[] value = new byte[(int) (end - start)];
+		for (int i = 0; i < value.length; i++)
+		{
+			value[i] = getByte(start + i);
+		}
+		return value;
+	}
+
+	/**
+	 * Gets a byte.
+	 * @param position position in the file
+	 * @return byte
+	 */
+	private byte getByte(long position)
+	{
+		return chunks[(int) (position >>> CHUNK_SHIFT)].get((int) (position & CHUNK_MASK));
+	}
+
+	/**
+	 * Gets the envelope (bounding box of the x and y coordinates) of a geometry without creating any geometry objects.
+	 * @param index index
+	 * @param envelope array receiving the envelope as minX, minY, maxX, maxY
+	 * @return true if the geometry has coordinates, false if it is empty
+	 * @throws IndexOutOfBoundsException if the index is invalid
+	 */
+	public boolean getEnvelope(int index, double[] envelope)
+	{
+		return BinaryParser.parseEnvelope(new ChunkValueGetter(getOffset(index)), envelope);
+	}
+
+	/**
+	 * Gets a little endian int value.
+	 * @param position position in the file
+	 * @return value
+	 */
+	private int getInt(long position)
+	{
+		ByteBuffer chunk = chunks[(int) (position >>> CHUNK_SHIFT)];
+		int offset = (int) (position & CHUNK_MASK);
+		if (offset + 4 <= chunk.limit())
+		{
+			return chunk.getInt(offset);
+		}
+		// value crosses the chunk boundary
+		return (int) getLongBytes(position, 4);
+	}
+
+	/**
+	 * Gets a little endian long value.
+	 * @param position position in the file
+	 * @return value
+	 */
+	private long getLong(long position)
+	{
+		ByteBuffer chunk = chunks[(int) (position >>> CHUNK_SHIFT)];
+		int offset = (int) (position & CHUNK_MASK);
+		if (offset + 8 <= chunk.limit())
+		{
+			return chunk.getLong(offset);
+		}
+		// value crosses the chunk boundary
+		return getLongBytes(position, 8);
+	}
+
+	/**
+	 * Gets a little endian value byte by byte.
+	 * @param position position in the file
+	 * @param count number of bytes
+	 * @return value
+	 */
+	private long getLongBytes(long position, int count)
+	{
+		long value = 0;
+		for (int i = count - 1; i >= 0; i--)
+		{
+			value = (value << 8) | (getByte(position + i) & 0xFF);
+		}
+		return value;
+	}
+
+	/**
+	 * Gets the position of a geometry in the file.
+	 * @param index index
+	 * @return position
+	 * @throws IndexOutOfBoundsException if the index is invalid
+	 */
+	private long getOffset(int index)
+	{
+		if ((index < 0) || (index >= size))
+		{
+			throw new IndexOutOfBoundsException(index);
+		}
+		return getLong(indexPosition + index * 8L);
+	}
+
+	/**
+	 * Gets the SRID of a geometry without creating any geometry objects.
+	 * @param index index
+	 * @return SRID or {@link Geometry#UNKNOWN_SRID}
+	 * @throws IndexOutOfBoundsException if the index is invalid
+	 */
+	public int getSrid(int index)
+	{
+		ChunkValueGetter data = new ChunkValueGetter(getOffset(index));
+		data.readEncoding();
+		if ((data.getInt() & 0x20000000) != 0)
+		{
+			return data.getInt();
+		}
+		return Geometry.UNKNOWN_SRID;
+	}
+
+	/**
+	 * Gets the OGIS geometry type of a geometry without creating any geometry objects.
+	 * @param index index
+	 * @return geometry type
+	 * @throws IndexOutOfBoundsException if the index is invalid
+	 */
+	public int getType(int index)
+	{
+		ChunkValueGetter data = new ChunkValueGetter(getOffset(index));
+		data.readEncoding();
+		// supports EWKB and ISO WKB
+		return BinaryParser.getGeometryType(data.getInt());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<Geometry> iterator()
+	{
+		return new Iterator<Geometry>()
+		{
+			private int index;
+
+			@Override
+			public boolean hasNext()
+			{
+				return index < size;
+			}
+
+			@Override
+			public Geometry next()
+			{
+				if (index >= size)
+				{
+					throw new NoSuchElementException();
+				}
+				return get(index++);
+			}
+		};
+	}
+
+	/**
+	 * Gets the number of geometries.
+	 * @return number of geometries
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return this.getClass().getSimpleName() + " [" + size + " geometries]";
+	}
+
+	/**
+	 * Reads values directly from the mapped chunks.
+	 */
+	private final class ChunkValueGetter extends ValueGetter
+	{
+		private long position;
+
+		/**
+		 * Constructs an instance.
+		 * @param position start position in the file
+		 */
+		ChunkValueGetter(long position)
+		{
+			this.position = position;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see io.github.sebasbaumh.postgis.binary.ValueGetter#getNextByte()
+		 */
+		@Override
+		protected int getNextByte()
+		{
+			return getByte(position++) & 0xFF;
+		}
+	}
+
+}
@@ -0,0 +1,203 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+
+/**
+ * Writes geometries into a file, which can then be opened as a {@link GeometryStore}. The geometries are written
+ * sequentially as EWKB, so the whole store is never held in memory.
+ * @author Sebastian Baumhekel
+ */
+public final class GeometryStoreWriter implements Closeable
+{
+	/**
+	 * Size of the write buffer.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+	private final FileChannel channel;
+	private boolean closed;
+	private long[] offsets = new long[1024];
+	private long position;
+	private int size;
+
+	/**
+	 * Creates a new store file. An existing file is overwritten.
+	 * @param file file
+	 * @throws IOException if the file cannot be written
+	 */
+	public GeometryStoreWriter(Path file) throws IOException
+	{
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		// header
+		buffer.putLong(GeometryStore.MAGIC);
+		buffer.putInt(GeometryStore.VERSION);
+		buffer.putInt(0);
+		position = GeometryStore.HEADER_SIZE;
+	}
+
+	/**
+	 * Adds a geometry.
+	 * @param geom {@link Geometry}
+	 * @throws IOException if the file cannot be written
+	 */
+	public void add(Geometry geom) throws IOException
+	{
+		addBinary(BinaryWriter.writeBinary(geom));
+	}
+
+	/**
+	 * Adds a binary encoded geometry (WKB or EWKB), e.g. the raw bytes as received from the database.
+	 * @param value binary encoded geometry
+	 * @throws IOException if the file cannot be written
+	 * @throws IllegalStateException if the writer is already closed or the store is full
+	 */
+	public void addBinary(byte[] value) throws IOException
+	{
+		if (closed)
+		{
+			throw new IllegalStateException("writer is closed");
+		}
+		if (size == Integer.MAX_VALUE - 1)
+		{
+			throw new IllegalStateException("store is full");
+		}
+		if (size == offsets.length)
+		{
+			offsets = Arrays.copyOf(offsets, (int) Math.min(size * 2L, Integer.MAX_VALUE));
+		}
+		offsets[size++] = position;
+		write(value);
+	}
+
+	/**
+	 * Writes the index and closes the file.
+	 * @throws IOException if the file cannot be written
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+		try
+		{
+			// index of all offsets including the end of the last geometry
+			long indexPosition = position;
+			for (int i = 0; i < size; i++)
+			{
+				putLong(offsets[i]);
+			}
+			putLong(indexPosition);
+			// footer
+			putLong(indexPosition);
+			putLong(size);
+			putLong(GeometryStore.MAGIC);
+			flush();
+		}
+		finally
+		{
+			channel.close();
+		}
+	}
+
+	/**
+	 * Writes the buffer to the file.
+	 * @throws IOException if the file cannot be written
+	 */
+	private void flush() throws IOException
+	{
+		buffer.flip();
+		while (buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Writes a long value.
+	 * @param value value
+	 * @throws IOException if the file cannot be written
+	 */
+	private void putLong(long value) throws IOException
+	{
+		if (buffer.remaining() < 8)
+		{
+			flush();
+		}
+		buffer.putLong(value);
+		position += 8;
+	}
+
+	/**
+	 * Gets the number of geometries added so far.
+	 * @return number of geometries
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Writes the given bytes.
+	 * @param value bytes
+	 * @throws IOException if the file cannot be written
+	 */
+	private void write(byte[] value) throws IOException
+	{
+		if (value.length > buffer.remaining())
+		{
+			flush();
+			if (value.length > buffer.capacity())
+			{
+				// write large values directly
+				ByteBuffer b = ByteBuffer.wrap(value);
+				while (b.hasRemaining())
+				{
+					channel.write(b);
+				}
+				position += value.length;
+				return;
+			}
+		}
+		buffer.put(value);
+		position += value.length;
+	}
+
+}
@@ -0,0 +1,6 @@
+/**
+ * Off-heap storage of geometries in memory-mapped files.
+ * @author Sebastian Baumhekel
+ */
+@org.eclipse.jdt.annotation.NonNullByDefault
+package io.github.sebasbaumh.postgis.store;
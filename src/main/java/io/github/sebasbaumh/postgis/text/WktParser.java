@@ -0,0 +1,546 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.text;
+
+import java.util.ArrayList;
+
+import io.github.sebasbaumh.postgis.CircularString;
+import io.github.sebasbaumh.postgis.CompoundCurve;
+import io.github.sebasbaumh.postgis.Curve;
+import io.github.sebasbaumh.postgis.CurvePolygon;
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.GeometryCollection;
+import io.github.sebasbaumh.postgis.LineString;
+import io.github.sebasbaumh.postgis.LinearRing;
+import io.github.sebasbaumh.postgis.MultiCurve;
+import io.github.sebasbaumh.postgis.MultiLineString;
+import io.github.sebasbaumh.postgis.MultiPoint;
+import io.github.sebasbaumh.postgis.MultiPolygon;
+import io.github.sebasbaumh.postgis.MultiSurface;
+import io.github.sebasbaumh.postgis.Point;
+import io.github.sebasbaumh.postgis.Polygon;
+import io.github.sebasbaumh.postgis.PolygonBase;
+import io.github.sebasbaumh.postgis.PostGisUtil;
+
+/**
+ * Parser for the (extended) well-known text representation of geometries. It accepts the EWKT of PostGIS
+ * <code>ST_AsEWKT</code> (e.g. <code>SRID=4326;POINTM(1 2 3)</code>) as well as ISO WKT (e.g.
+ * <code>POINT ZM (1 2 3 4)</code>) including curved geometries and empty geometries. The input is parsed in a single
+ * pass without creating intermediate strings.
+ * @author Sebastian Baumhekel
+ */
+public final class WktParser
+{
+	/**
+	 * Length of the value.
+	 */
+	private final int length;
+	/**
+	 * Current position.
+	 */
+	private int pos;
+	/**
+	 * Value to parse.
+	 */
+	private final CharSequence value;
+
+	/**
+	 * Constructs an instance.
+	 * @param value value to parse
+	 */
+	private WktParser(CharSequence value)
+	{
+		this.value = value;
+		this.length = value.length();
+	}
+
+	/**
+	 * Parse a geometry given as (extended) well-known text.
+	 * @param value (E)WKT
+	 * @return the parsed geometry
+	 * @throws IllegalArgumentException if the value is not valid (E)WKT
+	 */
+	public static Geometry parse(CharSequence value)
+	{
+		return new WktParser(value).parseEwkt();
+	}
+
+	/**
+	 * Creates an empty geometry.
+	 * @param type geometry type
+	 * @return empty geometry
+	 */
+	private static Geometry createEmpty(int type)
+	{
+		switch (type)
+		{
+			case Point.TYPE:
+				return new Point();
+			case LineString.TYPE:
+				return new LineString();
+			case CircularString.TYPE:
+				return new CircularString();
+			case CompoundCurve.TYPE:
+				return new CompoundCurve();
+			case Polygon.TYPE:
+				return new Polygon();
+			case CurvePolygon.TYPE:
+				return new CurvePolygon();
+			case MultiPoint.TYPE:
+				return new MultiPoint();
+			case MultiLineString.TYPE:
+				return new MultiLineString();
+			case MultiCurve.TYPE:
+				return new MultiCurve();
+			case MultiPolygon.TYPE:
+				return new MultiPolygon();
+			case MultiSurface.TYPE:
+				return new MultiSurface();
+			case GeometryCollection.TYPE:
+				return new GeometryCollection();
+			default:
+				throw new IllegalArgumentException("Unknown Geometry Type: " + type);
+		}
+	}
+
+	/**
+	 * Checks if the given character can be part of a number.
+	 * @param c character
+	 * @return true on success, else false
+	 */
+	private static boolean isNumberChar(char c)
+	{
+		return isNumberStart(c) || (c == 'e') || (c == 'E');
+	}
+
+	/**
+	 * Checks if the given character can start a number.
+	 * @param c character
+	 * @return true on success, else false
+	 */
+	private static boolean isNumberStart(char c)
+	{
+		return ((c >= '0') && (c <= '9')) || (c == '-') || (c == '+') || (c == '.');
+	}
+
+	/**
+	 * Consumes the given character if it is the next non-whitespace character.
+	 * @param c character
+	 * @return true if the character was consumed, else false
+	 */
+	private boolean consume(char c)
+	{
+		if (peek() == c)
+		{
+			pos++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Consumes the keyword "EMPTY" if it is the next word.
+	 * @return true if the keyword was consumed, else false
+	 */
+	private boolean consumeEmpty()
+	{
+		int start = pos;
+		int wordStart = scanWord();
+		if (equalsIgnoreCase(wordStart, pos, "EMPTY"))
+		{
+			return true;
+		}
+		pos = start;
+		return false;
+	}
+
+	/**
+	 * Creates an exception for a parse error at the current position.
+	 * @param message message
+	 * @return {@link IllegalArgumentException}
+	 */
+	private IllegalArgumentException error(String message)
+	{
+		return new IllegalArgumentException(message + " at position " + pos);
+	}
+
+	/**
+	 * Checks if a part of the value is equal to the given keyword ignoring the case.
+	 * @param start start index
+	 * @param end end index
+	 * @param keyword keyword (upper case)
+	 * @return true on success, else false
+	 */
+	private boolean equalsIgnoreCase(int start, int end, String keyword)
+	{
+		if ((end - start) != keyword.length())
+		{
+			return false;
+		}
+		for (int i = start; i < end; i++)
+		{
+			if (Character.toUpperCase(value.charAt(i)) != keyword.charAt(i - start))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Expects the given character as the next non-whitespace character and consumes it.
+	 * @param c character
+	 * @throws IllegalArgumentException if the next character is a different one
+	 */
+	private void expect(char c)
+	{
+		if (!consume(c))
+		{
+			throw error("Expected '" + c + "'");
+		}
+	}
+
+	/**
+	 * Parses a composed geometry consisting of elements.
+	 * @param clazz class of the elements
+	 * @param untaggedType type of elements without a type name
+	 * @param haveM are 3 ordinates x, y and measure?
+	 * @return elements
+	 * @throws IllegalArgumentException if an element is not of the given class
+	 */
+	private <T extends Geometry> ArrayList<T> parseElements(Class<T> clazz, int untaggedType, boolean haveM)
+	{
+		ArrayList<T> l = new ArrayList<T>();
+		expect('(');
+		do
+		{
+			Geometry geom;
+			// elements can either be given just by their body or with a type name
+			if (peek() == '(')
+			{
+				geom = parseBody(untaggedType, haveM);
+			}
+			else if (consumeEmpty())
+			{
+				geom = createEmpty(untaggedType);
+			}
+			else
+			{
+				geom = parseTagged(haveM);
+			}
+			if (!clazz.isInstance(geom))
+			{
+				throw error("Unexpected geometry type " + geom.getClass().getSimpleName());
+			}
+			l.add(clazz.cast(geom));
+		}
+		while (consume(','));
+		expect(')');
+		return l;
+	}
+
+	/**
+	 * Parses a geometry given as EWKT including an optional SRID prefix.
+	 * @return the parsed geometry
+	 */
+	private Geometry parseEwkt()
+	{
+		skipWhitespace();
+		int srid = Geometry.UNKNOWN_SRID;
+		int start = pos;
+		int wordStart = scanWord();
+		if (equalsIgnoreCase(wordStart, pos, "SRID"))
+		{
+			expect('=');
+			// ensure valid SRID
+			srid = (int) parseNumber();
+			if (srid < 0)
+			{
+				srid = Geometry.UNKNOWN_SRID;
+			}
+			expect(';');
+		}
+		else
+		{
+			pos = start;
+		}
+		Geometry geom = parseTagged(false);
+		skipWhitespace();
+		if (pos < length)
+		{
+			throw error("Unexpected character '" + value.charAt(pos) + "'");
+		}
+		geom.setSrid(srid);
+		return geom;
+	}
+
+	/**
+	 * Parses a number.
+	 * @return number
+	 * @throws IllegalArgumentException if there is no valid number
+	 */
+	private double parseNumber()
+	{
+		skipWhitespace();
+		int start = pos;
+		while ((pos < length) && isNumberChar(value.charAt(pos)))
+		{
+			pos++;
+		}
+		try
+		{
+			return PostGisUtil.parseDouble(value, start, pos);
+		}
+		catch (NumberFormatException ex)
+		{
+			pos = start;
+			throw error("Expected a number");
+		}
+	}
+
+	/**
+	 * Parses a geometry body, so everything after the type name.
+	 * @param type geometry type
+	 * @param haveM are 3 ordinates x, y and measure?
+	 * @return geometry
+	 */
+	private Geometry parseBody(int type, boolean haveM)
+	{
+		if (consumeEmpty())
+		{
+			return createEmpty(type);
+		}
+		switch (type)
+		{
+			case Point.TYPE:
+			{
+				expect('(');
+				Point p = parsePoint(haveM);
+				expect(')');
+				return p;
+			}
+			case LineString.TYPE:
+				return new LineString(parsePoints(haveM));
+			case CircularString.TYPE:
+				return new CircularString(parsePoints(haveM));
+			case CompoundCurve.TYPE:
+				return new CompoundCurve(parseElements(LineString.class, LineString.TYPE, haveM));
+			case Polygon.TYPE:
+			{
+				ArrayList<LinearRing> rings = new ArrayList<LinearRing>();
+				expect('(');
+				do
+				{
+					rings.add(new LinearRing(parsePoints(haveM)));
+				}
+				while (consume(','));
+				expect(')');
+				return new Polygon(rings);
+			}
+			case CurvePolygon.TYPE:
+				return new CurvePolygon(parseElements(Curve.class, LineString.TYPE, haveM));
+			case MultiPoint.TYPE:
+				return parseMultiPoint(haveM);
+			case MultiLineString.TYPE:
+				return new MultiLineString(parseElements(LineString.class, LineString.TYPE, haveM));
+			case MultiCurve.TYPE:
+				return new MultiCurve(parseElements(Curve.class, LineString.TYPE, haveM));
+			case MultiPolygon.TYPE:
+				return new MultiPolygon(parseElements(Polygon.class, Polygon.TYPE, haveM));
+			case MultiSurface.TYPE:
+			{
+				MultiSurface ms = new MultiSurface();
+				for (Geometry geom : parseElements(Geometry.class, Polygon.TYPE, haveM))
+				{
+					if (!(geom instanceof PolygonBase<?> poly))
+					{
+						throw error("Unexpected geometry type " + geom.getClass().getSimpleName());
+					}
+					ms.add(poly);
+				}
+				return ms;
+			}
+			case GeometryCollection.TYPE:
+				return new GeometryCollection(parseElements(Geometry.class, -1, haveM));
+			default:
+				throw new IllegalArgumentException("Unknown Geometry Type: " + type);
+		}
+	}
+
+	/**
+	 * Parses a multi point. Points can be given with or without brackets, e.g. <code>(1 2,3 4)</code> or
+	 * <code>((1 2),(3 4))</code>.
+	 * @param haveM are 3 ordinates x, y and measure?
+	 * @return {@link MultiPoint}
+	 */
+	private MultiPoint parseMultiPoint(boolean haveM)
+	{
+		MultiPoint mp = new MultiPoint();
+		expect('(');
+		do
+		{
+			if (consume('('))
+			{
+				mp.add(parsePoint(haveM));
+				expect(')');
+			}
+			else if (consumeEmpty())
+			{
+				mp.add(new Point());
+			}
+			else
+			{
+				mp.add(parsePoint(haveM));
+			}
+		}
+		while (consume(','));
+		expect(')');
+		return mp;
+	}
+
+	/**
+	 * Parses the ordinates of a single point.
+	 * @param haveM are 3 ordinates x, y and measure?
+	 * @return {@link Point}
+	 */
+	private Point parsePoint(boolean haveM)
+	{
+		double x = parseNumber();
+		double y = parseNumber();
+		if (!isNumberStart((char) peek()))
+		{
+			return new Point(x, y);
+		}
+		double third = parseNumber();
+		if (!isNumberStart((char) peek()))
+		{
+			return haveM ? new Point(x, y, Double.NaN, third) : new Point(x, y, third);
+		}
+		return new Point(x, y, third, parseNumber());
+	}
+
+	/**
+	 * Parses a list of points in brackets.
+	 * @param haveM are 3 ordinates x, y and measure?
+	 * @return {@link Point}s
+	 */
+	private ArrayList<Point> parsePoints(boolean haveM)
+	{
+		ArrayList<Point> l = new ArrayList<Point>();
+		expect('(');
+		do
+		{
+			l.add(parsePoint(haveM));
+		}
+		while (consume(','));
+		expect(')');
+		return l;
+	}
+
+	/**
+	 * Parses a geometry starting with its type name.
+	 * @param parentM are 3 ordinates x, y and measure according to the parent geometry?
+	 * @return geometry
+	 * @throws IllegalArgumentException for unknown geometry types
+	 */
+	private Geometry parseTagged(boolean parentM)
+	{
+		int start = scanWord();
+		int end = pos;
+		if (start == end)
+		{
+			throw error("Expected a geometry type");
+		}
+		// find type, EWKT marks geometries having only a measure by an "M" suffix
+		int type = -1;
+		boolean haveM = parentM;
+		for (int i = 1; i < WktWriter.getNumberOfTypes(); i++)
+		{
+			String name = WktWriter.getTypeName(i);
+			if (equalsIgnoreCase(start, end, name))
+			{
+				type = i;
+				break;
+			}
+			if (equalsIgnoreCase(start, end - 1, name) && (Character.toUpperCase(value.charAt(end - 1)) == 'M'))
+			{
+				type = i;
+				haveM = true;
+				break;
+			}
+		}
+		if (type < 0)
+		{
+			pos = start;
+			throw error("Unknown Geometry Type: " + value.subSequence(start, end));
+		}
+		// ISO WKT dimension flags
+		int flagsStart = scanWord();
+		if (equalsIgnoreCase(flagsStart, pos, "M"))
+		{
+			haveM = true;
+		}
+		else if (!equalsIgnoreCase(flagsStart, pos, "Z") && !equalsIgnoreCase(flagsStart, pos, "ZM"))
+		{
+			pos = flagsStart;
+		}
+		return parseBody(type, haveM);
+	}
+
+	/**
+	 * Gets the next non-whitespace character without consuming it.
+	 * @return character or -1 at the end of the value
+	 */
+	private int peek()
+	{
+		skipWhitespace();
+		return (pos < length) ? value.charAt(pos) : -1;
+	}
+
+	/**
+	 * Skips whitespace and a following word consisting of letters.
+	 * @return start index of the word (the end index is the current position)
+	 */
+	private int scanWord()
+	{
+		skipWhitespace();
+		int start = pos;
+		while ((pos < length) && Character.isLetter(value.charAt(pos)))
+		{
+			pos++;
+		}
+		return start;
+	}
+
+	/**
+	 * Skips whitespace.
+	 */
+	private void skipWhitespace()
+	{
+		while ((pos < length) && Character.isWhitespace(value.charAt(pos)))
+		{
+			pos++;
+		}
+	}
+
+}
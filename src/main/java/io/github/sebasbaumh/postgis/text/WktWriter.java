@@ -0,0 +1,328 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis.text;
+
+import io.github.sebasbaumh.postgis.CircularString;
+import io.github.sebasbaumh.postgis.CompoundCurve;
+import io.github.sebasbaumh.postgis.CurvePolygon;
+import io.github.sebasbaumh.postgis.Geometry;
+import io.github.sebasbaumh.postgis.GeometryCollection;
+import io.github.sebasbaumh.postgis.LineString;
+import io.github.sebasbaumh.postgis.MultiCurve;
+import io.github.sebasbaumh.postgis.MultiGeometry;
+import io.github.sebasbaumh.postgis.MultiLineString;
+import io.github.sebasbaumh.postgis.MultiPoint;
+import io.github.sebasbaumh.postgis.MultiPolygon;
+import io.github.sebasbaumh.postgis.MultiSurface;
+import io.github.sebasbaumh.postgis.Point;
+import io.github.sebasbaumh.postgis.Polygon;
+import io.github.sebasbaumh.postgis.PolygonBase;
+import io.github.sebasbaumh.postgis.PostGisUtil;
+
+/**
+ * A writer for building the (extended) well-known text representation of geometries. Coordinates are written using
+ * the shortest representation that parses back to the same double value.
+ * @author Sebastian Baumhekel
+ */
+public final class WktWriter
+{
+	/**
+	 * Names of the geometry types by their type id.
+	 */
+	private static final String[] TYPE_NAMES = new String[] { null, "POINT", "LINESTRING", "POLYGON", "MULTIPOINT",
+			"MULTILINESTRING", "MULTIPOLYGON", "GEOMETRYCOLLECTION", "CIRCULARSTRING", "COMPOUNDCURVE", "CURVEPOLYGON",
+			"MULTICURVE", "MULTISURFACE" };
+
+	// prevent instantiating this class
+	@Deprecated
+	private WktWriter()
+	{
+	}
+
+	/**
+	 * Gets the number of known geometry types including the unused type id 0.
+	 * @return number of types
+	 */
+	static int getNumberOfTypes()
+	{
+		return TYPE_NAMES.length;
+	}
+
+	/**
+	 * Gets the WKT name of a geometry type.
+	 * @param type geometry type
+	 * @return name
+	 * @throws IllegalArgumentException for unknown geometry types
+	 */
+	@SuppressWarnings("null")
+	static String getTypeName(int type)
+	{
+		if ((type <= 0) || (type >= TYPE_NAMES.length))
+		{
+			throw new IllegalArgumentException("Unknown Geometry Type: " + type);
+		}
+		return TYPE_NAMES[type];
+	}
+
+	/**
+	 * Writes a geometry as extended well-known text (EWKT) like PostGIS <code>ST_AsEWKT</code>, e.g.
+	 * <code>SRID=4326;POINT(1 2)</code>. A SRID prefix is only written for a known SRID and geometries having only a
+	 * measure are marked by an "M" suffix, e.g. <code>POINTM(1 2 3)</code>.
+	 * @param geom the geometry to be written
+	 * @return EWKT
+	 */
+	public static String writeEwkt(Geometry geom)
+	{
+		StringBuilder sb = new StringBuilder();
+		if (geom.getSrid() != Geometry.UNKNOWN_SRID)
+		{
+			sb.append("SRID=").append(geom.getSrid()).append(';');
+		}
+		new Writer(sb, geom.is3d(), geom.hasMeasure(), false).writeGeometry(geom, -1);
+		return sb.toString();
+	}
+
+	/**
+	 * Writes a geometry as ISO well-known text (WKT) like PostGIS <code>ST_AsText</code>, e.g.
+	 * <code>POINT Z (1 2 3)</code>. The SRID is not written.
+	 * @param geom the geometry to be written
+	 * @return WKT
+	 */
+	public static String writeWkt(Geometry geom)
+	{
+		StringBuilder sb = new StringBuilder();
+		new Writer(sb, geom.is3d(), geom.hasMeasure(), true).writeGeometry(geom, -1);
+		return sb.toString();
+	}
+
+	/**
+	 * Writer holding the output and the dimension of the geometry.
+	 */
+	private static final class Writer
+	{
+		/**
+		 * Output.
+		 */
+		private final StringBuilder sb;
+		/**
+		 * Write z coordinates?
+		 */
+		private final boolean haveZ;
+		/**
+		 * Write measures?
+		 */
+		private final boolean haveM;
+		/**
+		 * Write ISO WKT?
+		 */
+		private final boolean iso;
+
+		/**
+		 * Constructs an instance.
+		 * @param sb output
+		 * @param haveZ write z coordinates?
+		 * @param haveM write measures?
+		 * @param iso write ISO WKT instead of EWKT?
+		 */
+		Writer(StringBuilder sb, boolean haveZ, boolean haveM, boolean iso)
+		{
+			this.sb = sb;
+			this.haveZ = haveZ;
+			this.haveM = haveM;
+			this.iso = iso;
+		}
+
+		/**
+		 * Writes the body of a geometry, so everything after the type name.
+		 * @param geom geometry
+		 * @param type geometry type
+		 */
+		private void writeBody(Geometry geom, int type)
+		{
+			if (geom.isEmpty())
+			{
+				sb.append("EMPTY");
+				return;
+			}
+			switch (type)
+			{
+				case Point.TYPE:
+					sb.append('(');
+					writePoint((Point) geom);
+					sb.append(')');
+					break;
+				case LineString.TYPE:
+				case CircularString.TYPE:
+					writePoints((LineString) geom);
+					break;
+				case CompoundCurve.TYPE:
+					writeElements(((CompoundCurve) geom).getGeometries(), LineString.TYPE);
+					break;
+				case Polygon.TYPE:
+				case CurvePolygon.TYPE:
+					writePolygon((PolygonBase<?>) geom);
+					break;
+				case MultiPoint.TYPE:
+					writeElements(((MultiPoint) geom).getGeometries(), Point.TYPE);
+					break;
+				case MultiLineString.TYPE:
+					writeElements(((MultiLineString) geom).getGeometries(), LineString.TYPE);
+					break;
+				case MultiCurve.TYPE:
+					writeElements(((MultiCurve) geom).getGeometries(), LineString.TYPE);
+					break;
+				case MultiPolygon.TYPE:
+					writeElements(((MultiPolygon) geom).getGeometries(), Polygon.TYPE);
+					break;
+				case MultiSurface.TYPE:
+					writeElements(((MultiSurface) geom).getGeometries(), Polygon.TYPE);
+					break;
+				case GeometryCollection.TYPE:
+					writeElements(((MultiGeometry<?>) geom).getGeometries(), -1);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown Geometry Type: " + type);
+			}
+		}
+
+		/**
+		 * Writes the elements of a composed geometry.
+		 * @param geoms elements
+		 * @param untaggedType type of elements that are written without their type name (-1 to write all names)
+		 */
+		private void writeElements(Iterable<? extends Geometry> geoms, int untaggedType)
+		{
+			sb.append('(');
+			boolean first = true;
+			for (Geometry geom : geoms)
+			{
+				if (!first)
+				{
+					sb.append(',');
+				}
+				first = false;
+				writeGeometry(geom, untaggedType);
+			}
+			sb.append(')');
+		}
+
+		/**
+		 * Writes a geometry.
+		 * @param geom geometry
+		 * @param untaggedType type of geometries that are written without their type name (-1 to always write it)
+		 */
+		void writeGeometry(Geometry geom, int untaggedType)
+		{
+			// linear rings are line strings in WKT
+			int type = geom.getType();
+			if ((untaggedType == LineString.TYPE) && (geom instanceof LineString) && !(geom instanceof CircularString))
+			{
+				type = LineString.TYPE;
+			}
+			if (type != untaggedType)
+			{
+				sb.append(getTypeName(type));
+				boolean dimensionFlags = iso && (haveZ || haveM);
+				if (dimensionFlags)
+				{
+					sb.append(' ');
+					if (haveZ)
+					{
+						sb.append('Z');
+					}
+					if (haveM)
+					{
+						sb.append('M');
+					}
+				}
+				else if (!iso && haveM && !haveZ)
+				{
+					sb.append('M');
+				}
+				if (dimensionFlags || geom.isEmpty())
+				{
+					sb.append(' ');
+				}
+			}
+			writeBody(geom, type);
+		}
+
+		/**
+		 * Writes the ordinates of a point.
+		 * @param p {@link Point}
+		 */
+		private void writePoint(Point p)
+		{
+			PostGisUtil.appendDouble(sb, p.getX());
+			sb.append(' ');
+			PostGisUtil.appendDouble(sb, p.getY());
+			if (haveZ)
+			{
+				sb.append(' ');
+				PostGisUtil.appendDouble(sb, p.getZ());
+			}
+			if (haveM)
+			{
+				sb.append(' ');
+				PostGisUtil.appendDouble(sb, p.getM());
+			}
+		}
+
+		/**
+		 * Writes the points of a line.
+		 * @param ls {@link LineString}
+		 */
+		private void writePoints(LineString ls)
+		{
+			sb.append('(');
+			boolean first = true;
+			for (Point p : ls)
+			{
+				if (!first)
+				{
+					sb.append(',');
+				}
+				first = false;
+				writePoint(p);
+			}
+			sb.append(')');
+		}
+
+		/**
+		 * Writes the rings of a polygon.
+		 * @param poly polygon
+		 */
+		private void writePolygon(PolygonBase<?> poly)
+		{
+			sb.append('(');
+			writeGeometry(poly.getOuterRing(), LineString.TYPE);
+			for (Geometry ring : poly.getRings())
+			{
+				sb.append(',');
+				writeGeometry(ring, LineString.TYPE);
+			}
+			sb.append(')');
+		}
+	}
+
+}
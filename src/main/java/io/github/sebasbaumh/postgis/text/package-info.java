@@ -0,0 +1,6 @@
+/**
+ * Parsing and writing of the (extended) well-known text representation of geometries.
+ * @author Sebastian Baumhekel
+ */
+@org.eclipse.jdt.annotation.NonNullByDefault
+package io.github.sebasbaumh.postgis.text;
@@ -0,0 +1,166 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.algorithms.AffineTransformation;
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.text.WktParser;
+import io.github.sebasbaumh.postgis.text.WktWriter;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class AffineTransformationTest
+{
+	private static String transform(AffineTransformation t, String wkt)
+	{
+		Geometry geom = WktParser.parse(wkt);
+		geom.apply(t);
+		return WktWriter.writeEwkt(geom);
+	}
+
+	@Test
+	public void testApply()
+	{
+		AffineTransformation t = AffineTransformation.translation(10, 20);
+		Assert.assertEquals("SRID=4326;POINT(11 22)", transform(t, "SRID=4326;POINT(1 2)"));
+		Assert.assertEquals("LINESTRING(10 20,11 21)", transform(t, "LINESTRING(0 0,1 1)"));
+		Assert.assertEquals("MULTIPOINT((10 20),(11 21))", transform(t, "MULTIPOINT(0 0,1 1)"));
+		Assert.assertEquals(
+				"GEOMETRYCOLLECTION(POINT(10 20),COMPOUNDCURVE(CIRCULARSTRING(10 20,11 21,12 20),(12 20,13 20)))",
+				transform(t, "GEOMETRYCOLLECTION(POINT(0 0),COMPOUNDCURVE(CIRCULARSTRING(0 0,1 1,2 0),(2 0,3 0)))"));
+		// z is only changed for 3d coordinates, m never
+		Assert.assertEquals("LINESTRING(10 20 5 7,11 21 6 8)",
+				transform(AffineTransformation.translation(10, 20, 5), "LINESTRING(0 0 0 7,1 1 1 8)"));
+		Assert.assertEquals("POINTM(10 20 7)",
+				transform(AffineTransformation.translation(10, 20, 5), "POINT M(0 0 7)"));
+		Assert.assertEquals("POINT EMPTY", transform(t, "POINT EMPTY"));
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testDefaultApply()
+	{
+		// geometries of other libraries only need to provide their coordinates
+		List<Point> points = Arrays.asList(new Point(1, 2), new Point(3, 4));
+		Geometry geom = new Geometry(Point.TYPE)
+		{
+			@Override
+			public Iterable<Point> getCoordinates()
+			{
+				return points;
+			}
+
+			@Override
+			public int getNumberOfCoordinates()
+			{
+				return points.size();
+			}
+
+			@Override
+			public boolean hasMeasure()
+			{
+				return false;
+			}
+
+			@Override
+			public boolean is3d()
+			{
+				return false;
+			}
+
+			@Override
+			public boolean isEmpty()
+			{
+				return false;
+			}
+		};
+		geom.apply(AffineTransformation.translation(10, 20));
+		Assert.assertEquals(Arrays.asList(new Point(11, 22), new Point(13, 24)), points);
+	}
+
+	@Test
+	public void testMirroredPolygon()
+	{
+		// mirroring keeps the outer ring counterclockwise and holes clockwise
+		Polygon poly = (Polygon) WktParser.parse("POLYGON((0 0,10 0,10 10,0 10,0 0),(2 2,2 4,4 4,4 2,2 2))");
+		poly.apply(AffineTransformation.scaling(-1, 1));
+		Assert.assertFalse(poly.getOuterRing().isClockwise());
+		for (LinearRing ring : poly.getRings())
+		{
+			Assert.assertTrue(ring.isClockwise());
+		}
+		Assert.assertEquals("POLYGON((0 0,0 10,-10 10,-10 0,0 0),(-2 2,-4 2,-4 4,-2 4,-2 2))",
+				WktWriter.writeEwkt(poly));
+	}
+
+	@Test
+	public void testPGgeometry() throws Exception
+	{
+		PGgeometry pg = new PGgeometry(new Point(1, 2));
+		byte[] bytes = new byte[pg.lengthInBytes()];
+		pg.toBytes(bytes, 0);
+		// binary data must be updated
+		pg.apply(AffineTransformation.scaling(2, 3));
+		pg.toBytes(bytes, 0);
+		Assert.assertEquals(new Point(2, 6), BinaryParser.parse(bytes, 0));
+		new PGgeometry().apply(AffineTransformation.scaling(2, 3));
+	}
+
+	@Test
+	public void testTransform()
+	{
+		AffineTransformation t = AffineTransformation.rotation(Math.PI / 2, 1, 1);
+		Point p = new Point(2, 1);
+		p.apply(t);
+		Assert.assertEquals(1, p.getX(), 1e-12);
+		Assert.assertEquals(2, p.getY(), 1e-12);
+		// composition
+		t = AffineTransformation.scaling(2, 3, 4).then(AffineTransformation.translation(1, 2, 3));
+		Assert.assertArrayEquals(new double[] { 2, 0, 0, 1, 0, 3, 0, 2, 0, 0, 4, 3 }, t.getMatrix(), 0);
+		// packed arrays
+		double[] coords = new double[] { 9, 1, 2, 3, 7, 4, 5, 6, 8 };
+		t.transform(coords, 1, 2, 4, true);
+		Assert.assertArrayEquals(new double[] { 9, 3, 8, 15, 7, 9, 17, 27, 8 }, coords, 0);
+		coords = new double[] { 1, 2, 3, 4 };
+		t.transform(coords, 0, 2, 2, false);
+		Assert.assertArrayEquals(new double[] { 3, 8, 7, 14 }, coords, 0);
+		double[] xs = new double[] { 1, 4 };
+		double[] ys = new double[] { 2, 5 };
+		double[] zs = new double[] { 3, 6 };
+		t.transform(xs, ys, zs, 0, 2);
+		Assert.assertArrayEquals(new double[] { 3, 9 }, xs, 0);
+		Assert.assertArrayEquals(new double[] { 8, 17 }, ys, 0);
+		Assert.assertArrayEquals(new double[] { 15, 27 }, zs, 0);
+		t.transform(xs, ys, null, 1, 1);
+		Assert.assertArrayEquals(new double[] { 3, 19 }, xs, 0);
+	}
+
+}
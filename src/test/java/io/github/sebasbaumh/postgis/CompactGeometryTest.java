@@ -0,0 +1,136 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.util.Iterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+import io.github.sebasbaumh.postgis.binary.CompactGeometry;
+import io.github.sebasbaumh.postgis.binary.CompactGeometry.Encoding;
+import io.github.sebasbaumh.postgis.text.WktParser;
+import io.github.sebasbaumh.postgis.text.WktWriter;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class CompactGeometryTest
+{
+	private static final String[] WKT = { "POINT(1 2)", "POINT EMPTY", "POINTM(1 2 3)", "LINESTRING(0 0 1,1 1 2)",
+			"POLYGON((0 0,0 1,1 1,0 0),(0.2 0.2,0.4 0.2,0.2 0.4,0.2 0.2))",
+			"MULTIPOLYGON(((0 0,0 1,1 1,0 0)),((5 5,5 6,6 6,5 5)))",
+			"GEOMETRYCOLLECTION(POINT(1 2 3 4),MULTILINESTRING((0 0 0 0,1 1 1 1)))",
+			"CURVEPOLYGON(COMPOUNDCURVE(CIRCULARSTRING(-1 0,0 1,1 0),(1 0,-1 0)))" };
+
+	private static void assertClose(Geometry expected, Geometry actual, double maxError)
+	{
+		Assert.assertEquals(expected.getType(), actual.getType());
+		Assert.assertEquals(expected.getSrid(), actual.getSrid());
+		Assert.assertEquals(expected.getNumberOfCoordinates(), actual.getNumberOfCoordinates());
+		Iterator<Point> it = actual.getCoordinates().iterator();
+		for (Point p : expected.getCoordinates())
+		{
+			Point p2 = it.next();
+			Assert.assertEquals(p.getX(), p2.getX(), maxError);
+			Assert.assertEquals(p.getY(), p2.getY(), maxError);
+			Assert.assertEquals(p.getZ(), p2.getZ(), maxError);
+			Assert.assertEquals(p.getM(), p2.getM(), maxError);
+		}
+	}
+
+	@Test
+	public void testExactValues()
+	{
+		// values that can be represented exactly are kept exactly
+		for (String wkt : WKT)
+		{
+			Geometry geom = WktParser.parse("SRID=4326;" + wkt);
+			byte[] wkb = BinaryWriter.writeBinary(geom);
+			CompactGeometry compact = BinaryParser.parseCompact(wkb, 0, 0.1);
+			Assert.assertEquals(4326, compact.getSrid());
+			Assert.assertEquals(geom.getType(), compact.getType());
+			assertClose(geom, compact.toGeometry(), 1e-12);
+			// writing gives the same structure
+			Assert.assertEquals(wkb.length, BinaryWriter.writeBinary(compact).length);
+			Assert.assertEquals(WktWriter.writeEwkt(compact.toGeometry()),
+					WktWriter.writeEwkt(BinaryParser.parseCompact(BinaryWriter.writeHexed(compact), 0.1).toGeometry()));
+		}
+	}
+
+	@Test
+	public void testFloat32()
+	{
+		// a line far away from the origin, which would lose precision as plain floats
+		LineString ls = new LineString();
+		for (int i = 0; i < 1000; i++)
+		{
+			ls.add(new Point(500000.123456 + i * 0.731, 5700000.654321 + Math.sin(i) * 100, i * 0.01));
+		}
+		ls.setSrid(25832);
+		CompactGeometry compact = BinaryParser.parseCompact(BinaryWriter.writeHexed(ls));
+		Assert.assertEquals(Encoding.FLOAT32, compact.getEncoding());
+		Assert.assertEquals(1000, compact.getNumberOfCoordinates());
+		Assert.assertTrue(Double.isNaN(compact.getResolution()));
+		Assert.assertTrue(compact.getMaxError() > 0);
+		// offsets keep the error small
+		Assert.assertTrue(compact.getMaxError() < 1e-4);
+		assertClose(ls, compact.toGeometry(), compact.getMaxError());
+		// 3 floats per point instead of a Point object with 4 doubles
+		Assert.assertTrue(compact.getMemorySize() < 1000 * 3 * 4 + 100);
+		// serialization is lossless
+		CompactGeometry compact2 = BinaryParser.parseCompact(BinaryWriter.writeBinary(compact), 0);
+		Assert.assertEquals(0, compact2.getMaxError(), 0);
+		Assert.assertEquals(BinaryWriter.writeHexed(compact), BinaryWriter.writeHexed(compact2));
+	}
+
+	@Test
+	public void testInvalid()
+	{
+		byte[] wkb = BinaryWriter.writeBinary(WktParser.parse("LINESTRING(0 0,1000000 1)"));
+		Assert.assertThrows(IllegalArgumentException.class, () -> BinaryParser.parseCompact(wkb, 0, 1e-6));
+		Assert.assertThrows(IllegalArgumentException.class, () -> BinaryParser.parseCompact(wkb, 0, 0));
+		Assert.assertThrows(IllegalArgumentException.class, () -> BinaryParser.parseCompact(wkb, 0, Double.NaN));
+		byte[] wkbInf = BinaryWriter.writeBinary(new Point(Double.POSITIVE_INFINITY, 1));
+		Assert.assertThrows(IllegalArgumentException.class, () -> BinaryParser.parseCompact(wkbInf, 0));
+	}
+
+	@Test
+	public void testQuantized()
+	{
+		Polygon poly = (Polygon) WktParser
+				.parse("SRID=3857;POLYGON((1000000.1234 2000000.5678,1000010.1111 2000000.2222,"
+						+ "1000010.3333 2000010.4444,1000000.1234 2000000.5678))");
+		CompactGeometry compact = BinaryParser.parseCompact(BinaryWriter.writeBinary(poly), 0, 0.01);
+		Assert.assertEquals(Encoding.QUANTIZED, compact.getEncoding());
+		Assert.assertEquals(0.01, compact.getResolution(), 0);
+		Assert.assertTrue(compact.getMaxError() <= 0.005 + 1e-9);
+		Assert.assertTrue(compact.getMaxError() > 0);
+		assertClose(poly, compact.toGeometry(), compact.getMaxError());
+		Assert.assertTrue(compact.toString().startsWith("CompactGeometry [QUANTIZED, 4 points"));
+	}
+
+}
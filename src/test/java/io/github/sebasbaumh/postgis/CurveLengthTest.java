@@ -0,0 +1,111 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.text.WktParser;
+import io.github.sebasbaumh.postgis.text.WktWriter;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class CurveLengthTest
+{
+	private static final double EPSILON = 1e-9;
+
+	@Test
+	public void testArcLength()
+	{
+		// half circle counter clockwise and clockwise
+		Assert.assertEquals(Math.PI, ((Curve) WktParser.parse("CIRCULARSTRING(-1 0,0 -1,1 0)")).length(), EPSILON);
+		Assert.assertEquals(Math.PI, ((Curve) WktParser.parse("CIRCULARSTRING(-1 0,0 1,1 0)")).length(), EPSILON);
+		// three quarters of a circle with radius 2
+		Assert.assertEquals(3 * Math.PI,
+				((Curve) WktParser.parse("CIRCULARSTRING(2 0,-2 0,0 -2)")).length(), EPSILON);
+		// quarter circle
+		Assert.assertEquals(Math.PI / 2,
+				((Curve) WktParser.parse("CIRCULARSTRING(1 0,0.707106781186548 0.707106781186548,0 1)")).length(),
+				EPSILON);
+		// full circle
+		Assert.assertEquals(2 * Math.PI, ((Curve) WktParser.parse("CIRCULARSTRING(0 0,2 0,0 0)")).length(), EPSILON);
+		// collinear points
+		Assert.assertEquals(4, ((Curve) WktParser.parse("CIRCULARSTRING(0 0,1 0,4 0)")).length(), EPSILON);
+		// multiple arcs
+		Assert.assertEquals(2 * Math.PI,
+				((Curve) WktParser.parse("CIRCULARSTRING(-1 0,0 1,1 0,2 -1,3 0)")).length(), EPSILON);
+		Assert.assertEquals(0, new CircularString().length(), 0);
+	}
+
+	@Test
+	public void testCompoundCurve()
+	{
+		Curve curve = (Curve) WktParser.parse("COMPOUNDCURVE(CIRCULARSTRING(-1 0,0 1,1 0),(1 0,1 -2))");
+		Assert.assertEquals(Math.PI + 2, curve.length(), EPSILON);
+		CurvePolygon poly = (CurvePolygon) WktParser
+				.parse("CURVEPOLYGON(COMPOUNDCURVE(CIRCULARSTRING(-1 0,0 1,1 0),(1 0,-1 0)))");
+		Assert.assertEquals(Math.PI + 2, poly.length(), EPSILON);
+	}
+
+	@Test
+	public void testLinearize()
+	{
+		CircularString cs = (CircularString) WktParser.parse("SRID=4326;CIRCULARSTRING(-1 0 0,0 1 4,1 0 10)");
+		// large deviation keeps the given points
+		LineString ls = cs.linearize(10);
+		Assert.assertEquals("SRID=4326;LINESTRING(-1 0 0,0 1 4,1 0 10)", WktWriter.writeEwkt(ls));
+		for (double maxDeviation : new double[] { 0.1, 0.01, 0.0001 })
+		{
+			ls = cs.linearize(maxDeviation);
+			Assert.assertEquals(4326, ls.getSrid());
+			Assert.assertTrue(ls.getStartPoint().coordsAreEqual(cs.getStartPoint()));
+			Assert.assertTrue(ls.getEndPoint().coordsAreEqual(cs.getEndPoint()));
+			// all points are on the arc and segment midpoints are within the deviation
+			Point prev = null;
+			double length = 0;
+			for (Point p : ls)
+			{
+				Assert.assertEquals(1, Math.hypot(p.getX(), p.getY()), EPSILON);
+				Assert.assertTrue(p.getY() >= -EPSILON);
+				if (prev != null)
+				{
+					double mx = (prev.getX() + p.getX()) / 2;
+					double my = (prev.getY() + p.getY()) / 2;
+					Assert.assertTrue(1 - Math.hypot(mx, my) <= maxDeviation + EPSILON);
+					// z is increasing
+					Assert.assertTrue(p.getZ() > prev.getZ());
+					length += Math.hypot(p.getX() - prev.getX(), p.getY() - prev.getY());
+				}
+				prev = p;
+			}
+			Assert.assertEquals(cs.length(), length, 2 * maxDeviation);
+		}
+		Assert.assertThrows(IllegalArgumentException.class, () -> cs.linearize(0));
+		CompoundCurve cc = (CompoundCurve) WktParser.parse("COMPOUNDCURVE(CIRCULARSTRING(-1 0,0 1,1 0),(1 0,1 -2))");
+		Assert.assertEquals("LINESTRING(-1 0,0 1,1 0,1 -2)", WktWriter.writeEwkt(cc.linearize(10)));
+		Assert.assertEquals(Math.PI + 2, cc.linearize(1e-6).length(), 1e-4);
+	}
+
+}
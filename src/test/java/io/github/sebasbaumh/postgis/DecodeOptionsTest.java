@@ -0,0 +1,198 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.algorithms.DouglasPeuckerSimplifier;
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+import io.github.sebasbaumh.postgis.binary.DecodeOptions;
+import io.github.sebasbaumh.postgis.binary.GeometryDecoder;
+
+@SuppressWarnings({ "javadoc", "static-method" })
+public class DecodeOptionsTest
+{
+	private static final Envelope CLIP = new Envelope(0, 0, 10, 10);
+
+	private static LinearRing createRing(double x0, double y0, double size)
+	{
+		return new LinearRing(Arrays.asList(new Point(x0, y0), new Point(x0 + size, y0),
+				new Point(x0 + size, y0 + size), new Point(x0, y0 + size), new Point(x0, y0)));
+	}
+
+	private static Geometry parse(Geometry geom, DecodeOptions options)
+	{
+		Geometry result = BinaryParser.parse(BinaryWriter.writeBinary(geom), 0, options);
+		Assert.assertEquals(result, BinaryParser.parse(BinaryWriter.writeHexed(geom), options));
+		return result;
+	}
+
+	@Test
+	public void testClipCollection()
+	{
+		GeometryCollection gc = new GeometryCollection();
+		gc.add(new Point(1, 1));
+		gc.add(new Point(20, 20));
+		gc.add(new MultiPoint(Arrays.asList(new Point(30, 30), new Point(40, 40))));
+		gc.add(new MultiLineString(Arrays.asList(new LineString(Arrays.asList(new Point(20, 0), new Point(30, 0))))));
+		gc.setSrid(4326);
+		Geometry result = parse(gc, DecodeOptions.DEFAULT.withClip(CLIP));
+		Assert.assertTrue(result instanceof GeometryCollection);
+		Assert.assertEquals(4326, result.getSrid());
+		GeometryCollection expected = new GeometryCollection();
+		expected.add(new Point(1, 1));
+		expected.setSrid(4326);
+		Assert.assertEquals(expected, result);
+		// completely outside
+		Geometry empty = parse(new LineString(Arrays.asList(new Point(20, 20), new Point(30, 30))),
+				DecodeOptions.DEFAULT.withClip(CLIP));
+		Assert.assertTrue(empty instanceof LineString);
+		Assert.assertTrue(empty.isEmpty());
+		Assert.assertTrue(parse(new Point(-1, 5), DecodeOptions.DEFAULT.withClip(CLIP)).isEmpty());
+	}
+
+	@Test
+	public void testClipLines()
+	{
+		LineString inside = new LineString(Arrays.asList(new Point(1, 1), new Point(2, 2)));
+		// crosses the envelope, so it is kept completely
+		LineString crossing = new LineString(Arrays.asList(new Point(-5, 5), new Point(15, 5)));
+		LineString outside = new LineString(Arrays.asList(new Point(20, 20), new Point(30, 30)));
+		MultiLineString mls = new MultiLineString(Arrays.asList(inside, outside, crossing));
+		Geometry result = parse(mls, DecodeOptions.DEFAULT.withClip(CLIP));
+		Assert.assertEquals(new MultiLineString(Arrays.asList(inside, crossing)), result);
+	}
+
+	@Test
+	public void testClipPolygons()
+	{
+		Polygon inside = new Polygon(createRing(0, 0, 8));
+		inside.addRing(createRing(1, 1, 1));
+		// hole outside of the clip envelope
+		inside.addRing(createRing(9, 9, 2));
+		inside.addRing(createRing(11, 11, 1));
+		Polygon outside = new Polygon(createRing(20, 20, 5));
+		outside.addRing(createRing(21, 21, 1));
+		Polygon second = new Polygon(createRing(5, 5, 20));
+		MultiPolygon mp = new MultiPolygon(Arrays.asList(inside, outside, second));
+		Geometry result = parse(mp, DecodeOptions.DEFAULT.withClip(CLIP));
+		Polygon expected = new Polygon(createRing(0, 0, 8));
+		expected.addRing(createRing(1, 1, 1));
+		expected.addRing(createRing(9, 9, 2));
+		Assert.assertEquals(new MultiPolygon(Arrays.asList(expected, second)), result);
+		Assert.assertTrue(parse(outside, DecodeOptions.DEFAULT.withClip(CLIP)).isEmpty());
+	}
+
+	@Test
+	public void testCurvesAndTins()
+	{
+		CircularString cs = new CircularString(Arrays.asList(new Point(20, 0, 1), new Point(25, 5, 2),
+				new Point(30, 0, 3)));
+		MultiCurve mc = new MultiCurve(Arrays.asList(cs));
+		DecodeOptions options = DecodeOptions.DEFAULT.withClip(CLIP).withTolerance(100).withoutZ();
+		Geometry result = parse(mc, options);
+		Assert.assertEquals(new MultiCurve(Arrays.asList(new CircularString(
+				Arrays.asList(new Point(20, 0), new Point(25, 5), new Point(30, 0))))), result);
+		Tin tin = new Tin(Arrays.asList(new Triangle(new Point(0, 0, 1, 2), new Point(1, 0, 3, 4),
+				new Point(0, 1, 5, 6))));
+		Tin tin2d = (Tin) parse(tin, DecodeOptions.DEFAULT.withoutZ().withoutM());
+		Assert.assertFalse(tin2d.is3d());
+		Assert.assertFalse(tin2d.hasMeasure());
+		Assert.assertEquals(new Tin(Arrays.asList(new Triangle(new Point(0, 0), new Point(1, 0), new Point(0, 1)))),
+				tin2d);
+		Tin tinM = (Tin) parse(tin, DecodeOptions.DEFAULT.withoutZ());
+		Assert.assertFalse(tinM.is3d());
+		Assert.assertTrue(tinM.hasMeasure());
+		Assert.assertEquals(4, tinM.getOrdinate(0, 1, 2), 0.0);
+	}
+
+	@Test
+	public void testDecimate()
+	{
+		LineString ls = new LineString();
+		for (int i = 0; i <= 100; i++)
+		{
+			ls.add(new Point(i * 0.1, 0));
+		}
+		LineString result = (LineString) parse(ls, DecodeOptions.DEFAULT.withTolerance(1));
+		ArrayList<Point> points = new ArrayList<Point>();
+		result.forEach(points::add);
+		Assert.assertEquals(11, points.size());
+		Assert.assertEquals(new Point(0, 0), points.get(0));
+		Assert.assertEquals(new Point(10, 0), points.get(points.size() - 1));
+		for (int i = 1; i < points.size(); i++)
+		{
+			Assert.assertTrue(points.get(i).getX() - points.get(i - 1).getX() >= 1 - 1e-9);
+		}
+		// rings do not collapse
+		Polygon poly = new Polygon(createRing(0, 0, 1));
+		Assert.assertEquals(poly, parse(poly, DecodeOptions.DEFAULT.withTolerance(100)));
+		// no decimation
+		Assert.assertEquals(ls, parse(ls, DecodeOptions.DEFAULT));
+		Assert.assertEquals(ls, parse(ls, DecodeOptions.DEFAULT.withTolerance(0)));
+		// additional line filter
+		LineString filtered = (LineString) parse(ls,
+				DecodeOptions.DEFAULT.withLineFilter(new DouglasPeuckerSimplifier(0.01)));
+		Assert.assertEquals(2, filtered.getNumberOfCoordinates());
+		Assert.assertThrows(IllegalArgumentException.class, () -> DecodeOptions.DEFAULT.withTolerance(-1));
+		Assert.assertThrows(IllegalArgumentException.class, () -> DecodeOptions.DEFAULT.withClip(Envelope.EMPTY));
+	}
+
+	@Test
+	public void testDecoder()
+	{
+		LineString ls = new LineString(Arrays.asList(new Point(1, 1, 1, 1), new Point(2, 2, 2, 2)));
+		DecodeOptions options = DecodeOptions.DEFAULT.withoutZ().withoutM();
+		GeometryDecoder decoder = new GeometryDecoder();
+		LineString expected = new LineString(Arrays.asList(new Point(1, 1), new Point(2, 2)));
+		Assert.assertEquals(expected, decoder.decode(BinaryWriter.writeBinary(ls), 0, options));
+		Assert.assertEquals(expected, decoder.decode(BinaryWriter.writeHexed(ls), options));
+		Assert.assertEquals(ls, decoder.decode(BinaryWriter.writeHexed(ls)));
+	}
+
+	@Test
+	public void testStripDimensions()
+	{
+		Point p = new Point(1, 2, 3, 4);
+		Point p2d = (Point) parse(p, DecodeOptions.DEFAULT.withoutZ().withoutM());
+		Assert.assertFalse(p2d.is3d());
+		Assert.assertFalse(p2d.hasMeasure());
+		Assert.assertEquals(new Point(1, 2), p2d);
+		Point pm = (Point) parse(p, DecodeOptions.DEFAULT.withoutZ());
+		Assert.assertFalse(pm.is3d());
+		Assert.assertTrue(pm.hasMeasure());
+		Assert.assertEquals(4, pm.getM(), 0.0);
+		Polygon poly = new Polygon(new LinearRing(Arrays.asList(new Point(0, 0, 1), new Point(1, 0, 1),
+				new Point(1, 1, 1), new Point(0, 0, 1))));
+		Geometry poly2d = parse(poly, DecodeOptions.DEFAULT.withoutZ());
+		Assert.assertFalse(poly2d.is3d());
+		Assert.assertEquals(new Polygon(new LinearRing(
+				Arrays.asList(new Point(0, 0), new Point(1, 0), new Point(1, 1), new Point(0, 0)))), poly2d);
+	}
+
+}
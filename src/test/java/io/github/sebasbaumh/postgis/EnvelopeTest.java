@@ -0,0 +1,221 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+@SuppressWarnings({ "javadoc", "static-method" })
+public class EnvelopeTest
+{
+
+	@Test
+	public void testBoxSrid() throws SQLException
+	{
+		PGbox2d box = new PGbox2d("SRID=4326;BOX(1 2,3 4)");
+		Assert.assertEquals(4326, box.getSrid());
+		Assert.assertEquals(4326, box.getURT().getSrid());
+		Assert.assertEquals("SRID=4326;BOX(1 2,3 4)", box.getValue());
+		Assert.assertEquals(box, new PGbox2d(box.getValue()));
+		PGbox3d box3d = new PGbox3d("SRID=-1;BOX3D(1 2 3,4 5 6)");
+		Assert.assertEquals(Geometry.UNKNOWN_SRID, box3d.getSrid());
+		Assert.assertEquals("BOX3D(1 2 3,4 5 6)", box3d.getValue());
+		// parsing again reuses the corners
+		Point llb = box3d.getLLB();
+		box3d.setValue("SRID=3857;BOX3D(7 8,9 10)");
+		Assert.assertSame(llb, box3d.getLLB());
+		Assert.assertEquals(3857, box3d.getSrid());
+		Assert.assertEquals(3857, box3d.getURT().getSrid());
+		Assert.assertFalse(llb.is3d());
+		Assert.assertEquals("SRID=3857;BOX3D(7 8,9 10)", box3d.getValue());
+		// an invalid value keeps the previous one
+		Assert.assertThrows(SQLException.class, () -> box3d.setValue("BOX3D(1 2,3 x)"));
+		Assert.assertEquals("SRID=3857;BOX3D(7 8,9 10)", box3d.getValue());
+	}
+
+	@Test
+	public void testBoxInvalid()
+	{
+		Assert.assertThrows(SQLException.class, () -> new PGbox2d("BOX(1 2)"));
+		Assert.assertThrows(SQLException.class, () -> new PGbox2d("BOX(1 2,3 x)"));
+		Assert.assertThrows(SQLException.class, () -> new PGbox2d("POINT(1 2,3 4)"));
+		Assert.assertThrows(SQLException.class, () -> new PGbox3d("BOX3D(1 2 3,4 5 6) x"));
+		Assert.assertThrows(SQLException.class, () -> new PGbox2d("SRID=4326 BOX(1 2,3 4)"));
+	}
+
+	@Test
+	public void testParse()
+	{
+		Envelope env = Envelope.parse("BOX(1 2,3 4)");
+		Assert.assertEquals(1, env.getMinX(), 0.0);
+		Assert.assertEquals(2, env.getMinY(), 0.0);
+		Assert.assertEquals(3, env.getMaxX(), 0.0);
+		Assert.assertEquals(4, env.getMaxY(), 0.0);
+		Assert.assertFalse(env.is3d());
+		Assert.assertFalse(env.isEmpty());
+		Assert.assertEquals(Geometry.UNKNOWN_SRID, env.getSrid());
+		Assert.assertEquals(new Envelope(1, 2, 3, 4), env);
+		// optional prefix, brackets and whitespace
+		Assert.assertEquals(env, Envelope.parse("  box2d ( 1 2 , 3 4 ) "));
+		Assert.assertEquals(env, Envelope.parse("1 2,3 4"));
+		Assert.assertEquals(env, Envelope.parse("BOX(1.0 2e0,0.3e1 4)"));
+	}
+
+	@Test
+	public void testParse3d()
+	{
+		Envelope env = Envelope.parse("SRID=4326;BOX3D(1 2 -3,4 5 6.5)");
+		Assert.assertTrue(env.is3d());
+		Assert.assertEquals(-3, env.getMinZ(), 0.0);
+		Assert.assertEquals(6.5, env.getMaxZ(), 0.0);
+		Assert.assertEquals(4326, env.getSrid());
+		Assert.assertEquals(new Envelope(1, 2, -3, 4, 5, 6.5, 4326), env);
+		Assert.assertEquals(new Envelope(1, 2, -3, 4, 5, 6.5, 4326).hashCode(), env.hashCode());
+		Assert.assertEquals("SRID=4326;BOX3D(1 2 -3,4 5 6.5)", env.toString());
+		Assert.assertEquals(env, Envelope.parse(env.toString()));
+	}
+
+	@Test
+	public void testParseInvalid()
+	{
+		Assert.assertThrows(IllegalArgumentException.class, () -> Envelope.parse(""));
+		Assert.assertThrows(IllegalArgumentException.class, () -> Envelope.parse("BOX(1 2,3 4"));
+		Assert.assertThrows(IllegalArgumentException.class, () -> Envelope.parse("BOX(1 2 3 4,5 6)"));
+		Assert.assertThrows(IllegalArgumentException.class, () -> Envelope.parse("BOX(1 2,3 4),"));
+		Assert.assertThrows(IllegalArgumentException.class, () -> Envelope.parse("SRID=x;BOX(1 2,3 4)"));
+	}
+
+	@Test
+	public void testBatch()
+	{
+		Envelope[] envs = { new Envelope(0, 0, 1, 1), new Envelope(5, 5, 6, 6), new Envelope(0.5, 0.5, 2, 2),
+				new Envelope(-3, -3, -2, -2) };
+		double[] flat = new double[envs.length * 4];
+		for (int i = 0; i < envs.length; i++)
+		{
+			envs[i].toArray(flat, i);
+			Assert.assertEquals(envs[i], Envelope.fromArray(flat, i));
+		}
+		Envelope query = new Envelope(0, 0, 2.5, 2.5);
+		int[] result = new int[envs.length];
+		Assert.assertEquals(2, Envelope.filterIntersects(flat, envs.length, query, result));
+		Assert.assertArrayEquals(new int[] { 0, 2 }, Arrays.copyOf(result, 2));
+		Assert.assertEquals(2, Envelope.filterWithin(flat, envs.length, query, result));
+		Assert.assertArrayEquals(new int[] { 0, 2 }, Arrays.copyOf(result, 2));
+		Assert.assertEquals(1, Envelope.filterWithin(flat, envs.length, new Envelope(0, 0, 1.5, 1.5), result));
+		Assert.assertEquals(0, Envelope.filterIntersects(flat, envs.length, Envelope.EMPTY, result));
+		double[] areas = new double[envs.length];
+		Envelope.area(flat, envs.length, areas);
+		for (int i = 0; i < envs.length; i++)
+		{
+			Assert.assertEquals(envs[i].area(), areas[i], 0.0);
+		}
+		Assert.assertEquals(new Envelope(-3, -3, 6, 6), Envelope.union(flat, envs.length));
+		Assert.assertTrue(Envelope.union(flat, 0).isEmpty());
+	}
+
+	@Test
+	public void testBoxConversion() throws SQLException
+	{
+		PGbox2d box = new PGbox2d("SRID=4326;BOX(1 2,3 4)");
+		Envelope env = Envelope.fromBox(box);
+		Assert.assertEquals(new Envelope(1, 2, 3, 4, 4326), env);
+		Assert.assertEquals(box, env.toBox());
+		Assert.assertEquals(4326, env.toBox().getSrid());
+		PGbox3d box3d = new PGbox3d("BOX3D(1 2 3,4 5 6)");
+		Envelope env3d = Envelope.fromBox(box3d);
+		Assert.assertTrue(env3d.is3d());
+		PGboxbase box3d2 = env3d.toBox();
+		Assert.assertTrue(box3d2 instanceof PGbox3d);
+		Assert.assertEquals(box3d, box3d2);
+		Assert.assertFalse(Envelope.fromBox(new PGbox3d("BOX3D(1 2,4 5)")).is3d());
+	}
+
+	@Test
+	public void testFromGeometry()
+	{
+		LineString ls = new LineString();
+		ls.add(new Point(1, 5, 3));
+		ls.add(new Point(-2, 4, 7));
+		ls.add(new Point(3, -1, 1));
+		ls.setSrid(4326);
+		Assert.assertEquals(new Envelope(-2, -1, 1, 3, 5, 7, 4326), Envelope.fromGeometry(ls));
+		Polygon poly = new Polygon(new LinearRing(
+				Arrays.asList(new Point(0, 0), new Point(10, 0), new Point(10, 20), new Point(0, 0))));
+		Envelope env = Envelope.fromGeometry(poly);
+		Assert.assertFalse(env.is3d());
+		Assert.assertEquals(new Envelope(0, 0, 10, 20), env);
+		Assert.assertEquals(200, env.area(), 0.0);
+		Assert.assertTrue(Envelope.fromGeometry(new LineString()).isEmpty());
+		Assert.assertTrue(Envelope.fromGeometry(new Point()).isEmpty());
+	}
+
+	@Test
+	public void testOperations()
+	{
+		Envelope a = new Envelope(0, 0, 2, 2);
+		Envelope b = new Envelope(1, 1, 3, 4);
+		Envelope c = new Envelope(5, 5, 6, 6);
+		Assert.assertTrue(a.intersects(b));
+		Assert.assertTrue(b.intersects(a));
+		Assert.assertFalse(a.intersects(c));
+		Assert.assertTrue(a.intersects(new Envelope(2, 2, 3, 3)));
+		Assert.assertFalse(a.contains(b));
+		Assert.assertTrue(a.contains(new Envelope(0.5, 0.5, 1, 1)));
+		Assert.assertTrue(a.contains(a));
+		Assert.assertTrue(a.contains(2, 0));
+		Assert.assertFalse(a.contains(2.1, 0));
+		Assert.assertEquals(new Envelope(0, 0, 3, 4), a.union(b));
+		Assert.assertEquals(a, a.union(Envelope.EMPTY));
+		Assert.assertEquals(a, Envelope.EMPTY.union(a));
+		// a known SRID wins, different ones cannot be mixed
+		Envelope a4326 = new Envelope(0, 0, 2, 2, 4326);
+		Assert.assertEquals(new Envelope(0, 0, 3, 4, 4326), a4326.union(b));
+		Assert.assertEquals(new Envelope(0, 0, 3, 4, 4326), b.union(a4326));
+		Assert.assertEquals(a4326, Envelope.EMPTY.union(a4326));
+		Assert.assertEquals(a4326, a.union(new Envelope(Double.NaN, Double.NaN, Double.NaN,
+				Double.NaN, 4326)));
+		Assert.assertThrows(IllegalArgumentException.class, () -> a4326.union(new Envelope(0, 0, 1, 1, 3857)));
+		Assert.assertEquals(4, a.area(), 0.0);
+		Assert.assertEquals(2, b.getWidth(), 0.0);
+		Assert.assertEquals(3, b.getHeight(), 0.0);
+		Assert.assertSame(a, a.expandToInclude(1, 1));
+		Assert.assertEquals(new Envelope(-1, 0, 2, 5), a.expandToInclude(-1, 5));
+		Assert.assertEquals(new Envelope(1, 2, 1, 2), Envelope.EMPTY.expandToInclude(1, 2));
+		// empty envelopes
+		Assert.assertTrue(Envelope.EMPTY.isEmpty());
+		Assert.assertFalse(Envelope.EMPTY.intersects(a));
+		Assert.assertFalse(a.intersects(Envelope.EMPTY));
+		Assert.assertFalse(Envelope.EMPTY.contains(0, 0));
+		Assert.assertEquals(0, Envelope.EMPTY.area(), 0.0);
+		// z is only kept for 3d envelopes
+		Envelope a3d = new Envelope(0, 0, 0, 1, 1, 1, Geometry.UNKNOWN_SRID);
+		Envelope b3d = new Envelope(0, 0, -1, 1, 1, 0.5, Geometry.UNKNOWN_SRID);
+		Assert.assertEquals(new Envelope(0, 0, -1, 1, 1, 1, Geometry.UNKNOWN_SRID), a3d.union(b3d));
+		Assert.assertFalse(a3d.union(a).is3d());
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+import io.github.sebasbaumh.postgis.geojson.GeoJsonReader;
+import io.github.sebasbaumh.postgis.geojson.GeoJsonWriter;
+import io.github.sebasbaumh.postgis.text.WktParser;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class GeoJsonTest
+{
+	//@formatter:off
+	private static final String[] WKT = new String[] {
+			"POINT(1 2)",
+			"SRID=4326;POINT(1.5 -2.25 3)",
+			"POINTM(1 2 3)",
+			"LINESTRING(0 0,1 1,2 0.5)",
+			"POLYGON((0 0,0 10,10 10,10 0,0 0),(2 2,2 4,4 4,4 2,2 2))",
+			"MULTIPOINT((1 2),(3 4))",
+			"MULTILINESTRING((0 0,1 1),(2 2,3 3))",
+			"MULTIPOLYGON(((0 0,0 1,1 1,1 0,0 0)),((5 5,5 6,6 6,6 5,5 5)))",
+			"GEOMETRYCOLLECTION(POINT(1 2),LINESTRING(0 0,1 1))" };
+	//@formatter:on
+
+	@Test
+	public void testFeatureCollection() throws IOException
+	{
+		String json = "{\"type\":\"FeatureCollection\",\"features\":[" + //
+				"{\"type\":\"Feature\",\"properties\":{\"name\":\"a \\\"b\\\"\",\"list\":[1,{\"x\":[]}]},\"geometry\":{\"coordinates\":[1,2],\"type\":\"Point\"}},"
+				+ "{\"type\":\"Feature\",\"geometry\":null,\"properties\":null},"
+				+ "{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[0,0],[1e1,2.5E-1]]}}"
+				+ "],\"bbox\":[0,0,10,2]}\n{\"type\":\"Point\",\"coordinates\":[5,6]}";
+		try (GeoJsonReader reader = new GeoJsonReader(new StringReader(json)))
+		{
+			Assert.assertEquals(new Point(1, 2), reader.read());
+			Assert.assertEquals(WktParser.parse("LINESTRING(0 0,10 0.25)"), reader.read());
+			Assert.assertEquals(new Point(5, 6), reader.read());
+			Assert.assertNull(reader.read());
+		}
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		for (String wkt : WKT)
+		{
+			Geometry geom = WktParser.parse(wkt);
+			String json = GeoJsonWriter.toGeoJson(geom);
+			// transcoding from EWKB gives the same result
+			Assert.assertEquals(json, GeoJsonWriter.toGeoJson(BinaryWriter.writeBinary(geom), 0));
+			Assert.assertEquals(json, GeoJsonWriter.toGeoJson(BinaryWriter.writeHexed(geom)));
+			// SRID and measures are not part of GeoJSON
+			Geometry expected = WktParser.parse(wkt.replace("SRID=4326;", "").replace("POINTM(1 2 3)", "POINT(1 2)"));
+			Assert.assertEquals(expected, GeoJsonReader.parse(json));
+		}
+	}
+
+	@Test
+	public void testStreams() throws IOException
+	{
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		StringBuilder sb = new StringBuilder();
+		GeoJsonWriter writerStream = new GeoJsonWriter(os);
+		GeoJsonWriter writerAppendable = new GeoJsonWriter(sb);
+		for (int i = 0; i < 1000; i++)
+		{
+			Geometry geom = new Point(i, i * 0.5);
+			writerStream.write(geom);
+			writerAppendable.writeBinary(BinaryWriter.writeBinary(geom), 0);
+		}
+		writerStream.flush();
+		writerAppendable.flush();
+		String json = new String(os.toByteArray(), StandardCharsets.UTF_8);
+		Assert.assertEquals(sb.toString(), json);
+		try (GeoJsonReader reader = new GeoJsonReader(new StringReader(json)))
+		{
+			for (int i = 0; i < 1000; i++)
+			{
+				Assert.assertEquals(new Point(i, i * 0.5), reader.read());
+			}
+			Assert.assertNull(reader.read());
+		}
+	}
+
+	@Test
+	public void testWriter()
+	{
+		Assert.assertEquals("{\"type\":\"Point\",\"coordinates\":[1,2.5,3]}",
+				GeoJsonWriter.toGeoJson(new Point(1, 2.5, 3)));
+		Assert.assertEquals("{\"type\":\"GeometryCollection\",\"geometries\":[]}",
+				GeoJsonWriter.toGeoJson(new GeometryCollection()));
+		try
+		{
+			GeoJsonWriter.toGeoJson(WktParser.parse("CIRCULARSTRING(0 0,1 1,2 0)"));
+			Assert.fail("curves are not supported");
+		}
+		catch (IllegalArgumentException ex)
+		{
+			// expected
+		}
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.algorithms.Geodesic;
+import io.github.sebasbaumh.postgis.algorithms.Geodesic.Method;
+import io.github.sebasbaumh.postgis.text.WktParser;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class GeodesicTest
+{
+	/**
+	 * Surface area of the WGS84 ellipsoid.
+	 */
+	private static final double EARTH_AREA = 5.10065621724e14;
+
+	private static double toDegrees(int deg, int min, double sec)
+	{
+		return Math.signum(deg) * (Math.abs(deg) + min / 60.0 + sec / 3600.0);
+	}
+
+	@Test
+	public void testArea()
+	{
+		// an octant of the ellipsoid
+		Assert.assertEquals(EARTH_AREA / 8, Geodesic.area(WktParser.parse("POLYGON((0 0,90 0,0 90,0 0))")), 1e6);
+		// orientation does not matter
+		Assert.assertEquals(EARTH_AREA / 8, Geodesic.area(WktParser.parse("POLYGON((0 0,0 90,90 0,0 0))")), 1e6);
+		// a hole of half the size
+		Assert.assertEquals(EARTH_AREA / 16,
+				Geodesic.area(WktParser.parse("POLYGON((0 0,90 0,0 90,0 0),(0 0,0 90,45 0,0 0))")), 1e6);
+		Assert.assertEquals(EARTH_AREA / 4,
+				Geodesic.area(WktParser.parse("MULTIPOLYGON(((0 0,90 0,0 90,0 0)),((0 0,-90 0,0 90,0 0)))")), 1e6);
+		Assert.assertEquals(0, Geodesic.area(WktParser.parse("LINESTRING(0 0,1 1)")), 0);
+		// a small square of about 1km x 1km
+		double area = Geodesic.area(WktParser.parse("POLYGON((0 0,0.008983 0,0.008983 0.009044,0 0.009044,0 0))"));
+		Assert.assertEquals(1e6, area, 1e3);
+	}
+
+	@Test
+	public void testDistance()
+	{
+		// Flinders Peak to Buninyong (Vincenty's test case)
+		double lon1 = toDegrees(144, 25, 29.52440);
+		double lat1 = toDegrees(-37, 57, 3.72030);
+		double lon2 = toDegrees(143, 55, 35.38390);
+		double lat2 = toDegrees(-37, 39, 10.15610);
+		Assert.assertEquals(54972.271, Geodesic.distance(lon1, lat1, lon2, lat2, Method.VINCENTY), 1e-3);
+		Assert.assertEquals(54972.271, Geodesic.distance(new Point(lon1, lat1), new Point(lon2, lat2)), 1e-3);
+		Assert.assertEquals(54972.271, Geodesic.distance(lon1, lat1, lon2, lat2, Method.HAVERSINE), 300);
+		// one degree on the equator
+		Assert.assertEquals(111319.491, Geodesic.distance(0, 0, 1, 0, Method.VINCENTY), 1e-3);
+		Assert.assertEquals(0, Geodesic.distance(5, 5, 5, 5, Method.VINCENTY), 0);
+		// nearly antipodal points still give a result
+		Assert.assertEquals(20003931, Geodesic.distance(0, 0, 179.9, 0.1, Method.VINCENTY), 2e4);
+	}
+
+	@Test
+	public void testLength()
+	{
+		Geometry geom = WktParser.parse("MULTILINESTRING((0 0,1 0,2 0),(0 0,0 1))");
+		Assert.assertEquals(2 * 111319.491 + 110574.389, Geodesic.length(geom), 1e-3);
+		Assert.assertEquals(Geodesic.length(geom, Method.HAVERSINE), Geodesic.length(geom), 1000);
+		Assert.assertEquals(111319.491,
+				Geodesic.length(WktParser.parse("GEOMETRYCOLLECTION(POINT(1 2),LINESTRING(0 0,1 0))")), 1e-3);
+		Assert.assertEquals(0, Geodesic.length(WktParser.parse("POLYGON((0 0,1 0,1 1,0 0))")), 0);
+		// packed coordinates
+		double[] coords = new double[] { 7, 0, 0, 7, 1, 0, 7 };
+		Assert.assertEquals(111319.491, Geodesic.length(coords, 1, 2, 3, Method.VINCENTY), 1e-3);
+		Assert.assertEquals(Geodesic.distance(0, 0, 1, 0, Method.HAVERSINE),
+				Geodesic.length(coords, 1, 2, 3, Method.HAVERSINE), 0);
+	}
+
+}
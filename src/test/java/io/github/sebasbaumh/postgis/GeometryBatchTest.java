@@ -0,0 +1,192 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+import io.github.sebasbaumh.postgis.columnar.GeometryBatch;
+import io.github.sebasbaumh.postgis.columnar.GeometryBatch.CoordinateLayout;
+import io.github.sebasbaumh.postgis.columnar.GeometryBatch.GeometryType;
+import io.github.sebasbaumh.postgis.columnar.GeometryBatchBuilder;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class GeometryBatchTest
+{
+
+	private static LinearRing createRing(double x0, double y0, double size)
+	{
+		return new LinearRing(Arrays.asList(new Point(x0, y0), new Point(x0, y0 + size),
+				new Point(x0 + size, y0 + size), new Point(x0 + size, y0), new Point(x0, y0)));
+	}
+
+	private static List<Geometry> createPolygons()
+	{
+		ArrayList<Geometry> geoms = new ArrayList<Geometry>();
+		Polygon poly = new Polygon(createRing(0, 0, 10));
+		poly.addRing(createRing(2, 2, 2));
+		poly.setSrid(4326);
+		geoms.add(poly);
+		MultiPolygon mp = new MultiPolygon();
+		mp.add(new Polygon(createRing(20, 20, 5)));
+		mp.add(new Polygon(createRing(30, 30, 5)));
+		mp.setSrid(4326);
+		geoms.add(mp);
+		return geoms;
+	}
+
+	@Test
+	public void testEwkb()
+	{
+		List<Geometry> geoms = createPolygons();
+		GeometryBatch expected = GeometryBatchBuilder.of(geoms, CoordinateLayout.INTERLEAVED).build();
+		GeometryBatchBuilder builder = new GeometryBatchBuilder(GeometryType.MULTIPOLYGON);
+		for (Geometry geom : geoms)
+		{
+			builder.addBinary(BinaryWriter.writeBinary(geom), 0);
+		}
+		GeometryBatch batch = builder.build();
+		Assert.assertEquals(4326, batch.getSrid());
+		Assert.assertArrayEquals(expected.getCoordinates(), batch.getCoordinates(), 0);
+		Assert.assertArrayEquals(expected.getGeometryOffsets(), batch.getGeometryOffsets());
+		Assert.assertArrayEquals(expected.getPartOffsets(), batch.getPartOffsets());
+		Assert.assertArrayEquals(expected.getRingOffsets(), batch.getRingOffsets());
+		// hexed input
+		GeometryBatch hexed = new GeometryBatchBuilder(GeometryType.MULTIPOLYGON)
+				.addHexed(BinaryWriter.writeHexed(geoms.get(0))).build();
+		Assert.assertEquals(1, hexed.size());
+		Assert.assertArrayEquals(new int[] { 0, 2 }, hexed.getPartOffsets());
+	}
+
+	@Test
+	public void testMixedTypes()
+	{
+		GeometryBatchBuilder builder = new GeometryBatchBuilder(GeometryType.LINESTRING);
+		try
+		{
+			builder.add(new Point(1, 2));
+			Assert.fail("point should not be accepted");
+		}
+		catch (IllegalArgumentException ex)
+		{
+			// expected
+		}
+		try
+		{
+			GeometryBatchBuilder.of(Arrays.asList(new Point(1, 2), createRing(0, 0, 1)), CoordinateLayout.INTERLEAVED);
+			Assert.fail("mixed types should not be accepted");
+		}
+		catch (IllegalArgumentException ex)
+		{
+			// expected
+		}
+	}
+
+	@Test
+	public void testMultiPolygon()
+	{
+		List<Geometry> geoms = createPolygons();
+		GeometryBatch batch = GeometryBatchBuilder.of(geoms, CoordinateLayout.INTERLEAVED).build();
+		Assert.assertEquals(GeometryType.MULTIPOLYGON, batch.getGeometryType());
+		Assert.assertEquals(2, batch.size());
+		Assert.assertEquals(20, batch.getNumberOfCoordinates());
+		Assert.assertArrayEquals(new int[] { 0, 1, 3 }, batch.getGeometryOffsets());
+		Assert.assertArrayEquals(new int[] { 0, 2, 3, 4 }, batch.getPartOffsets());
+		Assert.assertArrayEquals(new int[] { 0, 5, 10, 15, 20 }, batch.getRingOffsets());
+		// single polygon was promoted to a multi polygon
+		MultiPolygon mp = (MultiPolygon) batch.getGeometry(0);
+		Assert.assertNotNull(mp);
+		Assert.assertEquals(1, mp.size());
+		Assert.assertEquals(geoms.get(0), mp.iterator().next());
+		Assert.assertEquals(4326, mp.getSrid());
+		Assert.assertEquals(geoms.get(1), batch.getGeometry(1));
+	}
+
+	@Test
+	public void testPartialGeometryRollback()
+	{
+		List<Geometry> geoms = createPolygons();
+		GeometryBatchBuilder builder = new GeometryBatchBuilder(GeometryType.MULTIPOLYGON);
+		// multi polygon is truncated in its second polygon
+		byte[] data = BinaryWriter.writeBinary(geoms.get(1));
+		byte[] truncated = Arrays.copyOf(data, data.length - 8);
+		try
+		{
+			builder.addBinary(truncated, 0);
+			Assert.fail("truncated geometry should not be accepted");
+		}
+		catch (RuntimeException ex)
+		{
+			// expected
+		}
+		Assert.assertEquals(0, builder.size());
+		// SRID of the failed geometry is not kept
+		Polygon poly = new Polygon(createRing(0, 0, 10));
+		poly.setSrid(3857);
+		builder.add(poly);
+		Assert.assertThrows(IllegalArgumentException.class, () -> builder.addBinary(data, 0));
+		GeometryBatch batch = builder.build();
+		GeometryBatch expected = new GeometryBatchBuilder(GeometryType.MULTIPOLYGON).add(poly).build();
+		Assert.assertEquals(3857, batch.getSrid());
+		Assert.assertEquals(1, batch.size());
+		Assert.assertArrayEquals(expected.getCoordinates(), batch.getCoordinates(), 0);
+		Assert.assertArrayEquals(expected.getGeometryOffsets(), batch.getGeometryOffsets());
+		Assert.assertArrayEquals(expected.getPartOffsets(), batch.getPartOffsets());
+		Assert.assertArrayEquals(expected.getRingOffsets(), batch.getRingOffsets());
+	}
+
+	@Test
+	public void testPointsSeparated()
+	{
+		ArrayList<Geometry> points = new ArrayList<Geometry>();
+		points.add(new Point(1, 2, 3));
+		points.add(null);
+		points.add(new Point(4, 5));
+		GeometryBatch batch = GeometryBatchBuilder.of(points, CoordinateLayout.SEPARATED).build();
+		Assert.assertEquals(GeometryType.POINT, batch.getGeometryType());
+		Assert.assertEquals(3, batch.getDimension());
+		Assert.assertTrue(batch.is3d());
+		Assert.assertArrayEquals(new double[] { 1, Double.NaN, 4 }, batch.getOrdinates(0), 0);
+		Assert.assertArrayEquals(new double[] { 2, Double.NaN, 5 }, batch.getOrdinates(1), 0);
+		Assert.assertArrayEquals(new double[] { 3, Double.NaN, Double.NaN }, batch.getOrdinates(2), 0);
+		Assert.assertArrayEquals(new double[] { 1, 2, 3, Double.NaN, Double.NaN, Double.NaN, 4, 5, Double.NaN },
+				batch.getCoordinates(), 0);
+		Assert.assertEquals(0, batch.getGeometryOffsets().length);
+		Assert.assertTrue(batch.isNull(1));
+		ArrayList<Geometry> result = new ArrayList<Geometry>();
+		for (Geometry geom : batch)
+		{
+			result.add(geom);
+		}
+		Assert.assertEquals(points, result);
+	}
+
+}
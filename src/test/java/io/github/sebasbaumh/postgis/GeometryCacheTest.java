@@ -0,0 +1,182 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+import io.github.sebasbaumh.postgis.binary.GeometryCache;
+import io.github.sebasbaumh.postgis.text.WktParser;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class GeometryCacheTest
+{
+	@After
+	public void after()
+	{
+		// the default cache is used by all instances created afterwards
+		PGgeometrybase.setDefaultGeometryCache(null);
+	}
+
+	private static byte[] createLine(int i)
+	{
+		return BinaryWriter.writeBinary(WktParser.parse("SRID=4326;LINESTRING(" + i + " 0," + i + " 1)"));
+	}
+
+	private static byte[] withTrailingBytes(byte[] wkb)
+	{
+		byte[] data = new byte[wkb.length + 5];
+		System.arraycopy(wkb, 0, data, 0, wkb.length);
+		data[wkb.length] = 1;
+		return data;
+	}
+
+	@Test
+	public void testCache()
+	{
+		GeometryCache cache = new GeometryCache(1 << 20);
+		byte[] wkb = createLine(1);
+		Geometry geom = cache.getShared(wkb, 0);
+		Assert.assertEquals(WktParser.parse("SRID=4326;LINESTRING(1 0,1 1)"), geom);
+		// same content in another array gives the shared instance
+		Assert.assertSame(geom, cache.getShared(wkb.clone(), 0));
+		// with an offset
+		byte[] wkb2 = new byte[wkb.length + 3];
+		System.arraycopy(wkb, 0, wkb2, 3, wkb.length);
+		Assert.assertSame(geom, cache.getShared(wkb2, 3));
+		// trailing bytes are ignored
+		byte[] wkb3 = withTrailingBytes(wkb);
+		Assert.assertSame(geom, cache.getShared(wkb3, 0));
+		Assert.assertNotSame(geom, cache.getShared(createLine(2), 0));
+		Assert.assertEquals(3, cache.getHitCount());
+		Assert.assertEquals(2, cache.getMissCount());
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(2L * wkb.length, cache.getWeight());
+		// a copy can be modified without changing the shared instance
+		Geometry copy = geom.copy();
+		Assert.assertNotSame(geom, copy);
+		Assert.assertEquals(geom, copy);
+		copy.apply(p -> p.setX(5));
+		Assert.assertEquals(WktParser.parse("SRID=4326;LINESTRING(1 0,1 1)"), cache.getShared(wkb, 0));
+		// only the geometry is cached
+		cache.clear();
+		Assert.assertSame(cache.getShared(wkb3, 0), cache.getShared(wkb, 0));
+		Assert.assertEquals(wkb.length, cache.getWeight());
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(0, cache.getWeight());
+		Assert.assertNotSame(geom, cache.getShared(wkb, 0));
+		Assert.assertThrows(IllegalArgumentException.class, () -> new GeometryCache(0));
+	}
+
+	@Test
+	public void testEviction()
+	{
+		int size = createLine(0).length;
+		GeometryCache cache = new GeometryCache(10L * size);
+		// a frequently used entry
+		Geometry frequent = cache.getShared(createLine(0), 0);
+		Assert.assertSame(frequent, cache.getShared(createLine(0), 0));
+		// a scan of values only seen once
+		for (int i = 1; i <= 100; i++)
+		{
+			cache.getShared(createLine(i), 0);
+			Assert.assertTrue(cache.getWeight() <= cache.getMaxWeight());
+		}
+		Assert.assertEquals(10, cache.size());
+		// the protected entry survived the scan, while old values have been evicted
+		Assert.assertSame(frequent, cache.getShared(createLine(0), 0));
+		long misses = cache.getMissCount();
+		cache.getShared(createLine(1), 0);
+		Assert.assertEquals(misses + 1, cache.getMissCount());
+		// all remaining entries can still be found after many removals
+		GeometryCache large = new GeometryCache(200L * size);
+		for (int i = 0; i < 5000; i++)
+		{
+			large.getShared(createLine(i), 0);
+		}
+		Assert.assertEquals(200, large.size());
+		misses = large.getMissCount();
+		for (int i = 4900; i < 5000; i++)
+		{
+			large.getShared(createLine(i), 0);
+		}
+		Assert.assertEquals(misses, large.getMissCount());
+		// values larger than the cache are not cached
+		GeometryCache small = new GeometryCache(size - 1);
+		Assert.assertNotSame(small.getShared(createLine(0), 0), small.getShared(createLine(0), 0));
+		Assert.assertEquals(0, small.size());
+	}
+
+	@Test
+	public void testPGgeometry() throws SQLException
+	{
+		GeometryCache cache = new GeometryCache(1 << 20);
+		PGgeometrybase.setDefaultGeometryCache(cache);
+		byte[] wkb = createLine(1);
+		PGgeometry pg1 = new PGgeometry();
+		pg1.setByteValue(wkb, 0);
+		PGgeometry pg2 = new PGgeometry();
+		pg2.setByteValue(wkb.clone(), 0);
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(pg1, pg2);
+		// the geometry is shared without copying it
+		Assert.assertTrue(pg1.isGeometryShared());
+		Assert.assertSame(pg1.getSharedGeometry(), pg2.getSharedGeometry());
+		Assert.assertSame(cache.getShared(wkb, 0), pg2.getSharedGeometry());
+		Geometry copy = pg2.copyGeometry();
+		Assert.assertNotSame(pg2.getSharedGeometry(), copy);
+		Assert.assertEquals(pg2.getSharedGeometry(), copy);
+		// the shared geometry is copied for modifying it
+		Geometry geom = pg2.getGeometry();
+		Assert.assertFalse(pg2.isGeometryShared());
+		Assert.assertNotSame(pg1.getSharedGeometry(), geom);
+		Assert.assertSame(geom, pg2.getGeometry());
+		// changing one of them does not change the shared geometry
+		pg1.apply(p -> p.setX(p.getX() + 1));
+		Assert.assertNotNull(geom);
+		geom.apply(p -> p.setY(p.getY() + 1));
+		Assert.assertEquals(WktParser.parse("SRID=4326;LINESTRING(2 0,2 1)"), pg1.getGeometry());
+		Assert.assertEquals(WktParser.parse("SRID=4326;LINESTRING(1 1,1 2)"), pg2.getGeometry());
+		Assert.assertEquals(WktParser.parse("SRID=4326;LINESTRING(1 0,1 1)"), cache.getShared(wkb, 0));
+		// the cache can be set per instance
+		PGgeometrybase.setDefaultGeometryCache(null);
+		PGgeometry pg3 = new PGgeometry();
+		Assert.assertNull(pg3.getGeometryCache());
+		pg3.setByteValue(wkb, 0);
+		Assert.assertFalse(pg3.isGeometryShared());
+		pg3.setGeometryCache(cache);
+		pg3.setBinaryEquality(true);
+		pg3.setByteValue(withTrailingBytes(wkb), 0);
+		Assert.assertSame(cache.getShared(wkb, 0), pg3.getSharedGeometry());
+		Assert.assertEquals(wkb.length, pg3.lengthInBytes());
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryValueSetter;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter.WkbDialect;
+import io.github.sebasbaumh.postgis.binary.GeometryDecoder;
+import io.github.sebasbaumh.postgis.binary.GeometryEncoder;
+
+@SuppressWarnings({ "javadoc", "static-method" })
+public class GeometryCodecTest
+{
+	private static final String POINT_BIG_ENDIAN = "0000000001" + "4000000000000000" + "4008000000000000";
+
+	private static List<Geometry> createGeometries()
+	{
+		ArrayList<Geometry> geoms = new ArrayList<Geometry>();
+		LineString ls = new LineString();
+		for (int i = 0; i < 1000; i++)
+		{
+			ls.add(new Point(i, i * 0.5, i * 2));
+		}
+		ls.setSrid(4326);
+		geoms.add(ls);
+		geoms.add(new Point(1, 2));
+		Polygon poly = new Polygon(new LinearRing(
+				Arrays.asList(new Point(0, 0), new Point(10, 0), new Point(10, 10), new Point(0, 0))));
+		geoms.add(poly);
+		GeometryCollection gc = new GeometryCollection();
+		gc.add(new Point(5, 6, 7, 8));
+		gc.add(poly);
+		geoms.add(gc);
+		return geoms;
+	}
+
+	@Test
+	public void testDecoder()
+	{
+		GeometryDecoder decoder = new GeometryDecoder();
+		double[] envelope = new double[4];
+		for (Geometry geom : createGeometries())
+		{
+			byte[] data = BinaryWriter.writeBinary(geom);
+			Assert.assertEquals(geom, decoder.decode(data, 0));
+			Assert.assertEquals(geom, decoder.decode(BinaryWriter.writeHexed(geom)));
+			byte[] shifted = new byte[data.length + 3];
+			System.arraycopy(data, 0, shifted, 3, data.length);
+			Assert.assertEquals(geom, decoder.decode(shifted, 3));
+			Assert.assertTrue(decoder.decodeEnvelope(data, 0, envelope));
+			Envelope env = Envelope.fromGeometry(geom);
+			Assert.assertEquals(new Envelope(env.getMinX(), env.getMinY(), env.getMaxX(), env.getMaxY()),
+					Envelope.fromArray(envelope, 0));
+		}
+		// switching the byte order between values
+		Assert.assertEquals(new Point(2, 3), decoder.decode(POINT_BIG_ENDIAN));
+		Assert.assertEquals(new Point(1, 2), decoder.decode(BinaryWriter.writeHexed(new Point(1, 2))));
+		Assert.assertEquals(new Point(2, 3), decoder.decode(POINT_BIG_ENDIAN));
+		// the decoder stays usable after an error
+		Assert.assertThrows(IllegalArgumentException.class, () -> decoder.decode(new byte[] { 1, 99, 0, 0, 0 }, 0));
+		Assert.assertEquals(new Point(1, 2), decoder.decode(BinaryWriter.writeBinary(new Point(1, 2)), 0));
+	}
+
+	@Test
+	public void testEncoder()
+	{
+		GeometryEncoder encoder = new GeometryEncoder();
+		for (int i = 0; i < 2; i++)
+		{
+			for (Geometry geom : createGeometries())
+			{
+				Assert.assertArrayEquals(BinaryWriter.writeBinary(geom), encoder.encode(geom));
+				Assert.assertArrayEquals(BinaryWriter.writeBinary(geom, WkbDialect.ISO),
+						encoder.encode(geom, WkbDialect.ISO));
+				Assert.assertEquals(BinaryWriter.writeHexed(geom), encoder.encodeHexed(geom));
+				Assert.assertEquals(geom, BinaryParser.parse(encoder.encode(geom), 0));
+			}
+		}
+	}
+
+	@Test
+	public void testLargeBuffers()
+	{
+		ArrayList<Point> points = new ArrayList<Point>();
+		for (int i = 0; i < 100000; i++)
+		{
+			points.add(new Point(i, i));
+		}
+		LineString large = new LineString(points);
+		Point small = new Point(1, 2);
+		GeometryEncoder encoder = GeometryEncoder.acquire();
+		encoder.encode(large);
+		encoder.encodeHexed(large);
+		// a small value afterwards does not shrink the buffers
+		Assert.assertArrayEquals(BinaryWriter.writeBinary(small), encoder.encode(small));
+		Assert.assertEquals(BinaryWriter.writeHexed(small), encoder.encodeHexed(small));
+		Assert.assertTrue(encoder.getCapacity() > 1 << 20);
+		// but returning it to the pool drops them
+		encoder.close();
+		Assert.assertTrue(encoder.getCapacity() < 1 << 20);
+		// growing the buffer by single bytes
+		BinaryValueSetter setter = new BinaryValueSetter(1);
+		for (int i = 0; i < 100; i++)
+		{
+			setter.setByte((byte) i);
+		}
+		Assert.assertEquals(100, setter.size());
+		Assert.assertEquals(99, setter.getValue()[99]);
+	}
+
+	@Test
+	public void testPool() throws Exception
+	{
+		GeometryDecoder decoder;
+		try (GeometryDecoder d = GeometryDecoder.acquire())
+		{
+			decoder = d;
+		}
+		// an idle instance is reused
+		try (GeometryDecoder d = GeometryDecoder.acquire())
+		{
+			Assert.assertSame(decoder, d);
+		}
+		List<Geometry> geoms = createGeometries();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+		{
+			ArrayList<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+			for (int i = 0; i < 200; i++)
+			{
+				Geometry geom = geoms.get(i % geoms.size());
+				futures.add(executor.submit(() -> {
+					try (GeometryEncoder encoder = GeometryEncoder.acquire();
+							GeometryDecoder d = GeometryDecoder.acquire())
+					{
+						return geom.equals(d.decode(encoder.encode(geom), 0))
+								&& geom.equals(d.decode(encoder.encodeHexed(geom)));
+					}
+				}));
+			}
+			for (Future<Boolean> f : futures)
+			{
+				Assert.assertTrue(f.get());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+import io.github.sebasbaumh.postgis.text.WktParser;
+
+@SuppressWarnings({ "javadoc", "static-method" })
+public class GeometryEqualityTest
+{
+
+	private static LinearRing createRing(double x0, double y0, double size)
+	{
+		return new LinearRing(Arrays.asList(new Point(x0, y0), new Point(x0 + size, y0),
+				new Point(x0 + size, y0 + size), new Point(x0, y0 + size), new Point(x0, y0)));
+	}
+
+	private static PGgeometry fromBytes(byte[] data, boolean binaryEquality) throws SQLException
+	{
+		PGgeometry pg = new PGgeometry();
+		pg.setBinaryEquality(binaryEquality);
+		pg.setByteValue(data, 0);
+		return pg;
+	}
+
+	@Test
+	public void testBinaryEquality() throws SQLException
+	{
+		LineString ls = new LineString(Arrays.asList(new Point(1, 2), new Point(3, 4), new Point(5, 6)));
+		ls.setSrid(4326);
+		byte[] data = BinaryWriter.writeBinary(ls);
+		PGgeometry a = fromBytes(data, true);
+		Assert.assertTrue(a.isBinaryEquality());
+		PGgeometry b = fromBytes(data.clone(), true);
+		Assert.assertEquals(a, b);
+		Assert.assertEquals(a.hashCode(), b.hashCode());
+		Assert.assertEquals(ls.hashCode(), a.hashCode());
+		// the raw data is kept and written again
+		byte[] out = new byte[a.lengthInBytes()];
+		a.toBytes(out, 0);
+		Assert.assertArrayEquals(data, out);
+		// but only the geometry itself and not any trailing bytes
+		byte[] padded = Arrays.copyOf(data, data.length + 5);
+		PGgeometry e = fromBytes(padded, true);
+		Assert.assertEquals(data.length, e.lengthInBytes());
+		Assert.assertEquals(a, e);
+		// a slightly different coordinate is not equal in the exact mode
+		LineString ls2 = new LineString(Arrays.asList(new Point(1, 2), new Point(3, 4), new Point(5, Math.nextUp(6.0))));
+		ls2.setSrid(4326);
+		Assert.assertEquals(ls, ls2);
+		PGgeometry c = fromBytes(BinaryWriter.writeBinary(ls2), true);
+		Assert.assertNotEquals(a, c);
+		// instances without the raw data get their binary representation on the first comparison
+		PGgeometry d = new PGgeometry(ls);
+		d.setBinaryEquality(true);
+		Assert.assertEquals(a, d);
+		d.setGeometry(ls2);
+		Assert.assertNotEquals(a, d);
+		// the mode is only used if both instances have it enabled
+		PGgeometry f = fromBytes(BinaryWriter.writeBinary(ls2), false);
+		Assert.assertFalse(f.isBinaryEquality());
+		Assert.assertEquals(a, f);
+		Assert.assertEquals(f, a);
+		Assert.assertEquals(fromBytes(data, false), f);
+		// modifying the geometry resets the binary data
+		b.apply(p -> p.setX(p.getX() + 1));
+		Assert.assertNotEquals(a, b);
+		Assert.assertNotEquals(ls.hashCode(), b.hashCode());
+		b.apply(p -> p.setX(p.getX() - 1));
+		Assert.assertEquals(a, b);
+		Assert.assertEquals(a.hashCode(), b.hashCode());
+	}
+
+	@Test
+	public void testCollectionSizes()
+	{
+		LineString ls = new LineString(Arrays.asList(new Point(1, 2), new Point(3, 4)));
+		LineString ls2 = new LineString(Arrays.asList(new Point(1, 2), new Point(3, 4), new Point(5, 6)));
+		Assert.assertNotEquals(ls, ls2);
+		Assert.assertNotEquals(ls2, ls);
+		Assert.assertNotEquals(new MultiLineString(Arrays.asList(ls)), new MultiLineString(Arrays.asList(ls, ls)));
+		Assert.assertEquals(new MultiLineString(Arrays.asList(ls, ls2)), new MultiLineString(
+				Arrays.asList(new LineString(ls.getCoordinates()), new LineString(ls2.getCoordinates()))));
+		Assert.assertFalse(PostGisUtil.equalsIterable(Arrays.asList(1, 2), Arrays.asList(1, 2, 3)));
+		Assert.assertTrue(PostGisUtil.equalsIterable(Arrays.asList(1, 2), Arrays.asList(1, 2)));
+	}
+
+	@Test
+	public void testCopy()
+	{
+		Triangle triangle = new Triangle(new Point(0, 0), new Point(0, 9), new Point(9, 0));
+		Geometry[] geoms = { WktParser.parse("SRID=4326;POINT(1 2 3 4)"),
+				WktParser.parse("SRID=4326;POLYGON((0 0,0 10,10 10,10 0,0 0),(2 2,2 4,4 4,4 2,2 2))"),
+				WktParser.parse("MULTIPOLYGON(((0 0,0 1,1 1,1 0,0 0)),((5 5,5 6,6 6,6 5,5 5)))"),
+				WktParser.parse("GEOMETRYCOLLECTION(POINT(1 2),COMPOUNDCURVE(CIRCULARSTRING(0 0,1 1,1 0),(1 0,0 1)))"),
+				WktParser.parse("MULTISURFACE(CURVEPOLYGON(CIRCULARSTRING(0 0,4 0,4 4,0 4,0 0)))"),
+				new PolyhedralSurface(Arrays.asList(new Polygon(createRing(1, 2, 3)))), triangle,
+				new Tin(Arrays.asList(triangle)) };
+		for (Geometry geom : geoms)
+		{
+			Geometry copy = geom.copy();
+			Assert.assertNotSame(geom, copy);
+			Assert.assertEquals(geom.getClass(), copy.getClass());
+			Assert.assertEquals(geom, copy);
+			Assert.assertEquals(geom.getSrid(), copy.getSrid());
+			// changing the copy does not change the original
+			copy.apply(p -> p.setX(p.getX() + 100));
+			Assert.assertNotEquals(geom, copy);
+		}
+		Assert.assertEquals(new Point(0, 0), triangle.getStartPoint());
+	}
+
+	@Test
+	public void testPolygonOuterRing()
+	{
+		Polygon a = new Polygon(createRing(0, 0, 10));
+		Polygon b = new Polygon(createRing(0, 0, 20));
+		Assert.assertNotEquals(a, b);
+		Assert.assertEquals(a, new Polygon(createRing(0, 0, 10)));
+		a.addRing(createRing(1, 1, 1));
+		Assert.assertNotEquals(a, new Polygon(createRing(0, 0, 10)));
+		b = new Polygon(createRing(0, 0, 10));
+		b.addRing(createRing(1, 1, 1));
+		Assert.assertEquals(a, b);
+		Assert.assertEquals(a.hashCode(), b.hashCode());
+	}
+
+}
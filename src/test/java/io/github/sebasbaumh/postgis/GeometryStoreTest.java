@@ -0,0 +1,124 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+import io.github.sebasbaumh.postgis.store.GeometryStore;
+import io.github.sebasbaumh.postgis.store.GeometryStoreWriter;
+import io.github.sebasbaumh.postgis.text.WktParser;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class GeometryStoreTest
+{
+	private static Path createTempFile() throws IOException
+	{
+		Path file = Files.createTempFile("geometrystore", ".bin");
+		file.toFile().deleteOnExit();
+		return file;
+	}
+
+	@Test
+	public void testEmpty() throws IOException
+	{
+		Path file = createTempFile();
+		new GeometryStoreWriter(file).close();
+		GeometryStore store = GeometryStore.open(file);
+		Assert.assertEquals(0, store.size());
+		Assert.assertFalse(store.iterator().hasNext());
+		Assert.assertThrows(IndexOutOfBoundsException.class, () -> store.get(0));
+	}
+
+	@Test
+	public void testInvalid() throws IOException
+	{
+		Path file = createTempFile();
+		Files.write(file, new byte[100]);
+		Assert.assertThrows(IOException.class, () -> GeometryStore.open(file));
+		Files.write(file, new byte[5]);
+		Assert.assertThrows(IOException.class, () -> GeometryStore.open(file));
+	}
+
+	@Test
+	public void testStore() throws IOException
+	{
+		ArrayList<Geometry> geoms = new ArrayList<Geometry>();
+		for (int i = 0; i < 1000; i++)
+		{
+			geoms.add(WktParser.parse("SRID=4326;LINESTRING(" + i + " 0," + i + " 1," + (i + 2) + " 3)"));
+		}
+		geoms.add(WktParser.parse("POINT EMPTY"));
+		// a large geometry, which does not fit into the write buffer
+		LineString ls = new LineString();
+		for (int i = 0; i < 10000; i++)
+		{
+			ls.add(new Point(i, -i, i * 0.5));
+		}
+		geoms.add(ls);
+		geoms.add(WktParser.parse("SRID=3857;POLYGON((0 0,0 1,1 1,0 0))"));
+		Path file = createTempFile();
+		try (GeometryStoreWriter writer = new GeometryStoreWriter(file))
+		{
+			for (Geometry geom : geoms)
+			{
+				writer.add(geom);
+			}
+			// raw EWKB
+			writer.addBinary(BinaryWriter.writeBinary(new Point(1, 2)));
+			Assert.assertEquals(geoms.size() + 1, writer.size());
+		}
+		geoms.add(new Point(1, 2));
+		// open the store again
+		GeometryStore store = GeometryStore.open(file);
+		Assert.assertEquals(geoms.size(), store.size());
+		int i = 0;
+		for (Geometry geom : store)
+		{
+			Assert.assertEquals(geoms.get(i), geom);
+			Assert.assertArrayEquals(BinaryWriter.writeBinary(geoms.get(i)), store.getBinary(i));
+			Assert.assertEquals(geoms.get(i).getType(), store.getType(i));
+			Assert.assertEquals(geoms.get(i).getSrid(), store.getSrid(i));
+			i++;
+		}
+		Assert.assertEquals(geoms.size(), i);
+		double[] envelope = new double[4];
+		Assert.assertTrue(store.getEnvelope(10, envelope));
+		Assert.assertArrayEquals(new double[] { 10, 0, 12, 3 }, envelope, 0);
+		Assert.assertFalse(store.getEnvelope(1000, envelope));
+		Assert.assertTrue(store.getEnvelope(1001, envelope));
+		Assert.assertArrayEquals(new double[] { 0, -9999, 9999, 0 }, envelope, 0);
+		Assert.assertThrows(IndexOutOfBoundsException.class, () -> store.get(-1));
+		Assert.assertThrows(IndexOutOfBoundsException.class, () -> store.get(store.size()));
+	}
+
+}
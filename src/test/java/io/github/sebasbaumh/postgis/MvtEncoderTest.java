@@ -0,0 +1,111 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+import io.github.sebasbaumh.postgis.mvt.MvtEncoder;
+import io.github.sebasbaumh.postgis.mvt.MvtGeometry;
+import io.github.sebasbaumh.postgis.text.WktParser;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class MvtEncoderTest
+{
+	/**
+	 * Encoder mapping coordinates 1:1 to tile coordinates, but with the y axis pointing up.
+	 */
+	private final MvtEncoder encoder = new MvtEncoder(0, 0, 4096, 4096);
+
+	private MvtGeometry encode(String wkt)
+	{
+		Geometry geom = WktParser.parse(wkt);
+		MvtGeometry mvt = encoder.encode(geom);
+		// encoding the EWKB gives the same result
+		Assert.assertEquals(mvt, encoder.encode(BinaryWriter.writeBinary(geom), 0));
+		Assert.assertNotNull(mvt);
+		return mvt;
+	}
+
+	@Test
+	public void testClipping()
+	{
+		// line crossing the whole tile is clipped to the buffer
+		MvtGeometry mvt = encode("LINESTRING(-1000 3996,5000 3996)");
+		Assert.assertArrayEquals(new int[] { 9, 511, 200, 10, 9216, 0 }, mvt.getCommands());
+		// a line leaving and entering the tile again is split
+		mvt = encode("LINESTRING(0 4000,0 10000,10 10000,10 4000)");
+		Assert.assertEquals(MvtGeometry.TYPE_LINESTRING, mvt.getType());
+		Assert.assertArrayEquals(new int[] { 9, 0, 192, 10, 0, 703, 9, 20, 0, 10, 0, 704 }, mvt.getCommands());
+		// polygon covering the tile is clipped to the buffered tile
+		mvt = encode("POLYGON((-10000 -10000,-10000 10000,10000 10000,10000 -10000,-10000 -10000))");
+		Assert.assertArrayEquals(new int[] { 9, 8704, 511, 26, 0, 9216, 9215, 0, 0, 9215, 15 }, mvt.getCommands());
+		// geometries outside of the tile are dropped
+		Assert.assertNull(encoder.encode(WktParser.parse("POINT(-1000 -1000)")));
+		Assert.assertNull(encoder.encode(WktParser.parse("LINESTRING(5000 0,6000 100)")));
+	}
+
+	@Test
+	public void testDegenerate()
+	{
+		// rings collapsing to a single tile pixel are dropped including their holes
+		Assert.assertNull(encoder.encode(WktParser.parse("POLYGON((0 0,0 0.1,0.1 0.1,0.1 0,0 0))")));
+		MvtGeometry mvt = encode(
+				"MULTIPOLYGON(((0 0,0 0.1,0.1 0.1,0.1 0,0 0),(0.01 0.01,0.02 0.01,0.02 0.02,0.01 0.01)),((3 4090,8 4084,20 4062,3 4090)))");
+		Assert.assertArrayEquals(new int[] { 9, 6, 12, 18, 10, 12, 24, 44, 15 }, mvt.getCommands());
+		// lines collapsing to a point
+		Assert.assertNull(encoder.encode(WktParser.parse("LINESTRING(1 1,1.1 1.1)")));
+	}
+
+	@Test
+	public void testSpecificationExamples()
+	{
+		// examples of the vector tile specification 2.1 (y axis is flipped)
+		MvtGeometry mvt = encode("POINT(25 4079)");
+		Assert.assertEquals(MvtGeometry.TYPE_POINT, mvt.getType());
+		Assert.assertArrayEquals(new int[] { 9, 50, 34 }, mvt.getCommands());
+		mvt = encode("MULTIPOINT((5 4089),(3 4094))");
+		Assert.assertArrayEquals(new int[] { 17, 10, 14, 3, 9 }, mvt.getCommands());
+		mvt = encode("LINESTRING(2 4094,2 4086,10 4086)");
+		Assert.assertEquals(MvtGeometry.TYPE_LINESTRING, mvt.getType());
+		Assert.assertArrayEquals(new int[] { 9, 4, 4, 18, 0, 16, 16, 0 }, mvt.getCommands());
+		mvt = encode("MULTILINESTRING((2 4094,2 4086,10 4086),(1 4095,3 4091))");
+		Assert.assertArrayEquals(new int[] { 9, 4, 4, 18, 0, 16, 16, 0, 9, 17, 17, 10, 4, 8 }, mvt.getCommands());
+		mvt = encode("POLYGON((3 4090,8 4084,20 4062,3 4090))");
+		Assert.assertEquals(MvtGeometry.TYPE_POLYGON, mvt.getType());
+		Assert.assertArrayEquals(new int[] { 9, 6, 12, 18, 10, 12, 24, 44, 15 }, mvt.getCommands());
+		// orientation is fixed for rings in the wrong order
+		mvt = encode("POLYGON((3 4090,20 4062,8 4084,3 4090))");
+		Assert.assertArrayEquals(new int[] { 9, 6, 12, 18, 10, 12, 24, 44, 15 }, mvt.getCommands());
+		// multi polygon with a hole
+		mvt = encode(
+				"MULTIPOLYGON(((0 4096,10 4096,10 4086,0 4086,0 4096)),((11 4085,20 4085,20 4076,11 4076,11 4085),(13 4083,13 4079,17 4079,17 4083,13 4083)))");
+		Assert.assertArrayEquals(new int[] { 9, 0, 0, 26, 20, 0, 0, 20, 19, 0, 15, 9, 22, 2, 26, 18, 0, 0, 18, 17, 0,
+				15, 9, 4, 13, 26, 0, 8, 8, 0, 0, 7, 15 }, mvt.getCommands());
+	}
+
+}
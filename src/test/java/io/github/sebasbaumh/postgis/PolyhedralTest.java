@@ -0,0 +1,182 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class PolyhedralTest
+{
+	/**
+	 * TRIANGLE((0 0,0 9,9 0,0 0))
+	 */
+	private static final String TRIANGLE_HEX = "0111000000010000000400000000000000000000000000000000000000000000"
+			+ "000000000000000000000022400000000000002240000000000000000000000000000000000000000000000000";
+
+	private static LinearRing createRing(double x, double y, double size)
+	{
+		LinearRing ring = new LinearRing();
+		ring.add(new Point(x, y));
+		ring.add(new Point(x + size, y));
+		ring.add(new Point(x + size, y + size));
+		ring.add(new Point(x, y + size));
+		ring.close();
+		return ring;
+	}
+
+	private static Geometry roundtrip(Geometry geom)
+	{
+		Geometry geom2 = BinaryParser.parse(BinaryWriter.writeHexed(geom));
+		Assert.assertEquals(geom, geom2);
+		Assert.assertEquals(BinaryWriter.writeHexed(geom), BinaryWriter.writeHexed(geom2));
+		return geom2;
+	}
+
+	@Test
+	public void testEnvelope()
+	{
+		Tin tin = new Tin(new double[] { 0, 0, 0, 5, 5, 0, 5, 5, -1, 2, 2, 8 }, 2, false, false);
+		double[] envelope = new double[4];
+		Assert.assertTrue(BinaryParser.parseEnvelope(BinaryWriter.writeBinary(tin), 0, envelope));
+		Assert.assertArrayEquals(new double[] { -1, 0, 5, 8 }, envelope, 0);
+		Assert.assertTrue(BinaryParser.parseEnvelope(
+				BinaryWriter.writeBinary(new PolyhedralSurface(Arrays.asList(new Polygon(createRing(1, 2, 3))))), 0,
+				envelope));
+		Assert.assertArrayEquals(new double[] { 1, 2, 4, 5 }, envelope, 0);
+	}
+
+	@Test
+	public void testPolyhedralSurface()
+	{
+		ArrayList<Polygon> polys = new ArrayList<Polygon>();
+		polys.add(new Polygon(createRing(0, 0, 1)));
+		polys.add(new Polygon(createRing(1, 0, 1)));
+		PolyhedralSurface ps = new PolyhedralSurface(polys);
+		ps.setSrid(4326);
+		Assert.assertTrue(ps.checkConsistency());
+		PolyhedralSurface ps2 = (PolyhedralSurface) roundtrip(ps);
+		Assert.assertEquals(2, ps2.size());
+		Assert.assertEquals(4326, ps2.getGeometries().iterator().next().getSrid());
+	}
+
+	@Test
+	public void testTin()
+	{
+		ArrayList<Triangle> triangles = new ArrayList<Triangle>();
+		for (int i = 0; i < 100; i++)
+		{
+			triangles.add(new Triangle(new Point(i, 0, i * 0.5), new Point(i + 1, 0, 1), new Point(i, 1, 2)));
+		}
+		Tin tin = new Tin(triangles);
+		tin.setSrid(25832);
+		Assert.assertTrue(tin.checkConsistency());
+		Assert.assertTrue(tin.is3d());
+		Assert.assertFalse(tin.hasMeasure());
+		Assert.assertEquals(100, tin.getNumberOfTriangles());
+		Assert.assertEquals(400, tin.getNumberOfCoordinates());
+		Assert.assertEquals(3, tin.getDimension());
+		Assert.assertEquals(10 * 0.5, tin.getOrdinate(10, 0, 2), 0);
+		Tin tin2 = (Tin) roundtrip(tin);
+		Assert.assertEquals(25832, tin2.getSrid());
+		// triangles are created on access
+		int i = 0;
+		for (Triangle t : tin2)
+		{
+			Assert.assertEquals(triangles.get(i++).getOuterRing(), t.getOuterRing());
+			Assert.assertEquals(25832, t.getSrid());
+			Assert.assertTrue(t.checkConsistency());
+		}
+		Assert.assertEquals(100, i);
+		// apply writes the values back into the packed coordinates
+		tin2.apply(p -> p.setX(p.getX() + 1000));
+		Assert.assertEquals(1010, tin2.getOrdinate(10, 0, 0), 0);
+		Assert.assertNotEquals(tin, tin2);
+		// empty
+		Tin empty = new Tin();
+		Assert.assertTrue(empty.isEmpty());
+		Assert.assertFalse(empty.checkConsistency());
+		Assert.assertEquals(0, ((Tin) BinaryParser.parse(BinaryWriter.writeHexed(empty))).getNumberOfTriangles());
+	}
+
+	@Test
+	public void testTinMeasure()
+	{
+		Point p = new Point(1, 2);
+		p.setM(3);
+		Tin tin = new Tin(Arrays.asList(new Triangle(p, new Point(2, 2, Double.NaN, 4), new Point(1, 3, Double.NaN, 5))));
+		Assert.assertFalse(tin.is3d());
+		Assert.assertTrue(tin.hasMeasure());
+		Tin tin2 = (Tin) roundtrip(tin);
+		Assert.assertEquals(5, tin2.getOrdinate(0, 2, 2), 0);
+		Assert.assertEquals(tin.getTriangle(0), tin2.getTriangle(0));
+	}
+
+	@Test
+	public void testTinPacked()
+	{
+		double[] coords = new double[] { 0, 0, 1, 0, 0, 1, 5 };
+		Tin tin = new Tin(coords, 1, false, false);
+		// coordinates are copied
+		coords[0] = 7;
+		Assert.assertEquals(0, tin.getOrdinate(0, 0, 0), 0);
+		// ordinates are compared like for points
+		Tin tin2 = new Tin(new double[] { 0, 0, 1, 0, 0, Math.nextUp(1.0) }, 1, false, false);
+		Assert.assertEquals(tin, tin2);
+		Assert.assertNotEquals(tin, new Tin(new double[] { 0, 0, 1, 0, 0, 2 }, 1, false, false));
+	}
+
+	@Test
+	public void testTinHex()
+	{
+		Tin tin = (Tin) BinaryParser.parse("0110000000" + "01000000" + TRIANGLE_HEX);
+		Assert.assertEquals(1, tin.getNumberOfTriangles());
+		Assert.assertEquals(9, tin.getOrdinate(0, 1, 1), 0);
+		Assert.assertEquals(9, tin.getOrdinate(0, 2, 0), 0);
+		Assert.assertEquals("0110000000" + "01000000" + TRIANGLE_HEX, BinaryWriter.writeHexed(tin));
+	}
+
+	@Test
+	public void testTriangle()
+	{
+		Triangle t = (Triangle) BinaryParser.parse(TRIANGLE_HEX);
+		Assert.assertTrue(t.checkConsistency());
+		Assert.assertEquals(4, t.getNumberOfCoordinates());
+		Assert.assertEquals(TRIANGLE_HEX, BinaryWriter.writeHexed(t));
+		Assert.assertEquals(new Triangle(new Point(0, 0), new Point(0, 9), new Point(9, 0)), t);
+		roundtrip(t);
+		// a triangle has no holes
+		t.addRing(createRing(1, 1, 1));
+		Assert.assertFalse(t.checkConsistency());
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.algorithms.PreparedPolygon;
+import io.github.sebasbaumh.postgis.text.WktParser;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class PreparedPolygonTest
+{
+	/**
+	 * Simple crossing number test over all points of a ring.
+	 */
+	private static boolean containsNaive(LinearRing ring, double x, double y)
+	{
+		boolean inside = false;
+		Point prev = ring.getEndPoint();
+		for (Point p : ring)
+		{
+			if (((p.getY() > y) != (prev.getY() > y))
+					&& (x < (prev.getX() - p.getX()) * (y - p.getY()) / (prev.getY() - p.getY()) + p.getX()))
+			{
+				inside = !inside;
+			}
+			prev = p;
+		}
+		return inside;
+	}
+
+	@Test
+	public void testEmpty()
+	{
+		Assert.assertFalse(new PreparedPolygon(new Polygon()).contains(0, 0));
+		Assert.assertFalse(new PreparedPolygon(new MultiPolygon()).contains(0, 0));
+		Assert.assertThrows(IllegalArgumentException.class, () -> new PreparedPolygon(new Point(1, 2)));
+	}
+
+	@Test
+	public void testHoles()
+	{
+		PreparedPolygon prepared = new PreparedPolygon(
+				WktParser.parse("POLYGON((0 0,10 0,10 10,0 10,0 0),(2 2,2 4,4 4,4 2,2 2),(6 6,6 8,8 8,8 6,6 6))"));
+		Assert.assertTrue(prepared.contains(1, 1));
+		Assert.assertTrue(prepared.contains(5, 5));
+		Assert.assertTrue(prepared.contains(new Point(9, 9.5)));
+		Assert.assertFalse(prepared.contains(3, 3));
+		Assert.assertFalse(prepared.contains(7, 7));
+		Assert.assertFalse(prepared.contains(-1, 5));
+		Assert.assertFalse(prepared.contains(11, 5));
+		Assert.assertFalse(prepared.contains(5, Double.NaN));
+	}
+
+	@Test
+	public void testMultiPolygon()
+	{
+		PreparedPolygon prepared = new PreparedPolygon(WktParser
+				.parse("MULTIPOLYGON(((0 0,10 0,10 10,0 10,0 0),(2 2,2 8,8 8,8 2,2 2)),((4 4,6 4,6 6,4 6,4 4)))"));
+		Assert.assertTrue(prepared.contains(1, 5));
+		Assert.assertFalse(prepared.contains(3, 5));
+		Assert.assertTrue(prepared.contains(5, 5));
+		Assert.assertFalse(prepared.contains(15, 5));
+	}
+
+	@Test
+	public void testRandom()
+	{
+		// star shaped polygon with many edges
+		LinearRing ring = new LinearRing();
+		Random random = new Random(42);
+		int n = 1000;
+		for (int i = 0; i < n; i++)
+		{
+			double angle = 2 * Math.PI * i / n;
+			double radius = 50 + random.nextDouble() * 50;
+			ring.add(new Point(Math.cos(angle) * radius, Math.sin(angle) * radius));
+		}
+		ring.close();
+		PreparedPolygon prepared = new PreparedPolygon(new Polygon(ring));
+		for (int i = 0; i < 10000; i++)
+		{
+			double x = random.nextDouble() * 220 - 110;
+			double y = random.nextDouble() * 220 - 110;
+			Assert.assertEquals(containsNaive(ring, x, y), prepared.contains(x, y));
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.algorithms.Reprojection;
+import io.github.sebasbaumh.postgis.text.WktParser;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class ReprojectionTest
+{
+	private static final double WEB_MERCATOR_MAX = 20037508.342789244;
+
+	private static void assertPoint(double x, double y, Point p, double tolerance)
+	{
+		Assert.assertEquals(x, p.getX(), tolerance);
+		Assert.assertEquals(y, p.getY(), tolerance);
+	}
+
+	@Test
+	public void testGeometry()
+	{
+		Geometry geom = WktParser
+				.parse("SRID=4326;GEOMETRYCOLLECTION(POINT(180 0 5),LINESTRING(0 0,-180 85.0511287798066))");
+		Assert.assertSame(geom, Reprojection.transform(geom, Reprojection.WEB_MERCATOR));
+		Assert.assertEquals(3857, geom.getSrid());
+		GeometryCollection gc = (GeometryCollection) geom;
+		Point p = (Point) gc.getGeometries().iterator().next();
+		Assert.assertEquals(3857, p.getSrid());
+		assertPoint(WEB_MERCATOR_MAX, 0, p, 1e-6);
+		// z is kept
+		Assert.assertEquals(5, p.getZ(), 0);
+		LineString ls = (LineString) gc.getGeometries().toArray()[1];
+		assertPoint(0, 0, ls.getStartPoint(), 1e-6);
+		assertPoint(-WEB_MERCATOR_MAX, WEB_MERCATOR_MAX, ls.getEndPoint(), 1e-3);
+		// and back
+		Reprojection.transform(geom, Reprojection.WGS84);
+		Assert.assertEquals(4326, geom.getSrid());
+		assertPoint(180, 0, p, 1e-9);
+		assertPoint(-180, 85.0511287798066, ls.getEndPoint(), 1e-9);
+		// unsupported SRIDs
+		Assert.assertThrows(IllegalArgumentException.class, () -> Reprojection.transform(new Point(1, 2), 4326));
+		Assert.assertThrows(IllegalArgumentException.class, () -> Reprojection.transform(geom, 31467));
+		Assert.assertFalse(Reprojection.isSupported(32661));
+		Assert.assertTrue(Reprojection.isSupported(32760));
+	}
+
+	@Test
+	public void testPacked()
+	{
+		double[] coords = new double[] { 99, 13.4, 52.5, 7, 2.2945, 48.8584, 8 };
+		Reprojection.transform(coords, 1, 2, 3, 4326, 32633);
+		Assert.assertEquals(99, coords[0], 0);
+		Assert.assertEquals(7, coords[3], 0);
+		Assert.assertEquals(8, coords[6], 0);
+		Reprojection.transform(coords, 1, 2, 3, 32633, 3857);
+		Reprojection.transform(coords, 1, 2, 3, 3857, 4326);
+		Assert.assertArrayEquals(new double[] { 99, 13.4, 52.5, 7, 2.2945, 48.8584, 8 }, coords, 1e-9);
+	}
+
+	@Test
+	public void testUtm()
+	{
+		// on the central meridian the northing is the scaled meridian arc length
+		Point p = new Point(3, 45);
+		p.setSrid(4326);
+		Reprojection.transform(p, 32631);
+		assertPoint(500000, 0.9996 * 4984944.378, p, 1e-3);
+		p = new Point(3, 0);
+		p.setSrid(4326);
+		Reprojection.transform(p, 32731);
+		assertPoint(500000, 10000000, p, 1e-6);
+		// round trips within the zones
+		Random random = new Random(42);
+		for (int i = 0; i < 1000; i++)
+		{
+			int zone = 1 + random.nextInt(60);
+			double lon = zone * 6 - 183 + random.nextDouble() * 6 - 3;
+			double lat = random.nextDouble() * 160 - 80;
+			p = new Point(lon, lat);
+			p.setSrid(4326);
+			Reprojection.transform(p, (lat >= 0 ? 32600 : 32700) + zone);
+			Reprojection.transform(p, 4326);
+			assertPoint(lon, lat, p, 1e-9);
+		}
+	}
+
+}
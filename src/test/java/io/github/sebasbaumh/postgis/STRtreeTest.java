@@ -0,0 +1,126 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.algorithms.STRtree;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class STRtreeTest
+{
+	private static List<Point> createPoints(int n)
+	{
+		Random random = new Random(42);
+		ArrayList<Point> points = new ArrayList<Point>();
+		for (int i = 0; i < n; i++)
+		{
+			points.add(new Point(random.nextDouble() * 1000, random.nextDouble() * 1000));
+		}
+		return points;
+	}
+
+	@Test
+	public void testEmpty()
+	{
+		STRtree<Geometry> tree = STRtree.build(Arrays.asList(new Point(), new LineString()));
+		Assert.assertEquals(0, tree.size());
+		Assert.assertTrue(tree.query(-1, -1, 1, 1).isEmpty());
+		Assert.assertTrue(tree.nearest(0, 0, 5).isEmpty());
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> STRtree.build(Collections.<Point> emptyList(), p -> p, 1));
+	}
+
+	@Test
+	public void testLines()
+	{
+		ArrayList<PGgeometry> geoms = new ArrayList<PGgeometry>();
+		for (int i = 0; i < 100; i++)
+		{
+			geoms.add(new PGgeometry(new LineString(Arrays.asList(new Point(i, 0), new Point(i + 0.5, 10)))));
+		}
+		geoms.add(new PGgeometry());
+		STRtree<PGgeometry> tree = STRtree.buildFromPGgeometries(geoms);
+		Assert.assertEquals(100, tree.size());
+		Assert.assertEquals(new HashSet<PGgeometry>(geoms.subList(10, 13)),
+				new HashSet<PGgeometry>(tree.query(10.4, 5, 12.2, 6)));
+		Assert.assertEquals(geoms.subList(50, 51), tree.nearest(50.2, 20, 1));
+	}
+
+	@Test
+	public void testNearest()
+	{
+		List<Point> points = createPoints(5000);
+		STRtree<Point> tree = STRtree.build(points);
+		Random random = new Random(1);
+		for (int q = 0; q < 100; q++)
+		{
+			double x = random.nextDouble() * 1200 - 100;
+			double y = random.nextDouble() * 1200 - 100;
+			ArrayList<Point> expected = new ArrayList<Point>(points);
+			expected.sort((a, b) -> Double.compare(Math.hypot(a.getX() - x, a.getY() - y),
+					Math.hypot(b.getX() - x, b.getY() - y)));
+			Assert.assertEquals(expected.subList(0, 10), tree.nearest(x, y, 10));
+		}
+		Assert.assertEquals(5000, tree.nearest(0, 0, 10000).size());
+	}
+
+	@Test
+	public void testQuery()
+	{
+		List<Point> points = createPoints(10000);
+		STRtree<Point> tree = STRtree.build(points);
+		Assert.assertEquals(points.size(), tree.size());
+		Random random = new Random(1);
+		for (int q = 0; q < 100; q++)
+		{
+			double minX = random.nextDouble() * 1000;
+			double minY = random.nextDouble() * 1000;
+			double maxX = minX + random.nextDouble() * 200;
+			double maxY = minY + random.nextDouble() * 200;
+			HashSet<Point> expected = new HashSet<Point>();
+			for (Point p : points)
+			{
+				if ((p.getX() >= minX) && (p.getX() <= maxX) && (p.getY() >= minY) && (p.getY() <= maxY))
+				{
+					expected.add(p);
+				}
+			}
+			List<Point> found = tree.query(minX, minY, maxX, maxY);
+			Assert.assertEquals(expected.size(), found.size());
+			Assert.assertEquals(expected, new HashSet<Point>(found));
+		}
+	}
+
+}
@@ -22,16 +22,131 @@
 
 package io.github.sebasbaumh.postgis;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+
 @SuppressWarnings("javadoc")
 public class SerializationTest extends DatabaseTestBase
 {
+	/**
+	 * A LINESTRING(0 1,2 3,4 5) with SRID 4326 serialized by a previous version using the default serialization.
+	 */
+	private static final String LEGACY_LINESTRING = "ACED000573720027696F2E6769746875622E73656261736261756D682E706F73746769732E4C696E65537472696E6700000000000001000200014C0006706F696E74737400154C6A6176612F7574696C2F41727261794C6973743B78720022696F2E6769746875622E73656261736261756D682E706F73746769732E4375727665000000000000010002000078720025696F2E6769746875622E73656261736261756D682E706F73746769732E47656F6D65747279000000000000010002000249000473726964490004747970657870000010E600000002737200136A6176612E7574696C2E41727261794C6973747881D21D99C7619D03000149000473697A6578700000000377040000000373720022696F2E6769746875622E73656261736261756D682E706F73746769732E506F696E7400000000000001000200044400016D44000178440001794400017A7871007E000300000000000000017FF800000000000000000000000000003FF00000000000007FF80000000000007371007E000700000000000000017FF8000000000000400000000000000040080000000000007FF80000000000007371007E000700000000000000017FF8000000000000401000000000000040140000000000007FF800000000000078";
+
+	private static Object deserialize(byte[] data) throws IOException, ClassNotFoundException
+	{
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data)))
+		{
+			return in.readObject();
+		}
+	}
+
+	private static byte[] serialize(Object o) throws IOException
+	{
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bos))
+		{
+			out.writeObject(o);
+		}
+		return bos.toByteArray();
+	}
+
+	private static void testRoundTrip(Geometry geom) throws Exception
+	{
+		Object o = deserialize(serialize(geom));
+		Assert.assertEquals(geom.getClass(), o.getClass());
+		Assert.assertEquals(geom, o);
+		Assert.assertEquals(geom.getNumberOfCoordinates(), ((Geometry) o).getNumberOfCoordinates());
+	}
+
+	@Test
+	public void serializationCompact() throws Exception
+	{
+		LineString ls = new LineString();
+		for (int i = 0; i < 1000; i++)
+		{
+			ls.add(new Point(i, i * 2));
+		}
+		ls.setSrid(4326);
+		byte[] data = serialize(ls);
+		// EWKB needs 16 bytes per point, allow some overhead for the stream header and class descriptor
+		Assert.assertTrue("serialized size too large: " + data.length, data.length < 1000 * 16 + 200);
+		Assert.assertEquals(ls, deserialize(data));
+	}
+
+	@Test
+	public void serializationGeometriesLocal() throws Exception
+	{
+		//@formatter:off
+		String[] wkbs = new String[] {
+			// POINT(10 10)
+			"010100000000000000000024400000000000002440",
+			// SRID=4326;LINESTRING(0 1,2 3,4 5)
+			"0102000020E6100000030000000000000000000000000000000000F03F0000000000000040000000000000084000000000000010400000000000001440",
+			// POLYGON with a hole
+			"0103000000020000000500000000000000000000000000000000000000000000000000244000000000000000000000000000002440000000000000244000000000000000000000000000002440000000000000000000000000000000000500000000000000000000400000000000000040000000000000004000000000000010400000000000001040000000000000104000000000000010400000000000000040000000000000004000000000000000400000",
+			// MULTIPOINT ZM
+			"01040000C00200000001010000C0000000000000264000000000000028400000000000002A400000000000002C4001010000C00000000000003440000000000000344000000000000034400000000000003440",
+			// GEOMETRYCOLLECTION Z
+			"01070000800200000001010000800000000000002440000000000000244000000000000034400101000080000000000000344000000000000034400000000000003440",
+			// CIRCULARSTRING
+			"01080000000300000000000000000022C0000000000000004000000000000020C000000000000008400000000000001CC00000000000000040",
+			// COMPOUNDCURVE
+			"01090000000200000001080000000300000000000000000000000000000000000000000000000000F03F000000000000F03F000000000000F03F0000000000000000010200000002000000000000000000F03F00000000000000000000000000000000000000000000F03F",
+			// empty GEOMETRYCOLLECTION
+			"010700000000000000" };
+		//@formatter:on
+		for (String wkb : wkbs)
+		{
+			testRoundTrip(BinaryParser.parse(wkb));
+		}
+		// 3d polygon without holes
+		ArrayList<Point> points = new ArrayList<Point>();
+		points.add(new Point(0, 0, 1));
+		points.add(new Point(1, 0, 2));
+		points.add(new Point(1, 1, 3));
+		points.add(new Point(0, 0, 1));
+		testRoundTrip(new Polygon(new LinearRing(points)));
+		// linear rings have no EWKB representation on their own
+		LinearRing ring = new LinearRing(points);
+		ring.setSrid(4326);
+		testRoundTrip(ring);
+	}
+
+	@Test
+	public void serializationLegacyFormat() throws Exception
+	{
+		Object o = deserialize(PostGisUtil.toHexBytes(LEGACY_LINESTRING));
+		Assert.assertEquals(BinaryParser.parse(
+				"0102000020E6100000030000000000000000000000000000000000F03F0000000000000040000000000000084000000000000010400000000000001440"),
+				o);
+	}
+
+	@Test
+	public void serializationPGgeometryLocal() throws Exception
+	{
+		Geometry geom = BinaryParser.parse(
+				"0102000020E6100000030000000000000000000000000000000000F03F0000000000000040000000000000084000000000000010400000000000001440");
+		PGgeometry pgeom = new PGgeometry(geom);
+		// make sure the cached binary data is there
+		Assert.assertTrue(pgeom.lengthInBytes() > 0);
+		Object o = deserialize(serialize(pgeom));
+		Assert.assertEquals(PGgeometry.class, o.getClass());
+		Assert.assertEquals(pgeom, o);
+		Assert.assertEquals(pgeom.lengthInBytes(), ((PGgeometry) o).lengthInBytes());
+		PGgeography pgeog = new PGgeography(geom);
+		Assert.assertEquals(pgeog, deserialize(serialize(pgeog)));
+	}
 
 	@Test
 	public void serializationCheckPGgeometry() throws Exception
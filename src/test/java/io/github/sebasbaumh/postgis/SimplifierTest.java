@@ -0,0 +1,117 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.algorithms.DouglasPeuckerSimplifier;
+import io.github.sebasbaumh.postgis.algorithms.Simplifier;
+import io.github.sebasbaumh.postgis.algorithms.VisvalingamSimplifier;
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+import io.github.sebasbaumh.postgis.text.WktParser;
+import io.github.sebasbaumh.postgis.text.WktWriter;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class SimplifierTest
+{
+	private static void assertSimplified(Simplifier simplifier, String expected, String wkt)
+	{
+		Geometry geom = WktParser.parse(wkt);
+		Geometry simplified = simplifier.simplify(geom);
+		Assert.assertEquals(expected, WktWriter.writeEwkt(simplified));
+		// simplifying while parsing gives the same result
+		Assert.assertEquals(simplified, BinaryParser.parse(BinaryWriter.writeHexed(geom), simplifier));
+		Assert.assertEquals(simplified, BinaryParser.parse(BinaryWriter.writeBinary(geom), 0, simplifier));
+	}
+
+	@Test
+	public void testDouglasPeucker()
+	{
+		Simplifier dp = new DouglasPeuckerSimplifier(0.5);
+		assertSimplified(dp, "LINESTRING(0 0,3 0)", "LINESTRING(0 0,1 0.1,2 -0.1,3 0)");
+		assertSimplified(new DouglasPeuckerSimplifier(0.05), "LINESTRING(0 0,1 0.1,2 -0.1,3 0)",
+				"LINESTRING(0 0,1 0.1,2 -0.1,3 0)");
+		assertSimplified(dp, "LINESTRING(0 0,10 0,10 10)", "LINESTRING(0 0,5 0.1,10 0,10 10)");
+		// z and m values are kept
+		assertSimplified(dp, "SRID=4326;LINESTRING(0 0 1 2,10 0 3 4,10 10 5 6)",
+				"SRID=4326;LINESTRING(0 0 1 2,5 0.1 7 7,10 0 3 4,10 10 5 6)");
+		assertSimplified(dp, "POLYGON((0 0,10 0,10 10,0 10,0 0),(2 2,2 4,4 4,4 2,2 2))",
+				"POLYGON((0 0,5 0.01,10 0,10 10,0 10,0 0),(2 2,2 4,3 4.01,4 4,4 2,2 2))");
+		assertSimplified(dp, "MULTILINESTRING((0 0,3 0),(0 1,3 1))",
+				"MULTILINESTRING((0 0,1 0.1,3 0),(0 1,1 1.1,3 1))");
+		assertSimplified(dp, "GEOMETRYCOLLECTION(POINT(1 2),LINESTRING(0 0,3 0))",
+				"GEOMETRYCOLLECTION(POINT(1 2),LINESTRING(0 0,1 0.1,3 0))");
+	}
+
+	@Test
+	public void testLongLine()
+	{
+		// a long line must not need a deep stack
+		LineString ls = new LineString();
+		for (int i = 0; i < 100000; i++)
+		{
+			ls.add(new Point(i, (i % 2) * 10));
+		}
+		Assert.assertEquals(100000, new DouglasPeuckerSimplifier(1).simplify(ls).getNumberOfCoordinates());
+		Assert.assertEquals(2, new DouglasPeuckerSimplifier(10).simplify(ls).getNumberOfCoordinates());
+		Assert.assertEquals(2, new VisvalingamSimplifier(1e9).simplify(ls).getNumberOfCoordinates());
+	}
+
+	@Test
+	public void testRings()
+	{
+		// a ring is not collapsed
+		String square = "POLYGON((0 0,10 0,10 10,0 10,0 0))";
+		assertSimplified(new DouglasPeuckerSimplifier(100), square, square);
+		assertSimplified(new VisvalingamSimplifier(1000), square, square);
+		assertSimplified(new DouglasPeuckerSimplifier(0.1), square, "POLYGON((0 0,5 0.01,10 0,10 10,0 10,0 0))");
+	}
+
+	@Test
+	public void testUnchanged()
+	{
+		Simplifier dp = new DouglasPeuckerSimplifier(100);
+		Geometry geom = WktParser.parse("CIRCULARSTRING(0 0,1 1,2 0)");
+		Assert.assertSame(geom, dp.simplify(geom));
+		geom = WktParser.parse("MULTIPOINT(0 0,1 1,2 0)");
+		Assert.assertSame(geom, dp.simplify(geom));
+		Assert.assertThrows(IllegalArgumentException.class, () -> new VisvalingamSimplifier(-1));
+		Assert.assertThrows(IllegalArgumentException.class, () -> new DouglasPeuckerSimplifier(Double.NaN));
+	}
+
+	@Test
+	public void testVisvalingam()
+	{
+		assertSimplified(new VisvalingamSimplifier(0.2), "LINESTRING(0 0,3 0)", "LINESTRING(0 0,1 0.1,2 -0.1,3 0)");
+		assertSimplified(new VisvalingamSimplifier(0.1), "LINESTRING(0 0,1 0.1,2 -0.1,3 0)",
+				"LINESTRING(0 0,1 0.1,2 -0.1,3 0)");
+		assertSimplified(new VisvalingamSimplifier(1), "MULTIPOLYGON(((0 0,10 0,10 10,0 10,0 0)))",
+				"MULTIPOLYGON(((0 0,5 0.01,10 0,10 10,0 10,0 0)))");
+	}
+
+}
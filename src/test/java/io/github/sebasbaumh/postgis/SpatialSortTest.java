@@ -0,0 +1,155 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.algorithms.SpatialSort;
+import io.github.sebasbaumh.postgis.algorithms.SpatialSort.Order;
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+import io.github.sebasbaumh.postgis.text.WktParser;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class SpatialSortTest
+{
+	@Test
+	public void testEnvelope()
+	{
+		double[] envelope = new double[4];
+		Assert.assertTrue(BinaryParser.parseEnvelope(BinaryWriter.writeBinary(
+				WktParser.parse("SRID=4326;GEOMETRYCOLLECTION(POINT(1 2 3),POLYGON((0 0,10 0,10 -5,0 0)))")), 0,
+				envelope));
+		Assert.assertArrayEquals(new double[] { 0, -5, 10, 2 }, envelope, 0);
+		Assert.assertTrue(BinaryParser
+				.parseEnvelope(BinaryWriter.writeBinary(WktParser.parse("LINESTRING M(3 4 5,-1 8 9)")), 0, envelope));
+		Assert.assertArrayEquals(new double[] { -1, 4, 3, 8 }, envelope, 0);
+		Assert.assertFalse(BinaryParser.parseEnvelope(BinaryWriter.writeBinary(new Point()), 0, envelope));
+	}
+
+	@Test
+	public void testHilbertKey()
+	{
+		// quadrants are visited in the order lower left, upper left, upper right, lower right
+		long q = 1L << 30;
+		Assert.assertEquals(0, SpatialSort.getHilbertKey(0, 0));
+		Assert.assertEquals(q, SpatialSort.getHilbertKey(0, 32768) & ~(q - 1));
+		Assert.assertEquals(2 * q, SpatialSort.getHilbertKey(32768, 32768) & ~(q - 1));
+		Assert.assertEquals(3 * q, SpatialSort.getHilbertKey(65535, 0) & ~(q - 1));
+		Assert.assertEquals((1L << 32) - 1, SpatialSort.getHilbertKey(65535, 0));
+		// the first 256 keys fill a 16x16 square and consecutive cells are neighbors
+		int[] cells = new int[256];
+		Arrays.fill(cells, -1);
+		for (int x = 0; x < 16; x++)
+		{
+			for (int y = 0; y < 16; y++)
+			{
+				long key = SpatialSort.getHilbertKey(x, y);
+				Assert.assertTrue(key < 256);
+				Assert.assertEquals(-1, cells[(int) key]);
+				cells[(int) key] = x * 16 + y;
+			}
+		}
+		for (int i = 1; i < 256; i++)
+		{
+			int dx = Math.abs(cells[i] / 16 - cells[i - 1] / 16);
+			int dy = Math.abs(cells[i] % 16 - cells[i - 1] % 16);
+			Assert.assertEquals(1, dx + dy);
+		}
+	}
+
+	@Test
+	public void testMortonKey()
+	{
+		Assert.assertEquals(0, SpatialSort.getMortonKey(0, 0));
+		Assert.assertEquals(1, SpatialSort.getMortonKey(1, 0));
+		Assert.assertEquals(2, SpatialSort.getMortonKey(0, 1));
+		Assert.assertEquals(3, SpatialSort.getMortonKey(1, 1));
+		Assert.assertEquals(0b0101, SpatialSort.getMortonKey(0b11, 0));
+		Assert.assertEquals(0b1010, SpatialSort.getMortonKey(0, 0b11));
+		Assert.assertEquals((1L << 32) - 1, SpatialSort.getMortonKey(65535, 65535));
+	}
+
+	@Test
+	public void testSort()
+	{
+		Random random = new Random(42);
+		ArrayList<Geometry> geoms = new ArrayList<Geometry>();
+		for (int i = 0; i < 1000; i++)
+		{
+			double x = random.nextDouble() * 100;
+			double y = random.nextDouble() * 100;
+			geoms.add(new LineString(Arrays.asList(new Point(x, y), new Point(x + 1, y + 1))));
+		}
+		geoms.add(10, new Point());
+		for (Order order : Order.values())
+		{
+			List<Geometry> sorted = SpatialSort.sort(geoms, order);
+			Assert.assertEquals(geoms.size(), sorted.size());
+			// empty geometries are placed at the end
+			Assert.assertTrue(sorted.get(sorted.size() - 1).isEmpty());
+			// sorting binary geometries gives the same order
+			ArrayList<byte[]> records = new ArrayList<byte[]>();
+			for (Geometry geom : geoms)
+			{
+				records.add(BinaryWriter.writeBinary(geom));
+			}
+			List<byte[]> sortedRecords = SpatialSort.sortBinary(records, order);
+			for (int i = 0; i < sorted.size(); i++)
+			{
+				Assert.assertEquals(sorted.get(i), BinaryParser.parse(sortedRecords.get(i), 0));
+			}
+			// consecutive geometries are much closer than in random order
+			Assert.assertTrue(getPathLength(sorted) * 10 < getPathLength(geoms));
+		}
+	}
+
+	private static double getPathLength(List<Geometry> geoms)
+	{
+		double length = 0;
+		Point prev = null;
+		for (Geometry geom : geoms)
+		{
+			if (geom instanceof LineString)
+			{
+				Point p = ((LineString) geom).getStartPoint();
+				if (prev != null)
+				{
+					length += prev.distance(p);
+				}
+				prev = p;
+			}
+		}
+		return length;
+	}
+
+}
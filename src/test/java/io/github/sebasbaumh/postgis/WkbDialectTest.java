@@ -0,0 +1,125 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter;
+import io.github.sebasbaumh.postgis.binary.BinaryWriter.WkbDialect;
+import io.github.sebasbaumh.postgis.binary.CompactGeometry;
+import io.github.sebasbaumh.postgis.columnar.GeometryBatch;
+import io.github.sebasbaumh.postgis.columnar.GeometryBatch.CoordinateLayout;
+import io.github.sebasbaumh.postgis.columnar.GeometryBatch.GeometryType;
+import io.github.sebasbaumh.postgis.columnar.GeometryBatchBuilder;
+import io.github.sebasbaumh.postgis.text.WktParser;
+import io.github.sebasbaumh.postgis.text.WktWriter;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class WkbDialectTest
+{
+	private static final String[] WKT = { "POINT(1 2)", "POINT(1 2 3)", "POINTM(1 2 3)", "POINT(1 2 3 4)",
+			"LINESTRING(0 0 1,1 1 2)", "POLYGON((0 0,0 1,1 1,0 0))", "MULTIPOINT((1 2 3 4),(5 6 7 8))",
+			"GEOMETRYCOLLECTION(POINT(1 2 3),LINESTRING(0 0 1,1 1 2))", "CIRCULARSTRING(0 0,1 1,2 0)" };
+
+	@Test
+	public void testBatch()
+	{
+		Geometry geom = WktParser.parse("MULTILINESTRING((0 0 1,1 1 2),(2 2 3,3 3 4))");
+		GeometryBatch batch = new GeometryBatchBuilder(GeometryType.MULTILINESTRING, true, false,
+				CoordinateLayout.INTERLEAVED).addBinary(BinaryWriter.writeBinary(geom, WkbDialect.ISO), 0)
+				.addHexed(BinaryWriter.writeHexed(geom, WkbDialect.ISO)).build();
+		Assert.assertEquals(2, batch.size());
+		Assert.assertTrue(batch.is3d());
+		Assert.assertArrayEquals(new double[] { 0, 0, 1, 1, 1, 2, 2, 2, 3, 3, 3, 4, 0, 0, 1, 1, 1, 2, 2, 2, 3, 3, 3, 4 },
+				batch.getCoordinates(), 0);
+		Assert.assertEquals(geom, batch.getGeometry(1));
+	}
+
+	@Test
+	public void testCompactHexed()
+	{
+		Geometry geom = WktParser.parse("LINESTRING(0 0 1,1 1 2)");
+		CompactGeometry compact = BinaryParser.parseCompact(BinaryWriter.writeHexed(geom));
+		Assert.assertEquals(BinaryWriter.writeHexed(geom, WkbDialect.ISO),
+				BinaryWriter.writeHexed(compact, WkbDialect.ISO));
+		Assert.assertEquals(BinaryWriter.writeHexed(geom), BinaryWriter.writeHexed(compact));
+	}
+
+	@Test
+	public void testEnvelope()
+	{
+		double[] envelope = new double[4];
+		Assert.assertTrue(BinaryParser.parseEnvelope(
+				BinaryWriter.writeBinary(WktParser.parse("LINESTRING(0 0 1 5,4 3 2 6)"), WkbDialect.ISO), 0, envelope));
+		Assert.assertArrayEquals(new double[] { 0, 0, 4, 3 }, envelope, 0);
+	}
+
+	@Test
+	public void testIsoHex()
+	{
+		// POINT Z (1 2 3) as written by ST_AsBinary
+		String hex = "01E9030000000000000000F03F00000000000000400000000000000840";
+		Geometry geom = BinaryParser.parse(hex);
+		Assert.assertEquals("POINT(1 2 3)", WktWriter.writeEwkt(geom));
+		Assert.assertEquals(hex, BinaryWriter.writeHexed(geom, WkbDialect.ISO));
+		// POINT ZM (1 2 3 4) in big endian
+		geom = BinaryParser
+				.parse("0000000BB93FF0000000000000400000000000000040080000000000004010000000000000");
+		Assert.assertEquals("POINT(1 2 3 4)", WktWriter.writeEwkt(geom));
+	}
+
+	@Test
+	public void testRoundtrip()
+	{
+		for (String wkt : WKT)
+		{
+			Geometry geom = WktParser.parse("SRID=4326;" + wkt);
+			// ISO WKB has no SRID
+			Geometry iso = BinaryParser.parse(BinaryWriter.writeBinary(geom, WkbDialect.ISO), 0);
+			Assert.assertEquals(wkt, WktWriter.writeEwkt(iso));
+			Assert.assertEquals(Geometry.UNKNOWN_SRID, iso.getSrid());
+			// EWKB keeps it
+			Assert.assertEquals(geom, BinaryParser.parse(BinaryWriter.writeHexed(geom, WkbDialect.EWKB)));
+			Assert.assertEquals(BinaryWriter.writeHexed(geom), BinaryWriter.writeHexed(geom, WkbDialect.EWKB));
+		}
+		// 2d geometries without SRID are the same in both dialects
+		Geometry geom = WktParser.parse("MULTIPOLYGON(((0 0,0 1,1 1,0 0)))");
+		Assert.assertEquals(BinaryWriter.writeHexed(geom), BinaryWriter.writeHexed(geom, WkbDialect.ISO));
+	}
+
+	@Test
+	public void testTin()
+	{
+		Tin tin = new Tin(new double[] { 0, 0, 1, 1, 0, 2, 0, 1, 3 }, 1, true, false);
+		String hex = BinaryWriter.writeHexed(tin, WkbDialect.ISO);
+		// TIN Z with TRIANGLE Z
+		Assert.assertTrue(hex.startsWith("01F8030000" + "01000000" + "01F9030000"));
+		Assert.assertEquals(tin, BinaryParser.parse(hex));
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * PostGIS extension for PostgreSQL JDBC driver
+ *
+ * (C) 2004 Paul Ramsey, pramsey@refractions.net
+ * (C) 2005 Markus Schaber, markus.schaber@logix-tt.com
+ * (C) 2015 Phillip Ross, phillip.w.g.ross@gmail.com
+ * (C) 2018-2023 Sebastian Baumhekel, sebastian.baumhekel@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.sebasbaumh.postgis;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.github.sebasbaumh.postgis.binary.BinaryParser;
+import io.github.sebasbaumh.postgis.text.WktParser;
+import io.github.sebasbaumh.postgis.text.WktWriter;
+
+/**
+ * @author Sebastian Baumhekel
+ */
+@SuppressWarnings({ "javadoc", "static-method" })
+public class WktTest
+{
+	//@formatter:off
+	private static final String[] EWKT = new String[] {
+			"POINT(1 2)",
+			"SRID=4326;POINT(1.5 -2.25)",
+			"POINT(1 2 3)",
+			"POINTM(1 2 3)",
+			"POINT(1 2 3 4)",
+			"POINT EMPTY",
+			"LINESTRING(0 0,1 1,2 0.5)",
+			"SRID=3857;LINESTRINGM(0 0 1,1 1 2)",
+			"POLYGON((0 0,0 10,10 10,10 0,0 0),(2 2,2 4,4 4,4 2,2 2))",
+			"MULTIPOINT((1 2),(3 4))",
+			"MULTILINESTRING((0 0,1 1),(2 2,3 3))",
+			"MULTIPOLYGON(((0 0,0 1,1 1,1 0,0 0)),((5 5,5 6,6 6,6 5,5 5)))",
+			"GEOMETRYCOLLECTION(POINT(1 2),LINESTRING(0 0,1 1))",
+			"GEOMETRYCOLLECTION EMPTY",
+			"CIRCULARSTRING(0 0,1 1,2 0)",
+			"COMPOUNDCURVE(CIRCULARSTRING(0 0,1 1,1 0),(1 0,0 1))",
+			"CURVEPOLYGON(CIRCULARSTRING(0 0,4 0,4 4,0 4,0 0),(1 1,1 3,3 3,3 1,1 1))",
+			"MULTICURVE((0 0,5 5),CIRCULARSTRING(4 0,4 4,8 4))",
+			"MULTISURFACE(CURVEPOLYGON(CIRCULARSTRING(0 0,4 0,4 4,0 4,0 0)),((10 10,10 14,14 14,14 10,10 10)))" };
+	//@formatter:on
+
+	@Test
+	public void testEwktRoundTrip()
+	{
+		for (String ewkt : EWKT)
+		{
+			Geometry geom = WktParser.parse(ewkt);
+			Assert.assertEquals(ewkt, WktWriter.writeEwkt(geom));
+			// ISO WKT does not contain the SRID
+			Geometry geomIso = WktParser.parse(WktWriter.writeWkt(geom));
+			geomIso.setSrid(geom.getSrid());
+			Assert.assertEquals(geom, geomIso);
+		}
+	}
+
+	@Test
+	public void testIsoWkt()
+	{
+		Assert.assertEquals("POINT Z (1 2 3)", WktWriter.writeWkt(new Point(1, 2, 3)));
+		Assert.assertEquals("POINT M (1 2 3)", WktWriter.writeWkt(new Point(1, 2, Double.NaN, 3)));
+		Assert.assertEquals("POINT EMPTY", WktWriter.writeWkt(WktParser.parse("point m empty")));
+		Geometry geom = WktParser.parse("MULTILINESTRING ZM ((0 0 1 2, 1 1 3 4))");
+		Assert.assertTrue(geom.is3d());
+		Assert.assertTrue(geom.hasMeasure());
+		Assert.assertEquals("MULTILINESTRING ZM ((0 0 1 2,1 1 3 4))", WktWriter.writeWkt(geom));
+		// measure is inherited from the parent geometry
+		Point p = (Point) ((GeometryCollection) WktParser.parse("GEOMETRYCOLLECTION M (POINT(1 2 3))")).iterator()
+				.next();
+		Assert.assertEquals(3, p.getM(), 0);
+		Assert.assertTrue(Double.isNaN(p.getZ()));
+	}
+
+	@Test
+	public void testMatchesBinary()
+	{
+		Assert.assertEquals(
+				BinaryParser.parse(
+						"0108000000050000000000000000000000000000000000F0BF000000000000F0BF00000000000000000000000000000000000000000000F03F000000000000F03F00000000000000000000000000000000000000000000F0BF"),
+				WktParser.parse("CIRCULARSTRING(0 -1,-1 0,0 1,1 0,0 -1)"));
+		Assert.assertEquals(new MultiPoint(java.util.Arrays.asList(new Point(1, 2), new Point(3, 4))),
+				WktParser.parse("MULTIPOINT(1 2, 3 4)"));
+	}
+
+	@Test
+	public void testNumbers()
+	{
+		String[] numbers = new String[] { "0.1", "-0.3", "1e-7", "2.5E+10", "123456789.123456789", "0.000001234",
+				"1.7976931348623157E308", "4.9E-324", "12345678901234567890123", ".5" };
+		for (String s : numbers)
+		{
+			Point p = (Point) WktParser.parse("POINT(" + s + " 0)");
+			Assert.assertEquals(s, Double.doubleToLongBits(Double.parseDouble(s)), Double.doubleToLongBits(p.getX()));
+			// writing and parsing again keeps the exact value
+			Point p2 = (Point) WktParser.parse(WktWriter.writeEwkt(p));
+			Assert.assertEquals(s, Double.doubleToLongBits(p.getX()), Double.doubleToLongBits(p2.getX()));
+		}
+		Assert.assertEquals("POINT(0.1 1)", WktWriter.writeEwkt(new Point(0.1, 1.0)));
+	}
+
+	@Test
+	public void testParseErrors()
+	{
+		String[] invalid = new String[] { "", "POINT(1)", "POINT(1 2", "FOO(1 2)", "POINT(1 2) x", "SRID=4326POINT(1 2)",
+				"MULTIPOLYGON(POINT(1 2))", "LINESTRING(1 2,)" };
+		for (String s : invalid)
+		{
+			try
+			{
+				WktParser.parse(s);
+				Assert.fail("no exception for: " + s);
+			}
+			catch (IllegalArgumentException ex)
+			{
+				// expected
+			}
+		}
+	}
+
+}